@@ -0,0 +1,188 @@
+package com.eteration.simplebanking.reactive.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the same load against the servlet and the reactive application and prints their throughput,
+ * latency percentiles, rejected requests and the number of live JVM threads each needed.
+ * Every connection is a client of its own looping over account lookups with a credit every fifth request,
+ * so the connection count is the concurrency the server has to hold. Both applications must be running,
+ * ideally against the same database, before the comparison is started:
+ *
+ * <pre>
+ * $ gradle bootRun
+ * $ gradle :reactive:bootRun
+ * $ gradle :reactive:loadComparison -Pconnections=1000 -Pduration=30s
+ * </pre>
+ */
+public final class LoadComparison {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+
+    private static final int CREDIT_EVERY = 5;
+
+    private LoadComparison() {
+    }
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args The servlet base url, the reactive base url, the number of connections and the duration, e.g. 30s.
+     */
+    public static void main(String[] args) {
+
+        String servletUrl = args[0];
+        String reactiveUrl = args[1];
+        int connections = Integer.parseInt(args[2]);
+        Duration duration = Duration.parse("PT" + args[3].toUpperCase());
+
+        Result servlet = run("servlet", servletUrl, connections, duration);
+        Result reactive = run("reactive", reactiveUrl, connections, duration);
+
+        System.out.printf("%n%-10s %12s %10s %10s %10s %10s %10s %10s%n",
+                "stack", "requests/s", "p50 ms", "p99 ms", "max ms", "errors", "rejected", "threads");
+        servlet.print();
+        reactive.print();
+    }
+
+    private static Result run(String name, String baseUrl, int connections, Duration duration) {
+
+        ConnectionProvider provider = ConnectionProvider.builder(name)
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(provider)
+                .baseUrl(baseUrl)
+                .headers(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON));
+
+        try {
+            String accountNumber = createAccount(client);
+
+            System.out.printf("Warming up %s at %s for %s%n", name, baseUrl, WARMUP);
+            drive(client, accountNumber, connections, WARMUP);
+
+            System.out.printf("Measuring %s with %d connections for %s%n", name, connections, duration);
+            Result result = drive(client, accountNumber, connections, duration);
+            result.name = name;
+            result.threads = liveThreads(client);
+            return result;
+        } finally {
+            provider.disposeLater().block();
+        }
+    }
+
+    private static Result drive(HttpClient client, String accountNumber, int connections, Duration duration) {
+
+        Result result = new Result();
+        long deadline = System.nanoTime() + duration.toNanos();
+        String lookupUri = "/api/v1/account/account-number/" + accountNumber;
+        String creditBody = "{\"accountNumber\":\"" + accountNumber + "\",\"amount\":0.01}";
+
+        long start = System.nanoTime();
+        Flux.range(0, connections)
+                .flatMap(connection -> Flux.range(0, Integer.MAX_VALUE)
+                        .concatMap(request -> {
+                            long sent = System.nanoTime();
+                            Mono<Integer> status = request % CREDIT_EVERY == 0
+                                    ? client.post().uri("/api/v1/account/credit")
+                                            .send(ByteBufFlux.fromString(Mono.just(creditBody)))
+                                            .responseSingle((response, body) -> body.thenReturn(response.status().code()))
+                                    : client.get().uri(lookupUri)
+                                            .responseSingle((response, body) -> body.thenReturn(response.status().code()));
+                            return status.onErrorReturn(-1)
+                                    .doOnNext(code -> result.record(code, System.nanoTime() - sent));
+                        })
+                        .takeWhile(code -> System.nanoTime() < deadline), connections)
+                .blockLast();
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static String createAccount(HttpClient client) {
+        String response = client.post().uri("/api/v1/account/create")
+                .send(ByteBufFlux.fromString(Mono.just("{\"owner\":\"Load Comparison\"}")))
+                .responseContent()
+                .aggregate()
+                .asString()
+                .block();
+        return read(response).get("accountNumber").asText();
+    }
+
+    private static long liveThreads(HttpClient client) {
+        String response = client.get().uri("/actuator/metrics/jvm.threads.live")
+                .responseContent()
+                .aggregate()
+                .asString()
+                .block();
+        return read(response).get("measurements").get(0).get("value").asLong();
+    }
+
+    private static JsonNode read(String json) {
+        try {
+            return OBJECT_MAPPER.readTree(json);
+        } catch (Exception exception) {
+            throw new IllegalStateException("Unexpected response: " + json, exception);
+        }
+    }
+
+    /**
+     * The outcome of driving one application.
+     */
+    private static final class Result {
+
+        private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        private String name;
+
+        private long elapsedNanos;
+
+        private long threads;
+
+        private void record(int status, long latencyNanos) {
+            latencies.recordValue(Math.min(latencyNanos, latencies.getHighestTrackableValue()));
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+
+        private long count(int status) {
+            LongAdder adder = statuses.get(status);
+            return adder == null ? 0 : adder.sum();
+        }
+
+        private void print() {
+            long requests = latencies.getTotalCount();
+            long rejected = count(503);
+            long errors = requests - count(200) - rejected;
+            System.out.printf("%-10s %12.0f %10.2f %10.2f %10.2f %10d %10d %10d%n",
+                    name,
+                    requests / (elapsedNanos / 1e9),
+                    latencies.getValueAtPercentile(50) / 1e6,
+                    latencies.getValueAtPercentile(99) / 1e6,
+                    latencies.getMaxValue() / 1e6,
+                    errors,
+                    rejected,
+                    threads);
+        }
+
+    }
+
+}
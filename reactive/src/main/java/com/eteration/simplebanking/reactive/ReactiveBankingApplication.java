@@ -0,0 +1,26 @@
+package com.eteration.simplebanking.reactive;
+
+import com.eteration.simplebanking.config.ApprovalCodeProperties;
+import com.eteration.simplebanking.config.HistoryProperties;
+import com.eteration.simplebanking.services.approval.TimeOrderedApprovalCodeGenerator;
+import com.eteration.simplebanking.services.approval.UuidApprovalCodeGenerator;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Reactive variant of the Simple Banking App, serving the account API on WebFlux over R2DBC.
+ * Only this package is scanned; the approval code generators and the shared configuration properties
+ * of the servlet application are imported explicitly.
+ */
+@SpringBootApplication
+@EnableConfigurationProperties({ApprovalCodeProperties.class, HistoryProperties.class})
+@Import({UuidApprovalCodeGenerator.class, TimeOrderedApprovalCodeGenerator.class})
+public class ReactiveBankingApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveBankingApplication.class, args);
+	}
+
+}
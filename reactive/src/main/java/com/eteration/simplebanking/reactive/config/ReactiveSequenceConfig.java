@@ -0,0 +1,55 @@
+package com.eteration.simplebanking.reactive.config;
+
+import com.eteration.simplebanking.reactive.services.ReactiveBlockSequence;
+import com.eteration.simplebanking.services.allocation.AccountNumberSpace;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Configuration class creating the sequences the reactive application draws ids and account numbers from.
+ * The allocation sizes match the sequence generators of the JPA entities and the account number allocator
+ * of the servlet application, so both applications can share one database.
+ */
+@Configuration
+public class ReactiveSequenceConfig {
+
+    /**
+     * The allocation size of the account and transaction id sequences.
+     */
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Creates the sequence of the account ids.
+     *
+     * @param databaseClient The client calling the sequence.
+     * @return The account id sequence.
+     */
+    @Bean
+    public ReactiveBlockSequence accountIds(DatabaseClient databaseClient) {
+        return ReactiveBlockSequence.pooled(databaseClient, "account_seq", ID_ALLOCATION_SIZE);
+    }
+
+    /**
+     * Creates the sequence of the transaction ids.
+     *
+     * @param databaseClient The client calling the sequence.
+     * @return The transaction id sequence.
+     */
+    @Bean
+    public ReactiveBlockSequence transactionIds(DatabaseClient databaseClient) {
+        return ReactiveBlockSequence.pooled(databaseClient, "transaction_seq", ID_ALLOCATION_SIZE);
+    }
+
+    /**
+     * Creates the sequence of the account number ordinals.
+     *
+     * @param databaseClient The client calling the sequence.
+     * @return The account number ordinal sequence.
+     */
+    @Bean
+    public ReactiveBlockSequence accountNumberOrdinals(DatabaseClient databaseClient) {
+        return ReactiveBlockSequence.indexed(databaseClient, AccountNumberSpace.SEQUENCE_NAME, AccountNumberSpace.BLOCK_SIZE);
+    }
+
+}
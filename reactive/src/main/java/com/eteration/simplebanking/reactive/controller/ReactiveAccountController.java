@@ -0,0 +1,121 @@
+package com.eteration.simplebanking.reactive.controller;
+
+import com.eteration.simplebanking.model.enums.TransactionType;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreatePhoneBillPaymentRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.request.TransactionHistoryRequest;
+import com.eteration.simplebanking.payload.response.AccountDetailInfo;
+import com.eteration.simplebanking.payload.response.CreatedAccountResponse;
+import com.eteration.simplebanking.payload.response.TransactionHistoryResponse;
+import com.eteration.simplebanking.payload.response.TransactionResponse;
+import com.eteration.simplebanking.reactive.services.ReactiveAccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Controller class serving the account API of the Simple Banking App on WebFlux, with the same paths,
+ * request and response bodies as the servlet controller. Every endpoint returns without blocking,
+ * so the event loop threads are never tied up while the database works.
+ */
+@RestController
+@RequestMapping("/api/v1/account")
+@RequiredArgsConstructor
+public class ReactiveAccountController {
+
+    private final ReactiveAccountService accountService;
+
+    /**
+     * Creates a new account based on the provided request data.
+     *
+     * @param request The request object containing information for creating an account.
+     * @return A Mono of a ResponseEntity with a CreatedAccountResponse as the response body.
+     */
+    @PostMapping(value = "/create")
+    public Mono<ResponseEntity<CreatedAccountResponse>> createAccount(@RequestBody CreatedAccountRequest request) {
+        return accountService.create(request).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Retrieves account details by the account number, including only its most recent transactions.
+     *
+     * @param accountNumber The account number to retrieve account details for.
+     * @return A Mono of a ResponseEntity with AccountDetailInfo as the response body.
+     */
+    @GetMapping("/account-number/{accountNumber}")
+    public Mono<ResponseEntity<AccountDetailInfo>> getAccountDetails(@PathVariable String accountNumber) {
+        return accountService.getAccountByAccountNumber(accountNumber).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Retrieves one page of the transaction history of the account, most recent first.
+     *
+     * @param accountNumber   The account number to retrieve the history for.
+     * @param cursor          The cursor returned with the previous page, omitted for the first page.
+     * @param size            The page size, bounded by the configured maximum.
+     * @param transactionType The type of transactions to return, omitted for all types.
+     * @param from            The inclusive lower bound of the transaction time, omitted for no bound.
+     * @param to              The exclusive upper bound of the transaction time, omitted for no bound.
+     * @return A Mono of a ResponseEntity with TransactionHistoryResponse as the response body.
+     */
+    @GetMapping("/account-number/{accountNumber}/transactions")
+    public Mono<ResponseEntity<TransactionHistoryResponse>> getTransactionHistory(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) TransactionType transactionType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder()
+                .accountNumber(accountNumber)
+                .cursor(cursor)
+                .size(size)
+                .transactionType(transactionType)
+                .from(from)
+                .to(to)
+                .build();
+
+        return accountService.getTransactionHistory(request).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Performs a credit operation on the account.
+     *
+     * @param createCreditRequest The request object for crediting the account.
+     * @return A Mono of a ResponseEntity with TransactionResponse as the response body.
+     */
+    @PostMapping(value = "/credit")
+    public Mono<ResponseEntity<TransactionResponse>> credit(@RequestBody CreateCreditRequest createCreditRequest) {
+        return accountService.credit(createCreditRequest).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Performs a debit operation on the account.
+     *
+     * @param createWithdrawalRequest The request object for debiting the account.
+     * @return A Mono of a ResponseEntity with TransactionResponse as the response body.
+     */
+    @PostMapping(value = "/debit")
+    public Mono<ResponseEntity<TransactionResponse>> debit(@RequestBody CreateWithdrawalRequest createWithdrawalRequest) {
+        return accountService.debit(createWithdrawalRequest).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Performs a payment operation, such as a phone bill payment, from the account.
+     *
+     * @param createPhoneBillPaymentRequest The request object for making a payment from the account.
+     * @return A Mono of a ResponseEntity with TransactionResponse as the response body.
+     */
+    @PostMapping(value = "/payment")
+    public Mono<ResponseEntity<TransactionResponse>> payment(@RequestBody CreatePhoneBillPaymentRequest createPhoneBillPaymentRequest) {
+        return accountService.payment(createPhoneBillPaymentRequest).map(ResponseEntity::ok);
+    }
+
+}
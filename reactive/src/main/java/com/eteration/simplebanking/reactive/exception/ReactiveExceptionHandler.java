@@ -0,0 +1,105 @@
+package com.eteration.simplebanking.reactive.exception;
+
+import com.eteration.simplebanking.exception.AccountNotFoundException;
+import com.eteration.simplebanking.exception.AccountNumberSpaceExhaustedException;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.exception.InvalidCursorException;
+import com.eteration.simplebanking.exception.response.ErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.List;
+
+/**
+ * Exception handler of the reactive account API, answering with the same statuses and error responses
+ * as the global exception handler of the servlet application.
+ */
+@RestControllerAdvice
+@Slf4j
+public class ReactiveExceptionHandler {
+
+    /**
+     * Handles a request body or parameter that cannot be read, often due to malformed JSON.
+     *
+     * @param exception The ServerWebInputException that was thrown.
+     * @return A ResponseEntity with an error response for a malformed request.
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleServerWebInputException(ServerWebInputException exception) {
+
+        log.error(exception.getMessage(), exception);
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .errorDetails(List.of(String.valueOf(exception.getReason())))
+                .message("Malformed JSON request")
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .status(HttpStatus.BAD_REQUEST)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    /**
+     * Handles the custom exception InsufficientBalanceException.
+     *
+     * @param exception The InsufficientBalanceException that was thrown.
+     * @return A ResponseEntity with an error response for insufficient balance.
+     */
+    @ExceptionHandler(InsufficientBalanceException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientBalanceException(InsufficientBalanceException exception) {
+        log.error(exception.getMessage(), exception);
+        return error(HttpStatus.NOT_MODIFIED, exception);
+    }
+
+    /**
+     * Handles the custom exception AccountNotFoundException.
+     *
+     * @param exception The AccountNotFoundException that was thrown.
+     * @return A ResponseEntity with an error response for account not found.
+     */
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleNotFoundException(AccountNotFoundException exception) {
+        log.error(exception.getMessage(), exception);
+        return error(HttpStatus.NOT_FOUND, exception);
+    }
+
+    /**
+     * Handles the custom exception InvalidCursorException.
+     *
+     * @param exception The InvalidCursorException that was thrown.
+     * @return A ResponseEntity with an error response for an invalid history cursor.
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(InvalidCursorException exception) {
+        log.error(exception.getMessage(), exception);
+        return error(HttpStatus.BAD_REQUEST, exception);
+    }
+
+    /**
+     * Handles the custom exception AccountNumberSpaceExhaustedException.
+     *
+     * @param exception The AccountNumberSpaceExhaustedException that was thrown.
+     * @return A ResponseEntity with an error response for an exhausted account number space.
+     */
+    @ExceptionHandler(AccountNumberSpaceExhaustedException.class)
+    public ResponseEntity<ErrorResponse> handleAccountNumberSpaceExhaustedException(AccountNumberSpaceExhaustedException exception) {
+        log.error(exception.getMessage(), exception);
+        return error(HttpStatus.SERVICE_UNAVAILABLE, exception);
+    }
+
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, RuntimeException exception) {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .message(exception.getMessage())
+                .statusCode(status.value())
+                .status(status)
+                .build();
+
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.eteration.simplebanking.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of the account table as read and written over R2DBC. The balance only ever changes through
+ * the conditional updates of the repository, so the row carries no behaviour of its own.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("account")
+public class AccountRow {
+
+    /**
+     * The id of the account, drawn from the pooled account sequence.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * The unique account number associated with the account.
+     */
+    private String accountNumber;
+
+    /**
+     * The name of the account owner.
+     */
+    private String owner;
+
+    /**
+     * The current balance of the account in minor units (e.g. cents).
+     */
+    private long balance;
+
+    /**
+     * The number of sub-balance slots the account is striped over, 0 if it is not striped. The total balance of
+     * a striped account is the balance of this row plus its slots.
+     */
+    private int balanceSlots;
+
+    /**
+     * The version of the account row, incremented by every balance change.
+     */
+    private long version;
+
+    /**
+     * The date and time when the account was created.
+     */
+    private LocalDateTime createdDateTime;
+
+}
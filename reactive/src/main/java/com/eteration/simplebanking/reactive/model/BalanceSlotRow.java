@@ -0,0 +1,28 @@
+package com.eteration.simplebanking.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A row of the account balance slot table as read over R2DBC, holding one sub-balance of an account
+ * striped by the servlet application.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSlotRow {
+
+    /**
+     * The index of the slot within its account.
+     */
+    private int slot;
+
+    /**
+     * The balance of the slot in minor units (e.g. cents).
+     */
+    private long balance;
+
+}
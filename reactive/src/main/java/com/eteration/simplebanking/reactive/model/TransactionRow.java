@@ -0,0 +1,55 @@
+package com.eteration.simplebanking.reactive.model;
+
+import com.eteration.simplebanking.model.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of the append-only transaction table as read and written over R2DBC. The type column holds the
+ * discriminator value of the transaction class the row was posted from.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("transaction")
+public class TransactionRow {
+
+    /**
+     * The id of the transaction, drawn from the pooled transaction sequence.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * The type of the transaction (e.g., deposit, withdrawal).
+     */
+    private TransactionType transactionType;
+
+    /**
+     * The approval code associated with the transaction.
+     */
+    private String approvalCode;
+
+    /**
+     * The amount involved in the transaction in minor units (e.g. cents).
+     */
+    private long amount;
+
+    /**
+     * The id of the account associated with the transaction.
+     */
+    private Long accountId;
+
+    /**
+     * The date and time when the transaction was created.
+     */
+    private LocalDateTime createdDateTime;
+
+}
@@ -0,0 +1,78 @@
+package com.eteration.simplebanking.reactive.repository;
+
+import com.eteration.simplebanking.reactive.model.AccountRow;
+import com.eteration.simplebanking.reactive.model.BalanceSlotRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking repository interface for managing accounts in the reactive Simple Banking App.
+ */
+public interface ReactiveAccountRepository extends ReactiveCrudRepository<AccountRow, Long> {
+
+    /**
+     * Retrieves an account by its account number.
+     *
+     * @param accountNumber The unique account number to search for.
+     * @return A Mono emitting the account if found, or completing empty if not found.
+     */
+    Mono<AccountRow> findByAccountNumber(String accountNumber);
+
+    /**
+     * Atomically applies a signed change to the balance of an account in a single conditional update.
+     * Credits always succeed, debits only succeed if the resulting balance would not be negative.
+     * The version of the account is incremented together with the balance.
+     *
+     * @param id     The id of the account to update.
+     * @param change The signed amount to add to the balance, in minor units.
+     * @return A Mono emitting the number of updated rows, 0 if the balance is insufficient.
+     */
+    @Modifying
+    @Query("update account set balance = balance + :change, version = version + 1 " +
+            "where id = :id and balance + :change >= 0")
+    Mono<Integer> applyBalanceChange(@Param("id") Long id, @Param("change") long change);
+
+    /**
+     * Sums the sub-balance slots of an account striped by the servlet application.
+     *
+     * @param accountId The id of the account.
+     * @return A Mono emitting the sum of the slot balances, 0 if the account has no slots.
+     */
+    @Query("select coalesce(sum(balance), 0) from account_balance_slot where account_id = :accountId")
+    Mono<Long> sumSlots(@Param("accountId") Long accountId);
+
+    /**
+     * Locks the account row and reads its own balance, without the slots.
+     *
+     * @param id The id of the account.
+     * @return A Mono emitting the balance of the account row.
+     */
+    @Query("select balance from account where id = :id for update")
+    Mono<Long> lockBalance(@Param("id") Long id);
+
+    /**
+     * Locks all sub-balance slots of an account in slot order, the order the servlet application locks them in.
+     *
+     * @param accountId The id of the account.
+     * @return A Flux emitting the slots in slot order.
+     */
+    @Query("select slot, balance from account_balance_slot where account_id = :accountId order by slot for update")
+    Flux<BalanceSlotRow> lockSlots(@Param("accountId") Long accountId);
+
+    /**
+     * Applies a signed change to one sub-balance slot of an account locked by {@link #lockSlots(Long)}.
+     *
+     * @param accountId The id of the account.
+     * @param slot      The index of the slot.
+     * @param change    The signed amount to add to the slot balance, in minor units.
+     * @return A Mono emitting the number of updated rows.
+     */
+    @Modifying
+    @Query("update account_balance_slot set balance = balance + :change where account_id = :accountId and slot = :slot")
+    Mono<Integer> applySlotChange(@Param("accountId") Long accountId, @Param("slot") int slot, @Param("change") long change);
+
+}
@@ -0,0 +1,12 @@
+package com.eteration.simplebanking.reactive.repository;
+
+import com.eteration.simplebanking.reactive.model.TransactionRow;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+/**
+ * Non-blocking repository interface for managing transactions in the reactive Simple Banking App.
+ */
+public interface ReactiveTransactionRepository extends ReactiveCrudRepository<TransactionRow, Long>,
+        ReactiveTransactionRepositoryCustom {
+
+}
@@ -0,0 +1,23 @@
+package com.eteration.simplebanking.reactive.repository;
+
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.reactive.model.TransactionRow;
+import reactor.core.publisher.Flux;
+
+/**
+ * Custom repository fragment for reading the transaction history of accounts in the reactive Simple Banking App.
+ */
+public interface ReactiveTransactionRepositoryCustom {
+
+    /**
+     * Retrieves the transactions of an account matching the criteria, most recent first, using keyset pagination
+     * on the creation time and id so the cost of a page does not depend on how long the history is.
+     *
+     * @param accountId The id of the account.
+     * @param criteria  The cursor and filters of the page.
+     * @param limit     The maximum number of transactions to return.
+     * @return The matching transactions ordered by creation time and id, descending.
+     */
+    Flux<TransactionRow> findHistoryPage(Long accountId, TransactionHistoryCriteria criteria, int limit);
+
+}
@@ -0,0 +1,56 @@
+package com.eteration.simplebanking.reactive.repository;
+
+import com.eteration.simplebanking.dto.HistoryCursor;
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.reactive.model.TransactionRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import reactor.core.publisher.Flux;
+
+/**
+ * R2DBC entity template implementation of {@link ReactiveTransactionRepositoryCustom}.
+ */
+@RequiredArgsConstructor
+public class ReactiveTransactionRepositoryImpl implements ReactiveTransactionRepositoryCustom {
+
+    private final R2dbcEntityTemplate entityTemplate;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<TransactionRow> findHistoryPage(Long accountId, TransactionHistoryCriteria criteria, int limit) {
+
+        Criteria where = Criteria.where("accountId").is(accountId);
+
+        HistoryCursor cursor = criteria.getCursor();
+        if (cursor != null) {
+            // (createdDateTime, id) < cursor, with the creation time also bounded on its own so the
+            // (account_id, created_date_time, id) index is range scanned instead of filtered
+            where = where.and("createdDateTime").lessThanOrEquals(cursor.getCreatedDateTime())
+                    .and(Criteria.where("createdDateTime").lessThan(cursor.getCreatedDateTime())
+                            .or("id").lessThan(cursor.getId()));
+        }
+        if (criteria.getTransactionType() != null) {
+            where = where.and("transactionType").is(criteria.getTransactionType().name());
+        }
+        if (criteria.getFrom() != null) {
+            where = where.and("createdDateTime").greaterThanOrEquals(criteria.getFrom());
+        }
+        if (criteria.getTo() != null) {
+            where = where.and("createdDateTime").lessThan(criteria.getTo());
+        }
+
+        Query query = Query.query(where)
+                .sort(Sort.by(Sort.Order.desc("createdDateTime"), Sort.Order.desc("id")))
+                .limit(limit);
+
+        return entityTemplate.select(TransactionRow.class)
+                .matching(query)
+                .all();
+    }
+
+}
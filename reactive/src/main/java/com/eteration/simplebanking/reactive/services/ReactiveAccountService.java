@@ -0,0 +1,329 @@
+package com.eteration.simplebanking.reactive.services;
+
+import com.eteration.simplebanking.config.HistoryProperties;
+import com.eteration.simplebanking.dto.HistoryCursor;
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.exception.AccountNotFoundException;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.model.DepositTransaction;
+import com.eteration.simplebanking.model.PhoneBillPaymentTransaction;
+import com.eteration.simplebanking.model.Transaction;
+import com.eteration.simplebanking.model.WithdrawalTransaction;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreatePhoneBillPaymentRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.request.TransactionHistoryRequest;
+import com.eteration.simplebanking.payload.response.AccountDetailInfo;
+import com.eteration.simplebanking.payload.response.CreatedAccountResponse;
+import com.eteration.simplebanking.payload.response.TransactionHistoryResponse;
+import com.eteration.simplebanking.payload.response.TransactionResponse;
+import com.eteration.simplebanking.reactive.model.AccountRow;
+import com.eteration.simplebanking.reactive.model.BalanceSlotRow;
+import com.eteration.simplebanking.reactive.model.TransactionRow;
+import com.eteration.simplebanking.reactive.repository.ReactiveAccountRepository;
+import com.eteration.simplebanking.reactive.repository.ReactiveTransactionRepository;
+import com.eteration.simplebanking.services.allocation.AccountNumberSpace;
+import com.eteration.simplebanking.services.approval.ApprovalCodeGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service class responsible for managing accounts and financial transactions in the reactive Simple Banking App.
+ * Postings follow the rules of the servlet application: the transaction classes decide the signed balance change,
+ * the balance is changed by a single conditional update and the transaction row is inserted in the same
+ * database transaction. No call blocks, so a few event loop threads serve every connection.
+ * Accounts striped over sub-balance slots by the servlet application are read with their slots, credits to them go
+ * to the account row and debits the account row cannot cover borrow from the slots like in the servlet application.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class ReactiveAccountService {
+
+    /**
+     * Repository for managing accounts.
+     */
+    private final ReactiveAccountRepository accountRepository;
+
+    /**
+     * Repository for managing transactions.
+     */
+    private final ReactiveTransactionRepository transactionRepository;
+
+    /**
+     * Template inserting accounts and transactions whose ids are drawn ahead from the pooled sequences.
+     */
+    private final R2dbcEntityTemplate entityTemplate;
+
+    /**
+     * Configuration of the transaction history reads.
+     */
+    private final HistoryProperties historyProperties;
+
+    /**
+     * Generator of the approval codes returned for postings.
+     */
+    private final ApprovalCodeGenerator approvalCodeGenerator;
+
+    /**
+     * Sequence of the account ids.
+     */
+    private final ReactiveBlockSequence accountIds;
+
+    /**
+     * Sequence of the transaction ids.
+     */
+    private final ReactiveBlockSequence transactionIds;
+
+    /**
+     * Sequence of the account number ordinals.
+     */
+    private final ReactiveBlockSequence accountNumberOrdinals;
+
+    /**
+     * Creates a new account based on the provided request.
+     *
+     * @param request The request for creating an account, including the owner's name.
+     * @return A Mono emitting the created account.
+     */
+    public Mono<CreatedAccountResponse> create(CreatedAccountRequest request) {
+
+        return accountIds.next()
+                .zipWhen(id -> accountNumberOrdinals.next().map(AccountNumberSpace::accountNumberOf))
+                .flatMap(idAndNumber -> entityTemplate.insert(AccountRow.builder()
+                        .id(idAndNumber.getT1())
+                        .accountNumber(idAndNumber.getT2())
+                        .owner(request.getOwner())
+                        .createdDateTime(LocalDateTime.now())
+                        .build()))
+                .map(account -> CreatedAccountResponse.builder()
+                        .accountNumber(account.getAccountNumber())
+                        .owner(account.getOwner())
+                        .balance(account.getBalance())
+                        .createdDateTime(account.getCreatedDateTime())
+                        .transactionDTOs(new ArrayList<>())
+                        .build());
+    }
+
+    /**
+     * Retrieves account details by its account number together with its most recent transactions only.
+     * The balance of a striped account includes its slots.
+     *
+     * @param accountNumber The unique account number to search for.
+     * @return A Mono emitting the account details, or failing with {@link AccountNotFoundException}.
+     */
+    @Transactional(readOnly = true)
+    public Mono<AccountDetailInfo> getAccountByAccountNumber(String accountNumber) {
+
+        return findAccount(accountNumber)
+                .zipWhen(this::totalBalance)
+                .flatMap(accountAndBalance -> findHistoryPage(accountAndBalance.getT1().getId(), TransactionHistoryCriteria.builder().build(),
+                        historyProperties.getRecentTransactions())
+                        .map(transactions -> AccountDetailInfo.builder()
+                                .accountNumber(accountAndBalance.getT1().getAccountNumber())
+                                .owner(accountAndBalance.getT1().getOwner())
+                                .balance(accountAndBalance.getT2())
+                                .createdDateTime(accountAndBalance.getT1().getCreatedDateTime())
+                                .transactionDTOs(toTransactionDTOs(transactions))
+                                .build()));
+    }
+
+    /**
+     * Retrieves one page of the transaction history of an account, most recent first, addressed by a keyset cursor.
+     *
+     * @param request The request containing the account number, cursor, page size and optional filters.
+     * @return A Mono emitting the page and the cursor of the next page, or failing with {@link AccountNotFoundException}.
+     */
+    @Transactional(readOnly = true)
+    public Mono<TransactionHistoryResponse> getTransactionHistory(TransactionHistoryRequest request) {
+
+        int pageSize = historyProperties.boundPageSize(request.getSize());
+
+        return Mono.fromCallable(() -> TransactionHistoryCriteria.builder()
+                        .cursor(HistoryCursor.decode(request.getCursor()))
+                        .transactionType(request.getTransactionType())
+                        .from(request.getFrom())
+                        .to(request.getTo())
+                        .build())
+                .zipWith(findAccount(request.getAccountNumber()))
+                .flatMap(criteriaAndAccount -> findHistoryPage(criteriaAndAccount.getT2().getId(), criteriaAndAccount.getT1(), pageSize + 1))
+                .map(transactions -> {
+                    String nextCursor = null;
+                    if (transactions.size() > pageSize) {
+                        transactions = transactions.subList(0, pageSize);
+                        TransactionRow last = transactions.get(pageSize - 1);
+                        nextCursor = new HistoryCursor(last.getCreatedDateTime(), last.getId()).encode();
+                    }
+                    return TransactionHistoryResponse.builder()
+                            .accountNumber(request.getAccountNumber())
+                            .transactionDTOs(toTransactionDTOs(transactions))
+                            .nextCursor(nextCursor)
+                            .build();
+                });
+    }
+
+    /**
+     * Processes a credit transaction by adding funds to the specified account.
+     *
+     * @param createCreditRequest The request for creating a credit transaction, including account number and amount.
+     * @return A Mono emitting the transaction response.
+     */
+    public Mono<TransactionResponse> credit(CreateCreditRequest createCreditRequest) {
+
+        Transaction transaction = new DepositTransaction(createCreditRequest.getAmount());
+        transaction.setTransactionType(TransactionType.DepositTransaction);
+
+        return post(createCreditRequest.getAccountNumber(), transaction);
+    }
+
+    /**
+     * Processes a debit transaction by withdrawing funds from the specified account.
+     *
+     * @param createWithdrawalRequest The request for creating a debit transaction, including account number and amount.
+     * @return A Mono emitting the transaction response.
+     */
+    public Mono<TransactionResponse> debit(CreateWithdrawalRequest createWithdrawalRequest) {
+
+        Transaction transaction = new WithdrawalTransaction(createWithdrawalRequest.getAmount());
+        transaction.setTransactionType(TransactionType.WithdrawalTransaction);
+
+        return post(createWithdrawalRequest.getAccountNumber(), transaction);
+    }
+
+    /**
+     * Processes a payment transaction by paying a phone bill from the specified account.
+     *
+     * @param createPhoneBillPaymentRequest The request for creating a phone bill payment transaction, including account number and amount.
+     * @return A Mono emitting the transaction response.
+     */
+    public Mono<TransactionResponse> payment(CreatePhoneBillPaymentRequest createPhoneBillPaymentRequest) {
+
+        Transaction transaction = new PhoneBillPaymentTransaction(createPhoneBillPaymentRequest.getAmount());
+        transaction.setTransactionType(TransactionType.PhoneBillPaymentTransaction);
+
+        return post(createPhoneBillPaymentRequest.getAccountNumber(), transaction);
+    }
+
+    /**
+     * Applies a transaction to the account with the given number. The database serializes concurrent postings
+     * to one account on its row, so unlike the servlet application no lock is held in the JVM.
+     * A debit the account row of a striped account cannot cover borrows from its slots.
+     *
+     * @param accountNumber The account number the transaction is posted to.
+     * @param transaction   The transaction to apply and persist.
+     * @return A Mono emitting the transaction response, or failing with {@link AccountNotFoundException}
+     * or {@link InsufficientBalanceException}.
+     */
+    private Mono<TransactionResponse> post(String accountNumber, Transaction transaction) {
+
+        return Mono.fromCallable(transaction::balanceChange)
+                .zipWith(findAccount(accountNumber))
+                .flatMap(changeAndAccount -> accountRepository.applyBalanceChange(changeAndAccount.getT2().getId(), changeAndAccount.getT1())
+                        .flatMap(updated -> {
+                            if (updated > 0) {
+                                return insert(changeAndAccount.getT2(), transaction);
+                            }
+                            if (changeAndAccount.getT2().getBalanceSlots() > 0) {
+                                return borrow(changeAndAccount.getT2().getId(), changeAndAccount.getT1())
+                                        .then(insert(changeAndAccount.getT2(), transaction));
+                            }
+                            return Mono.error(new InsufficientBalanceException("Insufficient funds."));
+                        }));
+    }
+
+    /**
+     * Applies a debit the account row of a striped account could not cover. Like the servlet application, this locks
+     * the account row and then all slots in slot order and takes from the account row first and then from the slots
+     * in slot order.
+     *
+     * @param accountId The id of the account.
+     * @param change    The signed debit amount, in minor units.
+     * @return A Mono completing once the debit is applied, or failing with {@link InsufficientBalanceException}
+     * if the debit exceeds the total balance of the account.
+     */
+    private Mono<Void> borrow(Long accountId, long change) {
+
+        return accountRepository.lockBalance(accountId)
+                .flatMap(accountBalance -> accountRepository.lockSlots(accountId).collectList()
+                        .flatMap(slots -> {
+                            long total = accountBalance + slots.stream().mapToLong(BalanceSlotRow::getBalance).sum();
+                            if (total + change < 0) {
+                                return Mono.error(new InsufficientBalanceException("Insufficient funds."));
+                            }
+                            List<Mono<Integer>> updates = new ArrayList<>();
+                            long remaining = -change;
+                            long fromAccount = Math.min(remaining, accountBalance);
+                            if (fromAccount > 0) {
+                                updates.add(accountRepository.applyBalanceChange(accountId, -fromAccount));
+                                remaining -= fromAccount;
+                            }
+                            for (BalanceSlotRow slot : slots) {
+                                long fromSlot = Math.min(remaining, slot.getBalance());
+                                if (fromSlot > 0) {
+                                    updates.add(accountRepository.applySlotChange(accountId, slot.getSlot(), -fromSlot));
+                                    remaining -= fromSlot;
+                                }
+                            }
+                            return Flux.concat(updates).then();
+                        }));
+    }
+
+    private Mono<TransactionResponse> insert(AccountRow account, Transaction transaction) {
+
+        String approvalCode = approvalCodeGenerator.generate();
+
+        return transactionIds.next()
+                .flatMap(id -> entityTemplate.insert(TransactionRow.builder()
+                        .id(id)
+                        .transactionType(transaction.getTransactionType())
+                        .approvalCode(approvalCode)
+                        .amount(transaction.getAmount())
+                        .accountId(account.getId())
+                        .createdDateTime(LocalDateTime.now())
+                        .build()))
+                .thenReturn(TransactionResponse.builder()
+                        .status("OK")
+                        .approvalCode(approvalCode)
+                        .build());
+    }
+
+    private Mono<Long> totalBalance(AccountRow account) {
+        if (account.getBalanceSlots() == 0) {
+            return Mono.just(account.getBalance());
+        }
+        return accountRepository.sumSlots(account.getId()).map(slots -> account.getBalance() + slots);
+    }
+
+    private Mono<AccountRow> findAccount(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException("Account Not Found : " + accountNumber)));
+    }
+
+    private Mono<List<TransactionRow>> findHistoryPage(Long accountId, TransactionHistoryCriteria criteria, int limit) {
+        return transactionRepository.findHistoryPage(accountId, criteria, limit).collectList();
+    }
+
+    private static List<TransactionDTO> toTransactionDTOs(List<TransactionRow> transactions) {
+        return transactions.stream()
+                .map(transaction -> TransactionDTO.builder()
+                        .amount(transaction.getAmount())
+                        .transactionType(transaction.getTransactionType())
+                        .approvalCode(transaction.getApprovalCode())
+                        .createdDateTime(transaction.getCreatedDateTime())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.eteration.simplebanking.reactive.services;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+
+/**
+ * Hands out the values of a database sequence in blocks without blocking the calling thread in the reactive
+ * Simple Banking App. One sequence call reserves a whole block and the values of the block are then handed out
+ * from memory, the same way the servlet application draws its pooled ids and its account number blocks, so both
+ * applications can share one database without ever handing out the same value.
+ * Concurrent callers finding the block exhausted each reserve a fresh block; the values of a block replaced
+ * before it was used up are skipped, never repeated.
+ */
+public class ReactiveBlockSequence {
+
+    private static final Block EXHAUSTED = new Block(0, -1);
+
+    private final Mono<Long> nextValue;
+
+    private final LongFunction<Block> blockOf;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(EXHAUSTED);
+
+    private ReactiveBlockSequence(DatabaseClient databaseClient, String sequenceName, LongFunction<Block> blockOf) {
+        this.nextValue = databaseClient.sql("select nextval('" + sequenceName + "')")
+                .map(row -> row.get(0, Long.class))
+                .one();
+        this.blockOf = blockOf;
+    }
+
+    /**
+     * Creates a sequence of ids following Hibernate's pooled optimizer: a sequence value is the highest id
+     * of a block of allocation size ids.
+     *
+     * @param databaseClient The client calling the sequence.
+     * @param sequenceName   The name of the database sequence, incremented by the allocation size.
+     * @param allocationSize The number of ids per sequence call.
+     * @return The id sequence.
+     */
+    public static ReactiveBlockSequence pooled(DatabaseClient databaseClient, String sequenceName, int allocationSize) {
+        return new ReactiveBlockSequence(databaseClient, sequenceName,
+                hi -> new Block(Math.max(1, hi - allocationSize + 1), hi));
+    }
+
+    /**
+     * Creates a sequence of ordinals where every sequence value is the index of a block of block size ordinals.
+     *
+     * @param databaseClient The client calling the sequence.
+     * @param sequenceName   The name of the database sequence, incremented by one.
+     * @param blockSize      The number of ordinals per sequence call.
+     * @return The ordinal sequence.
+     */
+    public static ReactiveBlockSequence indexed(DatabaseClient databaseClient, String sequenceName, int blockSize) {
+        return new ReactiveBlockSequence(databaseClient, sequenceName,
+                index -> new Block(index * blockSize, index * blockSize + blockSize - 1));
+    }
+
+    /**
+     * Returns the next value, reserving a new block from the database only when the current one is used up.
+     *
+     * @return A Mono emitting a value never handed out before.
+     */
+    public Mono<Long> next() {
+        return Mono.defer(() -> {
+            long value = current.get().take();
+            if (value >= 0) {
+                return Mono.just(value);
+            }
+            return nextValue.map(sequenceValue -> {
+                Block block = blockOf.apply(sequenceValue);
+                long first = block.take();
+                current.set(block);
+                return first;
+            });
+        });
+    }
+
+    /**
+     * A block of consecutive values reserved by one sequence call.
+     */
+    private static final class Block {
+
+        private final AtomicLong next;
+
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        /**
+         * Takes the next value of the block.
+         *
+         * @return The value, or -1 if the block is used up.
+         */
+        private long take() {
+            long value = next.getAndIncrement();
+            return value <= last ? value : -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.eteration.simplebanking.reactive.controller;
+
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.request.TransactionHistoryRequest;
+import com.eteration.simplebanking.payload.response.CreatedAccountResponse;
+import com.eteration.simplebanking.payload.response.TransactionHistoryResponse;
+import com.eteration.simplebanking.reactive.services.ReactiveAccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(value = "test")
+class ReactiveAccountControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveAccountService accountService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    public void givenPostings_whenGettingAccountDetails_ThenBalanceAndMostRecentTransactionsAreReturned() {
+
+        // Given
+        String accountNumber = createAccount("Jim");
+
+        // When
+        post("/credit", "{\"accountNumber\":\"" + accountNumber + "\",\"amount\":1000.0}");
+        post("/debit", "{\"accountNumber\":\"" + accountNumber + "\",\"amount\":200.0}");
+        post("/payment", "{\"accountNumber\":\"" + accountNumber + "\",\"amount\":96.50}");
+
+        // Then
+        webTestClient.get()
+                .uri("/api/v1/account/account-number/{accountNumber}", accountNumber)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.owner").isEqualTo("Jim")
+                .jsonPath("$.accountNumber").isEqualTo(accountNumber)
+                .jsonPath("$.balance").isEqualTo(703.50)
+                .jsonPath("$.transactionDTOs.length()").isEqualTo(3)
+                .jsonPath("$.transactionDTOs[0].transactionType").isEqualTo("PhoneBillPaymentTransaction")
+                .jsonPath("$.transactionDTOs[0].amount").isEqualTo(96.50)
+                .jsonPath("$.transactionDTOs[2].transactionType").isEqualTo("DepositTransaction");
+    }
+
+    @Test
+    public void givenInsufficientBalanceOrUnknownAccount_whenPosting_ThenSameStatusesAsServletApi() {
+
+        // Given
+        String accountNumber = createAccount("John Doe");
+
+        // Then
+        webTestClient.post()
+                .uri("/api/v1/account/debit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"accountNumber\":\"" + accountNumber + "\",\"amount\":10.0}")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        webTestClient.post()
+                .uri("/api/v1/account/credit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"accountNumber\":\"000-000\",\"amount\":10.0}")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Account Not Found : 000-000");
+
+        webTestClient.get()
+                .uri("/api/v1/account/account-number/{accountNumber}/transactions?cursor=invalid", accountNumber)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void givenConcurrentDebits_whenExceedingBalance_ThenOnlyCoveredDebitsSucceed() {
+
+        // Given
+        String accountNumber = createAccount("John Doe");
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(5_000).build()).block();
+
+        // When
+        Long succeeded = Flux.range(0, 100)
+                .flatMap(i -> accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(100).build())
+                        .map(response -> 1L)
+                        .onErrorResume(InsufficientBalanceException.class, exception -> Mono.just(0L)), 100)
+                .reduce(0L, Long::sum)
+                .block();
+
+        // Then
+        assertEquals(50L, succeeded);
+        assertEquals(0L, accountService.getAccountByAccountNumber(accountNumber).block().getBalance());
+    }
+
+    @Test
+    public void givenAccountStripedOverSlots_whenDebiting_ThenSlotsAreReadAndBorrowedFrom() {
+
+        // Given
+        String accountNumber = createAccount("John Doe");
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(1_000).build()).block();
+        stripe(accountNumber, 600, 400);
+
+        // When
+        accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(700).build()).block();
+
+        // Then
+        assertEquals(300L, accountService.getAccountByAccountNumber(accountNumber).block().getBalance());
+        assertThrows(InsufficientBalanceException.class, () -> accountService.debit(
+                CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(400).build()).block());
+        assertEquals(300L, accountService.getAccountByAccountNumber(accountNumber).block().getBalance());
+    }
+
+    @Test
+    public void givenLongHistory_whenPagingWithCursor_ThenEveryTransactionIsReturnedOnce() {
+
+        // Given
+        String accountNumber = createAccount("John Doe");
+        Flux.range(1, 25)
+                .concatMap(i -> accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(i).build()))
+                .blockLast();
+
+        // When
+        Set<String> approvalCodes = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionHistoryResponse page = accountService.getTransactionHistory(TransactionHistoryRequest.builder()
+                    .accountNumber(accountNumber)
+                    .cursor(cursor)
+                    .size(10)
+                    .build()).block();
+            page.getTransactionDTOs().forEach(transaction -> approvalCodes.add(transaction.getApprovalCode()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertEquals(25, approvalCodes.size());
+        assertEquals(3, pages);
+    }
+
+    private String createAccount(String owner) {
+        CreatedAccountResponse response = webTestClient.post()
+                .uri("/api/v1/account/create")
+                .bodyValue(CreatedAccountRequest.builder().owner(owner).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CreatedAccountResponse.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(response);
+        assertTrue(response.getAccountNumber().matches("[1-9]\\d{2}-\\d{3}"));
+        return response.getAccountNumber();
+    }
+
+    private void stripe(String accountNumber, long... slotBalances) {
+        databaseClient.sql("update account set balance = 0, balance_slots = :slots where account_number = :accountNumber")
+                .bind("slots", slotBalances.length)
+                .bind("accountNumber", accountNumber)
+                .then()
+                .block();
+        for (int slot = 0; slot < slotBalances.length; slot++) {
+            databaseClient.sql("insert into account_balance_slot (account_id, slot, balance) " +
+                            "select id, :slot, :balance from account where account_number = :accountNumber")
+                    .bind("slot", slot)
+                    .bind("balance", slotBalances[slot])
+                    .bind("accountNumber", accountNumber)
+                    .then()
+                    .block();
+        }
+    }
+
+    private void post(String path, String body) {
+        webTestClient.post()
+                .uri("/api/v1/account" + path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("OK")
+                .jsonPath("$.approvalCode").isNotEmpty();
+    }
+
+}
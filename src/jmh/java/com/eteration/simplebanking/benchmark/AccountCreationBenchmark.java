@@ -0,0 +1,92 @@
+package com.eteration.simplebanking.benchmark;
+
+import com.eteration.simplebanking.DemoApplication;
+import com.eteration.simplebanking.dto.AccountDTO;
+import com.eteration.simplebanking.model.Account;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.repository.AccountRepository;
+import com.eteration.simplebanking.services.AccountService;
+import com.eteration.simplebanking.services.allocation.AccountNumberAllocator;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to create a batch of accounts once the account number space is 10%, 50% or 90% occupied.
+ * Each iteration creates a fixed number of accounts instead of running for a fixed time, so even the 90%
+ * occupancy trial never runs out of account numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, batchSize = AccountCreationBenchmark.ACCOUNTS_PER_ITERATION)
+@Measurement(iterations = 5, batchSize = AccountCreationBenchmark.ACCOUNTS_PER_ITERATION)
+@Fork(1)
+public class AccountCreationBenchmark {
+
+    static final int ACCOUNTS_PER_ITERATION = 1_000;
+
+    private static final int NUMBER_SPACE = 900_000;
+
+    private static final int FILL_CHUNK = 5_000;
+
+    @Param({"10", "50", "90"})
+    public int occupancyPercent;
+
+    private Server server;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    private CreatedAccountRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = BenchmarkDatabase.startTcpServer();
+
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("benchmark")
+                .run(BenchmarkDatabase.urlArgument(server));
+
+        accountService = context.getBean(AccountService.class);
+        request = CreatedAccountRequest.builder().owner("Benchmark").build();
+
+        fill(NUMBER_SPACE / 100 * occupancyPercent);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public AccountDTO createAccount() {
+        return accountService.create(request);
+    }
+
+    private void fill(int accounts) {
+        AccountNumberAllocator allocator = context.getBean(AccountNumberAllocator.class);
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        for (int filled = 0; filled < accounts; filled += FILL_CHUNK) {
+            int chunk = Math.min(FILL_CHUNK, accounts - filled);
+            List<Account> batch = new ArrayList<>(chunk);
+            for (int i = 0; i < chunk; i++) {
+                batch.add(Account.builder()
+                        .owner("Existing")
+                        .accountNumber(allocator.allocate())
+                        .transactions(new HashSet<>())
+                        .build());
+            }
+            accountRepository.saveAll(batch);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.eteration.simplebanking.benchmark;
+
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import com.eteration.simplebanking.payload.response.AccountDetailInfo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JSON serialization of the account details response with different numbers of recent transactions,
+ * using an object mapper configured like the one Spring Boot builds for the controllers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountDetailInfoJsonBenchmark {
+
+    @Param({"0", "10", "100"})
+    public int transactions;
+
+    private ObjectWriter writer;
+
+    private AccountDetailInfo accountDetailInfo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writerFor(AccountDetailInfo.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionDTO> transactionDTOs = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            transactionDTOs.add(new TransactionDTO(12_345, TransactionType.DepositTransaction,
+                    "2c9ab7c5-924f-44af-9462-c8ce160fcf11", now.minusSeconds(i)));
+        }
+
+        accountDetailInfo = AccountDetailInfo.builder()
+                .accountNumber("123-456")
+                .owner("Benchmark")
+                .balance(123_456_789)
+                .createdDateTime(now)
+                .transactionDTOs(transactionDTOs)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(accountDetailInfo);
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.eteration.simplebanking.benchmark;
+
+import com.eteration.simplebanking.model.Account;
+import com.eteration.simplebanking.model.DepositTransaction;
+import com.eteration.simplebanking.model.PhoneBillPaymentTransaction;
+import com.eteration.simplebanking.model.Transaction;
+import com.eteration.simplebanking.model.WithdrawalTransaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-memory domain operations of accounts and transactions without any persistence.
+ * Every benchmark moves the balance back to where it started, so withdrawals never run out of funds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountDomainBenchmark {
+
+    private Account account;
+
+    private Transaction deposit;
+
+    private Transaction withdrawal;
+
+    private Transaction phoneBillPayment;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        account = Account.builder()
+                .accountNumber("123-456")
+                .owner("Benchmark")
+                .balance(1_000_000)
+                .build();
+        deposit = new DepositTransaction(1_500);
+        withdrawal = new WithdrawalTransaction(1_000);
+        phoneBillPayment = new PhoneBillPaymentTransaction(500);
+    }
+
+    @Benchmark
+    public long depositAndWithdraw() {
+        account.deposit(1_000);
+        account.withdraw(1_000);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public long executeDepositTransaction() {
+        deposit.executeOn(account);
+        account.withdraw(1_500);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public long executeWithdrawalTransaction() {
+        withdrawal.executeOn(account);
+        account.deposit(1_000);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public long executePhoneBillPaymentTransaction() {
+        phoneBillPayment.executeOn(account);
+        account.deposit(500);
+        return account.getBalance();
+    }
+
+    @Benchmark
+    public long executeTransactionMix() {
+        deposit.executeOn(account);
+        withdrawal.executeOn(account);
+        phoneBillPayment.executeOn(account);
+        return account.getBalance();
+    }
+
+}
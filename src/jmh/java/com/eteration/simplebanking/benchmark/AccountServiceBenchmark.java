@@ -0,0 +1,79 @@
+package com.eteration.simplebanking.benchmark;
+
+import com.eteration.simplebanking.DemoApplication;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreatePhoneBillPaymentRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.response.TransactionResponse;
+import com.eteration.simplebanking.services.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full credit, debit and payment flows of the account service against the in-memory H2 database
+ * of the benchmark profile, including the transaction, lock, balance update and insert of every posting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private CreateCreditRequest creditRequest;
+
+    private CreateWithdrawalRequest withdrawalRequest;
+
+    private CreatePhoneBillPaymentRequest phoneBillPaymentRequest;
+
+    private AccountService accountService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("benchmark")
+                .run();
+
+        accountService = context.getBean(AccountService.class);
+
+        String accountNumber = accountService.create(CreatedAccountRequest.builder().owner("Benchmark").build())
+                .getAccountNumber();
+
+        accountService.credit(CreateCreditRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(Long.MAX_VALUE / 2)
+                .build());
+
+        creditRequest = CreateCreditRequest.builder().accountNumber(accountNumber).amount(1_000).build();
+        withdrawalRequest = CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(1_000).build();
+        phoneBillPaymentRequest = CreatePhoneBillPaymentRequest.builder().accountNumber(accountNumber).amount(1_000).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponse credit() {
+        return accountService.credit(creditRequest);
+    }
+
+    @Benchmark
+    public TransactionResponse debit() {
+        return accountService.debit(withdrawalRequest);
+    }
+
+    @Benchmark
+    public TransactionResponse payment() {
+        return accountService.payment(phoneBillPaymentRequest);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.eteration.simplebanking.benchmark;
+
+import com.eteration.simplebanking.config.ApprovalCodeProperties;
+import com.eteration.simplebanking.services.approval.ApprovalCodeGenerator;
+import com.eteration.simplebanking.services.approval.TimeOrderedApprovalCodeGenerator;
+import com.eteration.simplebanking.services.approval.UuidApprovalCodeGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the approval code generators, single threaded and with several threads sharing one generator
+ * the way concurrent postings do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApprovalCodeBenchmark {
+
+    private final ApprovalCodeGenerator uuid = new UuidApprovalCodeGenerator();
+
+    private final ApprovalCodeGenerator timeOrdered = new TimeOrderedApprovalCodeGenerator(new ApprovalCodeProperties());
+
+    @Benchmark
+    public String uuid() {
+        return uuid.generate();
+    }
+
+    @Benchmark
+    public String timeOrdered() {
+        return timeOrdered.generate();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String uuidContended() {
+        return uuid.generate();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timeOrderedContended() {
+        return timeOrdered.generate();
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.eteration.simplebanking.benchmark;
+
+import org.h2.tools.Server;
+
+import java.sql.SQLException;
+
+/**
+ * Helper serving the H2 benchmark database over a loopback TCP connection, so statements pay a network round trip.
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Starts an H2 TCP server on a free port.
+     *
+     * @return The started server.
+     * @throws SQLException if the server cannot be started.
+     */
+    static Server startTcpServer() throws SQLException {
+        return Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    }
+
+    /**
+     * Builds the datasource url argument pointing at an in-memory database of the given server, in the PostgreSQL
+     * mode the migrations and the tests run in.
+     *
+     * @param server The running TCP server.
+     * @return The spring.datasource.url command line argument.
+     */
+    static String urlArgument(Server server) {
+        return "--spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort()
+                + "/mem:benchmarkdb;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE";
+    }
+
+}
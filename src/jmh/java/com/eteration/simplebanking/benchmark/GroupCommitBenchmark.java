@@ -0,0 +1,88 @@
+package com.eteration.simplebanking.benchmark;
+
+import com.eteration.simplebanking.DemoApplication;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.response.TransactionResponse;
+import com.eteration.simplebanking.services.AccountService;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures concurrent credits with one database transaction per posting against group commit with different windows.
+ * Throughput mode shows the postings per second, sample time mode the latency percentiles including p99, so a longer
+ * window can be weighed as fewer commits against the time callers wait for their batch. The database is served over
+ * a loopback TCP connection so every statement and commit pays a round trip; in-memory H2 never syncs to disk,
+ * so against PostgreSQL the commits saved by group commit are worth more.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+    @Param({"disabled", "0ms", "1ms", "5ms"})
+    public String window;
+
+    private Server server;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = BenchmarkDatabase.startTcpServer();
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add(BenchmarkDatabase.urlArgument(server));
+        arguments.add("--banking.group-commit.enabled=" + !"disabled".equals(window));
+        if (!"disabled".equals(window)) {
+            arguments.add("--banking.group-commit.window=" + window);
+        }
+
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("benchmark")
+                .run(arguments.toArray(new String[0]));
+
+        accountService = context.getBean(AccountService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.stop();
+    }
+
+    /**
+     * The account each benchmark thread credits, so the threads never wait for each other's account.
+     */
+    @State(Scope.Thread)
+    public static class ThreadAccount {
+
+        private CreateCreditRequest creditRequest;
+
+        @Setup(Level.Trial)
+        public void setUp(GroupCommitBenchmark benchmark) {
+            String accountNumber = benchmark.accountService.create(CreatedAccountRequest.builder().owner("Benchmark").build())
+                    .getAccountNumber();
+            creditRequest = CreateCreditRequest.builder().accountNumber(accountNumber).amount(1_000).build();
+        }
+
+    }
+
+    @Benchmark
+    public TransactionResponse credit(ThreadAccount account) {
+        return accountService.credit(account.creditRequest);
+    }
+
+}
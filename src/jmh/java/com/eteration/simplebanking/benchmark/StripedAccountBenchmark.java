@@ -0,0 +1,70 @@
+package com.eteration.simplebanking.benchmark;
+
+import com.eteration.simplebanking.DemoApplication;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.response.TransactionResponse;
+import com.eteration.simplebanking.services.AccountService;
+import com.eteration.simplebanking.services.striping.StripedBalances;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the postings per second to a single hot account against the number of sub-balance slots its balance
+ * is striped over. With 0 slots every posting updates the account row and waits for the previous one; with more
+ * slots the posting threads spread over as many rows, so the throughput grows with the slot count until the
+ * threads or the database run out. The database is served over a loopback TCP connection so every statement
+ * pays a round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class StripedAccountBenchmark {
+
+    @Param({"0", "1", "4", "16", "32"})
+    public int slots;
+
+    private Server server;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    private CreateCreditRequest creditRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = BenchmarkDatabase.startTcpServer();
+
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("benchmark")
+                .run(BenchmarkDatabase.urlArgument(server));
+
+        accountService = context.getBean(AccountService.class);
+
+        String accountNumber = accountService.create(CreatedAccountRequest.builder().owner("Benchmark").build())
+                .getAccountNumber();
+        context.getBean(StripedBalances.class).stripe(accountNumber, slots);
+        creditRequest = CreateCreditRequest.builder().accountNumber(accountNumber).amount(1_000).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public TransactionResponse creditHotAccount() {
+        return accountService.credit(creditRequest);
+    }
+
+}
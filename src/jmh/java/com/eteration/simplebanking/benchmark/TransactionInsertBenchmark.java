@@ -0,0 +1,82 @@
+package com.eteration.simplebanking.benchmark;
+
+import com.eteration.simplebanking.DemoApplication;
+import com.eteration.simplebanking.model.Account;
+import com.eteration.simplebanking.model.DepositTransaction;
+import com.eteration.simplebanking.model.Transaction;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.repository.AccountRepository;
+import com.eteration.simplebanking.repository.TransactionRepository;
+import com.eteration.simplebanking.services.AccountService;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures transaction inserts per second on the H2 benchmark profile for different JDBC batch sizes.
+ * The database is served over a loopback TCP connection so every statement pays a real round trip;
+ * a batch size of 1 issues one round trip per row like the previous identity generated ids did.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionInsertBenchmark {
+
+    private static final int ROWS_PER_INVOCATION = 500;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private Server server;
+
+    private ConfigurableApplicationContext context;
+
+    private TransactionRepository transactionRepository;
+
+    private Account account;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = BenchmarkDatabase.startTcpServer();
+
+        context = new SpringApplicationBuilder(DemoApplication.class)
+                .profiles("benchmark")
+                .run(BenchmarkDatabase.urlArgument(server),
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+
+        transactionRepository = context.getBean(TransactionRepository.class);
+
+        String accountNumber = context.getBean(AccountService.class)
+                .create(CreatedAccountRequest.builder().owner("Benchmark").build())
+                .getAccountNumber();
+        account = context.getBean(AccountRepository.class).findByAccountNumber(accountNumber).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_INVOCATION)
+    public List<Transaction> insertTransactions() {
+        List<Transaction> transactions = new ArrayList<>(ROWS_PER_INVOCATION);
+        for (int i = 0; i < ROWS_PER_INVOCATION; i++) {
+            Transaction transaction = new DepositTransaction(100);
+            transaction.setApprovalCode("benchmark-" + i);
+            transaction.setAccount(account);
+            transactions.add(transaction);
+        }
+        return transactionRepository.saveAll(transactions);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.eteration.simplebanking.benchmark;
+
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.mapper.TransactionMapper;
+import com.eteration.simplebanking.model.DepositTransaction;
+import com.eteration.simplebanking.model.PhoneBillPaymentTransaction;
+import com.eteration.simplebanking.model.Transaction;
+import com.eteration.simplebanking.model.WithdrawalTransaction;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mapping transaction histories of different sizes to DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionMapperBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int size;
+
+    private final TransactionMapper transactionMapper = Mappers.getMapper(TransactionMapper.class);
+
+    private List<Transaction> transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transactions = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            Transaction transaction;
+            switch (i % 3) {
+                case 0:
+                    transaction = new DepositTransaction(10_000);
+                    transaction.setTransactionType(TransactionType.DepositTransaction);
+                    break;
+                case 1:
+                    transaction = new WithdrawalTransaction(2_500);
+                    transaction.setTransactionType(TransactionType.WithdrawalTransaction);
+                    break;
+                default:
+                    transaction = new PhoneBillPaymentTransaction(1_000);
+                    transaction.setTransactionType(TransactionType.PhoneBillPaymentTransaction);
+            }
+            transaction.setId((long) i);
+            transaction.setApprovalCode("approval-" + i);
+            transaction.setCreatedDateTime(now.minusSeconds(i));
+            transactions.add(transaction);
+        }
+    }
+
+    @Benchmark
+    public List<TransactionDTO> toTransactionDTOList() {
+        return transactionMapper.toTransactionDTOList(transactions);
+    }
+
+}
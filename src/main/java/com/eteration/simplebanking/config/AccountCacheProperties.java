@@ -0,0 +1,25 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-process cache of account snapshots in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.account-cache")
+public class AccountCacheProperties {
+
+    /**
+     * The maximum number of account snapshots kept in the cache.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a snapshot is served after it was loaded, bounding staleness from postings on other nodes.
+     */
+    private Duration timeToLive = Duration.ofSeconds(30);
+
+}
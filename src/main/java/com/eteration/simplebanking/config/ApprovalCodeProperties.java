@@ -0,0 +1,23 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the approval codes handed out for postings in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.approval-code")
+public class ApprovalCodeProperties {
+
+    /**
+     * The generator strategy, either "uuid" or "time-ordered".
+     */
+    private String strategy = "uuid";
+
+    /**
+     * The id of this node between 0 and 1023, unique per running instance when the time-ordered strategy is used.
+     */
+    private int nodeId;
+
+}
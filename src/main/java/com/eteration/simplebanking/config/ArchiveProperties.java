@@ -0,0 +1,42 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Configuration properties for the monthly transaction partitions and their archival in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.archive")
+public class ArchiveProperties {
+
+    /**
+     * Whether the archival job runs. It maintains PostgreSQL partitions, so it stays off on other databases;
+     * archived segments are read either way.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The directory holding the archived segment files.
+     */
+    private Path directory = Paths.get("data", "archive");
+
+    /**
+     * The number of months, besides the current one, whose transactions stay in the database.
+     */
+    private int retentionMonths = 12;
+
+    /**
+     * The number of months ahead of the current one for which partitions are created.
+     */
+    private int premadeMonths = 2;
+
+    /**
+     * The cron expression on which the archival job runs.
+     */
+    private String cron = "0 30 2 * * *";
+
+}
@@ -0,0 +1,18 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the striped sub-balances of hot accounts in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.balance-striping")
+public class BalanceStripingProperties {
+
+    /**
+     * The largest number of slots the balance of one account may be striped over.
+     */
+    private int maxSlots = 64;
+
+}
@@ -0,0 +1,35 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for committing concurrent postings together in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.group-commit")
+public class GroupCommitProperties {
+
+    /**
+     * Whether postings are applied in shared database transactions instead of one transaction each.
+     */
+    private boolean enabled = false;
+
+    /**
+     * How long a batch waits for more postings after its first one arrived; zero only takes the postings already queued.
+     */
+    private Duration window = Duration.ofMillis(2);
+
+    /**
+     * The maximum number of postings applied in one database transaction.
+     */
+    private int maxBatchSize = 64;
+
+    /**
+     * The maximum number of postings waiting for a batch; callers block while the queue is full.
+     */
+    private int queueCapacity = 10000;
+
+}
@@ -0,0 +1,41 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for reading the transaction history of accounts in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.history")
+public class HistoryProperties {
+
+    /**
+     * The page size used when a history request does not specify one.
+     */
+    private int defaultPageSize = 20;
+
+    /**
+     * The largest page size a history request may ask for.
+     */
+    private int maxPageSize = 100;
+
+    /**
+     * The number of most recent transactions returned with the account details.
+     */
+    private int recentTransactions = 10;
+
+    /**
+     * Bounds a requested page size to the configured limits.
+     *
+     * @param requestedSize The page size requested by the client, may be null.
+     * @return The page size to use, between 1 and the maximum page size.
+     */
+    public int boundPageSize(Integer requestedSize) {
+        if (requestedSize == null) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.max(1, Math.min(requestedSize, maxPageSize));
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the idempotency keys of postings in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * The maximum number of keys kept in memory in front of the idempotency key table.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * How long a key is honoured at least; older keys are purged from memory and from the table.
+     */
+    private Duration timeToLive = Duration.ofHours(24);
+
+    /**
+     * The cron expression on which expired keys are purged from the table, or "-" to never purge them.
+     */
+    private String purgeCron = "0 15 * * * *";
+
+    /**
+     * The number of expired keys deleted per database transaction.
+     */
+    private int purgeBatchSize = 1000;
+
+}
@@ -0,0 +1,41 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the balance snapshots and the ledger verification in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.ledger")
+public class LedgerProperties {
+
+    /**
+     * The cron expression on which balance snapshots are taken, or "-" to take them only on demand.
+     */
+    private String snapshotCron = "0 0 3 * * *";
+
+    /**
+     * How far behind the current time snapshots are cut, so postings still in flight are committed before
+     * the transactions they insert are folded into a snapshot.
+     */
+    private Duration snapshotLag = Duration.ofMinutes(1);
+
+    /**
+     * The number of accounts snapshotted or verified per database round trip.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * The number of threads verifying batches of accounts in parallel. Each holds a database connection.
+     */
+    private int verificationThreads = 4;
+
+    /**
+     * The maximum number of drifted accounts listed in a verification report.
+     */
+    private int maxReportedDrifts = 100;
+
+}
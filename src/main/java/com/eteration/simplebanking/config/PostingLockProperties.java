@@ -0,0 +1,18 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the per-account serialization of postings in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.posting-lock")
+public class PostingLockProperties {
+
+    /**
+     * The number of lock stripes account numbers are hashed onto, rounded up to a power of two.
+     */
+    private int stripes = 64;
+
+}
@@ -0,0 +1,23 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the in-memory read model serving the account details in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.read-model")
+public class ReadModelProperties {
+
+    /**
+     * Whether the account details are served from the read model, kept up to date by the postings of this node.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The number of accounts read from the database at a time when the read model is rebuilt on startup.
+     */
+    private int rebuildBatchSize = 1000;
+
+}
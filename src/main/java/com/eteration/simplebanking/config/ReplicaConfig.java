@@ -0,0 +1,102 @@
+package com.eteration.simplebanking.config;
+
+import com.eteration.simplebanking.services.replica.ReplicaDataSources;
+import com.eteration.simplebanking.services.replica.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration class routing the read-only transactions of the Simple Banking App to a read replica when it is enabled.
+ * The primary keeps the {@code spring.datasource} settings and the replica gets a pool of its own; both count the
+ * statements they execute, so the share of the reads taken off the primary shows in the metrics.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "banking.replica", name = "enabled", havingValue = "true")
+public class ReplicaConfig {
+
+    /**
+     * The name of the counter of the statements executed per datasource, tagged with the target.
+     */
+    public static final String QUERIES_METRIC = "banking.datasource.queries";
+
+    /**
+     * Creates the connection pools of the primary and the replica.
+     *
+     * @param dataSourceProperties The {@code spring.datasource} settings of the primary.
+     * @param replicaProperties    The replica configuration.
+     * @param shardingProperties   The sharding configuration, which must be disabled.
+     * @param environment          The environment the {@code spring.datasource.hikari} settings are bound from.
+     * @param meterRegistry        The registry the statement counters are registered on.
+     * @return The primary and replica datasources.
+     * @throws IllegalStateException if sharding is enabled as well, or no replica url is configured.
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSources replicaDataSources(DataSourceProperties dataSourceProperties, ReplicaProperties replicaProperties,
+                                                 ShardingProperties shardingProperties, Environment environment,
+                                                 MeterRegistry meterRegistry) {
+        if (shardingProperties.isEnabled()) {
+            throw new IllegalStateException("Read replicas are not supported together with sharding");
+        }
+        if (replicaProperties.getUrl() == null) {
+            throw new IllegalStateException("The replica is enabled but no replica url is configured");
+        }
+
+        HikariDataSource primaryPool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primaryPool));
+        primaryPool.setPoolName("primary");
+
+        HikariConfig replicaConfig = new HikariConfig();
+        replicaConfig.setPoolName("replica");
+        replicaConfig.setJdbcUrl(replicaProperties.getUrl());
+        replicaConfig.setUsername(replicaProperties.getUsername());
+        replicaConfig.setPassword(replicaProperties.getPassword());
+        replicaConfig.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        replicaConfig.setAutoCommit(primaryPool.isAutoCommit());
+        replicaConfig.setReadOnly(true);
+        HikariDataSource replicaPool = new HikariDataSource(replicaConfig);
+
+        return new ReplicaDataSources(primaryPool, replicaPool,
+                counted(ReplicaRoutingDataSource.PRIMARY, primaryPool, meterRegistry),
+                counted(ReplicaRoutingDataSource.REPLICA, replicaPool, meterRegistry));
+    }
+
+    /**
+     * Creates the datasource the repositories and the transaction manager work on, routing between the primary
+     * and the replica. The lazy proxy in front takes the connection at the first statement, once the transaction
+     * is known to be read-only.
+     *
+     * @param replicaDataSources The primary and replica datasources.
+     * @return The routing datasource.
+     */
+    @Bean
+    public DataSource dataSource(ReplicaDataSources replicaDataSources) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+                replicaDataSources.getPrimary(), replicaDataSources.getReplica());
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static DataSource counted(String target, DataSource dataSource, MeterRegistry meterRegistry) {
+        Counter queries = Counter.builder(QUERIES_METRIC)
+                .description("Statements executed per datasource")
+                .tag("target", target)
+                .register(meterRegistry);
+        return ProxyDataSourceBuilder.create(target, dataSource)
+                .afterQuery((execInfo, queryInfoList) -> queries.increment())
+                .build();
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for serving the read-only operations from a read replica in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.replica")
+public class ReplicaProperties {
+
+    /**
+     * Whether read-only transactions run on the replica instead of the primary datasource.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The JDBC url of the replica database.
+     */
+    private String url;
+
+    /**
+     * The user connecting to the replica database.
+     */
+    private String username;
+
+    /**
+     * The password of the user.
+     */
+    private String password;
+
+    /**
+     * The maximum number of connections to the replica database.
+     */
+    private int maximumPoolSize = 10;
+
+    /**
+     * How long the reads of a client stay on the primary after it wrote; it should exceed the replication lag.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+}
@@ -0,0 +1,46 @@
+package com.eteration.simplebanking.config;
+
+import com.eteration.simplebanking.metrics.sql.SqlStatisticsTaskDecorator;
+import com.eteration.simplebanking.services.executor.BoundedExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class creating the bounded executors the account endpoints run on, one for postings
+ * and one for lookups, so slow postings never starve lookups and neither ties up the servlet container threads.
+ */
+@Configuration
+public class RequestExecutorConfig {
+
+    /**
+     * Creates the executor running account creation and postings.
+     *
+     * @param properties    The request executor configuration.
+     * @param meterRegistry The registry the executor metrics are registered on.
+     * @return The posting executor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedExecutor postingExecutor(RequestExecutorProperties properties, MeterRegistry meterRegistry) {
+        return create("posting", properties.getPosting(), properties, meterRegistry);
+    }
+
+    /**
+     * Creates the executor running account and history lookups.
+     *
+     * @param properties    The request executor configuration.
+     * @param meterRegistry The registry the executor metrics are registered on.
+     * @return The lookup executor.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedExecutor lookupExecutor(RequestExecutorProperties properties, MeterRegistry meterRegistry) {
+        return create("lookup", properties.getLookup(), properties, meterRegistry);
+    }
+
+    private static BoundedExecutor create(String name, RequestExecutorProperties.Pool pool,
+                                          RequestExecutorProperties properties, MeterRegistry meterRegistry) {
+        return new BoundedExecutor(name, pool.getThreads(), pool.getQueueCapacity(), properties.getTimeout(), properties.getRetryAfter(),
+                new SqlStatisticsTaskDecorator(), meterRegistry);
+    }
+
+}
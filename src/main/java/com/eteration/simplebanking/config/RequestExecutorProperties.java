@@ -0,0 +1,54 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the bounded executors running the account endpoints in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.request-executors")
+public class RequestExecutorProperties {
+
+    /**
+     * How long a request may take on an executor, waiting in its queue included, before it is answered with
+     * 503 Service Unavailable.
+     */
+    private Duration timeout = Duration.ofSeconds(30);
+
+    /**
+     * How long clients are told to wait before retrying a request rejected by a saturated executor.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * The executor running account creation and the credit, debit and payment endpoints.
+     */
+    private Pool posting = new Pool();
+
+    /**
+     * The executor running the account detail and transaction history endpoints.
+     */
+    private Pool lookup = new Pool();
+
+    /**
+     * The size limits of one executor.
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * The number of threads running requests.
+         */
+        private int threads = 16;
+
+        /**
+         * The maximum number of requests waiting for a thread; further requests are rejected.
+         */
+        private int queueCapacity = 100;
+
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.eteration.simplebanking.config;
+
+import com.eteration.simplebanking.services.sharding.ShardDataSources;
+import com.eteration.simplebanking.services.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration class spreading the accounts of the Simple Banking App over several databases when sharding is enabled.
+ * The single datasource is replaced by a datasource routing every connection to the shard selected for the current
+ * thread, and every shard is migrated on startup. The ids generated by the sequences of different shards come from
+ * disjoint ranges, so rows keep their ids when a rebalance moves them to another shard.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "banking.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    /**
+     * The number of low bits of an id left to the sequences of one shard; the shard index takes the bits above.
+     */
+    private static final int SHARD_ID_BITS = 48;
+
+    /**
+     * The sequences generating the ids of the rows moved between shards.
+     */
+    private static final List<String> ID_SEQUENCES = List.of("account_seq", "transaction_seq");
+
+    /**
+     * Creates the connection pools of the shards.
+     *
+     * @param properties            The sharding configuration.
+     * @param groupCommitProperties The group commit configuration, which must be disabled.
+     * @param archiveProperties     The archive configuration, which must be disabled.
+     * @return The shard datasources.
+     * @throws IllegalStateException if no shard is configured, or group commit or the archival job is enabled.
+     */
+    @Bean(destroyMethod = "close")
+    public ShardDataSources shardDataSources(ShardingProperties properties, GroupCommitProperties groupCommitProperties,
+                                             ArchiveProperties archiveProperties) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("Sharding is enabled but no shard is configured");
+        }
+        if (groupCommitProperties.isEnabled()) {
+            throw new IllegalStateException("Group commit applies postings to different accounts in one transaction and cannot run on shards");
+        }
+        if (archiveProperties.isEnabled()) {
+            throw new IllegalStateException("The archival job maintains the partitions of a single database and cannot run on shards");
+        }
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < properties.getShards().size(); i++) {
+            ShardingProperties.Shard shard = properties.getShards().get(i);
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("shard-" + i);
+            config.setJdbcUrl(shard.getUrl());
+            config.setUsername(shard.getUsername());
+            config.setPassword(shard.getPassword());
+            config.setMaximumPoolSize(shard.getMaximumPoolSize());
+            config.setAutoCommit(false);
+            dataSources.add(new HikariDataSource(config));
+        }
+        return new ShardDataSources(dataSources);
+    }
+
+    /**
+     * Creates the datasource the repositories and the transaction manager work on, routing over the shards.
+     * The lazy proxy in front takes the connection at the first statement, so a read-only transaction, which
+     * Hibernate hands a connection as it begins, is still routed to the shard selected after it began.
+     *
+     * @param shardDataSources The shard datasources.
+     * @return The routing datasource.
+     */
+    @Bean
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shardDataSources.getDataSources());
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Creates the migration strategy applying the migrations to every shard instead of the routed datasource,
+     * and moving the id sequences of every shard into the id range of the shard.
+     *
+     * @param shardDataSources The shard datasources.
+     * @return The migration strategy.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(ShardDataSources shardDataSources) {
+        return flyway -> {
+            List<DataSource> dataSources = shardDataSources.getDataSources();
+            for (int i = 0; i < dataSources.size(); i++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(dataSources.get(i))
+                        .load()
+                        .migrate();
+                reserveIdRange(dataSources.get(i), i);
+            }
+            log.info("Migrated {} shards", dataSources.size());
+        };
+    }
+
+    /**
+     * Restarts the id sequences of a shard at the start of its id range, unless they already are inside it.
+     * Checking consumes one value of every sequence, which only skips one block of ids.
+     *
+     * @param dataSource The datasource of the shard.
+     * @param shard      The index of the shard.
+     */
+    private static void reserveIdRange(DataSource dataSource, int shard) {
+        long rangeStart = (long) shard << SHARD_ID_BITS;
+        new JdbcTemplate(dataSource).execute((ConnectionCallback<Void>) connection -> {
+            boolean postgreSql = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            try (Statement statement = connection.createStatement()) {
+                for (String sequence : ID_SEQUENCES) {
+                    long next;
+                    try (ResultSet resultSet = statement.executeQuery(
+                            postgreSql ? "select nextval('" + sequence + "')" : "select next value for " + sequence)) {
+                        resultSet.next();
+                        next = resultSet.getLong(1);
+                    }
+                    if (next < rangeStart) {
+                        statement.execute("alter sequence " + sequence + " restart with " + (rangeStart + 1));
+                    }
+                }
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            return null;
+        });
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for sharding the accounts over several databases in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.sharding")
+public class ShardingProperties {
+
+    /**
+     * Whether accounts are spread over the configured shards instead of living in the single datasource.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The number of points every shard takes on the hash ring; more points spread the accounts more evenly.
+     */
+    private int virtualNodes = 128;
+
+    /**
+     * The number of shards, from the first configured one, accounts are placed on; null places them on every shard.
+     * Configured shards beyond this number are migrated and wait for a rebalance to take their share of the accounts.
+     * Only the first start reads it: the ring is then recorded on the home shard and changed by rebalances alone.
+     */
+    private Integer activeShards;
+
+    /**
+     * Whether this application node is the only one working on the shards. A rebalance holds back the postings
+     * to the account being moved on its own node only, so it is rejected unless this is set.
+     */
+    private boolean singleNode = false;
+
+    /**
+     * The number of accounts a rebalance reads from a shard at a time.
+     */
+    private int rebalanceBatchSize = 500;
+
+    /**
+     * The shard databases; the first one is the home shard also holding the account number sequence.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Returns the number of shards accounts are placed on.
+     *
+     * @return The active shard count.
+     */
+    public int activeShardCount() {
+        return activeShards == null ? shards.size() : activeShards;
+    }
+
+    /**
+     * The connection settings of one shard database.
+     */
+    @Data
+    public static class Shard {
+
+        /**
+         * The JDBC url of the shard database.
+         */
+        private String url;
+
+        /**
+         * The user connecting to the shard database.
+         */
+        private String username;
+
+        /**
+         * The password of the user.
+         */
+        private String password;
+
+        /**
+         * The maximum number of connections to the shard database.
+         */
+        private int maximumPoolSize = 10;
+
+    }
+
+}
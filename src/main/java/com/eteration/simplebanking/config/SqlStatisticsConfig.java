@@ -0,0 +1,42 @@
+package com.eteration.simplebanking.config;
+
+import com.eteration.simplebanking.metrics.sql.SqlStatisticsListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration class wrapping the datasource of the Simple Banking App in a proxy
+ * that counts statements and fetched rows into the SQL statistics of the current thread.
+ */
+@Configuration
+public class SqlStatisticsConfig {
+
+    /**
+     * Creates the post processor wrapping every datasource bean in a counting proxy.
+     *
+     * @return The datasource post processor.
+     */
+    @Bean
+    public static BeanPostProcessor sqlStatisticsDataSourcePostProcessor() {
+        SqlStatisticsListener listener = new SqlStatisticsListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                        .listener(listener)
+                        .methodListener(listener)
+                        .proxyResultSet()
+                        .build();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.eteration.simplebanking.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the per-request SQL statistics in the Simple Banking App.
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.sql")
+public class SqlStatisticsProperties {
+
+    /**
+     * The number of SQL statements a single request may execute before a warning is logged.
+     */
+    private int statementBudget = 20;
+
+    /**
+     * The number of executions of the same SQL statement in a single request that is logged as a possible N+1 query.
+     */
+    private int repeatedStatementThreshold = 10;
+
+}
@@ -1,21 +1,47 @@
 package com.eteration.simplebanking.controller;
 
 import com.eteration.simplebanking.dto.AccountDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryDTO;
 import com.eteration.simplebanking.mapper.AccountMapper;
+import com.eteration.simplebanking.model.enums.TransactionType;
 import com.eteration.simplebanking.payload.request.CreateCreditRequest;
 import com.eteration.simplebanking.payload.request.CreatePhoneBillPaymentRequest;
+import com.eteration.simplebanking.payload.request.CreateTransferRequest;
 import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
 import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.request.StatementExportRequest;
+import com.eteration.simplebanking.payload.request.TransactionHistoryRequest;
 import com.eteration.simplebanking.payload.response.AccountDetailInfo;
 import com.eteration.simplebanking.payload.response.CreatedAccountResponse;
+import com.eteration.simplebanking.payload.response.TransactionHistoryResponse;
 import com.eteration.simplebanking.payload.response.TransactionResponse;
 import com.eteration.simplebanking.services.AccountService;
+import com.eteration.simplebanking.services.export.StatementExport;
+import com.eteration.simplebanking.services.export.StatementFormat;
+import com.eteration.simplebanking.services.executor.BoundedExecutor;
+import com.eteration.simplebanking.services.idempotency.IdempotencyStore;
+import com.eteration.simplebanking.services.readmodel.AccountReadModel;
+import com.eteration.simplebanking.services.replica.ReadYourWritesGuard;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller class for managing account-related operations in the Simple Banking App API.
+ * Account creation and postings run on the posting executor, account and history lookups on the lookup executor,
+ * so the servlet container threads are released while the database works and a saturated executor answers
+ * with 503 right away. Account details are served from the account read model when it is enabled.
+ * Responses to writes carry the last write cookie of the read-your-writes guard, and the reads of a client that sent
+ * a recent one run on the primary and bypass the read model.
  */
 @RestController
 @RequestMapping("/api/v1/account")
@@ -26,68 +52,195 @@ public class AccountController {
 
     private final AccountMapper accountMapper;
 
+    private final BoundedExecutor postingExecutor;
+
+    private final BoundedExecutor lookupExecutor;
+
+    private final AccountReadModel accountReadModel;
+
+    private final ReadYourWritesGuard readYourWritesGuard;
+
     /**
      * Creates a new account based on the provided request data.
      *
      * @param request The request object containing information for creating an account.
-     * @return A ResponseEntity with a CreatedAccountResponse as the response body.
+     * @return A future of a ResponseEntity with a CreatedAccountResponse as the response body.
      */
     @PostMapping(value = "/create")
-    public ResponseEntity<CreatedAccountResponse> createAccount(@RequestBody CreatedAccountRequest request) {
+    public CompletableFuture<ResponseEntity<CreatedAccountResponse>> createAccount(@RequestBody CreatedAccountRequest request) {
 
-        AccountDTO accountDTO = accountService.create(request);
-        return ResponseEntity.ok(accountMapper.toAccountResponse(accountDTO));
+        return postingExecutor.supply(() -> {
+            AccountDTO accountDTO = accountService.create(request);
+            return written(accountMapper.toAccountResponse(accountDTO));
+        });
     }
 
     /**
-     * Retrieves account details by the account number.
+     * Retrieves account details by the account number, including only its most recent transactions.
+     * The details come from the account read model when it holds a view of the account, without touching the database,
+     * and from the account service otherwise, on the primary if the client wrote recently.
      *
      * @param accountNumber The account number to retrieve account details for.
-     * @return A ResponseEntity with AccountDetailInfo as the response body.
+     * @param lastWrite     The last write cookie of the client, if any.
+     * @return A future of a ResponseEntity with AccountDetailInfo as the response body.
      */
     @GetMapping("/account-number/{accountNumber}")
-    public ResponseEntity<AccountDetailInfo> getAccountDetails(@PathVariable String accountNumber){
-        AccountDTO accountDTO = accountService.getAccountByAccountNumber(accountNumber);
-        return ResponseEntity.ok(accountMapper.toAccountDetailInfo(accountDTO));
+    public CompletableFuture<ResponseEntity<AccountDetailInfo>> getAccountDetails(
+            @PathVariable String accountNumber,
+            @CookieValue(value = ReadYourWritesGuard.COOKIE_NAME, required = false) String lastWrite){
+        if (!readYourWritesGuard.isRecentWrite(lastWrite)) {
+            Optional<AccountDetailInfo> projected = accountReadModel.findAccountDetails(accountNumber);
+            if (projected.isPresent()) {
+                return CompletableFuture.completedFuture(ResponseEntity.ok(projected.get()));
+            }
+        }
+        return lookupExecutor.supply(() -> readYourWritesGuard.read(lastWrite, () -> {
+            AccountDTO accountDTO = accountService.getAccountByAccountNumber(accountNumber);
+            return ResponseEntity.ok(accountMapper.toAccountDetailInfo(accountDTO));
+        }));
+    }
+
+    /**
+     * Retrieves one page of the transaction history of the account, most recent first.
+     *
+     * @param accountNumber   The account number to retrieve the history for.
+     * @param cursor          The cursor returned with the previous page, omitted for the first page.
+     * @param size            The page size, bounded by the configured maximum.
+     * @param transactionType The type of transactions to return, omitted for all types.
+     * @param from            The inclusive lower bound of the transaction time, omitted for no bound.
+     * @param to              The exclusive upper bound of the transaction time, omitted for no bound.
+     * @param lastWrite       The last write cookie of the client, if any.
+     * @return A future of a ResponseEntity with TransactionHistoryResponse as the response body.
+     */
+    @GetMapping("/account-number/{accountNumber}/transactions")
+    public CompletableFuture<ResponseEntity<TransactionHistoryResponse>> getTransactionHistory(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) TransactionType transactionType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @CookieValue(value = ReadYourWritesGuard.COOKIE_NAME, required = false) String lastWrite) {
+
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder()
+                .accountNumber(accountNumber)
+                .cursor(cursor)
+                .size(size)
+                .transactionType(transactionType)
+                .from(from)
+                .to(to)
+                .build();
+
+        return lookupExecutor.supply(() -> readYourWritesGuard.read(lastWrite, () -> {
+            TransactionHistoryDTO transactionHistoryDTO = accountService.getTransactionHistory(request);
+            return ResponseEntity.ok(accountMapper.toTransactionHistoryResponse(transactionHistoryDTO));
+        }));
+    }
+
+    /**
+     * Streams the statement of the account over a time range as CSV or NDJSON, oldest transaction first.
+     * The response is written while the transactions are read, so large statements never sit in memory.
+     *
+     * @param accountNumber The account number to export the statement for.
+     * @param from          The inclusive lower bound of the transaction time.
+     * @param to            The exclusive upper bound of the transaction time.
+     * @param format        The format of the statement, CSV by default.
+     * @param lastWrite     The last write cookie of the client, if any.
+     * @return A ResponseEntity streaming the statement as the response body.
+     */
+    @GetMapping("/account-number/{accountNumber}/statement")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @PathVariable String accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "CSV") StatementFormat format,
+            @CookieValue(value = ReadYourWritesGuard.COOKIE_NAME, required = false) String lastWrite) {
+
+        StatementExportRequest request = StatementExportRequest.builder()
+                .accountNumber(accountNumber)
+                .from(from)
+                .to(to)
+                .format(format)
+                .build();
+
+        StatementExport statementExport = readYourWritesGuard.read(lastWrite, () -> accountService.exportStatement(request));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("statement-" + accountNumber + "." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(statementExport::writeTo);
     }
 
     /**
      * Performs a credit operation on the account.
      *
      * @param createCreditRequest The request object for crediting the account.
-     * @return A ResponseEntity with TransactionResponse as the response body.
+     * @param idempotencyKey The optional idempotency key; a retry with the same key returns the original response.
+     * @return A future of a ResponseEntity with TransactionResponse as the response body.
      */
     @PostMapping(value = "/credit")
-    public ResponseEntity<TransactionResponse> credit(@RequestBody CreateCreditRequest createCreditRequest) {
+    public CompletableFuture<ResponseEntity<TransactionResponse>> credit(
+            @RequestBody CreateCreditRequest createCreditRequest,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
 
-        TransactionResponse credit = accountService.credit(createCreditRequest);
-        return ResponseEntity.ok(credit);
+        return postingExecutor.supply(() -> written(accountService.credit(createCreditRequest, idempotencyKey)));
     }
 
     /**
      * Performs a debit operation on the account.
      *
      * @param createWithdrawalRequest The request object for debiting the account.
-     * @return A ResponseEntity with TransactionResponse as the response body.
+     * @param idempotencyKey The optional idempotency key; a retry with the same key returns the original response.
+     * @return A future of a ResponseEntity with TransactionResponse as the response body.
      */
     @PostMapping(value = "/debit")
-    public ResponseEntity<TransactionResponse> debit(@RequestBody CreateWithdrawalRequest createWithdrawalRequest) {
+    public CompletableFuture<ResponseEntity<TransactionResponse>> debit(
+            @RequestBody CreateWithdrawalRequest createWithdrawalRequest,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
 
-        TransactionResponse debit = accountService.debit(createWithdrawalRequest);
-        return ResponseEntity.ok(debit);
+        return postingExecutor.supply(() -> written(accountService.debit(createWithdrawalRequest, idempotencyKey)));
     }
 
     /**
      * Performs a payment operation, such as a phone bill payment, from the account.
      *
      * @param createPhoneBillPaymentRequest The request object for making a payment from the account.
-     * @return A ResponseEntity with TransactionResponse as the response body.
+     * @param idempotencyKey The optional idempotency key; a retry with the same key returns the original response.
+     * @return A future of a ResponseEntity with TransactionResponse as the response body.
      */
     @PostMapping(value = "/payment")
-    public ResponseEntity<TransactionResponse> payment(@RequestBody CreatePhoneBillPaymentRequest createPhoneBillPaymentRequest) {
+    public CompletableFuture<ResponseEntity<TransactionResponse>> payment(
+            @RequestBody CreatePhoneBillPaymentRequest createPhoneBillPaymentRequest,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
 
-        TransactionResponse payment = accountService.payment(createPhoneBillPaymentRequest);
-        return ResponseEntity.ok(payment);
+        return postingExecutor.supply(() -> written(accountService.payment(createPhoneBillPaymentRequest, idempotencyKey)));
+    }
+
+    /**
+     * Transfers money from one account to another atomically.
+     *
+     * @param createTransferRequest The request object for the transfer.
+     * @return A future of a ResponseEntity with TransactionResponse as the response body.
+     */
+    @PostMapping(value = "/transfer")
+    public CompletableFuture<ResponseEntity<TransactionResponse>> transfer(@RequestBody CreateTransferRequest createTransferRequest) {
+
+        return postingExecutor.supply(() -> written(accountService.transfer(createTransferRequest)));
+    }
+
+    /**
+     * Answers a committed write, with the last write cookie keeping the following reads of the client on the primary.
+     *
+     * @param body The response body.
+     * @param <T>  The type of the response body.
+     * @return A ResponseEntity with the body and the last write cookie, if the replica is enabled.
+     */
+    private <T> ResponseEntity<T> written(T body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        readYourWritesGuard.lastWriteCookie().ifPresent(cookie -> response.header(HttpHeaders.SET_COOKIE, cookie.toString()));
+        return response.body(body);
     }
 
-}
\ No newline at end of file
+}
@@ -26,9 +26,9 @@ public class AccountDTO {
     private String owner;
 
     /**
-     * The current balance of the account.
+     * The current balance of the account in minor units.
      */
-    private Double balance;
+    private long balance;
 
     /**
      * The date and time when the account was created.
@@ -36,7 +36,7 @@ public class AccountDTO {
     private LocalDateTime createdDateTime;
 
     /**
-     * A list of transaction DTOs associated with this account.
+     * The most recent transaction DTOs of this account, most recent first.
      */
     List<TransactionDTO> transactionDTOs;
 
@@ -0,0 +1,36 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Event published by the account service when an account is created, delivered once its transaction has committed.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountOpenedEvent {
+
+    /**
+     * The account number of the created account.
+     */
+    private final String accountNumber;
+
+    /**
+     * The name of the account owner.
+     */
+    private final String owner;
+
+    /**
+     * The creation time of the account.
+     */
+    private final LocalDateTime createdDateTime;
+
+    /**
+     * When the account was written, before its transaction committed.
+     */
+    private final Instant writtenAt;
+
+}
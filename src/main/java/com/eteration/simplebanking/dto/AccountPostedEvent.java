@@ -0,0 +1,36 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Event published by the account service for every transaction posted to an account, delivered once the
+ * transaction has committed. A transfer publishes one event for each of its legs.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountPostedEvent {
+
+    /**
+     * The account number the transaction was posted to.
+     */
+    private final String accountNumber;
+
+    /**
+     * The posted transaction.
+     */
+    private final TransactionDTO transaction;
+
+    /**
+     * The change of the balance by the transaction, positive for credits and negative for debits, in minor units.
+     */
+    private final long balanceChange;
+
+    /**
+     * When the transaction was written, before its transaction committed.
+     */
+    private final Instant writtenAt;
+
+}
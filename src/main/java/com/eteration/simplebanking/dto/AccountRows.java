@@ -0,0 +1,43 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every row belonging to one account, by column name, as copied from one shard to another by a rebalance.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class AccountRows {
+
+    /**
+     * The account row.
+     */
+    private final Map<String, Object> account;
+
+    /**
+     * The transactions of the account.
+     */
+    private final List<Map<String, Object>> transactions;
+
+    /**
+     * The balance snapshot of the account, empty or a single row.
+     */
+    private final List<Map<String, Object>> balanceSnapshots;
+
+    /**
+     * The sub-balance slots of the account, empty if the account is not striped.
+     */
+    private final List<Map<String, Object>> balanceSlots;
+
+    /**
+     * The idempotency keys of the postings to the account.
+     */
+    private final List<Map<String, Object>> idempotencyKeys;
+
+}
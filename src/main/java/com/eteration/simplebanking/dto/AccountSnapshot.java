@@ -0,0 +1,61 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of the state of an account, as kept in the account cache.
+ */
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+public class AccountSnapshot {
+
+    /**
+     * The id of the account.
+     */
+    private final Long id;
+
+    /**
+     * The unique account number of the account.
+     */
+    private final String accountNumber;
+
+    /**
+     * The name of the account owner.
+     */
+    private final String owner;
+
+    /**
+     * The balance of the account in minor units when the snapshot was taken.
+     */
+    private final long balance;
+
+    /**
+     * The version of the account row when the snapshot was taken.
+     */
+    private final long version;
+
+    /**
+     * The creation time of the account.
+     */
+    private final LocalDateTime createdDateTime;
+
+    /**
+     * The number of sub-balance slots of the account, 0 if it is not striped.
+     */
+    private final int balanceSlots;
+
+    /**
+     * Returns whether the balance of the account is striped over sub-balance slots.
+     *
+     * @return true if postings to the account go to its slots.
+     */
+    public boolean isStriped() {
+        return balanceSlots > 0;
+    }
+
+}
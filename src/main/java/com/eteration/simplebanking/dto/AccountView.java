@@ -0,0 +1,78 @@
+package com.eteration.simplebanking.dto;
+
+import com.eteration.simplebanking.payload.json.MoneySerializer;
+import com.eteration.simplebanking.payload.response.AccountDetailInfo;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable denormalized view of an account, as kept in the read model. A posting replaces the view of its account
+ * with a new one, so a reader always sees the balance, the recent transactions and the counters of the same point.
+ */
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+public class AccountView {
+
+    /**
+     * The unique account number of the account.
+     */
+    private final String accountNumber;
+
+    /**
+     * The name of the account owner.
+     */
+    private final String owner;
+
+    /**
+     * The balance of the account in minor units, written to JSON as a decimal amount.
+     */
+    @JsonSerialize(using = MoneySerializer.class)
+    private final long balance;
+
+    /**
+     * The creation time of the account.
+     */
+    private final LocalDateTime createdDateTime;
+
+    /**
+     * The most recent transactions of the account, most recent first, as many as the account details return.
+     */
+    private final List<TransactionDTO> recentTransactions;
+
+    /**
+     * The number of transactions adding to the balance: deposits and incoming transfers.
+     */
+    private final long creditCount;
+
+    /**
+     * The number of transactions taken from the balance: withdrawals, payments and outgoing transfers.
+     */
+    private final long debitCount;
+
+    /**
+     * The creation time of the latest transaction, null if the account has none.
+     */
+    private final LocalDateTime lastPostedAt;
+
+    /**
+     * Returns the account details of this view, as the account details endpoint responds with them.
+     *
+     * @return The account details.
+     */
+    public AccountDetailInfo toAccountDetailInfo() {
+        return AccountDetailInfo.builder()
+                .accountNumber(accountNumber)
+                .owner(owner)
+                .balance(balance)
+                .createdDateTime(createdDateTime)
+                .transactionDTOs(recentTransactions)
+                .build();
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.eteration.simplebanking.dto;
+
+import com.eteration.simplebanking.model.DepositTransaction;
+import com.eteration.simplebanking.model.PhoneBillPaymentTransaction;
+import com.eteration.simplebanking.model.Transaction;
+import com.eteration.simplebanking.model.TransferInTransaction;
+import com.eteration.simplebanking.model.TransferOutTransaction;
+import com.eteration.simplebanking.model.WithdrawalTransaction;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transaction as it is stored in an archived segment, detached from its account.
+ */
+@Builder
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ArchivedTransaction {
+
+    /**
+     * The id the transaction had in the database.
+     */
+    private final long id;
+
+    /**
+     * The type of the transaction.
+     */
+    private final TransactionType transactionType;
+
+    /**
+     * The approval code of the transaction, may be null.
+     */
+    private final String approvalCode;
+
+    /**
+     * The amount of the transaction in minor units.
+     */
+    private final long amount;
+
+    /**
+     * The creation time of the transaction.
+     */
+    private final LocalDateTime createdDateTime;
+
+    /**
+     * Converts the archived transaction back into a detached transaction entity of its type, so it goes through
+     * the same mapping and cursor handling as transactions read from the database.
+     *
+     * @return A transaction entity without an account, never to be persisted.
+     */
+    public Transaction toTransaction() {
+        Transaction transaction;
+        switch (transactionType) {
+            case DepositTransaction:
+                transaction = new DepositTransaction(amount);
+                break;
+            case WithdrawalTransaction:
+                transaction = new WithdrawalTransaction(amount);
+                break;
+            case TransferOutTransaction:
+                transaction = new TransferOutTransaction(amount);
+                break;
+            case TransferInTransaction:
+                transaction = new TransferInTransaction(amount);
+                break;
+            default:
+                transaction = new PhoneBillPaymentTransaction(amount);
+                break;
+        }
+        transaction.setId(id);
+        transaction.setTransactionType(transactionType);
+        transaction.setApprovalCode(approvalCode);
+        transaction.setCreatedDateTime(createdDateTime);
+        return transaction;
+    }
+
+    /**
+     * Converts the archived transaction into the DTO statements are written from.
+     *
+     * @return The transaction DTO.
+     */
+    public TransactionDTO toTransactionDTO() {
+        return new TransactionDTO(amount, transactionType, approvalCode, createdDateTime);
+    }
+
+}
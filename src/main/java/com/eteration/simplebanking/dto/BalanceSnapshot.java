@@ -0,0 +1,33 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The balance of an account as of a point in the ledger: the sum of the balance changes of its transactions
+ * created before that point.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class BalanceSnapshot {
+
+    /**
+     * The id of the account.
+     */
+    private final Long accountId;
+
+    /**
+     * The balance of the account in minor units as of the snapshot.
+     */
+    private final long balance;
+
+    /**
+     * The exclusive upper bound of the creation time of the transactions folded into the balance.
+     */
+    private final LocalDateTime asOf;
+
+}
@@ -0,0 +1,73 @@
+package com.eteration.simplebanking.dto;
+
+import com.eteration.simplebanking.exception.InvalidCursorException;
+import com.eteration.simplebanking.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor pointing at a position in the transaction history, ordered by creation time and id.
+ */
+@Getter
+@AllArgsConstructor
+public class HistoryCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * The creation time of the last transaction already returned.
+     */
+    private final LocalDateTime createdDateTime;
+
+    /**
+     * The id of the last transaction already returned.
+     */
+    private final Long id;
+
+    /**
+     * Creates a cursor pointing right after the given transaction.
+     *
+     * @param transaction The last transaction of a page.
+     * @return The cursor for the next page.
+     */
+    public static HistoryCursor after(Transaction transaction) {
+        return new HistoryCursor(transaction.getCreatedDateTime(), transaction.getId());
+    }
+
+    /**
+     * Decodes a cursor previously returned to a client.
+     *
+     * @param value The encoded cursor, may be null or blank for the first page.
+     * @return The decoded cursor, or null for the first page.
+     * @throws InvalidCursorException if the value is not a valid cursor.
+     */
+    public static HistoryCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new HistoryCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException exception) {
+            throw new InvalidCursorException("Invalid Cursor : " + value);
+        }
+    }
+
+    /**
+     * Encodes the cursor into an opaque URL safe string.
+     *
+     * @return The encoded cursor.
+     */
+    public String encode() {
+        String raw = createdDateTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.eteration.simplebanking.dto;
+
+import com.eteration.simplebanking.model.enums.TransactionType;
+import com.eteration.simplebanking.payload.response.TransactionResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable record of a posting made with an idempotency key, as kept in the idempotency key table and in memory.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class IdempotentPosting {
+
+    /**
+     * The idempotency key sent by the client.
+     */
+    private final String idempotencyKey;
+
+    /**
+     * The type of the posted transaction.
+     */
+    private final TransactionType transactionType;
+
+    /**
+     * The account number the transaction was posted to.
+     */
+    private final String accountNumber;
+
+    /**
+     * The amount of the transaction in minor units.
+     */
+    private final long amount;
+
+    /**
+     * The approval code returned for the posting.
+     */
+    private final String approvalCode;
+
+    /**
+     * The date and time when the key was claimed.
+     */
+    private final LocalDateTime createdDateTime;
+
+    /**
+     * Returns whether a posting is the same as the one recorded under the key.
+     *
+     * @param transactionType The type of the posting.
+     * @param accountNumber   The account number of the posting.
+     * @param amount          The amount of the posting in minor units.
+     * @return true if type, account and amount are the recorded ones.
+     */
+    public boolean matches(TransactionType transactionType, String accountNumber, long amount) {
+        return this.transactionType == transactionType
+                && this.accountNumber.equals(accountNumber)
+                && this.amount == amount;
+    }
+
+    /**
+     * Returns the response of the original posting.
+     *
+     * @return The transaction response carrying the original approval code.
+     */
+    public TransactionResponse toResponse() {
+        return TransactionResponse.builder()
+                .status("OK")
+                .approvalCode(approvalCode)
+                .build();
+    }
+
+}
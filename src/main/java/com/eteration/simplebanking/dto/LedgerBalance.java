@@ -0,0 +1,66 @@
+package com.eteration.simplebanking.dto;
+
+import com.eteration.simplebanking.payload.json.MoneySerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The stored balance of an account next to the balance reconstructed from its ledger.
+ */
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+public class LedgerBalance {
+
+    /**
+     * The id of the account.
+     */
+    private final Long accountId;
+
+    /**
+     * The unique account number of the account.
+     */
+    private final String accountNumber;
+
+    /**
+     * The balance stored on the account, in minor units.
+     */
+    @JsonSerialize(using = MoneySerializer.class)
+    private final long balance;
+
+    /**
+     * The balance reconstructed from the latest snapshot and the transactions created since, in minor units.
+     */
+    @JsonSerialize(using = MoneySerializer.class)
+    private final long reconstructedBalance;
+
+    /**
+     * The point in the ledger of the snapshot the balance was reconstructed from, or null if it was
+     * reconstructed from the whole history.
+     */
+    private final LocalDateTime snapshotAsOf;
+
+    /**
+     * Returns by how much the stored balance deviates from the ledger.
+     *
+     * @return The stored balance minus the reconstructed balance, in minor units.
+     */
+    @JsonSerialize(using = MoneySerializer.class)
+    public long getDrift() {
+        return balance - reconstructedBalance;
+    }
+
+    /**
+     * Tells whether the stored balance deviates from the ledger.
+     *
+     * @return True if the drift is not zero.
+     */
+    public boolean isDrifted() {
+        return balance != reconstructedBalance;
+    }
+
+}
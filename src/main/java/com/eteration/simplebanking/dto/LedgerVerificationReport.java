@@ -0,0 +1,43 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The outcome of verifying the stored balance of every account against its ledger.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class LedgerVerificationReport {
+
+    /**
+     * The time the verification started.
+     */
+    private final LocalDateTime startedAt;
+
+    /**
+     * How long the verification took, in milliseconds.
+     */
+    private final long elapsedMillis;
+
+    /**
+     * The number of accounts verified.
+     */
+    private final long verifiedAccounts;
+
+    /**
+     * The number of accounts whose stored balance deviates from the ledger.
+     */
+    private final long driftedAccounts;
+
+    /**
+     * The drifted accounts ordered by id, capped at the configured maximum.
+     */
+    private final List<LedgerBalance> drifts;
+
+}
@@ -0,0 +1,37 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The state of the account read model, as reported by the read model endpoint.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ReadModelStatusDTO {
+
+    /**
+     * Whether the read model has been rebuilt and serves the account details.
+     */
+    private final boolean ready;
+
+    /**
+     * The number of account views held.
+     */
+    private final int accounts;
+
+    /**
+     * When the last rebuild finished, null if none has.
+     */
+    private final LocalDateTime rebuiltAt;
+
+    /**
+     * How long the last rebuild took in milliseconds, null if none has finished.
+     */
+    private final Long rebuildMillis;
+
+}
@@ -0,0 +1,25 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The ring the accounts are routed by, as recorded on the home shard by every rebalance.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ShardRingState {
+
+    /**
+     * The number of shards the accounts are placed on.
+     */
+    private final int activeShards;
+
+    /**
+     * The number of shards a rebalance in progress moves the accounts onto, or null if no rebalance is in progress.
+     */
+    private final Integer targetShards;
+
+}
@@ -0,0 +1,37 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * How the accounts are spread over the shards, as reported by the shards endpoint.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class ShardingStatusDTO {
+
+    /**
+     * The number of configured shards.
+     */
+    private final int configuredShards;
+
+    /**
+     * The number of shards accounts are placed on.
+     */
+    private final int activeShards;
+
+    /**
+     * The number of accounts on every configured shard, by shard index.
+     */
+    private final List<Long> accountsPerShard;
+
+    /**
+     * The number of accounts moved by the rebalance that produced this status, null if no rebalance ran.
+     */
+    private final Long movedAccounts;
+
+}
@@ -0,0 +1,37 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The balance of an account and how it is striped over sub-balance slots, as reported by the striping endpoint.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class StripedBalanceDTO {
+
+    /**
+     * The account number.
+     */
+    private final String accountNumber;
+
+    /**
+     * The total balance of the account in minor units: its own balance plus the sum of its slots.
+     */
+    private final long balance;
+
+    /**
+     * The own balance of the account row in minor units.
+     */
+    private final long accountBalance;
+
+    /**
+     * The balances of the slots in minor units, empty if the account is not striped.
+     */
+    private final List<Long> slotBalances;
+
+}
@@ -1,6 +1,8 @@
 package com.eteration.simplebanking.dto;
 
 import com.eteration.simplebanking.model.enums.TransactionType;
+import com.eteration.simplebanking.payload.json.MoneySerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -16,9 +18,10 @@ import java.time.LocalDateTime;
 public class TransactionDTO {
 
     /**
-     * The transaction amount, which can be positive (credit) or negative (debit).
+     * The transaction amount in minor units, written to JSON as a decimal amount.
      */
-    private Double amount;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long amount;
 
     /**
      * The type of the transaction, such as credit, debit, or other transaction types.
@@ -0,0 +1,36 @@
+package com.eteration.simplebanking.dto;
+
+import com.eteration.simplebanking.model.enums.TransactionType;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria selecting one page of the transaction history of an account.
+ */
+@Builder
+@Getter
+public class TransactionHistoryCriteria {
+
+    /**
+     * The cursor of the previous page; only older transactions are returned. Null for the first page.
+     */
+    private HistoryCursor cursor;
+
+    /**
+     * The type of transactions to return, or null for all types.
+     */
+    private TransactionType transactionType;
+
+    /**
+     * The inclusive lower bound of the creation time, or null for no bound.
+     */
+    private LocalDateTime from;
+
+    /**
+     * The exclusive upper bound of the creation time, or null for no bound.
+     */
+    private LocalDateTime to;
+
+}
@@ -0,0 +1,32 @@
+package com.eteration.simplebanking.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing one page of the transaction history of an account.
+ */
+@Builder
+@RequiredArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TransactionHistoryDTO {
+
+    /**
+     * The account number the history belongs to.
+     */
+    private String accountNumber;
+
+    /**
+     * The transactions of the page, most recent first.
+     */
+    private List<TransactionDTO> transactionDTOs;
+
+    /**
+     * The cursor to request the next page with, or null if this is the last page.
+     */
+    private String nextCursor;
+
+}
@@ -0,0 +1,10 @@
+package com.eteration.simplebanking.exception;
+
+/**
+ * Exception thrown when every account number has been handed out.
+ */
+public class AccountNumberSpaceExhaustedException extends RuntimeException {
+    public AccountNumberSpaceExhaustedException(String message) {
+        super(message);
+    }
+}
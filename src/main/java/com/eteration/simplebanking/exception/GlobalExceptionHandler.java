@@ -194,4 +194,128 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    /**
+     * Handles the custom exception InvalidCursorException.
+     *
+     * @param exception The InvalidCursorException that was thrown.
+     * @return A ResponseEntity with an error response for an invalid history cursor.
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    protected ResponseEntity<Object> handleInvalidCursorException(InvalidCursorException exception) {
+
+        log.error(exception.getMessage(), exception);
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .message(exception.getMessage())
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .status(HttpStatus.BAD_REQUEST)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    /**
+     * Handles the custom exception AccountNumberSpaceExhaustedException.
+     *
+     * @param exception The AccountNumberSpaceExhaustedException that was thrown.
+     * @return A ResponseEntity with an error response for an exhausted account number space.
+     */
+    @ExceptionHandler(AccountNumberSpaceExhaustedException.class)
+    protected ResponseEntity<Object> handleAccountNumberSpaceExhaustedException(AccountNumberSpaceExhaustedException exception) {
+
+        log.error(exception.getMessage(), exception);
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .message(exception.getMessage())
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    /**
+     * Handles the custom exception ServiceOverloadedException.
+     *
+     * @param exception The ServiceOverloadedException that was thrown.
+     * @return A ResponseEntity with an error response and a Retry-After header for a saturated executor.
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    protected ResponseEntity<Object> handleServiceOverloadedException(ServiceOverloadedException exception) {
+
+        log.warn(exception.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .message(exception.getMessage())
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .build();
+
+        long retryAfterSeconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(errorResponse);
+    }
+
+    /**
+     * Handles the custom exception RequestOutcomeUnknownException.
+     *
+     * @param exception The RequestOutcomeUnknownException that was thrown.
+     * @return A ResponseEntity with an error response, without Retry-After, for a request timed out after it started.
+     */
+    @ExceptionHandler(RequestOutcomeUnknownException.class)
+    protected ResponseEntity<Object> handleRequestOutcomeUnknownException(RequestOutcomeUnknownException exception) {
+
+        log.warn(exception.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .message(exception.getMessage())
+                .statusCode(HttpStatus.GATEWAY_TIMEOUT.value())
+                .status(HttpStatus.GATEWAY_TIMEOUT)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+    }
+
+    /**
+     * Handles the custom exception IdempotencyKeyReusedException.
+     *
+     * @param exception The IdempotencyKeyReusedException that was thrown.
+     * @return A ResponseEntity with an error response for an idempotency key reused for a different posting.
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    protected ResponseEntity<Object> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException exception) {
+
+        log.error(exception.getMessage(), exception);
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .message(exception.getMessage())
+                .statusCode(HttpStatus.UNPROCESSABLE_ENTITY.value())
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+    }
+
+    /**
+     * Handles the custom exception InvalidTransferException.
+     *
+     * @param exception The InvalidTransferException that was thrown.
+     * @return A ResponseEntity with an error response for a transfer to the same account or of a non-positive amount.
+     */
+    @ExceptionHandler(InvalidTransferException.class)
+    protected ResponseEntity<Object> handleInvalidTransferException(InvalidTransferException exception) {
+
+        log.error(exception.getMessage(), exception);
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .message(exception.getMessage())
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .status(HttpStatus.BAD_REQUEST)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
 }
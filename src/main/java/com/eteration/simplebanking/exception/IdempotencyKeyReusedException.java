@@ -0,0 +1,10 @@
+package com.eteration.simplebanking.exception;
+
+/**
+ * Exception thrown when an idempotency key is sent again with a posting different from the one it was first used for.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.eteration.simplebanking.exception;
+
+/**
+ * Exception thrown when a transaction history cursor cannot be decoded.
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.eteration.simplebanking.exception;
+
+/**
+ * Exception thrown when a transfer is made to the sending account itself or with a non-positive amount.
+ */
+public class InvalidTransferException extends RuntimeException {
+    public InvalidTransferException(String message) {
+        super(message);
+    }
+}
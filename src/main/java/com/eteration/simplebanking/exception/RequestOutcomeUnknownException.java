@@ -0,0 +1,10 @@
+package com.eteration.simplebanking.exception;
+
+/**
+ * Exception thrown when a request timed out after its work started, so the work may still complete and be applied.
+ */
+public class RequestOutcomeUnknownException extends RuntimeException {
+    public RequestOutcomeUnknownException(String message) {
+        super(message);
+    }
+}
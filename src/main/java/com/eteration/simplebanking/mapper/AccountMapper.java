@@ -1,8 +1,10 @@
 package com.eteration.simplebanking.mapper;
 
 import com.eteration.simplebanking.dto.AccountDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryDTO;
 import com.eteration.simplebanking.payload.response.AccountDetailInfo;
 import com.eteration.simplebanking.payload.response.CreatedAccountResponse;
+import com.eteration.simplebanking.payload.response.TransactionHistoryResponse;
 import org.mapstruct.Mapper;
 
 /**
@@ -27,4 +29,12 @@ public interface AccountMapper {
      */
     AccountDetailInfo toAccountDetailInfo(AccountDTO accountDTO);
 
+    /**
+     * Maps a TransactionHistoryDTO to a TransactionHistoryResponse object.
+     *
+     * @param transactionHistoryDTO The source TransactionHistoryDTO to be mapped.
+     * @return A TransactionHistoryResponse object.
+     */
+    TransactionHistoryResponse toTransactionHistoryResponse(TransactionHistoryDTO transactionHistoryDTO);
+
 }
@@ -0,0 +1,207 @@
+package com.eteration.simplebanking.metrics;
+
+import com.eteration.simplebanking.exception.AccountNotFoundException;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspect recording the latency of banking operations in the Simple Banking App.
+ * Every {@link TimedOperation} is timed as a whole and tagged by outcome. The time the operation spends in repository
+ * calls, to Spring Data repositories and JdbcTemplate repositories alike, and in completing its transaction, where
+ * Hibernate flushes its batched statements, is recorded as database time and the rest as JVM time, so dashboards
+ * can show where the latency of an operation goes.
+ * The aspect runs outside the transaction advice, so the commit is part of the timed operation.
+ */
+@Aspect
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class OperationMetricsAspect {
+
+    /**
+     * The name of the timer recording the whole latency of an operation.
+     */
+    public static final String OPERATION_METRIC = "banking.operation";
+
+    /**
+     * The name of the timer recording the time an operation spends in the database.
+     */
+    public static final String OPERATION_DB_METRIC = "banking.operation.db";
+
+    /**
+     * The name of the timer recording the time an operation spends in the JVM outside the database.
+     */
+    public static final String OPERATION_JVM_METRIC = "banking.operation.jvm";
+
+    /**
+     * The name of the timer recording the latency of every repository call.
+     */
+    public static final String REPOSITORY_METRIC = "banking.repository";
+
+    /**
+     * The name of the timer recording the completion of transactions, that is the flush and the commit or rollback.
+     */
+    public static final String COMPLETION_METRIC = "banking.transaction.completion";
+
+    private static final String REPOSITORY_PACKAGE = "com.eteration.simplebanking.repository";
+
+    private static final Object COMPLETION_TIMER_KEY = new Object();
+
+    /**
+     * The database time accumulated by the operation running on the current thread, null outside operations.
+     */
+    private static final ThreadLocal<long[]> DB_NANOS = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    /**
+     * Times a banking operation and records its database and JVM time.
+     *
+     * @param joinPoint      The intercepted service method.
+     * @param timedOperation The annotation naming the operation.
+     * @return The result of the operation.
+     * @throws Throwable whatever the operation throws.
+     */
+    @Around("@annotation(timedOperation)")
+    public Object timeOperation(ProceedingJoinPoint joinPoint, TimedOperation timedOperation) throws Throwable {
+        long[] outer = DB_NANOS.get();
+        long[] dbNanos = new long[1];
+        DB_NANOS.set(dbNanos);
+        String outcome = "ok";
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            outcome = outcomeOf(throwable);
+            throw throwable;
+        } finally {
+            long total = System.nanoTime() - start;
+            restore(outer);
+            String operation = timedOperation.value();
+            histogram(OPERATION_METRIC).tags("operation", operation, "outcome", outcome)
+                    .register(meterRegistry).record(total, TimeUnit.NANOSECONDS);
+            histogram(OPERATION_DB_METRIC).tag("operation", operation)
+                    .register(meterRegistry).record(dbNanos[0], TimeUnit.NANOSECONDS);
+            histogram(OPERATION_JVM_METRIC).tag("operation", operation)
+                    .register(meterRegistry).record(Math.max(0, total - dbNanos[0]), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Times a repository call, of a Spring Data repository or of a class annotated as a repository such as the
+     * JdbcTemplate ones, and adds it to the database time of the current operation.
+     *
+     * @param joinPoint The intercepted repository method.
+     * @return The result of the repository call.
+     * @throws Throwable whatever the repository call throws.
+     */
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))"
+            + " || execution(* (@org.springframework.stereotype.Repository *).*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        timeCompletionOfCurrentTransaction();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = addDbTime(System.nanoTime() - start, DB_NANOS.get());
+            histogram(REPOSITORY_METRIC)
+                    .tags("repository", repositoryName(joinPoint.getThis()), "method", joinPoint.getSignature().getName())
+                    .register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Registers, once per transaction, a synchronization timing the completion of the current transaction,
+     * which covers the flush of batched statements and the commit or rollback.
+     */
+    private void timeCompletionOfCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(COMPLETION_TIMER_KEY)) {
+            return;
+        }
+        long[] dbNanos = DB_NANOS.get();
+        TransactionSynchronizationManager.bindResource(COMPLETION_TIMER_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private long start;
+
+            @Override
+            public void beforeCompletion() {
+                start = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(COMPLETION_TIMER_KEY);
+                if (start == 0) {
+                    return;
+                }
+                long elapsed = addDbTime(System.nanoTime() - start, dbNanos);
+                histogram(COMPLETION_METRIC).tag("status", status == STATUS_COMMITTED ? "committed" : "rolled_back")
+                        .register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    private static long addDbTime(long elapsed, long[] dbNanos) {
+        if (dbNanos != null) {
+            dbNanos[0] += elapsed;
+        }
+        return elapsed;
+    }
+
+    private static void restore(long[] outer) {
+        if (outer == null) {
+            DB_NANOS.remove();
+        } else {
+            DB_NANOS.set(outer);
+        }
+    }
+
+    private static Timer.Builder histogram(String name) {
+        return Timer.builder(name).publishPercentileHistogram();
+    }
+
+    private static String outcomeOf(Throwable throwable) {
+        if (throwable instanceof InsufficientBalanceException) {
+            return "insufficient_balance";
+        }
+        if (throwable instanceof AccountNotFoundException) {
+            return "not_found";
+        }
+        return "error";
+    }
+
+    private String repositoryName(Object repository) {
+        return repositoryNames.computeIfAbsent(repository.getClass(), type -> {
+            Class<?> userClass = ClassUtils.getUserClass(type);
+            if (userClass.getPackageName().equals(REPOSITORY_PACKAGE)) {
+                return userClass.getSimpleName();
+            }
+            for (Class<?> userInterface : AopProxyUtils.proxiedUserInterfaces(repository)) {
+                if (userInterface.getPackageName().equals(REPOSITORY_PACKAGE)) {
+                    return userInterface.getSimpleName();
+                }
+            }
+            return type.getSimpleName();
+        });
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.eteration.simplebanking.metrics;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a service method as a banking operation whose latency is recorded by {@link OperationMetricsAspect},
+ * tagged with the operation name and its outcome.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface TimedOperation {
+
+    /**
+     * The name of the operation, used as the value of the operation tag.
+     *
+     * @return The operation name.
+     */
+    String value();
+
+}
@@ -0,0 +1,112 @@
+package com.eteration.simplebanking.metrics.sql;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * SQL statistics of one unit of work, such as an HTTP request, in the Simple Banking App.
+ * A statement is one execution sent to the database, so a JDBC batch counts once however many rows it carries.
+ * Statements are also counted by kind, so sequence calls and other statements only add to the total.
+ */
+@Getter
+public class SqlStatistics {
+
+    /**
+     * The number of statements executed.
+     */
+    private long statements;
+
+    /**
+     * The number of select statements executed.
+     */
+    private long selects;
+
+    /**
+     * The number of insert statements executed.
+     */
+    private long inserts;
+
+    /**
+     * The number of update statements executed.
+     */
+    private long updates;
+
+    /**
+     * The number of delete statements executed.
+     */
+    private long deletes;
+
+    /**
+     * The number of rows fetched from result sets.
+     */
+    private long rows;
+
+    /**
+     * The time spent executing statements, in nanoseconds.
+     */
+    private long nanos;
+
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+
+    /**
+     * Records the execution of a statement.
+     *
+     * @param sql          The SQL of the statement.
+     * @param elapsedNanos The time the execution took, in nanoseconds.
+     */
+    void recordStatement(String sql, long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+        executionsBySql.merge(sql, 1, Integer::sum);
+        String keyword = sql.stripLeading();
+        keyword = keyword.substring(0, Math.min(6, keyword.length())).toLowerCase(Locale.ROOT);
+        switch (keyword) {
+            case "select":
+                selects++;
+                break;
+            case "insert":
+                inserts++;
+                break;
+            case "update":
+                updates++;
+                break;
+            case "delete":
+                deletes++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Records a row fetched from a result set.
+     */
+    void recordRow() {
+        rows++;
+    }
+
+    /**
+     * Returns the statement executed most often, the usual signature of an N+1 query.
+     *
+     * @return An Optional containing the SQL and its execution count, or an empty Optional if nothing was executed.
+     */
+    public Optional<Map.Entry<String, Integer>> mostRepeatedStatement() {
+        return executionsBySql.entrySet().stream().max(Map.Entry.comparingByValue());
+    }
+
+    /**
+     * Returns the distinct statements executed.
+     *
+     * @return The SQL of every executed statement.
+     */
+    public Set<String> executedStatements() {
+        return Collections.unmodifiableSet(executionsBySql.keySet());
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.eteration.simplebanking.metrics.sql;
+
+import com.eteration.simplebanking.config.SqlStatisticsProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter counting the SQL statements, fetched rows and database time of every HTTP request.
+ * The counts are published as metrics tagged by endpoint, and a warning is logged when a request exceeds
+ * the statement budget or repeats the same statement often enough to look like an N+1 query.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    /**
+     * The name of the summary recording the statements executed per request.
+     */
+    public static final String STATEMENTS_METRIC = "banking.http.sql.statements";
+
+    /**
+     * The name of the summary recording the rows fetched per request.
+     */
+    public static final String ROWS_METRIC = "banking.http.sql.rows";
+
+    /**
+     * The name of the timer recording the time spent executing statements per request.
+     */
+    public static final String TIME_METRIC = "banking.http.sql.time";
+
+    private final SqlStatisticsProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Counts the SQL statements of the request and records them once the request has been handled.
+     * A request handed to an executor keeps counting there through {@link SqlStatisticsTaskDecorator}
+     * and is recorded when its asynchronous processing completes.
+     *
+     * @param request     The HTTP request.
+     * @param response    The HTTP response.
+     * @param filterChain The remaining filter chain.
+     * @throws ServletException if the chain throws it.
+     * @throws IOException      if the chain throws it.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = new SqlStatistics();
+        SqlStatisticsHolder.set(statistics);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatisticsHolder.set(null);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, statistics);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, statistics);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, SqlStatistics statistics) {
+        Tags tags = Tags.of(WebMvcTags.method(request), WebMvcTags.uri(request, response));
+
+        DistributionSummary.builder(STATEMENTS_METRIC).tags(tags).register(meterRegistry).record(statistics.getStatements());
+        DistributionSummary.builder(ROWS_METRIC).tags(tags).register(meterRegistry).record(statistics.getRows());
+        Timer.builder(TIME_METRIC).tags(tags).register(meterRegistry).record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (statistics.getStatements() > properties.getStatementBudget()) {
+            log.warn("{} {} executed {} SQL statements, over the budget of {}",
+                    request.getMethod(), request.getRequestURI(), statistics.getStatements(), properties.getStatementBudget());
+        }
+
+        statistics.mostRepeatedStatement()
+                .filter(entry -> entry.getValue() >= properties.getRepeatedStatementThreshold())
+                .ifPresent(entry -> log.warn("{} {} executed the same SQL statement {} times, possible N+1 query: {}",
+                        request.getMethod(), request.getRequestURI(), entry.getValue(), entry.getKey()));
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.eteration.simplebanking.metrics.sql;
+
+/**
+ * Holder binding the SQL statistics of the current unit of work to the current thread.
+ */
+public final class SqlStatisticsHolder {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private SqlStatisticsHolder() {
+    }
+
+    /**
+     * Returns the statistics bound to the current thread.
+     *
+     * @return The current statistics, or null if statements of this thread are not counted.
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds statistics to the current thread.
+     *
+     * @param statistics The statistics to bind, or null to stop counting statements of this thread.
+     */
+    public static void set(SqlStatistics statistics) {
+        if (statistics == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(statistics);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.eteration.simplebanking.metrics.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Datasource proxy listener adding every statement execution and every fetched row
+ * to the SQL statistics bound to the executing thread.
+ */
+public class SqlStatisticsListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final String START_NANOS = SqlStatisticsListener.class.getName() + ".start";
+
+    /**
+     * Remembers when a statement execution started.
+     *
+     * @param execInfo The execution about to run.
+     * @param queries  The queries of the execution.
+     */
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+        if (SqlStatisticsHolder.current() != null) {
+            execInfo.addCustomValue(START_NANOS, System.nanoTime());
+        }
+    }
+
+    /**
+     * Records a finished statement execution.
+     *
+     * @param execInfo The finished execution.
+     * @param queries  The queries of the execution.
+     */
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queries) {
+        SqlStatistics statistics = SqlStatisticsHolder.current();
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        if (statistics == null || start == null || queries.isEmpty()) {
+            return;
+        }
+        statistics.recordStatement(queries.get(0).getQuery(), System.nanoTime() - start);
+    }
+
+    /**
+     * Does nothing before JDBC method calls.
+     *
+     * @param executionContext The JDBC method call about to run.
+     */
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    /**
+     * Records a row whenever a result set advances to a new row.
+     *
+     * @param executionContext The finished JDBC method call.
+     */
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            SqlStatistics statistics = SqlStatisticsHolder.current();
+            if (statistics != null) {
+                statistics.recordRow();
+            }
+        }
+    }
+
+}
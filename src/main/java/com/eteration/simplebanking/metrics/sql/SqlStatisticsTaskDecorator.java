@@ -0,0 +1,31 @@
+package com.eteration.simplebanking.metrics.sql;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Task decorator carrying the SQL statistics of the submitting thread over to the thread running the task,
+ * so statements of a request handed to an executor still count towards that request.
+ */
+public class SqlStatisticsTaskDecorator implements TaskDecorator {
+
+    /**
+     * Binds the statistics of the submitting thread while the task runs.
+     *
+     * @param runnable The task.
+     * @return The task running with the statistics of the submitting thread.
+     */
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        SqlStatistics statistics = SqlStatisticsHolder.current();
+        return () -> {
+            SqlStatistics previous = SqlStatisticsHolder.current();
+            SqlStatisticsHolder.set(statistics);
+            try {
+                runnable.run();
+            } finally {
+                SqlStatisticsHolder.set(previous);
+            }
+        };
+    }
+
+}
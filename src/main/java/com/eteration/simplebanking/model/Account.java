@@ -25,25 +25,42 @@ import java.util.Set;
 @AllArgsConstructor
 public class Account extends BaseEntity {
 
+    /**
+     * The id of the account, drawn from a pooled sequence so inserts can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     private Long id;
 
     /**
      * The unique account number associated with the account.
      */
+    @Column(unique = true, nullable = false)
     private String accountNumber;
 
     /**
-     * The current balance of the account.
+     * The current balance of the account in minor units (e.g. cents).
+     */
+    private long balance;
+
+    /**
+     * The number of sub-balance slots postings to a striped account spread over, 0 if the account is not striped.
+     * The balance of a striped account is its own balance plus the sum of its slots.
      */
-    private double balance;
+    private int balanceSlots;
 
     /**
      * The name of the account owner.
      */
     private String owner;
 
+    /**
+     * The version of the account row, incremented by every balance change.
+     */
+    @Version
+    private long version;
+
     /**
      * A set of transactions associated with this account.
      */
@@ -54,10 +71,10 @@ public class Account extends BaseEntity {
     /**
      * Deposits a specified amount into the account.
      *
-     * @param amount The amount to deposit. Must be a non-negative value.
+     * @param amount The amount to deposit in minor units. Must be a non-negative value.
      * @throws IllegalArgumentException if the deposit amount is negative.
      */
-    public void deposit(double amount) {
+    public void deposit(long amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("The deposit amount cannot be negative.");
         }
@@ -67,10 +84,10 @@ public class Account extends BaseEntity {
     /**
      * Withdraws a specified amount from the account, if sufficient balance is available.
      *
-     * @param amount The amount to withdraw. Must be less than or equal to the account balance.
+     * @param amount The amount to withdraw in minor units. Must be less than or equal to the account balance.
      * @throws InsufficientBalanceException if there are insufficient funds for the withdrawal.
      */
-    public void withdraw(double amount) throws InsufficientBalanceException {
+    public void withdraw(long amount) throws InsufficientBalanceException {
         if (balance < amount) {
             throw new InsufficientBalanceException("Insufficient funds.");
         }
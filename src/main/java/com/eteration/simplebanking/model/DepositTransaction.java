@@ -20,14 +20,15 @@ public class DepositTransaction extends Transaction {
     /**
      * Constructs a DepositTransaction with the specified amount.
      *
-     * @param amount The amount to deposit.
+     * @param amount The amount to deposit in minor units.
      */
-    public DepositTransaction(double amount) {
+    public DepositTransaction(long amount) {
         super(amount);
     }
 
     /**
-     * Executes the deposit transaction on the specified account, adding the transaction to the account's transaction list.
+     * Executes the deposit transaction on the specified account by adding the amount to its balance.
+     * The account's transaction collection is not touched, so the lazy history is never initialized.
      *
      * @param account The account on which the deposit transaction is executed.
      * @throws InsufficientBalanceException if there is an issue with insufficient balance.
@@ -35,7 +36,20 @@ public class DepositTransaction extends Transaction {
     @Override
     public void executeOn(Account account) throws InsufficientBalanceException {
         account.deposit(this.getAmount());
-        account.getTransactions().add(this);
+    }
+
+    /**
+     * Returns the deposited amount as a positive balance change.
+     *
+     * @return The amount to add to the account balance.
+     * @throws IllegalArgumentException if the deposit amount is negative.
+     */
+    @Override
+    public long balanceChange() {
+        if (this.getAmount() < 0) {
+            throw new IllegalArgumentException("The deposit amount cannot be negative.");
+        }
+        return this.getAmount();
     }
 
 }
@@ -16,9 +16,9 @@ public class PhoneBillPaymentTransaction extends WithdrawalTransaction {
     /**
      * Constructs a PhoneBillPaymentTransaction with the specified amount.
      *
-     * @param amount The amount to pay for a phone bill.
+     * @param amount The amount to pay for a phone bill in minor units.
      */
-    public PhoneBillPaymentTransaction(double amount) {
+    public PhoneBillPaymentTransaction(long amount) {
         super(amount);
     }
 
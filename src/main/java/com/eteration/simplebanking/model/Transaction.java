@@ -9,13 +9,16 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Immutable;
 
 import javax.persistence.*;
 
 /**
  * Represents a financial transaction in the Simple Banking App, extended by various transaction types.
+ * Transactions form an append-only ledger: once inserted they are never updated.
  */
 @Entity
+@Immutable
 @Data
 @EqualsAndHashCode(callSuper=false)
 @AllArgsConstructor
@@ -25,8 +28,12 @@ import javax.persistence.*;
 @DiscriminatorColumn(name = "transaction_type", discriminatorType = DiscriminatorType.STRING)
 public abstract class Transaction extends BaseEntity {
 
+    /**
+     * The id of the transaction, drawn from a pooled sequence so inserts can be batched.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -35,9 +42,9 @@ public abstract class Transaction extends BaseEntity {
     private String approvalCode;
 
     /**
-     * The amount involved in the transaction.
+     * The amount involved in the transaction in minor units (e.g. cents).
      */
-    private double amount;
+    private long amount;
 
     /**
      * The type of the transaction (e.g., deposit, withdrawal).
@@ -48,16 +55,17 @@ public abstract class Transaction extends BaseEntity {
 
     /**
      * The account associated with the transaction.
+     * Nothing is cascaded to the account, so persisting a transaction never walks the account's history.
      */
-    @ManyToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY)
     private Account account;
 
     /**
      * Constructs a transaction with the specified amount.
      *
-     * @param amount The amount involved in the transaction.
+     * @param amount The amount involved in the transaction in minor units.
      */
-    public Transaction(double amount) {
+    public Transaction(long amount) {
         this.amount = amount;
     }
 
@@ -69,4 +77,12 @@ public abstract class Transaction extends BaseEntity {
      */
     public abstract void executeOn(Account account) throws InsufficientBalanceException;
 
+    /**
+     * Returns the signed change this transaction applies to an account balance, used by the atomic in-database posting.
+     * Subclasses must provide the implementation for this method.
+     *
+     * @return The positive amount for credits or the negative amount for debits, in minor units.
+     */
+    public abstract long balanceChange();
+
 }
@@ -0,0 +1,48 @@
+package com.eteration.simplebanking.model;
+
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.Entity;
+
+/**
+ * Represents the credit leg of a transfer in the Simple Banking App, received from another account.
+ * It shares its approval code with the {@link TransferOutTransaction} of the same transfer.
+ */
+@Entity
+@NoArgsConstructor
+@DiscriminatorValue("TransferInTransaction")
+public class TransferInTransaction extends Transaction {
+
+    /**
+     * Constructs a TransferInTransaction with the specified amount.
+     *
+     * @param amount The transferred amount in minor units.
+     */
+    public TransferInTransaction(long amount) {
+        super(amount);
+    }
+
+    /**
+     * Executes the credit leg on the specified account by adding the amount to its balance.
+     *
+     * @param account The account receiving the transfer.
+     * @throws InsufficientBalanceException if there is an issue with insufficient balance.
+     */
+    @Override
+    public void executeOn(Account account) throws InsufficientBalanceException {
+        account.deposit(this.getAmount());
+    }
+
+    /**
+     * Returns the transferred amount as a positive balance change.
+     *
+     * @return The amount to add to the account balance.
+     */
+    @Override
+    public long balanceChange() {
+        return this.getAmount();
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.eteration.simplebanking.model;
+
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.Entity;
+
+/**
+ * Represents the debit leg of a transfer in the Simple Banking App, sent to another account.
+ * It shares its approval code with the {@link TransferInTransaction} of the same transfer.
+ */
+@Entity
+@NoArgsConstructor
+@DiscriminatorValue("TransferOutTransaction")
+public class TransferOutTransaction extends Transaction {
+
+    /**
+     * Constructs a TransferOutTransaction with the specified amount.
+     *
+     * @param amount The transferred amount in minor units.
+     */
+    public TransferOutTransaction(long amount) {
+        super(amount);
+    }
+
+    /**
+     * Executes the debit leg on the specified account by subtracting the amount from its balance.
+     *
+     * @param account The account sending the transfer.
+     * @throws InsufficientBalanceException if there is an issue with insufficient balance.
+     */
+    @Override
+    public void executeOn(Account account) throws InsufficientBalanceException {
+        account.withdraw(this.getAmount());
+    }
+
+    /**
+     * Returns the transferred amount as a negative balance change.
+     *
+     * @return The amount to subtract from the account balance, negated.
+     */
+    @Override
+    public long balanceChange() {
+        return -this.getAmount();
+    }
+
+}
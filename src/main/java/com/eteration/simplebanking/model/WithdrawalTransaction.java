@@ -18,14 +18,15 @@ public class WithdrawalTransaction extends Transaction {
     /**
      * Constructs a WithdrawalTransaction with the specified amount.
      *
-     * @param amount The amount to withdraw.
+     * @param amount The amount to withdraw in minor units.
      */
-    public WithdrawalTransaction(double amount) {
+    public WithdrawalTransaction(long amount) {
         super(amount);
     }
 
     /**
-     * Executes the withdrawal transaction on the specified account, adding the transaction to the account's transaction list.
+     * Executes the withdrawal transaction on the specified account by subtracting the amount from its balance.
+     * The account's transaction collection is not touched, so the lazy history is never initialized.
      *
      * @param account The account on which the withdrawal transaction is executed.
      * @throws InsufficientBalanceException if there is an issue with insufficient balance.
@@ -33,7 +34,16 @@ public class WithdrawalTransaction extends Transaction {
     @Override
     public void executeOn(Account account) throws InsufficientBalanceException {
         account.withdraw(this.getAmount());
-        account.getTransactions().add(this);
+    }
+
+    /**
+     * Returns the withdrawn amount as a negative balance change.
+     *
+     * @return The amount to subtract from the account balance, negated.
+     */
+    @Override
+    public long balanceChange() {
+        return -this.getAmount();
     }
 
 }
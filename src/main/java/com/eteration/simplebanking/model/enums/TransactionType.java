@@ -18,7 +18,17 @@ public enum TransactionType {
     /**
      * Represents a phone bill payment transaction.
      */
-    PhoneBillPaymentTransaction("PhoneBillPaymentTransaction");
+    PhoneBillPaymentTransaction("PhoneBillPaymentTransaction"),
+
+    /**
+     * Represents the debit leg of a transfer to another account.
+     */
+    TransferOutTransaction("TransferOutTransaction"),
+
+    /**
+     * Represents the credit leg of a transfer from another account.
+     */
+    TransferInTransaction("TransferInTransaction");
 
     /**
      * Represents the discriminator value associated with the transaction type.
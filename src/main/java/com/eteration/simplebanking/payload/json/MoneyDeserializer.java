@@ -0,0 +1,51 @@
+package com.eteration.simplebanking.payload.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Reads a decimal JSON amount, e.g. 150.50, into a long count of minor units, e.g. 15050.
+ * The conversion is exact; amounts with more decimal places than minor units allow are rejected.
+ */
+public class MoneyDeserializer extends StdDeserializer<Long> {
+
+    public MoneyDeserializer() {
+        super(Long.class);
+    }
+
+    /**
+     * Converts a decimal amount in major units into a count of minor units.
+     *
+     * @param majorUnits The amount in major units.
+     * @return The amount in minor units.
+     * @throws ArithmeticException if the amount has too many decimal places or does not fit into a long.
+     */
+    public static long toMinorUnits(BigDecimal majorUnits) {
+        return majorUnits.movePointRight(MoneySerializer.SCALE).longValueExact();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+
+        String text = parser.getText();
+        try {
+            BigDecimal amount = parser.currentToken() == JsonToken.VALUE_STRING
+                    ? new BigDecimal(text.trim())
+                    : parser.getDecimalValue();
+            return toMinorUnits(amount);
+        } catch (NumberFormatException | ArithmeticException exception) {
+            throw InvalidFormatException.from(parser,
+                    "Amount must be a number with at most " + MoneySerializer.SCALE + " decimal places", text, Long.class);
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.eteration.simplebanking.payload.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Writes an amount held as a long count of minor units as a decimal JSON number, e.g. 15050 as 150.50.
+ */
+public class MoneySerializer extends StdSerializer<Long> {
+
+    /**
+     * The number of decimal places between minor and major units.
+     */
+    public static final int SCALE = 2;
+
+    public MoneySerializer() {
+        super(Long.class);
+    }
+
+    /**
+     * Converts a count of minor units into the decimal amount in major units.
+     *
+     * @param minorUnits The amount in minor units.
+     * @return The amount in major units.
+     */
+    public static BigDecimal toMajorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(Long value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeNumber(toMajorUnits(value));
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.eteration.simplebanking.payload.request;
+
+import com.eteration.simplebanking.payload.json.MoneyDeserializer;
+import com.eteration.simplebanking.payload.json.MoneySerializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request object for transferring money from one account to another.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CreateTransferRequest {
+
+    /**
+     * The account number the money is transferred from.
+     */
+    private String fromAccountNumber;
+
+    /**
+     * The account number the money is transferred to.
+     */
+    private String toAccountNumber;
+
+    /**
+     * The amount of the transfer, in minor units.
+     * Read from and written to JSON as a decimal amount with at most two decimal places.
+     */
+    @JsonSerialize(using = MoneySerializer.class)
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private long amount;
+
+}
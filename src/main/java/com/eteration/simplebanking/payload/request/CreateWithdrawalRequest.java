@@ -1,5 +1,9 @@
 package com.eteration.simplebanking.payload.request;
 
+import com.eteration.simplebanking.payload.json.MoneyDeserializer;
+import com.eteration.simplebanking.payload.json.MoneySerializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,8 +24,11 @@ public class CreateWithdrawalRequest {
     private String accountNumber;
 
     /**
-     * The amount of the withdrawal.
+     * The amount of the withdrawal, in minor units.
+     * Read from and written to JSON as a decimal amount with at most two decimal places.
      */
-    private Double amount;
+    @JsonSerialize(using = MoneySerializer.class)
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private long amount;
 
 }
@@ -0,0 +1,40 @@
+package com.eteration.simplebanking.payload.request;
+
+import com.eteration.simplebanking.services.export.StatementFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Request object for exporting the statement of an account over a time range.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class StatementExportRequest {
+
+    /**
+     * The account number whose statement is exported.
+     */
+    private String accountNumber;
+
+    /**
+     * The inclusive lower bound of the creation time.
+     */
+    private LocalDateTime from;
+
+    /**
+     * The exclusive upper bound of the creation time.
+     */
+    private LocalDateTime to;
+
+    /**
+     * The format of the export.
+     */
+    private StatementFormat format;
+
+}
@@ -0,0 +1,50 @@
+package com.eteration.simplebanking.payload.request;
+
+import com.eteration.simplebanking.model.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Request object for reading one page of the transaction history of an account.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionHistoryRequest {
+
+    /**
+     * The account number whose history is read.
+     */
+    private String accountNumber;
+
+    /**
+     * The cursor returned with the previous page, or null for the first page.
+     */
+    private String cursor;
+
+    /**
+     * The requested page size, bounded by the configured maximum.
+     */
+    private Integer size;
+
+    /**
+     * The type of transactions to return, or null for all types.
+     */
+    private TransactionType transactionType;
+
+    /**
+     * The inclusive lower bound of the creation time, or null for no bound.
+     */
+    private LocalDateTime from;
+
+    /**
+     * The exclusive upper bound of the creation time, or null for no bound.
+     */
+    private LocalDateTime to;
+
+}
@@ -1,6 +1,8 @@
 package com.eteration.simplebanking.payload.response;
 
 import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.payload.json.MoneySerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -27,9 +29,10 @@ public class CreatedAccountResponse {
     private String owner;
 
     /**
-     * The initial balance of the account.
+     * The initial balance of the account in minor units, written to JSON as a decimal amount.
      */
-    private Double balance;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long balance;
 
     /**
      * The date and time when the account was created.
@@ -0,0 +1,33 @@
+package com.eteration.simplebanking.payload.response;
+
+import com.eteration.simplebanking.dto.TransactionDTO;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Response object for one page of the transaction history of an account.
+ */
+@Builder
+@RequiredArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TransactionHistoryResponse {
+
+    /**
+     * The account number.
+     */
+    private String accountNumber;
+
+    /**
+     * The transactions of the page, most recent first.
+     */
+    private List<TransactionDTO> transactionDTOs;
+
+    /**
+     * The cursor to request the next page with, or null if this is the last page.
+     */
+    private String nextCursor;
+
+}
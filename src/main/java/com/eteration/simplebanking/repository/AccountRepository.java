@@ -1,7 +1,11 @@
 package com.eteration.simplebanking.repository;
 
+import com.eteration.simplebanking.dto.AccountSnapshot;
 import com.eteration.simplebanking.model.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -18,4 +22,37 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
      */
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    /**
+     * Checks whether an account with the given account number exists, through the unique account number index.
+     *
+     * @param accountNumber The account number to look for.
+     * @return true if an account has the account number.
+     */
+    boolean existsByAccountNumber(String accountNumber);
+
+    /**
+     * Retrieves a snapshot of the account with the given account number without loading the account entity.
+     * The balance of a striped account does not include its slots yet.
+     *
+     * @param accountNumber The unique account number to search for.
+     * @return An Optional containing the account snapshot if found, or an empty Optional if not found.
+     */
+    @Query("select new com.eteration.simplebanking.dto.AccountSnapshot(a.id, a.accountNumber, a.owner, a.balance, a.version, a.createdDateTime, " +
+            "a.balanceSlots) from Account a where a.accountNumber = :accountNumber")
+    Optional<AccountSnapshot> findSnapshotByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Atomically applies a signed change to the balance of an account in a single conditional update.
+     * Credits always succeed, debits only succeed if the resulting balance would not be negative.
+     * The version of the account is incremented together with the balance.
+     *
+     * @param id     The id of the account to update.
+     * @param change The signed amount to add to the balance, in minor units.
+     * @return The number of updated rows, 0 if the balance is insufficient.
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :change, a.version = a.version + 1 " +
+            "where a.id = :id and a.balance + :change >= 0")
+    int applyBalanceChange(@Param("id") Long id, @Param("change") long change);
+
 }
@@ -0,0 +1,96 @@
+package com.eteration.simplebanking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes of the sub-balance slots of striped accounts. Postings change one slot row each, so postings
+ * to the same hot account only wait for each other when they hash onto the same slot. Whenever all rows of an
+ * account are locked, the account row is locked first and the slot rows after it in slot order, so borrowing
+ * debits and restriping never deadlock with each other.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BalanceSlotRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Atomically applies a signed change to one slot in a single conditional update.
+     * Credits always succeed, debits only succeed if the slot would not become negative.
+     *
+     * @param accountId The id of the account.
+     * @param slot      The slot to change.
+     * @param change    The signed amount to add to the slot, in minor units.
+     * @return true if the slot was changed, false if it is short or no longer exists.
+     */
+    public boolean applyChange(long accountId, int slot, long change) {
+        return jdbcTemplate.update("update account_balance_slot set balance = balance + ? " +
+                "where account_id = ? and slot = ? and balance + ? >= 0", change, accountId, slot, change) == 1;
+    }
+
+    /**
+     * Sums the slots of an account.
+     *
+     * @param accountId The id of the account.
+     * @return The sum of the slots, 0 if the account has none.
+     */
+    public long sumByAccountId(long accountId) {
+        Long sum = jdbcTemplate.queryForObject("select coalesce(sum(balance), 0) from account_balance_slot where account_id = ?",
+                Long.class, accountId);
+        return sum == null ? 0 : sum;
+    }
+
+    /**
+     * Reads and locks the own balance of an account until the end of the current transaction.
+     *
+     * @param accountId The id of the account.
+     * @return The own balance of the account.
+     */
+    public long lockAccountBalance(long accountId) {
+        Long balance = jdbcTemplate.queryForObject("select balance from account where id = ? for update", Long.class, accountId);
+        return balance == null ? 0 : balance;
+    }
+
+    /**
+     * Reads and locks the slots of an account in slot order until the end of the current transaction.
+     * The own balance of the account must be locked first.
+     *
+     * @param accountId The id of the account.
+     * @return The balances of the slots indexed by slot number.
+     */
+    public long[] lockSlots(long accountId) {
+        List<long[]> slots = jdbcTemplate.query("select slot, balance from account_balance_slot where account_id = ? order by slot for update",
+                (resultSet, rowNum) -> new long[]{resultSet.getInt("slot"), resultSet.getLong("balance")}, accountId);
+        long[] balances = new long[slots.isEmpty() ? 0 : (int) slots.get(slots.size() - 1)[0] + 1];
+        for (long[] slot : slots) {
+            balances[(int) slot[0]] = slot[1];
+        }
+        return balances;
+    }
+
+    /**
+     * Replaces the slots of an account and sets its own balance and slot count. The account and slot rows must be locked.
+     *
+     * @param accountId      The id of the account.
+     * @param accountBalance The new own balance of the account.
+     * @param slotBalances   The balances of the new slots, empty to stop striping the account.
+     */
+    public void replaceSlots(long accountId, long accountBalance, long[] slotBalances) {
+        jdbcTemplate.update("delete from account_balance_slot where account_id = ?", accountId);
+        List<Object[]> rows = new ArrayList<>(slotBalances.length);
+        for (int slot = 0; slot < slotBalances.length; slot++) {
+            rows.add(new Object[]{accountId, slot, slotBalances[slot]});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into account_balance_slot (account_id, slot, balance) values (?, ?, ?)", rows);
+        }
+        jdbcTemplate.update("update account set balance = ?, balance_slots = ?, version = version + 1 where id = ?",
+                accountBalance, slotBalances.length, accountId);
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.eteration.simplebanking.repository;
+
+import com.eteration.simplebanking.dto.IdempotentPosting;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Reads and writes of the idempotency key table. Keys are claimed with an insert that skips a conflicting key,
+ * so of several concurrent postings with the same key exactly one claims it while the others wait for its
+ * transaction and then see the key taken, without failing their own transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    private static final RowMapper<IdempotentPosting> IDEMPOTENT_POSTING_MAPPER = (resultSet, rowNum) -> IdempotentPosting.builder()
+            .idempotencyKey(resultSet.getString("idempotency_key"))
+            .transactionType(TransactionType.fromDiscriminatorValue(resultSet.getString("transaction_type")))
+            .accountNumber(resultSet.getString("account_number"))
+            .amount(resultSet.getLong("amount"))
+            .approvalCode(resultSet.getString("approval_code"))
+            .createdDateTime(resultSet.getTimestamp("created_date_time").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the posting recorded under a key.
+     *
+     * @param idempotencyKey The idempotency key.
+     * @return The recorded posting, or empty if the key was never claimed or was purged.
+     */
+    public Optional<IdempotentPosting> findByKey(String idempotencyKey) {
+        return jdbcTemplate.query("select idempotency_key, transaction_type, account_number, amount, approval_code, " +
+                        "created_date_time from idempotency_key where idempotency_key = ?",
+                IDEMPOTENT_POSTING_MAPPER, idempotencyKey).stream().findFirst();
+    }
+
+    /**
+     * Claims a key for a posting in the current transaction, unless the key is already taken.
+     *
+     * @param posting The posting to record under its key.
+     * @return true if the key was claimed, false if another posting holds it.
+     */
+    public boolean claim(IdempotentPosting posting) {
+        return jdbcTemplate.update("insert into idempotency_key (idempotency_key, transaction_type, account_number, amount, " +
+                        "approval_code, created_date_time) values (?, ?, ?, ?, ?, ?) on conflict do nothing",
+                posting.getIdempotencyKey(),
+                posting.getTransactionType().getDiscriminatorValue(),
+                posting.getAccountNumber(),
+                posting.getAmount(),
+                posting.getApprovalCode(),
+                Timestamp.valueOf(posting.getCreatedDateTime())) == 1;
+    }
+
+    /**
+     * Deletes a batch of the keys claimed before a point in time.
+     *
+     * @param cut   The exclusive upper bound of the claim time.
+     * @param limit The maximum number of keys to delete.
+     * @return The number of deleted keys.
+     */
+    public int deleteCreatedBefore(LocalDateTime cut, int limit) {
+        return jdbcTemplate.update("delete from idempotency_key where idempotency_key in " +
+                        "(select idempotency_key from idempotency_key where created_date_time < ? order by created_date_time limit ?)",
+                Timestamp.valueOf(cut), limit);
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.eteration.simplebanking.repository;
+
+import com.eteration.simplebanking.dto.BalanceSnapshot;
+import com.eteration.simplebanking.dto.LedgerBalance;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Set based reads and writes of the balance snapshots and the ledger they summarize.
+ * Every query works on a range of account ids, so a pass over all accounts costs one round trip per batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LedgerRepository {
+
+    /**
+     * The balance change of a transaction row, as {@code Transaction.balanceChange()} computes it:
+     * deposits and incoming transfers add their amount, withdrawals, payments and outgoing transfers subtract it.
+     */
+    private static final String BALANCE_CHANGE = "case when t.transaction_type in ('DepositTransaction', 'TransferInTransaction') " +
+            "then t.amount else -t.amount end";
+
+    /**
+     * The stored balance of an account: the balance of its row plus the sub-balance slots of a striped account.
+     */
+    private static final String STORED_BALANCE = "a.balance + coalesce((select sum(b.balance) from account_balance_slot b " +
+            "where b.account_id = a.id), 0)";
+
+    private static final String LEDGER_BALANCE_SELECT = "select a.id, a.account_number, " + STORED_BALANCE + " as balance, s.as_of, " +
+            "coalesce(s.balance, 0) + coalesce(sum(" + BALANCE_CHANGE + "), 0) as reconstructed_balance " +
+            "from account a " +
+            "left join balance_snapshot s on s.account_id = a.id " +
+            "left join transaction t on t.account_id = a.id and (s.as_of is null or t.created_date_time >= s.as_of) ";
+
+    private static final String LEDGER_BALANCE_GROUP_BY = " group by a.id, a.account_number, a.balance, s.as_of, s.balance";
+
+    private static final RowMapper<LedgerBalance> LEDGER_BALANCE_MAPPER = (resultSet, rowNum) -> LedgerBalance.builder()
+            .accountId(resultSet.getLong("id"))
+            .accountNumber(resultSet.getString("account_number"))
+            .balance(resultSet.getLong("balance"))
+            .reconstructedBalance(resultSet.getLong("reconstructed_balance"))
+            .snapshotAsOf(toLocalDateTime(resultSet.getTimestamp("as_of")))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the smallest and the largest account id.
+     *
+     * @return The smallest and the largest account id, or empty if there are no accounts.
+     */
+    public Optional<long[]> findAccountIdRange() {
+        return jdbcTemplate.query("select min(id), max(id) from account", resultSet -> {
+            resultSet.next();
+            long min = resultSet.getLong(1);
+            return resultSet.wasNull() ? Optional.empty() : Optional.of(new long[]{min, resultSet.getLong(2)});
+        });
+    }
+
+    /**
+     * Reads the ids of the next batch of accounts.
+     *
+     * @param afterAccountId The id after which the batch starts.
+     * @param limit          The maximum number of accounts in the batch.
+     * @return The account ids in ascending order.
+     */
+    public List<Long> findAccountIdsAfter(long afterAccountId, int limit) {
+        return jdbcTemplate.queryForList("select id from account where id > ? order by id limit ?",
+                Long.class, afterAccountId, limit);
+    }
+
+    /**
+     * Reads and locks the snapshots of the accounts in a range until the end of the current transaction,
+     * so concurrent snapshot runs move every snapshot forward one after the other.
+     *
+     * @param fromAccountId The smallest account id of the range.
+     * @param toAccountId   The largest account id of the range.
+     * @return The snapshots by account id; accounts without one are left out.
+     */
+    public Map<Long, BalanceSnapshot> lockSnapshots(long fromAccountId, long toAccountId) {
+        return jdbcTemplate.query("select account_id, balance, as_of from balance_snapshot " +
+                        "where account_id between ? and ? for update",
+                resultSet -> {
+                    Map<Long, BalanceSnapshot> snapshots = new HashMap<>();
+                    while (resultSet.next()) {
+                        BalanceSnapshot snapshot = new BalanceSnapshot(resultSet.getLong("account_id"),
+                                resultSet.getLong("balance"), resultSet.getTimestamp("as_of").toLocalDateTime());
+                        snapshots.put(snapshot.getAccountId(), snapshot);
+                    }
+                    return snapshots;
+                },
+                fromAccountId, toAccountId);
+    }
+
+    /**
+     * Sums the balance changes of the transactions created since the snapshot of each account in a range.
+     *
+     * @param fromAccountId The smallest account id of the range.
+     * @param toAccountId   The largest account id of the range.
+     * @param asOf          The exclusive upper bound of the creation time of the transactions.
+     * @return The sum by account id; accounts without such transactions are left out.
+     */
+    public Map<Long, Long> sumBalanceChangesSinceSnapshot(long fromAccountId, long toAccountId, LocalDateTime asOf) {
+        return jdbcTemplate.query("select t.account_id, sum(" + BALANCE_CHANGE + ") from transaction t " +
+                        "left join balance_snapshot s on s.account_id = t.account_id " +
+                        "where t.account_id between ? and ? and t.created_date_time < ? " +
+                        "and (s.as_of is null or t.created_date_time >= s.as_of) " +
+                        "group by t.account_id",
+                resultSet -> {
+                    Map<Long, Long> changes = new HashMap<>();
+                    while (resultSet.next()) {
+                        changes.put(resultSet.getLong(1), resultSet.getLong(2));
+                    }
+                    return changes;
+                },
+                fromAccountId, toAccountId, asOf);
+    }
+
+    /**
+     * Moves existing snapshots forward.
+     *
+     * @param snapshots The new snapshots of accounts that already have one.
+     */
+    public void updateSnapshots(List<BalanceSnapshot> snapshots) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate("update balance_snapshot set balance = ?, as_of = ?, created_date_time = ? where account_id = ?",
+                snapshots, snapshots.size(), (statement, snapshot) -> {
+                    statement.setLong(1, snapshot.getBalance());
+                    statement.setTimestamp(2, Timestamp.valueOf(snapshot.getAsOf()));
+                    statement.setTimestamp(3, Timestamp.valueOf(now));
+                    statement.setLong(4, snapshot.getAccountId());
+                });
+    }
+
+    /**
+     * Inserts the first snapshots of accounts. A snapshot inserted meanwhile by a concurrent run is kept.
+     *
+     * @param snapshots The snapshots of accounts that have none yet.
+     */
+    public void insertSnapshots(List<BalanceSnapshot> snapshots) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate("insert into balance_snapshot (account_id, balance, as_of, created_date_time) values (?, ?, ?, ?) " +
+                        "on conflict do nothing",
+                snapshots, snapshots.size(), (statement, snapshot) -> {
+                    statement.setLong(1, snapshot.getAccountId());
+                    statement.setLong(2, snapshot.getBalance());
+                    statement.setTimestamp(3, Timestamp.valueOf(snapshot.getAsOf()));
+                    statement.setTimestamp(4, Timestamp.valueOf(now));
+                });
+    }
+
+    /**
+     * Reads the stored and the reconstructed balance of every account in a range in one statement, so both
+     * come from the same consistent view of the database even while postings go on.
+     *
+     * @param fromAccountId The smallest account id of the range.
+     * @param toAccountId   The largest account id of the range.
+     * @return The balances of the accounts in the range.
+     */
+    public List<LedgerBalance> findLedgerBalances(long fromAccountId, long toAccountId) {
+        return jdbcTemplate.query(LEDGER_BALANCE_SELECT + "where a.id between ? and ?" + LEDGER_BALANCE_GROUP_BY,
+                LEDGER_BALANCE_MAPPER, fromAccountId, toAccountId);
+    }
+
+    /**
+     * Reads the stored and the reconstructed balance of one account.
+     *
+     * @param accountNumber The account number.
+     * @return The balances, or empty if the account does not exist.
+     */
+    public Optional<LedgerBalance> findLedgerBalance(String accountNumber) {
+        return jdbcTemplate.query(LEDGER_BALANCE_SELECT + "where a.account_number = ?" + LEDGER_BALANCE_GROUP_BY,
+                LEDGER_BALANCE_MAPPER, accountNumber).stream().findFirst();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.eteration.simplebanking.repository;
+
+import com.eteration.simplebanking.dto.AccountView;
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set based reads of the account views the read model is rebuilt from. Every batch of accounts costs three
+ * round trips whatever its size: the accounts, their counters and their most recent transactions.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReadModelRepository {
+
+    /**
+     * Whether a transaction row adds to the balance, as {@code Transaction.balanceChange()} is positive for.
+     */
+    private static final String CREDIT = "t.transaction_type in ('DepositTransaction', 'TransferInTransaction')";
+
+    /**
+     * The stored balance of an account: the balance of its row plus the sub-balance slots of a striped account.
+     */
+    private static final String STORED_BALANCE = "a.balance + coalesce((select sum(b.balance) from account_balance_slot b " +
+            "where b.account_id = a.id), 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reads the views of the next batch of accounts from the transactions held in the database.
+     *
+     * @param afterAccountId     The id after which the batch starts.
+     * @param limit              The maximum number of accounts in the batch.
+     * @param recentTransactions The number of most recent transactions read per account.
+     * @return The views by account id, in ascending id order.
+     */
+    public Map<Long, AccountView> findViewsAfter(long afterAccountId, int limit, int recentTransactions) {
+        Map<Long, AccountView.AccountViewBuilder> builders = new LinkedHashMap<>();
+        jdbcTemplate.query("select a.id, a.account_number, a.owner, " + STORED_BALANCE + " as balance, a.created_date_time " +
+                        "from account a where a.id > ? order by a.id limit ?",
+                resultSet -> {
+                    builders.put(resultSet.getLong("id"), AccountView.builder()
+                            .accountNumber(resultSet.getString("account_number"))
+                            .owner(resultSet.getString("owner"))
+                            .balance(resultSet.getLong("balance"))
+                            .createdDateTime(toLocalDateTime(resultSet.getTimestamp("created_date_time")))
+                            .recentTransactions(new ArrayList<>()));
+                },
+                afterAccountId, limit);
+        if (builders.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        List<Long> accountIds = new ArrayList<>(builders.keySet());
+        long fromAccountId = accountIds.get(0);
+        long toAccountId = accountIds.get(accountIds.size() - 1);
+
+        jdbcTemplate.query("select t.account_id, " +
+                        "sum(case when " + CREDIT + " then 1 else 0 end) as credit_count, " +
+                        "sum(case when " + CREDIT + " then 0 else 1 end) as debit_count, " +
+                        "max(t.created_date_time) as last_posted_at " +
+                        "from transaction t where t.account_id between ? and ? group by t.account_id",
+                resultSet -> {
+                    AccountView.AccountViewBuilder builder = builders.get(resultSet.getLong("account_id"));
+                    if (builder != null) {
+                        builder.creditCount(resultSet.getLong("credit_count"))
+                                .debitCount(resultSet.getLong("debit_count"))
+                                .lastPostedAt(toLocalDateTime(resultSet.getTimestamp("last_posted_at")));
+                    }
+                },
+                fromAccountId, toAccountId);
+
+        Map<Long, List<TransactionDTO>> recent = new LinkedHashMap<>();
+        jdbcTemplate.query("select r.account_id, r.transaction_type, r.approval_code, r.amount, r.created_date_time from (" +
+                        "select t.account_id, t.transaction_type, t.approval_code, t.amount, t.created_date_time, " +
+                        "row_number() over (partition by t.account_id order by t.created_date_time desc, t.id desc) as recency " +
+                        "from transaction t where t.account_id between ? and ?) r " +
+                        "where r.recency <= ? order by r.account_id, r.recency",
+                resultSet -> {
+                    recent.computeIfAbsent(resultSet.getLong("account_id"), accountId -> new ArrayList<>())
+                            .add(TransactionDTO.builder()
+                                    .transactionType(TransactionType.fromDiscriminatorValue(resultSet.getString("transaction_type")))
+                                    .approvalCode(resultSet.getString("approval_code"))
+                                    .amount(resultSet.getLong("amount"))
+                                    .createdDateTime(toLocalDateTime(resultSet.getTimestamp("created_date_time")))
+                                    .build());
+                },
+                fromAccountId, toAccountId, recentTransactions);
+
+        Map<Long, AccountView> views = new LinkedHashMap<>();
+        builders.forEach((accountId, builder) -> {
+            List<TransactionDTO> transactions = recent.get(accountId);
+            if (transactions != null) {
+                builder.recentTransactions(transactions);
+            }
+            views.put(accountId, builder.build());
+        });
+        return views;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.eteration.simplebanking.repository;
+
+import com.eteration.simplebanking.dto.AccountRows;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads, copies and deletes every row of an account on the shard the current transaction is routed to,
+ * as a rebalance moving accounts between shards needs. Rows are copied column by column as they are,
+ * so ids stay the same and references between the rows of the account keep pointing to each other.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ShardMoveRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the accounts with an id after the given one, in id order.
+     *
+     * @param afterAccountId The exclusive lower bound of the ids.
+     * @param limit          The maximum number of accounts to return.
+     * @return The account numbers by account id, in id order.
+     */
+    public Map<Long, String> findAccountsAfter(long afterAccountId, int limit) {
+        Map<Long, String> accounts = new LinkedHashMap<>();
+        jdbcTemplate.query("select id, account_number from account where id > ? order by id limit ?",
+                rs -> {
+                    accounts.put(rs.getLong("id"), rs.getString("account_number"));
+                }, afterAccountId, limit);
+        return accounts;
+    }
+
+    /**
+     * Counts the accounts.
+     *
+     * @return The number of accounts.
+     */
+    public long countAccounts() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from account", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Reads every row of an account, locking the account row until the end of the current transaction.
+     *
+     * @param accountId     The id of the account.
+     * @param accountNumber The account number.
+     * @return The rows of the account.
+     */
+    public AccountRows lockAccountRows(long accountId, String accountNumber) {
+        return AccountRows.builder()
+                .account(jdbcTemplate.queryForMap("select * from account where id = ? for update", accountId))
+                .transactions(jdbcTemplate.queryForList("select * from transaction where account_id = ?", accountId))
+                .balanceSnapshots(jdbcTemplate.queryForList("select * from balance_snapshot where account_id = ?", accountId))
+                .balanceSlots(jdbcTemplate.queryForList("select * from account_balance_slot where account_id = ?", accountId))
+                .idempotencyKeys(jdbcTemplate.queryForList("select * from idempotency_key where account_number = ?", accountNumber))
+                .build();
+    }
+
+    /**
+     * Inserts every row of an account, the account row first.
+     *
+     * @param rows The rows of the account.
+     */
+    public void insertAccountRows(AccountRows rows) {
+        insert("account", List.of(rows.getAccount()));
+        insert("transaction", rows.getTransactions());
+        insert("balance_snapshot", rows.getBalanceSnapshots());
+        insert("account_balance_slot", rows.getBalanceSlots());
+        insert("idempotency_key", rows.getIdempotencyKeys());
+    }
+
+    /**
+     * Deletes every row of an account, the account row last. On PostgreSQL the deletion of the transactions
+     * is allowed for the current transaction only, as the ledger otherwise rejects it.
+     *
+     * @param accountId     The id of the account.
+     * @param accountNumber The account number.
+     * @return The number of deleted account rows, 0 if the account was not there.
+     */
+    public int deleteAccountRows(long accountId, String accountNumber) {
+        if (isPostgreSql()) {
+            jdbcTemplate.queryForObject("select set_config('banking.ledger_relocation', 'on', true)", String.class);
+        }
+        jdbcTemplate.update("delete from idempotency_key where account_number = ?", accountNumber);
+        jdbcTemplate.update("delete from account_balance_slot where account_id = ?", accountId);
+        jdbcTemplate.update("delete from balance_snapshot where account_id = ?", accountId);
+        jdbcTemplate.update("delete from transaction where account_id = ?", accountId);
+        return jdbcTemplate.update("delete from account where id = ?", accountId);
+    }
+
+    private void insert(String table, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ")) + ")";
+        List<Object[]> values = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            values.add(columns.stream().map(row::get).toArray());
+        }
+        jdbcTemplate.batchUpdate(sql, values);
+    }
+
+    private boolean isPostgreSql() {
+        return "PostgreSQL".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.eteration.simplebanking.repository;
+
+import com.eteration.simplebanking.dto.ShardRingState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and records the ring the accounts are routed by in the single row of the shard ring table.
+ * It is only used in transactions routed to the home shard.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ShardRingRepository {
+
+    private static final int ROW_ID = 1;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the recorded ring.
+     *
+     * @return The ring, or empty if none was recorded yet.
+     */
+    public Optional<ShardRingState> find() {
+        List<ShardRingState> states = jdbcTemplate.query("select active_shards, target_shards from shard_ring where id = ?",
+                (rs, rowNum) -> ShardRingState.builder()
+                        .activeShards(rs.getInt("active_shards"))
+                        .targetShards((Integer) rs.getObject("target_shards"))
+                        .build(),
+                ROW_ID);
+        return states.stream().findFirst();
+    }
+
+    /**
+     * Records the ring, replacing the one recorded before.
+     *
+     * @param state The ring.
+     */
+    public void save(ShardRingState state) {
+        int updated = jdbcTemplate.update("update shard_ring set active_shards = ?, target_shards = ? where id = ?",
+                state.getActiveShards(), state.getTargetShards(), ROW_ID);
+        if (updated == 0) {
+            jdbcTemplate.update("insert into shard_ring (id, active_shards, target_shards) values (?, ?, ?)",
+                    ROW_ID, state.getActiveShards(), state.getTargetShards());
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.eteration.simplebanking.repository;
+
+import com.eteration.simplebanking.dto.ArchivedTransaction;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the monthly partitions of the PostgreSQL transaction table.
+ * Partition names are derived from their month, e.g. "transaction_2024_01"; they are never taken from input.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TransactionPartitionRepository {
+
+    private static final String PARTITION_PREFIX = "transaction_";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("uuuu_MM");
+
+    private static final int ARCHIVE_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Lists the months that have a partition, leaving out the default partition.
+     *
+     * @return The months with a partition, oldest first.
+     */
+    public List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList("select child.relname from pg_inherits " +
+                        "join pg_class parent on parent.oid = pg_inherits.inhparent " +
+                        "join pg_class child on child.oid = pg_inherits.inhrelid " +
+                        "where parent.relname = 'transaction' and child.relname ~ '^transaction_[0-9]{4}_[0-9]{2}$'",
+                        String.class)
+                .stream()
+                .map(name -> YearMonth.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates the partition of a month unless it exists.
+     *
+     * @param month The month.
+     */
+    public void createPartition(YearMonth month) {
+        LocalDate firstDay = month.atDay(1);
+        jdbcTemplate.execute("create table if not exists " + partitionName(month) + " partition of transaction " +
+                "for values from ('" + firstDay + "') to ('" + firstDay.plusMonths(1) + "')");
+    }
+
+    /**
+     * Reads every transaction of a month's partition through a forward-only cursor, ordered by account,
+     * creation time and id. Must run in a transaction for the cursor to be fetched in batches.
+     *
+     * @param month    The month.
+     * @param consumer Receives the account id and the transaction of every row.
+     */
+    public void forEachTransaction(YearMonth month, BiConsumer<Long, ArchivedTransaction> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "select id, transaction_type, approval_code, amount, account_id, created_date_time from " +
+                            partitionName(month) + " order by account_id, created_date_time, id");
+            statement.setFetchSize(ARCHIVE_FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            consumer.accept(resultSet.getLong("account_id"), ArchivedTransaction.builder()
+                    .id(resultSet.getLong("id"))
+                    .transactionType(TransactionType.fromDiscriminatorValue(resultSet.getString("transaction_type")))
+                    .approvalCode(resultSet.getString("approval_code"))
+                    .amount(resultSet.getLong("amount"))
+                    .createdDateTime(resultSet.getTimestamp("created_date_time").toLocalDateTime())
+                    .build());
+        });
+    }
+
+    /**
+     * Detaches the partition of a month and drops it.
+     *
+     * @param month The month.
+     */
+    public void dropPartition(YearMonth month) {
+        jdbcTemplate.execute("alter table transaction detach partition " + partitionName(month));
+        jdbcTemplate.execute("drop table " + partitionName(month));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(month);
+    }
+
+}
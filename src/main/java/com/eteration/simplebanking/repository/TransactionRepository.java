@@ -1,10 +1,44 @@
 package com.eteration.simplebanking.repository;
 
+import com.eteration.simplebanking.dto.TransactionDTO;
 import com.eteration.simplebanking.model.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing transactions in the Simple Banking App.
  */
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
+
+    /**
+     * The number of rows fetched per round trip while streaming a statement.
+     */
+    String STATEMENT_FETCH_SIZE = "500";
+
+    /**
+     * Streams the transactions of an account created in a time range, oldest first, as DTO projections read
+     * through a forward-only cursor. The stream must be consumed and closed inside a transaction.
+     *
+     * @param accountId The id of the account.
+     * @param from      The inclusive lower bound of the creation time.
+     * @param to        The exclusive upper bound of the creation time.
+     * @return The stream of transactions.
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STATEMENT_FETCH_SIZE),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select new com.eteration.simplebanking.dto.TransactionDTO(t.amount, t.transactionType, t.approvalCode, t.createdDateTime) " +
+            "from Transaction t where t.account.id = :accountId and t.createdDateTime >= :from and t.createdDateTime < :to " +
+            "order by t.createdDateTime, t.id")
+    Stream<TransactionDTO> streamStatement(@Param("accountId") Long accountId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
 }
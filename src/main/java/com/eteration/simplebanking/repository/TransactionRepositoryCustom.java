@@ -0,0 +1,24 @@
+package com.eteration.simplebanking.repository;
+
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for reading the transaction history of accounts in the Simple Banking App.
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Retrieves the transactions of an account matching the criteria, most recent first, using keyset pagination
+     * on the creation time and id so the cost of a page does not depend on how long the history is.
+     *
+     * @param accountId The id of the account.
+     * @param criteria  The cursor and filters of the page.
+     * @param limit     The maximum number of transactions to return.
+     * @return The matching transactions ordered by creation time and id, descending.
+     */
+    List<Transaction> findHistoryPage(Long accountId, TransactionHistoryCriteria criteria, int limit);
+
+}
@@ -0,0 +1,66 @@
+package com.eteration.simplebanking.repository;
+
+import com.eteration.simplebanking.dto.HistoryCursor;
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.model.Transaction;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria API implementation of {@link TransactionRepositoryCustom}.
+ */
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Transaction> findHistoryPage(Long accountId, TransactionHistoryCriteria criteria, int limit) {
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = builder.createQuery(Transaction.class);
+        Root<Transaction> transaction = query.from(Transaction.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(builder.equal(transaction.get("account").get("id"), accountId));
+
+        HistoryCursor cursor = criteria.getCursor();
+        if (cursor != null) {
+            // (createdDateTime, id) < cursor, with the creation time also bounded on its own so the
+            // (account_id, created_date_time, id) index is range scanned instead of filtered
+            predicates.add(builder.lessThanOrEqualTo(transaction.<LocalDateTime>get("createdDateTime"), cursor.getCreatedDateTime()));
+            predicates.add(builder.or(
+                    builder.lessThan(transaction.<LocalDateTime>get("createdDateTime"), cursor.getCreatedDateTime()),
+                    builder.lessThan(transaction.<Long>get("id"), cursor.getId())));
+        }
+        if (criteria.getTransactionType() != null) {
+            predicates.add(builder.equal(transaction.get("transactionType"), criteria.getTransactionType()));
+        }
+        if (criteria.getFrom() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(transaction.<LocalDateTime>get("createdDateTime"), criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            predicates.add(builder.lessThan(transaction.<LocalDateTime>get("createdDateTime"), criteria.getTo()));
+        }
+
+        query.select(transaction)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(builder.desc(transaction.get("createdDateTime")), builder.desc(transaction.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+}
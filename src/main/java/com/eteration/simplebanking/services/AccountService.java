@@ -1,26 +1,59 @@
 package com.eteration.simplebanking.services;
 
 
+import com.eteration.simplebanking.config.HistoryProperties;
 import com.eteration.simplebanking.dto.AccountDTO;
+import com.eteration.simplebanking.dto.AccountOpenedEvent;
+import com.eteration.simplebanking.dto.AccountPostedEvent;
+import com.eteration.simplebanking.dto.AccountSnapshot;
+import com.eteration.simplebanking.dto.HistoryCursor;
+import com.eteration.simplebanking.dto.IdempotentPosting;
 import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.dto.TransactionHistoryDTO;
 import com.eteration.simplebanking.exception.AccountNotFoundException;
+import com.eteration.simplebanking.exception.IdempotencyKeyReusedException;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.exception.InvalidTransferException;
 import com.eteration.simplebanking.mapper.TransactionMapper;
+import com.eteration.simplebanking.metrics.TimedOperation;
 import com.eteration.simplebanking.model.*;
 import com.eteration.simplebanking.model.enums.TransactionType;
 import com.eteration.simplebanking.payload.request.CreateCreditRequest;
 import com.eteration.simplebanking.payload.request.CreatePhoneBillPaymentRequest;
+import com.eteration.simplebanking.payload.request.CreateTransferRequest;
 import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
 import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.request.StatementExportRequest;
+import com.eteration.simplebanking.payload.request.TransactionHistoryRequest;
 import com.eteration.simplebanking.payload.response.TransactionResponse;
 import com.eteration.simplebanking.repository.AccountRepository;
 import com.eteration.simplebanking.repository.TransactionRepository;
+import com.eteration.simplebanking.services.allocation.AccountNumberAllocator;
+import com.eteration.simplebanking.services.approval.ApprovalCodeGenerator;
+import com.eteration.simplebanking.services.archive.TransactionArchive;
+import com.eteration.simplebanking.services.cache.AccountSnapshotCache;
+import com.eteration.simplebanking.services.export.StatementExport;
+import com.eteration.simplebanking.services.export.StatementExporter;
+import com.eteration.simplebanking.services.idempotency.IdempotencyStore;
+import com.eteration.simplebanking.services.lock.AccountStripedLock;
+import com.eteration.simplebanking.services.posting.PostingGroupCommitter;
+import com.eteration.simplebanking.services.replica.ReadYourWritesGuard;
+import com.eteration.simplebanking.services.replica.ReplicaContext;
+import com.eteration.simplebanking.services.sharding.ShardRouter;
+import com.eteration.simplebanking.services.striping.StripedBalances;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * Service class responsible for managing accounts and financial transactions in the Simple Banking App.
@@ -46,21 +79,95 @@ public class AccountService {
      */
     private final TransactionMapper transactionMapper;
 
+    /**
+     * Striped lock serializing postings to the same account.
+     */
+    private final AccountStripedLock accountStripedLock;
+
+    /**
+     * Configuration of the transaction history reads.
+     */
+    private final HistoryProperties historyProperties;
+
+    /**
+     * Allocator handing out unique account numbers.
+     */
+    private final AccountNumberAllocator accountNumberAllocator;
+
+    /**
+     * Generator of the approval codes returned for postings.
+     */
+    private final ApprovalCodeGenerator approvalCodeGenerator;
+
+    /**
+     * Read-through cache of account snapshots by account number.
+     */
+    private final AccountSnapshotCache accountSnapshotCache;
+
+    /**
+     * Exporter streaming account statements.
+     */
+    private final StatementExporter statementExporter;
+
+    /**
+     * Archive of the transactions of months moved out of the database.
+     */
+    private final TransactionArchive transactionArchive;
+
+    /**
+     * Committer applying concurrent postings together in shared database transactions when group commit is enabled.
+     */
+    private final PostingGroupCommitter postingGroupCommitter;
+
+    /**
+     * Store of the postings made with an idempotency key, returning the original response to retried postings.
+     */
+    private final IdempotencyStore idempotencyStore;
+
+    /**
+     * Striped sub-balances of hot accounts, taking the postings to accounts striped over several slots.
+     */
+    private final StripedBalances stripedBalances;
+
+    /**
+     * Router selecting the shard holding an account, which every operation on the account runs against.
+     */
+    private final ShardRouter shardRouter;
+
+    /**
+     * Guard telling whether the current read runs on the replica, whose snapshots are not cached.
+     */
+    private final ReadYourWritesGuard readYourWritesGuard;
+
+    /**
+     * Publisher of the account events the read model is kept up to date by.
+     */
+    private final ApplicationEventPublisher applicationEventPublisher;
+
     /**
      * Creates a new account based on the provided request.
+     * With sharding enabled the account number is allocated on the home shard and the account is created
+     * on the shard its number maps onto. Numbers already taken by accounts created before the allocator was
+     * introduced are skipped. An account opened event is published for the read model.
      *
      * @param request The request for creating an account, including the owner's name.
      * @return The created account details as an AccountDTO.
      */
+    @TimedOperation("create")
     public AccountDTO create(CreatedAccountRequest request) {
 
+        String accountNumber = allocateAccountNumber();
+        shardRouter.routeNewAccount(accountNumber);
+
         Account account = Account.builder()
                 .owner(request.getOwner())
-                .accountNumber(generateUniqueAccountNumber())
+                .accountNumber(accountNumber)
                 .transactions(new HashSet<>())
                 .build();
 
         Account savedAccount = accountRepository.save(account);
+        applicationEventPublisher.publishEvent(new AccountOpenedEvent(
+                accountNumber, savedAccount.getOwner(), savedAccount.getCreatedDateTime(), Instant.now()));
 
         List<TransactionDTO> transactionDTOs = transactionMapper.toTransactionDTOList(
                 new ArrayList<>(savedAccount.getTransactions())
@@ -76,20 +183,29 @@ public class AccountService {
     }
 
     /**
-     * Retrieves account details by its account number.
+     * Retrieves account details by its account number together with its most recent transactions only;
+     * older transactions are read page by page through {@link #getTransactionHistory(TransactionHistoryRequest)}.
+     * The account itself is served from the account snapshot cache. The read runs in a read-only transaction,
+     * on the replica when one is configured, unless the caller is kept on the primary by the read-your-writes guard.
      *
      * @param accountNumber The unique account number to search for.
      * @return The account details as an AccountDTO if found.
      * @throws AccountNotFoundException if the account is not found.
      */
+    @TimedOperation("get")
+    @Transactional(readOnly = true)
     public AccountDTO getAccountByAccountNumber(String accountNumber) {
-        
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new AccountNotFoundException("Account Not Found : " + accountNumber));
 
-        List<TransactionDTO> transactionDTOS = account.getTransactions().stream()
-                        .map(transactionMapper::toTransactionDTO)
-                        .collect(Collectors.toList());
+        shardRouter.route(accountNumber);
+        AccountSnapshot account = findSnapshot(accountNumber);
+
+        List<Transaction> recentTransactions = findHistoryPage(
+                account.getId(),
+                TransactionHistoryCriteria.builder().build(),
+                historyProperties.getRecentTransactions()
+        );
+
+        List<TransactionDTO> transactionDTOS = transactionMapper.toTransactionDTOList(recentTransactions);
 
         return AccountDTO.builder()
                 .owner(account.getOwner())
@@ -100,31 +216,96 @@ public class AccountService {
                 .build();
     }
 
+    /**
+     * Retrieves one page of the transaction history of an account, most recent first.
+     * Pages are addressed by a keyset cursor on the creation time and id, so every page costs the same
+     * however long the history is. Pages continue from the database into the archived months.
+     * The read runs in a read-only transaction, on the replica when one is configured, unless the caller is kept
+     * on the primary by the read-your-writes guard.
+     *
+     * @param request The request containing the account number, cursor, page size and optional filters.
+     * @return The page of transactions and the cursor of the next page as a TransactionHistoryDTO.
+     * @throws AccountNotFoundException if the account is not found.
+     */
+    @TimedOperation("history")
+    @Transactional(readOnly = true)
+    public TransactionHistoryDTO getTransactionHistory(TransactionHistoryRequest request) {
+
+        shardRouter.route(request.getAccountNumber());
+        Long accountId = findSnapshot(request.getAccountNumber()).getId();
+
+        int pageSize = historyProperties.boundPageSize(request.getSize());
+
+        TransactionHistoryCriteria criteria = TransactionHistoryCriteria.builder()
+                .cursor(HistoryCursor.decode(request.getCursor()))
+                .transactionType(request.getTransactionType())
+                .from(request.getFrom())
+                .to(request.getTo())
+                .build();
+
+        List<Transaction> transactions = findHistoryPage(accountId, criteria, pageSize + 1);
+
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            nextCursor = HistoryCursor.after(transactions.get(pageSize - 1)).encode();
+        }
+
+        return TransactionHistoryDTO.builder()
+                .accountNumber(request.getAccountNumber())
+                .transactionDTOs(transactionMapper.toTransactionDTOList(transactions))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Prepares the export of the statement of an account over a time range. The account is resolved right away,
+     * so an unknown account fails before anything is streamed, while the statement itself is only read once
+     * the returned export is written, on the shard of the account. Both run in read-only transactions, on the replica
+     * when one is configured, unless the caller is kept on the primary by the read-your-writes guard; the statement
+     * is then read from the primary as well, although it is written on another thread.
+     *
+     * @param request The request containing the account number, time range and format.
+     * @return The statement export.
+     * @throws AccountNotFoundException if the account is not found.
+     */
+    @Transactional(readOnly = true)
+    public StatementExport exportStatement(StatementExportRequest request) {
+
+        shardRouter.route(request.getAccountNumber());
+        Long accountId = findSnapshot(request.getAccountNumber()).getId();
+
+        boolean primaryRequired = ReplicaContext.isPrimaryRequired();
+        return outputStream -> writeStatement(accountId, request, primaryRequired, outputStream);
+    }
+
     /**
      * Processes a credit transaction by adding funds to the specified account.
      *
      * @param createCreditRequest The request for creating a credit transaction, including account number and amount.
      * @return The transaction response.
      */
+    @TimedOperation("credit")
     public TransactionResponse credit(CreateCreditRequest createCreditRequest){
+        return credit(createCreditRequest, null);
+    }
 
-        Account account = accountRepository.findByAccountNumber(createCreditRequest.getAccountNumber())
-                .orElseThrow(() -> new AccountNotFoundException("Account Not Found : " + createCreditRequest.getAccountNumber()));
-
-        String approvalCode = UUID.randomUUID().toString();
+    /**
+     * Processes a credit transaction by adding funds to the specified account.
+     * A posting sent again with the same idempotency key returns the response of the first one and is not applied twice.
+     *
+     * @param createCreditRequest The request for creating the transaction, including account number and amount.
+     * @param idempotencyKey The idempotency key sent by the client, or null to post without one.
+     * @return The transaction response.
+     * @throws IdempotencyKeyReusedException if the key was already used for a different posting.
+     */
+    @TimedOperation("credit")
+    public TransactionResponse credit(CreateCreditRequest createCreditRequest, String idempotencyKey){
 
         Transaction transaction =  new DepositTransaction(createCreditRequest.getAmount());
-        transaction.setApprovalCode(approvalCode);
         transaction.setTransactionType(TransactionType.DepositTransaction);
-        transaction.setAccount(account);
-        transaction.executeOn(account);
-
-        accountRepository.save(account);
 
-        return TransactionResponse.builder()
-                .status("OK")
-                .approvalCode(approvalCode)
-                .build();
+        return post(createCreditRequest.getAccountNumber(), transaction, idempotencyKey);
     }
 
     /**
@@ -133,48 +314,238 @@ public class AccountService {
      * @param createWithdrawalRequest The request for creating a debit transaction, including account number and amount.
      * @return The transaction response.
      */
+    @TimedOperation("debit")
     public TransactionResponse debit(CreateWithdrawalRequest createWithdrawalRequest){
+        return debit(createWithdrawalRequest, null);
+    }
 
-        Account account = accountRepository.findByAccountNumber(createWithdrawalRequest.getAccountNumber())
-                .orElseThrow(() -> new AccountNotFoundException("Account Not Found : " + createWithdrawalRequest.getAccountNumber()));
-
-        String approvalCode = UUID.randomUUID().toString();
+    /**
+     * Processes a debit transaction by withdrawing funds from the specified account.
+     * A posting sent again with the same idempotency key returns the response of the first one and is not applied twice.
+     *
+     * @param createWithdrawalRequest The request for creating the transaction, including account number and amount.
+     * @param idempotencyKey The idempotency key sent by the client, or null to post without one.
+     * @return The transaction response.
+     * @throws IdempotencyKeyReusedException if the key was already used for a different posting.
+     */
+    @TimedOperation("debit")
+    public TransactionResponse debit(CreateWithdrawalRequest createWithdrawalRequest, String idempotencyKey){
 
         Transaction transaction =  new WithdrawalTransaction(createWithdrawalRequest.getAmount());
-        transaction.setApprovalCode(approvalCode);
         transaction.setTransactionType(TransactionType.WithdrawalTransaction);
-        transaction.setAccount(account);
-        transaction.executeOn(account);
 
-        accountRepository.save(account);
+        return post(createWithdrawalRequest.getAccountNumber(), transaction, idempotencyKey);
+    }
+
+    /**
+     * Processes a payment transaction by paying a phone bill from the specified account.
+     *
+     * @param createPhoneBillPaymentRequest The request for creating a phone bill payment transaction, including account number and amount.
+     * @return The transaction response.
+     */
+    @TimedOperation("payment")
+    public TransactionResponse payment(CreatePhoneBillPaymentRequest createPhoneBillPaymentRequest){
+        return payment(createPhoneBillPaymentRequest, null);
+    }
+
+    /**
+     * Processes a payment transaction by paying a phone bill from the specified account.
+     * A posting sent again with the same idempotency key returns the response of the first one and is not applied twice.
+     *
+     * @param createPhoneBillPaymentRequest The request for creating the transaction, including account number and amount.
+     * @param idempotencyKey The idempotency key sent by the client, or null to post without one.
+     * @return The transaction response.
+     * @throws IdempotencyKeyReusedException if the key was already used for a different posting.
+     */
+    @TimedOperation("payment")
+    public TransactionResponse payment(CreatePhoneBillPaymentRequest createPhoneBillPaymentRequest, String idempotencyKey){
+
+        Transaction transaction =  new PhoneBillPaymentTransaction(createPhoneBillPaymentRequest.getAmount());
+        transaction.setTransactionType(TransactionType.PhoneBillPaymentTransaction);
+
+        return post(createPhoneBillPaymentRequest.getAccountNumber(), transaction, idempotencyKey);
+    }
+
+    /**
+     * Transfers money from one account to another in a single database transaction: the sending account is debited
+     * and the receiving account credited together or not at all, and both legs are recorded as transactions sharing
+     * one approval code. The lock stripes of both accounts, unless striped over sub-balance slots, are held while the
+     * transfer is applied, or the transfer is applied by the group committer when group commit is enabled.
+     * With sharding enabled both accounts must be on the same shard.
+     *
+     * @param createTransferRequest The request for the transfer, including both account numbers and the amount.
+     * @return The transaction response carrying the approval code shared by both legs.
+     * @throws InvalidTransferException if the accounts are the same or on different shards, or the amount is not positive.
+     * @throws AccountNotFoundException if either account is not found.
+     * @throws InsufficientBalanceException if the amount exceeds the balance of the sending account.
+     */
+    @TimedOperation("transfer")
+    public TransactionResponse transfer(CreateTransferRequest createTransferRequest) {
+
+        String fromAccountNumber = createTransferRequest.getFromAccountNumber();
+        String toAccountNumber = createTransferRequest.getToAccountNumber();
+        long amount = createTransferRequest.getAmount();
+
+        if (amount <= 0) {
+            throw new InvalidTransferException("The transfer amount must be positive.");
+        }
+        if (Objects.equals(fromAccountNumber, toAccountNumber)) {
+            throw new InvalidTransferException("Cannot Transfer To The Same Account : " + fromAccountNumber);
+        }
+        if (!shardRouter.route(fromAccountNumber, toAccountNumber)) {
+            throw new InvalidTransferException("Cannot Transfer Between Accounts On Different Shards : "
+                    + fromAccountNumber + ", " + toAccountNumber);
+        }
+
+        if (postingGroupCommitter.isEnabled()) {
+            return postingGroupCommitter.execute(() -> applyTransfer(fromAccountNumber, toAccountNumber, amount));
+        }
+
+        Supplier<TransactionResponse> action = () -> applyTransfer(fromAccountNumber, toAccountNumber, amount);
+        boolean lockFrom = !findSnapshot(fromAccountNumber).isStriped();
+        boolean lockTo = !findSnapshot(toAccountNumber).isStriped();
+        if (lockFrom && lockTo) {
+            return accountStripedLock.executeLocked(fromAccountNumber, toAccountNumber, action);
+        }
+        if (lockFrom || lockTo) {
+            return accountStripedLock.executeLocked(lockFrom ? fromAccountNumber : toAccountNumber, action);
+        }
+        return action.get();
+    }
+
+    /**
+     * Posts a transaction to the account with the given number while holding the lock stripe of the account,
+     * so postings to the same account are serialized in the JVM without blocking unrelated accounts.
+     * With group commit enabled the transaction is instead applied by the group committer, together with the postings
+     * arriving at the same time, and this call returns once their shared database transaction is committed.
+     * A retried posting whose idempotency key is already known is answered before taking any lock. With group commit
+     * only the keys in memory are checked up front: the caller's transaction must not take a database connection
+     * while it waits for its batch, or concurrent callers would hold the whole pool and starve the committer. A key
+     * only found in the table is resolved when the committer claims it. Postings to an account striped over
+     * sub-balance slots take no lock stripe, as they only wait for postings to the same slot.
+     * The transaction is routed to the shard of the account before anything is read.
+     *
+     * @param accountNumber  The account number the transaction is posted to.
+     * @param transaction    The transaction to apply and persist.
+     * @param idempotencyKey The idempotency key sent by the client, or null.
+     * @return The transaction response.
+     */
+    private TransactionResponse post(String accountNumber, Transaction transaction, String idempotencyKey) {
+        shardRouter.route(accountNumber);
+        if (idempotencyKey != null) {
+            Optional<IdempotentPosting> original = postingGroupCommitter.isEnabled()
+                    ? idempotencyStore.findRemembered(idempotencyKey, accountNumber, transaction)
+                    : idempotencyStore.find(idempotencyKey, accountNumber, transaction);
+            if (original.isPresent()) {
+                return original.get().toResponse();
+            }
+        }
+        if (postingGroupCommitter.isEnabled()) {
+            return postingGroupCommitter.execute(() -> apply(accountNumber, transaction, idempotencyKey));
+        }
+        if (findSnapshot(accountNumber).isStriped()) {
+            return apply(accountNumber, transaction, idempotencyKey);
+        }
+        return accountStripedLock.executeLocked(accountNumber, () -> apply(accountNumber, transaction, idempotencyKey));
+    }
+
+    /**
+     * Applies a transaction to the account with the given number.
+     * The balance is changed by a single conditional update in the database and the transaction is inserted through
+     * the transaction repository, so no account row is read and locked across Java code and the lazy history is never loaded.
+     * The account id comes from the account snapshot cache, and the snapshot is invalidated once the posting transaction completes.
+     * An idempotency key is claimed in the same database transaction as the balance change, so a rolled back posting
+     * releases its key, and a posting losing the claim to a concurrent one with the same key returns that one's response.
+     * Once the transaction is inserted the posting can no longer fail, and an account posted event is published
+     * for the read model; a posting rolled back to its savepoint by the group committer never gets that far.
+     *
+     * @param accountNumber  The account number the transaction is posted to.
+     * @param transaction    The transaction to apply and persist.
+     * @param idempotencyKey The idempotency key sent by the client, or null.
+     * @return The transaction response.
+     * @throws AccountNotFoundException if the account is not found.
+     * @throws InsufficientBalanceException if a debit exceeds the current balance.
+     * @throws IdempotencyKeyReusedException if the key was already used for a different posting.
+     */
+    private TransactionResponse apply(String accountNumber, Transaction transaction, String idempotencyKey) {
+
+        AccountSnapshot account = findSnapshot(accountNumber);
+
+        String approvalCode = approvalCodeGenerator.generate();
+
+        IdempotentPosting claimed = null;
+        if (idempotencyKey != null) {
+            claimed = idempotencyStore.claim(idempotencyKey, accountNumber, transaction, approvalCode).orElse(null);
+            if (claimed == null) {
+                return idempotencyStore.find(idempotencyKey, accountNumber, transaction)
+                        .orElseThrow(() -> new IdempotencyKeyReusedException("Idempotency Key Already Used : " + idempotencyKey))
+                        .toResponse();
+            }
+        }
+
+        applyBalanceChange(account, transaction);
+        accountSnapshotCache.invalidateAfterCompletion(accountNumber);
+
+        transaction.setApprovalCode(approvalCode);
+        transaction.setAccount(accountRepository.getById(account.getId()));
+
+        transactionRepository.save(transaction);
+        publishPosted(accountNumber, transaction);
+
+        if (claimed != null) {
+            idempotencyStore.rememberAfterCommit(claimed);
+        }
 
         return TransactionResponse.builder()
                 .status("OK")
                 .approvalCode(approvalCode)
                 .build();
-
     }
 
     /**
-     * Processes a payment transaction by paying a phone bill from the specified account.
+     * Applies both legs of a transfer. The balance of each account is changed by a single conditional update, which
+     * takes the row lock of the account, and the updates always run in ascending account id order: two transfers
+     * in opposite directions between the same accounts lock the rows in the same order and can never deadlock,
+     * also across application nodes. Both leg transactions are then inserted in one batch, and an account posted
+     * event is published for each leg.
      *
-     * @param createPhoneBillPaymentRequest The request for creating a phone bill payment transaction, including account number and amount.
+     * @param fromAccountNumber The account number the money is transferred from.
+     * @param toAccountNumber   The account number the money is transferred to.
+     * @param amount            The transferred amount in minor units.
      * @return The transaction response.
+     * @throws AccountNotFoundException if either account is not found.
+     * @throws InsufficientBalanceException if the amount exceeds the balance of the sending account.
      */
-    public TransactionResponse payment(CreatePhoneBillPaymentRequest createPhoneBillPaymentRequest){
+    private TransactionResponse applyTransfer(String fromAccountNumber, String toAccountNumber, long amount) {
 
-        Account account = accountRepository.findByAccountNumber(createPhoneBillPaymentRequest.getAccountNumber())
-                .orElseThrow(() -> new AccountNotFoundException("Account Not Found : " + createPhoneBillPaymentRequest.getAccountNumber()));
+        AccountSnapshot fromAccount = findSnapshot(fromAccountNumber);
+        AccountSnapshot toAccount = findSnapshot(toAccountNumber);
 
-        String approvalCode = UUID.randomUUID().toString();
+        Transaction transferOut = new TransferOutTransaction(amount);
+        transferOut.setTransactionType(TransactionType.TransferOutTransaction);
+        Transaction transferIn = new TransferInTransaction(amount);
+        transferIn.setTransactionType(TransactionType.TransferInTransaction);
 
-        Transaction transaction =  new PhoneBillPaymentTransaction(createPhoneBillPaymentRequest.getAmount());
-        transaction.setApprovalCode(approvalCode);
-        transaction.setTransactionType(TransactionType.PhoneBillPaymentTransaction);
-        transaction.setAccount(account);
-        transaction.executeOn(account);
+        if (fromAccount.getId() < toAccount.getId()) {
+            applyBalanceChange(fromAccount, transferOut);
+            applyBalanceChange(toAccount, transferIn);
+        } else {
+            applyBalanceChange(toAccount, transferIn);
+            applyBalanceChange(fromAccount, transferOut);
+        }
+        accountSnapshotCache.invalidateAfterCompletion(fromAccountNumber);
+        accountSnapshotCache.invalidateAfterCompletion(toAccountNumber);
+
+        String approvalCode = approvalCodeGenerator.generate();
 
-        accountRepository.save(account);
+        transferOut.setApprovalCode(approvalCode);
+        transferOut.setAccount(accountRepository.getById(fromAccount.getId()));
+        transferIn.setApprovalCode(approvalCode);
+        transferIn.setAccount(accountRepository.getById(toAccount.getId()));
+
+        transactionRepository.saveAll(List.of(transferOut, transferIn));
+        publishPosted(fromAccountNumber, transferOut);
+        publishPosted(toAccountNumber, transferIn);
 
         return TransactionResponse.builder()
                 .status("OK")
@@ -182,44 +553,135 @@ public class AccountService {
                 .build();
     }
 
+    /**
+     * Publishes the event of a persisted transaction, delivered to the read model once the transaction commits.
+     *
+     * @param accountNumber The account number the transaction is posted to.
+     * @param transaction   The persisted transaction.
+     */
+    private void publishPosted(String accountNumber, Transaction transaction) {
+        applicationEventPublisher.publishEvent(new AccountPostedEvent(
+                accountNumber, transactionMapper.toTransactionDTO(transaction), transaction.balanceChange(), Instant.now()));
+    }
+
+    /**
+     * Changes the balance of an account by the balance change of a transaction in a single conditional update,
+     * of the account row or, for a striped account, of the sub-balance slot of the current thread.
+     *
+     * @param account     The snapshot of the account.
+     * @param transaction The transaction whose balance change is applied.
+     * @throws InsufficientBalanceException if a debit exceeds the current balance.
+     */
+    private void applyBalanceChange(AccountSnapshot account, Transaction transaction) {
+        if (account.isStriped()) {
+            stripedBalances.applyChange(account, transaction.balanceChange());
+            return;
+        }
+        if (accountRepository.applyBalanceChange(account.getId(), transaction.balanceChange()) == 0) {
+            throw new InsufficientBalanceException("Insufficient funds.");
+        }
+    }
 
     /**
-     * Generates a unique account number by repeatedly generating random numbers and checking for uniqueness.
+     * Allocates the number of a new account. The allocator never hands out a number twice, but accounts created
+     * before it was introduced carry randomly generated numbers it does not know of; a number one of them already
+     * has is skipped for the next one, which costs one lookup of the unique account number index per account.
      *
-     * @return A unique account number in the format "NNN-NNNNNN."
+     * @return An account number no account has.
      */
-    private String generateUniqueAccountNumber() {
-        String accountNumber;
-        do {
-            String randomNumber = generateRandomNumber();
-            accountNumber = randomNumber.substring(0, 3) + "-" + randomNumber.substring(3);
-        } while (!isAccountNumberUnique(accountNumber));
+    private String allocateAccountNumber() {
+        String accountNumber = shardRouter.onHomeShard(accountNumberAllocator::allocate);
+        while (isTaken(accountNumber)) {
+            log.info("Skipping account number {}, already taken by an existing account", accountNumber);
+            accountNumber = shardRouter.onHomeShard(accountNumberAllocator::allocate);
+        }
         return accountNumber;
     }
 
     /**
-     * Generates a random number within a specific range (100000 to 999999).
+     * Checks whether an account already has a number, on the shard a new account with the number is placed on.
      *
-     * @return A random number as a string.
+     * @param accountNumber The account number.
+     * @return true if the number is taken.
      */
-    private String generateRandomNumber() {
-        Random random = new Random();
-        int min = 100000;
-        int max = 999999;
-        int randomNumber = random.nextInt((max - min) + 1) + min;
-        return String.valueOf(randomNumber);
+    private boolean isTaken(String accountNumber) {
+        return shardRouter.onNewAccountShard(accountNumber, () -> accountRepository.existsByAccountNumber(accountNumber));
     }
 
     /**
-     * Checks whether the provided account number is unique by querying the account repository.
+     * Returns the snapshot of the account with the given number from the account snapshot cache,
+     * loading it from the account repository on a miss. The balance of a striped account includes its slots.
+     * A snapshot loaded from the replica may lag behind the primary and is not cached, so it is never served
+     * to readers kept on the primary or to postings.
      *
-     * @param accountNumber The account number to check for uniqueness.
-     * @return true if the account number is unique, false otherwise.
+     * @param accountNumber The unique account number to search for.
+     * @return The account snapshot.
+     * @throws AccountNotFoundException if the account is not found.
      */
-    private boolean isAccountNumberUnique(String accountNumber) {
+    private AccountSnapshot findSnapshot(String accountNumber) {
+        Optional<AccountSnapshot> snapshot = readYourWritesGuard.readsFromReplica()
+                ? accountSnapshotCache.getWithoutCaching(accountNumber, this::loadSnapshot)
+                : accountSnapshotCache.get(accountNumber, this::loadSnapshot);
+        return snapshot
+                .orElseThrow(() -> new AccountNotFoundException("Account Not Found : " + accountNumber));
+    }
 
-        Optional<Account> existingAccount = accountRepository.findByAccountNumber(accountNumber);
-        return existingAccount.isEmpty();
+    /**
+     * Loads the snapshot of the account with the given number, adding the slots of a striped account to its balance.
+     *
+     * @param accountNumber The unique account number to search for.
+     * @return The account snapshot, or empty if the account is not found.
+     */
+    private Optional<AccountSnapshot> loadSnapshot(String accountNumber) {
+        return accountRepository.findSnapshotByAccountNumber(accountNumber)
+                .map(snapshot -> snapshot.isStriped() ? stripedBalances.withSlotBalances(snapshot) : snapshot);
+    }
+
+    /**
+     * Writes the statement of an account in the read-only transaction of the statement exporter, run on the shard
+     * of the account and kept on the primary if the export was prepared on the primary.
+     *
+     * @param accountId       The id of the account.
+     * @param request         The export request with the account number, time range and format.
+     * @param primaryRequired Whether the statement must be read from the primary.
+     * @param outputStream    The stream the statement is written to.
+     * @throws IOException if the statement cannot be written.
+     */
+    private void writeStatement(Long accountId, StatementExportRequest request, boolean primaryRequired,
+                                OutputStream outputStream) throws IOException {
+        String accountNumber = request.getAccountNumber();
+        try {
+            shardRouter.onAccountShard(accountNumber, () -> readYourWritesGuard.read(primaryRequired, () -> {
+                try {
+                    statementExporter.export(accountId, request, outputStream);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+                return null;
+            }));
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
+
+    /**
+     * Reads one page of the transaction history of an account, most recent first. Archived months are older
+     * than every month still in the database, so the page is filled from the archive only once the database
+     * runs out of matching transactions.
+     *
+     * @param accountId The id of the account.
+     * @param criteria  The cursor and filters of the page.
+     * @param limit     The maximum number of transactions to return.
+     * @return The transactions of the page.
+     */
+    private List<Transaction> findHistoryPage(Long accountId, TransactionHistoryCriteria criteria, int limit) {
+        List<Transaction> transactions = transactionRepository.findHistoryPage(accountId, criteria, limit);
+        if (transactions.size() >= limit) {
+            return transactions;
+        }
+        List<Transaction> page = new ArrayList<>(transactions);
+        page.addAll(transactionArchive.findHistoryPage(accountId, criteria, limit - transactions.size()));
+        return page;
     }
 
 }
@@ -0,0 +1,69 @@
+package com.eteration.simplebanking.services.allocation;
+
+import com.eteration.simplebanking.exception.AccountNumberSpaceExhaustedException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out unique account numbers in the format "NNN-NNN" without querying the account table.
+ * Each node reserves blocks of ordinals from a database sequence, so numbers never collide across nodes,
+ * and maps them onto account numbers by the rules of {@link AccountNumberSpace}.
+ * An allocation therefore costs the same however full the number space is.
+ */
+@Component
+public class AccountNumberAllocator {
+
+    private final LongSupplier blockSequence;
+
+    private long nextOrdinal;
+
+    private long blockEnd;
+
+    /**
+     * Creates an allocator reserving blocks from the account number sequence of the database.
+     *
+     * @param jdbcTemplate          The template used to call the sequence.
+     * @param entityManagerFactory  The entity manager factory providing the dialect specific sequence call.
+     */
+    @Autowired
+    public AccountNumberAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this(databaseSequence(jdbcTemplate, entityManagerFactory));
+    }
+
+    /**
+     * Creates an allocator reserving blocks from the given sequence of block indexes.
+     *
+     * @param blockSequence Supplier returning a new, never repeated block index on every call.
+     */
+    AccountNumberAllocator(LongSupplier blockSequence) {
+        this.blockSequence = blockSequence;
+    }
+
+    /**
+     * Allocates the next account number.
+     *
+     * @return A unique account number in the format "NNN-NNN".
+     * @throws AccountNumberSpaceExhaustedException if every account number has been handed out.
+     */
+    public synchronized String allocate() {
+        if (nextOrdinal == blockEnd) {
+            nextOrdinal = blockSequence.getAsLong() * AccountNumberSpace.BLOCK_SIZE;
+            blockEnd = nextOrdinal + AccountNumberSpace.BLOCK_SIZE;
+        }
+        return AccountNumberSpace.accountNumberOf(nextOrdinal++);
+    }
+
+    private static LongSupplier databaseSequence(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        String nextValue = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect()
+                .getSequenceNextValString(AccountNumberSpace.SEQUENCE_NAME);
+        return () -> jdbcTemplate.queryForObject(nextValue, Long.class);
+    }
+
+}
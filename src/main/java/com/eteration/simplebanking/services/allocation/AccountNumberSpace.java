@@ -0,0 +1,64 @@
+package com.eteration.simplebanking.services.allocation;
+
+import com.eteration.simplebanking.exception.AccountNumberSpaceExhaustedException;
+
+/**
+ * The rules mapping ordinals reserved from the account number sequence onto account numbers in the format "NNN-NNN",
+ * shared by every allocator reserving blocks from the sequence. Every ordinal is mapped onto the number space
+ * through a fixed permutation, so consecutive accounts do not get consecutive numbers.
+ */
+public final class AccountNumberSpace {
+
+    /**
+     * The name of the database sequence handing out block indexes.
+     */
+    public static final String SEQUENCE_NAME = "account_number_seq";
+
+    /**
+     * The number of account numbers reserved per sequence call. Must never change for an existing database.
+     */
+    public static final int BLOCK_SIZE = 50;
+
+    /**
+     * The number of distinct account numbers, 100000 to 999999.
+     */
+    public static final int CAPACITY = 900_000;
+
+    private static final int FIRST_NUMBER = 100_000;
+
+    /**
+     * Multiplier of the permutation, coprime with the capacity so the mapping is a bijection.
+     */
+    private static final long MULTIPLIER = 524_287L;
+
+    private static final long OFFSET = 271_828L;
+
+    private AccountNumberSpace() {
+    }
+
+    /**
+     * Returns the account number of an ordinal.
+     *
+     * @param ordinal The ordinal, from 0 upwards.
+     * @return The account number in the format "NNN-NNN".
+     * @throws AccountNumberSpaceExhaustedException if the ordinal lies beyond the number space.
+     */
+    public static String accountNumberOf(long ordinal) {
+        if (ordinal >= CAPACITY) {
+            throw new AccountNumberSpaceExhaustedException("Account number space exhausted");
+        }
+        return format(ordinal);
+    }
+
+    /**
+     * Maps an ordinal onto its account number.
+     *
+     * @param ordinal The ordinal, between 0 and the capacity.
+     * @return The account number in the format "NNN-NNN".
+     */
+    static String format(long ordinal) {
+        String number = Long.toString(FIRST_NUMBER + (ordinal * MULTIPLIER + OFFSET) % CAPACITY);
+        return number.substring(0, 3) + "-" + number.substring(3);
+    }
+
+}
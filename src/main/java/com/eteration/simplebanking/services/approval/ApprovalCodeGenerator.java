@@ -0,0 +1,15 @@
+package com.eteration.simplebanking.services.approval;
+
+/**
+ * Strategy generating the approval codes returned for postings in the Simple Banking App.
+ */
+public interface ApprovalCodeGenerator {
+
+    /**
+     * Generates a new approval code.
+     *
+     * @return A unique approval code.
+     */
+    String generate();
+
+}
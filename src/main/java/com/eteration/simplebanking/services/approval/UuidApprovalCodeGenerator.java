@@ -0,0 +1,25 @@
+package com.eteration.simplebanking.services.approval;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Approval code generator returning random UUIDs. This is the default strategy.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banking.approval-code", name = "strategy", havingValue = "uuid", matchIfMissing = true)
+public class UuidApprovalCodeGenerator implements ApprovalCodeGenerator {
+
+    /**
+     * Generates a random UUID approval code.
+     *
+     * @return The 36 character string form of a random UUID.
+     */
+    @Override
+    public String generate() {
+        return UUID.randomUUID().toString();
+    }
+
+}
@@ -0,0 +1,250 @@
+package com.eteration.simplebanking.services.archive;
+
+import com.eteration.simplebanking.config.ArchiveProperties;
+import com.eteration.simplebanking.dto.ArchivedTransaction;
+import com.eteration.simplebanking.dto.HistoryCursor;
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * The archived transactions, kept on local disk as one immutable segment file per month.
+ * Every archived month is older than the months still in the database, so readers serve the most recent
+ * transactions from the database and continue into the archive, newest month first, for older ones.
+ * Segments are written under a pending name and only published once their partition is dropped,
+ * so a transaction is never read from both places.
+ */
+@Slf4j
+@Component
+public class TransactionArchive {
+
+    private static final String PENDING_SUFFIX = ".pending";
+
+    private final Path directory;
+
+    private final ConcurrentSkipListMap<YearMonth, TransactionSegment> segments = new ConcurrentSkipListMap<>();
+
+    /**
+     * Creates the archive and opens the segments already published in its directory.
+     *
+     * @param archiveProperties The archive configuration.
+     * @throws UncheckedIOException if the directory or one of its segments cannot be read.
+     */
+    public TransactionArchive(ArchiveProperties archiveProperties) {
+        this.directory = archiveProperties.getDirectory();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    if (TransactionSegment.parseMonth(file.getFileName().toString()) != null) {
+                        TransactionSegment segment = TransactionSegment.open(file);
+                        segments.put(segment.getMonth(), segment);
+                    }
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException("Cannot open the transaction archive in " + directory, exception);
+            }
+        }
+        log.info("Opened {} archived transaction segments in {}", segments.size(), directory);
+    }
+
+    /**
+     * Reads one page of the archived transaction history of an account, most recent first.
+     *
+     * @param accountId The id of the account.
+     * @param criteria  The cursor and filters of the page.
+     * @param limit     The maximum number of transactions to return.
+     * @return The archived transactions as detached entities, at most limit of them.
+     * @throws UncheckedIOException if a segment cannot be read.
+     */
+    public List<Transaction> findHistoryPage(Long accountId, TransactionHistoryCriteria criteria, int limit) {
+        List<Transaction> page = new ArrayList<>();
+        LocalDateTime upperBound = criteria.getTo();
+        if (criteria.getCursor() != null && (upperBound == null || criteria.getCursor().getCreatedDateTime().isBefore(upperBound))) {
+            upperBound = criteria.getCursor().getCreatedDateTime();
+        }
+        for (TransactionSegment segment : segmentsCovering(criteria.getFrom(), upperBound).descendingMap().values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            List<ArchivedTransaction> transactions = read(segment, accountId);
+            for (int i = transactions.size() - 1; i >= 0 && page.size() < limit; i--) {
+                ArchivedTransaction transaction = transactions.get(i);
+                if (matches(transaction, criteria)) {
+                    page.add(transaction.toTransaction());
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Streams the archived transactions of an account created in a time range, oldest first.
+     * Segments are read one at a time as the stream is consumed.
+     *
+     * @param accountId The id of the account.
+     * @param from      The inclusive start of the range.
+     * @param to        The exclusive end of the range.
+     * @return The stream of transactions.
+     * @throws UncheckedIOException if a segment cannot be read.
+     */
+    public Stream<TransactionDTO> streamStatement(Long accountId, LocalDateTime from, LocalDateTime to) {
+        return segmentsCovering(from, to).values().stream()
+                .flatMap(segment -> read(segment, accountId).stream())
+                .filter(transaction -> !transaction.getCreatedDateTime().isBefore(from) && transaction.getCreatedDateTime().isBefore(to))
+                .map(ArchivedTransaction::toTransactionDTO);
+    }
+
+    /**
+     * Sums the balance changes of the archived transactions of an account created in a time range.
+     *
+     * @param accountId The id of the account.
+     * @param from      The inclusive start of the range, or null for no bound.
+     * @param to        The exclusive end of the range, or null for no bound.
+     * @return The sum of the balance changes in minor units.
+     * @throws UncheckedIOException if a segment cannot be read.
+     */
+    public long balanceChange(Long accountId, LocalDateTime from, LocalDateTime to) {
+        long change = 0;
+        for (TransactionSegment segment : segmentsCovering(from, to).values()) {
+            for (ArchivedTransaction transaction : read(segment, accountId)) {
+                LocalDateTime createdDateTime = transaction.getCreatedDateTime();
+                if ((from == null || !createdDateTime.isBefore(from)) && (to == null || createdDateTime.isBefore(to))) {
+                    change += transaction.toTransaction().balanceChange();
+                }
+            }
+        }
+        return change;
+    }
+
+    /**
+     * Tells whether a month has been archived.
+     *
+     * @param month The month.
+     * @return True if the segment of the month is published.
+     */
+    public boolean isArchived(YearMonth month) {
+        return segments.containsKey(month);
+    }
+
+    /**
+     * Returns the file a segment is written to before it is published, creating the archive directory if needed.
+     * A leftover file of an earlier attempt is removed.
+     *
+     * @param month The month of the segment.
+     * @return The pending file of the segment.
+     * @throws IOException if the directory cannot be created or the leftover removed.
+     */
+    public Path pendingFile(YearMonth month) throws IOException {
+        Files.createDirectories(directory);
+        Path pending = pendingPath(month);
+        Files.deleteIfExists(pending);
+        return pending;
+    }
+
+    /**
+     * Returns the months whose segments were written but neither published nor discarded, which happens when
+     * the application stops between dropping a partition and publishing its segment.
+     *
+     * @return The months with a pending segment.
+     * @throws IOException if the directory cannot be read.
+     */
+    public List<YearMonth> pendingMonths() throws IOException {
+        List<YearMonth> months = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + PENDING_SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    YearMonth month = TransactionSegment.parseMonth(name.substring(0, name.length() - PENDING_SUFFIX.length()));
+                    if (month != null) {
+                        months.add(month);
+                    }
+                }
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Publishes the pending segment of a month: it is renamed atomically to its final name, made read-only
+     * and served to readers from then on.
+     *
+     * @param month The month of the segment.
+     * @return The published segment.
+     * @throws IOException if the segment cannot be renamed or opened.
+     */
+    public TransactionSegment publish(YearMonth month) throws IOException {
+        Path file = directory.resolve(TransactionSegment.fileName(month));
+        Files.move(pendingPath(month), file, StandardCopyOption.ATOMIC_MOVE);
+        if (!file.toFile().setReadOnly()) {
+            log.warn("Could not make archived transaction segment {} read-only", file);
+        }
+        TransactionSegment segment = TransactionSegment.open(file);
+        segments.put(month, segment);
+        log.info("Archived {} transactions of {} to {}", segment.getTransactionCount(), month, file);
+        return segment;
+    }
+
+    /**
+     * Removes the pending segment of a month whose partition is still in the database.
+     *
+     * @param month The month of the segment.
+     * @throws IOException if the file cannot be removed.
+     */
+    public void discardPending(YearMonth month) throws IOException {
+        Files.deleteIfExists(pendingPath(month));
+    }
+
+    private Path pendingPath(YearMonth month) {
+        return directory.resolve(TransactionSegment.fileName(month) + PENDING_SUFFIX);
+    }
+
+    private NavigableMap<YearMonth, TransactionSegment> segmentsCovering(LocalDateTime from, LocalDateTime to) {
+        NavigableMap<YearMonth, TransactionSegment> covering = segments;
+        if (from != null) {
+            covering = covering.tailMap(YearMonth.from(from), true);
+        }
+        if (to != null) {
+            covering = covering.headMap(YearMonth.from(to), true);
+        }
+        return covering;
+    }
+
+    private static List<ArchivedTransaction> read(TransactionSegment segment, Long accountId) {
+        try {
+            return segment.read(accountId);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static boolean matches(ArchivedTransaction transaction, TransactionHistoryCriteria criteria) {
+        LocalDateTime createdDateTime = transaction.getCreatedDateTime();
+        HistoryCursor cursor = criteria.getCursor();
+        if (cursor != null) {
+            int byTime = createdDateTime.compareTo(cursor.getCreatedDateTime());
+            if (byTime > 0 || (byTime == 0 && transaction.getId() >= cursor.getId())) {
+                return false;
+            }
+        }
+        return (criteria.getTransactionType() == null || criteria.getTransactionType() == transaction.getTransactionType())
+                && (criteria.getFrom() == null || !createdDateTime.isBefore(criteria.getFrom()))
+                && (criteria.getTo() == null || createdDateTime.isBefore(criteria.getTo()));
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.eteration.simplebanking.services.archive;
+
+import com.eteration.simplebanking.config.ArchiveProperties;
+import com.eteration.simplebanking.repository.TransactionPartitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Maintains the monthly transaction partitions: creates the partitions of the coming months ahead of time
+ * and moves the partitions older than the retention period into archived segments.
+ * A partition is written to a pending segment and dropped in one database transaction; the segment is
+ * published only after that transaction commits, and a pending segment left behind by a crash is published
+ * or discarded on the next run depending on whether its partition still exists.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "banking.archive", name = "enabled", havingValue = "true")
+public class TransactionArchiveJob {
+
+    private final TransactionPartitionRepository transactionPartitionRepository;
+
+    private final TransactionArchive transactionArchive;
+
+    private final ArchiveProperties archiveProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Runs the job for the current month on the configured schedule.
+     */
+    @Scheduled(cron = "${banking.archive.cron:0 30 2 * * *}")
+    public void run() {
+        run(YearMonth.now());
+    }
+
+    /**
+     * Runs the job as of a given month.
+     *
+     * @param currentMonth The current month.
+     * @throws UncheckedIOException if a segment cannot be written or published.
+     */
+    public void run(YearMonth currentMonth) {
+        try {
+            List<YearMonth> partitions = transactionPartitionRepository.findPartitionMonths();
+            recoverPendingSegments(partitions);
+            for (int ahead = 0; ahead <= archiveProperties.getPremadeMonths(); ahead++) {
+                transactionPartitionRepository.createPartition(currentMonth.plusMonths(ahead));
+            }
+            YearMonth oldestRetained = currentMonth.minusMonths(archiveProperties.getRetentionMonths());
+            for (YearMonth month : partitions) {
+                if (month.isBefore(oldestRetained)) {
+                    archive(month);
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Transaction archival failed", exception);
+        }
+    }
+
+    private void recoverPendingSegments(List<YearMonth> partitions) throws IOException {
+        for (YearMonth month : transactionArchive.pendingMonths()) {
+            if (partitions.contains(month)) {
+                log.warn("Discarding the pending segment of {}, its partition was not dropped", month);
+                transactionArchive.discardPending(month);
+            } else {
+                log.warn("Publishing the pending segment of {}, its partition was already dropped", month);
+                transactionArchive.publish(month);
+            }
+        }
+    }
+
+    private void archive(YearMonth month) throws IOException {
+        if (transactionArchive.isArchived(month)) {
+            throw new IllegalStateException("Partition of " + month + " exists although the month is already archived");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            try (TransactionSegmentWriter writer = new TransactionSegmentWriter(transactionArchive.pendingFile(month), month)) {
+                transactionPartitionRepository.forEachTransaction(month, (accountId, transaction) -> {
+                    try {
+                        writer.append(accountId, transaction);
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+                writer.finish();
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            transactionPartitionRepository.dropPartition(month);
+        });
+        transactionArchive.publish(month);
+    }
+
+}
@@ -0,0 +1,243 @@
+package com.eteration.simplebanking.services.archive;
+
+import com.eteration.simplebanking.dto.ArchivedTransaction;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * An immutable segment file holding the archived transactions of one month.
+ * The file starts with a header naming the month, followed by one deflate compressed block per account
+ * with its transactions oldest first, the per-account offset index and a trailer pointing at the index:
+ * <pre>
+ * header  : magic (int), version (int), year * 100 + month (int)
+ * block   : deflated records of one account
+ * index   : entry count (int), per account: account id (long), offset (long), length (int), count (int), crc32 (int)
+ * trailer : index offset (long), magic (int)
+ * </pre>
+ * Only the index is kept in memory; reading the transactions of an account costs one positional read
+ * and the inflation of that account's block.
+ */
+public final class TransactionSegment {
+
+    static final int MAGIC = 0x53425347;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = 12;
+
+    static final int TRAILER_LENGTH = 12;
+
+    private static final String FILE_PREFIX = "transaction-";
+
+    private static final String FILE_SUFFIX = ".seg";
+
+    /**
+     * The segment file.
+     */
+    @Getter
+    private final Path file;
+
+    /**
+     * The month whose transactions the segment holds.
+     */
+    @Getter
+    private final YearMonth month;
+
+    /**
+     * The number of transactions in the segment.
+     */
+    @Getter
+    private final long transactionCount;
+
+    private final Map<Long, Block> index;
+
+    private TransactionSegment(Path file, YearMonth month, Map<Long, Block> index) {
+        this.file = file;
+        this.month = month;
+        this.index = index;
+        this.transactionCount = index.values().stream().mapToLong(block -> block.count).sum();
+    }
+
+    /**
+     * Opens a segment file and loads its offset index.
+     *
+     * @param file The segment file.
+     * @return The opened segment.
+     * @throws IOException if the file cannot be read or is not a complete segment.
+     */
+    public static TransactionSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH + Integer.BYTES + TRAILER_LENGTH) {
+                throw new IOException("Truncated transaction segment " + file);
+            }
+            ByteBuffer header = readFully(channel, 0, HEADER_LENGTH);
+            ByteBuffer trailer = readFully(channel, size - TRAILER_LENGTH, TRAILER_LENGTH);
+            long indexOffset = trailer.getLong();
+            if (header.getInt() != MAGIC || trailer.getInt() != MAGIC) {
+                throw new IOException("Not a transaction segment " + file);
+            }
+            if (header.getInt() != VERSION) {
+                throw new IOException("Unsupported transaction segment version " + file);
+            }
+            int yearMonth = header.getInt();
+            if (indexOffset < HEADER_LENGTH || indexOffset > size - TRAILER_LENGTH - Integer.BYTES) {
+                throw new IOException("Corrupt index offset in transaction segment " + file);
+            }
+            ByteBuffer indexBuffer = readFully(channel, indexOffset, (int) (size - TRAILER_LENGTH - indexOffset));
+            int entries = indexBuffer.getInt();
+            Map<Long, Block> index = new HashMap<>(entries * 2);
+            for (int i = 0; i < entries; i++) {
+                index.put(indexBuffer.getLong(),
+                        new Block(indexBuffer.getLong(), indexBuffer.getInt(), indexBuffer.getInt(), indexBuffer.getInt()));
+            }
+            return new TransactionSegment(file, YearMonth.of(yearMonth / 100, yearMonth % 100), index);
+        }
+    }
+
+    /**
+     * Reads the archived transactions of an account.
+     *
+     * @param accountId The id of the account.
+     * @return The transactions of the account in the month, oldest first; empty if it has none.
+     * @throws IOException if the block cannot be read or fails its checksum.
+     */
+    public List<ArchivedTransaction> read(long accountId) throws IOException {
+        Block block = index.get(accountId);
+        if (block == null) {
+            return Collections.emptyList();
+        }
+        byte[] compressed;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            compressed = readFully(channel, block.offset, block.length).array();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+        if ((int) crc.getValue() != block.crc) {
+            throw new IOException("Checksum mismatch for account " + accountId + " in transaction segment " + file);
+        }
+        return decode(inflate(compressed), block.count);
+    }
+
+    /**
+     * Returns the name of the segment file of a month.
+     *
+     * @param month The month.
+     * @return The file name, e.g. "transaction-2024-01.seg".
+     */
+    public static String fileName(YearMonth month) {
+        return FILE_PREFIX + month + FILE_SUFFIX;
+    }
+
+    /**
+     * Parses the month out of the name of a segment file.
+     *
+     * @param fileName The file name.
+     * @return The month, or null if the name is not the name of a segment file.
+     */
+    static YearMonth parseMonth(String fileName) {
+        if (!fileName.startsWith(FILE_PREFIX) || !fileName.endsWith(FILE_SUFFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(fileName.substring(FILE_PREFIX.length(), fileName.length() - FILE_SUFFIX.length()));
+        } catch (RuntimeException exception) {
+            return null;
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] buffer = new byte[Math.max(64, compressed.length * 4)];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == buffer.length) {
+                    byte[] larger = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, larger, 0, length);
+                    buffer = larger;
+                }
+                int inflated = inflater.inflate(buffer, length, buffer.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated block in transaction segment");
+                }
+                length += inflated;
+            }
+            byte[] result = new byte[length];
+            System.arraycopy(buffer, 0, result, 0, length);
+            return result;
+        } catch (DataFormatException exception) {
+            throw new IOException("Corrupt block in transaction segment", exception);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static List<ArchivedTransaction> decode(byte[] records, int count) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(records));
+        List<ArchivedTransaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = input.readLong();
+            LocalDateTime createdDateTime = LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(), ZoneOffset.UTC);
+            TransactionType transactionType = TransactionType.valueOf(input.readUTF());
+            long amount = input.readLong();
+            String approvalCode = input.readBoolean() ? input.readUTF() : null;
+            transactions.add(new ArchivedTransaction(id, transactionType, approvalCode, amount, createdDateTime));
+        }
+        return transactions;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of transaction segment");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * The location of the block of one account in the segment file.
+     */
+    static final class Block {
+
+        private final long offset;
+
+        private final int length;
+
+        private final int count;
+
+        private final int crc;
+
+        Block(long offset, int length, int count, int crc) {
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+            this.crc = crc;
+        }
+
+    }
+
+}
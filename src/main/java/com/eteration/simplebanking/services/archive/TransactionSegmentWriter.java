@@ -0,0 +1,167 @@
+package com.eteration.simplebanking.services.archive;
+
+import com.eteration.simplebanking.dto.ArchivedTransaction;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes the transactions of one month into a new segment file in the layout read by {@link TransactionSegment}.
+ * Transactions must be appended ordered by account id, then by creation time and id, which is the order of the
+ * (account_id, created_date_time, id) index they are read through. Only the block of the current account is
+ * buffered in memory.
+ */
+public class TransactionSegmentWriter implements Closeable {
+
+    private final FileOutputStream fileOutput;
+
+    private final DataOutputStream output;
+
+    private final DataOutputStream index;
+
+    private final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+    private DataOutputStream records;
+
+    private long position;
+
+    private int accounts;
+
+    private long transactions;
+
+    private Long currentAccountId;
+
+    private int currentCount;
+
+    private ArchivedTransaction previous;
+
+    private boolean finished;
+
+    /**
+     * Creates the segment file and writes its header.
+     *
+     * @param file  The file to create; it must not exist yet.
+     * @param month The month whose transactions the segment holds.
+     * @throws IOException if the file cannot be created.
+     */
+    public TransactionSegmentWriter(Path file, YearMonth month) throws IOException {
+        this.fileOutput = new FileOutputStream(file.toFile());
+        this.output = new DataOutputStream(new BufferedOutputStream(fileOutput, 64 * 1024));
+        this.index = new DataOutputStream(indexBytes);
+        output.writeInt(TransactionSegment.MAGIC);
+        output.writeInt(TransactionSegment.VERSION);
+        output.writeInt(month.getYear() * 100 + month.getMonthValue());
+        position = TransactionSegment.HEADER_LENGTH;
+    }
+
+    /**
+     * Appends a transaction of an account.
+     *
+     * @param accountId   The id of the account.
+     * @param transaction The transaction.
+     * @throws IOException              if the segment cannot be written.
+     * @throws IllegalArgumentException if the transaction is out of order.
+     */
+    public void append(long accountId, ArchivedTransaction transaction) throws IOException {
+        if (currentAccountId == null || currentAccountId != accountId) {
+            if (currentAccountId != null && accountId < currentAccountId) {
+                throw new IllegalArgumentException("Account " + accountId + " appended after account " + currentAccountId);
+            }
+            writeBlock();
+            currentAccountId = accountId;
+            deflater.reset();
+            block.reset();
+            records = new DataOutputStream(new DeflaterOutputStream(block, deflater, 8 * 1024));
+        } else if (compare(transaction, previous) <= 0) {
+            throw new IllegalArgumentException("Transaction " + transaction.getId() + " of account " + accountId + " appended out of order");
+        }
+        LocalDateTime createdDateTime = transaction.getCreatedDateTime();
+        records.writeLong(transaction.getId());
+        records.writeLong(createdDateTime.toEpochSecond(ZoneOffset.UTC));
+        records.writeInt(createdDateTime.getNano());
+        records.writeUTF(transaction.getTransactionType().name());
+        records.writeLong(transaction.getAmount());
+        records.writeBoolean(transaction.getApprovalCode() != null);
+        if (transaction.getApprovalCode() != null) {
+            records.writeUTF(transaction.getApprovalCode());
+        }
+        previous = transaction;
+        currentCount++;
+        transactions++;
+    }
+
+    /**
+     * Writes the index and the trailer and forces the segment to disk.
+     *
+     * @return The number of transactions written.
+     * @throws IOException if the segment cannot be written.
+     */
+    public long finish() throws IOException {
+        writeBlock();
+        long indexOffset = position;
+        output.writeInt(accounts);
+        indexBytes.writeTo(output);
+        output.writeLong(indexOffset);
+        output.writeInt(TransactionSegment.MAGIC);
+        output.flush();
+        fileOutput.getChannel().force(true);
+        finished = true;
+        output.close();
+        return transactions;
+    }
+
+    /**
+     * Closes the file. A segment that was not finished is left incomplete and fails to open.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            output.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (currentAccountId == null || currentCount == 0) {
+            return;
+        }
+        records.close();
+        byte[] compressed = block.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+        output.write(compressed);
+        index.writeLong(currentAccountId);
+        index.writeLong(position);
+        index.writeInt(compressed.length);
+        index.writeInt(currentCount);
+        index.writeInt((int) crc.getValue());
+        position += compressed.length;
+        accounts++;
+        currentCount = 0;
+        currentAccountId = null;
+        previous = null;
+    }
+
+    private static int compare(ArchivedTransaction transaction, ArchivedTransaction other) {
+        int byTime = transaction.getCreatedDateTime().compareTo(other.getCreatedDateTime());
+        return byTime != 0 ? byTime : Long.compare(transaction.getId(), other.getId());
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.eteration.simplebanking.services.cache;
+
+import com.eteration.simplebanking.config.AccountCacheProperties;
+import com.eteration.simplebanking.dto.AccountSnapshot;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process read-through cache of account snapshots keyed by account number.
+ * Postings invalidate the snapshot of their account once their transaction has completed. Concurrent misses share
+ * one load, which runs on the calling thread outside the cache's locks, and an invalidation drops a load in flight
+ * without waiting for it, so a balance read before the commit is never served to readers arriving after it.
+ */
+@Component
+public class AccountSnapshotCache {
+
+    /**
+     * The name the cache metrics are tagged with.
+     */
+    public static final String CACHE_NAME = "accounts";
+
+    private final AsyncCache<String, AccountSnapshot> cache;
+
+    /**
+     * Creates the cache and registers its hit, miss and eviction metrics.
+     *
+     * @param properties    The account cache configuration.
+     * @param meterRegistry The registry the cache metrics are registered on.
+     */
+    public AccountSnapshotCache(AccountCacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), CACHE_NAME);
+    }
+
+    /**
+     * Returns the snapshot of an account, loading it on a miss.
+     *
+     * @param accountNumber The account number to look up.
+     * @param loader        Function loading the snapshot from the database on a miss.
+     * @return An Optional containing the snapshot, or an empty Optional if the account does not exist.
+     */
+    public Optional<AccountSnapshot> get(String accountNumber, Function<String, Optional<AccountSnapshot>> loader) {
+        CompletableFuture<AccountSnapshot> load = new CompletableFuture<>();
+        CompletableFuture<AccountSnapshot> snapshot = cache.get(accountNumber, (key, executor) -> load);
+        if (snapshot == load) {
+            try {
+                load.complete(loader.apply(accountNumber).orElse(null));
+            } catch (RuntimeException exception) {
+                load.completeExceptionally(exception);
+                throw exception;
+            }
+        }
+        return join(snapshot);
+    }
+
+    /**
+     * Returns the cached snapshot of an account, or loads it on a miss without caching it, for loads that may see
+     * older rows than the ones the cache is kept consistent with, such as reads from a lagging replica.
+     *
+     * @param accountNumber The account number to look up.
+     * @param loader        Function loading the snapshot on a miss.
+     * @return An Optional containing the snapshot, or an empty Optional if the account does not exist.
+     */
+    public Optional<AccountSnapshot> getWithoutCaching(String accountNumber, Function<String, Optional<AccountSnapshot>> loader) {
+        CompletableFuture<AccountSnapshot> snapshot = cache.getIfPresent(accountNumber);
+        return snapshot != null ? join(snapshot) : loader.apply(accountNumber);
+    }
+
+    /**
+     * Invalidates the snapshot of an account once the current transaction has completed,
+     * or immediately when no transaction is active.
+     *
+     * @param accountNumber The account number whose snapshot is invalidated.
+     */
+    public void invalidateAfterCompletion(String accountNumber) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.synchronous().invalidate(accountNumber);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.synchronous().invalidate(accountNumber);
+            }
+        });
+    }
+
+    private static Optional<AccountSnapshot> join(CompletableFuture<AccountSnapshot> snapshot) {
+        try {
+            return Optional.ofNullable(snapshot.join());
+        } catch (CompletionException exception) {
+            throw exception.getCause() instanceof RuntimeException
+                    ? (RuntimeException) exception.getCause()
+                    : exception;
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.eteration.simplebanking.services.executor;
+
+import com.eteration.simplebanking.exception.RequestOutcomeUnknownException;
+import com.eteration.simplebanking.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Executor with a fixed number of threads and a bounded queue in the Simple Banking App.
+ * Work submitted while every thread is busy and the queue is full is rejected right away with a
+ * {@link ServiceOverloadedException}, so overload turns into quick rejections instead of requests waiting until they time out.
+ * Work not completed within the configured timeout, queueing included, fails as well, so a request never waits as long
+ * as the asynchronous request timeout, which is sized for statement exports: work still queued never runs and fails
+ * with a {@link ServiceOverloadedException}, as it is safe to retry, while work already started is not interrupted and
+ * may still complete after its caller was answered, so it fails with a {@link RequestOutcomeUnknownException}.
+ * The pool size, active threads, queue depth, rejections and timeouts are published as metrics tagged with the executor name.
+ */
+public class BoundedExecutor {
+
+    /**
+     * The name of the counter recording rejected work.
+     */
+    public static final String REJECTED_METRIC = "banking.executor.rejected";
+
+    /**
+     * The name of the counter recording work not completed within the timeout.
+     */
+    public static final String TIMED_OUT_METRIC = "banking.executor.timed-out";
+
+    private final String name;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Duration timeout;
+
+    private final Duration retryAfter;
+
+    private final Counter rejections;
+
+    private final Counter timeouts;
+
+    /**
+     * Creates the executor, starts its threads and registers its metrics.
+     *
+     * @param name          The name of the executor, used for its threads and metrics.
+     * @param threads       The number of threads.
+     * @param queueCapacity The maximum number of queued tasks.
+     * @param timeout       How long work may take, waiting in the queue included, before its caller is answered with a failure.
+     * @param retryAfter    How long rejected clients should wait before retrying.
+     * @param taskDecorator The decorator applied to every task.
+     * @param meterRegistry The registry the metrics are registered on.
+     */
+    public BoundedExecutor(String name, int threads, int queueCapacity, Duration timeout, Duration retryAfter,
+                           TaskDecorator taskDecorator, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.timeout = timeout;
+        this.retryAfter = retryAfter;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setTaskDecorator(taskDecorator);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(meterRegistry);
+        this.rejections = Counter.builder(REJECTED_METRIC)
+                .description("Work rejected because every thread was busy and the queue was full")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.timeouts = Counter.builder(TIMED_OUT_METRIC)
+                .description("Work not completed within the timeout")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the supplier on this executor.
+     *
+     * @param supplier The work to run.
+     * @param <T>      The result type of the work.
+     * @return The future completed with the result of the work, or, if the work did not complete within the timeout,
+     * with a {@link ServiceOverloadedException} if it never started and a {@link RequestOutcomeUnknownException} if it did.
+     * @throws ServiceOverloadedException if every thread is busy and the queue is full.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<T> work;
+        try {
+            work = CompletableFuture.supplyAsync(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    throw new CancellationException("Timed out before it started");
+                }
+                return supplier.get();
+            }, executor);
+        } catch (TaskRejectedException exception) {
+            rejections.increment();
+            throw new ServiceOverloadedException("The " + name + " executor is saturated, please retry later.", retryAfter);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        work.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((value, failure) -> {
+            if (failure instanceof TimeoutException) {
+                timeouts.increment();
+                if (claimed.compareAndSet(false, true)) {
+                    result.completeExceptionally(new ServiceOverloadedException(
+                            "The " + name + " executor did not start the request in time, please retry later.", retryAfter));
+                } else {
+                    result.completeExceptionally(new RequestOutcomeUnknownException(
+                            "The " + name + " executor did not complete the request in time and it may still be applied, " +
+                                    "check its outcome before retrying."));
+                }
+            } else if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stops taking work and waits for the queued work to finish.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+}
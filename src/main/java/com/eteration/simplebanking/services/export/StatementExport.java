@@ -0,0 +1,20 @@
+package com.eteration.simplebanking.services.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A prepared account statement export, written to the response once it is streamed.
+ */
+@FunctionalInterface
+public interface StatementExport {
+
+    /**
+     * Writes the statement.
+     *
+     * @param outputStream The stream the statement is written to. It is flushed but not closed.
+     * @throws IOException if the statement cannot be written.
+     */
+    void writeTo(OutputStream outputStream) throws IOException;
+
+}
@@ -0,0 +1,110 @@
+package com.eteration.simplebanking.services.export;
+
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.metrics.TimedOperation;
+import com.eteration.simplebanking.payload.json.MoneySerializer;
+import com.eteration.simplebanking.payload.request.StatementExportRequest;
+import com.eteration.simplebanking.repository.TransactionRepository;
+import com.eteration.simplebanking.services.archive.TransactionArchive;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes account statements straight from a forward-only database cursor to an output stream.
+ * Rows are read as DTO projections, so neither the persistence context nor the heap grows with the export,
+ * and the first bytes are flushed before the rest of the statement is read.
+ * Archived months come first, read segment by segment, followed by the months still in the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class StatementExporter {
+
+    private static final String CSV_HEADER = "createdDateTime,transactionType,amount,approvalCode\n";
+
+    private final TransactionRepository transactionRepository;
+
+    private final TransactionArchive transactionArchive;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes the statement of an account in its own read-only transaction, which holds the database cursor
+     * for as long as the statement is written.
+     *
+     * @param accountId    The id of the account.
+     * @param request      The export request with the time range and format.
+     * @param outputStream The stream the statement is written to. It is flushed but not closed.
+     * @throws IOException if the statement cannot be written.
+     */
+    @TimedOperation("export")
+    @Transactional(readOnly = true)
+    public void export(Long accountId, StatementExportRequest request, OutputStream outputStream) throws IOException {
+        try (Stream<TransactionDTO> transactions = Stream.concat(
+                transactionArchive.streamStatement(accountId, request.getFrom(), request.getTo()),
+                transactionRepository.streamStatement(accountId, request.getFrom(), request.getTo()))) {
+            if (request.getFormat() == StatementFormat.NDJSON) {
+                writeNdjson(transactions.iterator(), outputStream);
+            } else {
+                writeCsv(transactions.iterator(), outputStream);
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<TransactionDTO> transactions, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.flush();
+        while (transactions.hasNext()) {
+            TransactionDTO transaction = transactions.next();
+            writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(transaction.getCreatedDateTime()));
+            writer.write(',');
+            writer.write(transaction.getTransactionType().name());
+            writer.write(',');
+            writer.write(MoneySerializer.toMajorUnits(transaction.getAmount()).toPlainString());
+            writer.write(',');
+            writer.write(csvField(transaction.getApprovalCode()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<TransactionDTO> transactions, OutputStream outputStream) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(TransactionDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        boolean first = true;
+        while (transactions.hasNext()) {
+            writer.writeValue(generator, transactions.next());
+            generator.writeRaw('\n');
+            if (first) {
+                generator.flush();
+                first = false;
+            }
+        }
+        generator.flush();
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+}
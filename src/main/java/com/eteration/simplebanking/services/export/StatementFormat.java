@@ -0,0 +1,33 @@
+package com.eteration.simplebanking.services.export;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Formats an account statement can be exported in.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum StatementFormat {
+
+    /**
+     * Comma separated values with a header line.
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * Newline delimited JSON, one transaction object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    /**
+     * The content type of the export.
+     */
+    private final String contentType;
+
+    /**
+     * The file extension of the export.
+     */
+    private final String extension;
+
+}
@@ -0,0 +1,194 @@
+package com.eteration.simplebanking.services.idempotency;
+
+import com.eteration.simplebanking.config.IdempotencyProperties;
+import com.eteration.simplebanking.dto.IdempotentPosting;
+import com.eteration.simplebanking.exception.IdempotencyKeyReusedException;
+import com.eteration.simplebanking.model.Transaction;
+import com.eteration.simplebanking.repository.IdempotencyKeyRepository;
+import com.eteration.simplebanking.services.sharding.ShardRouter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Store of the postings made with an idempotency key in the Simple Banking App, so a client retrying a posting
+ * gets the original response instead of a second transaction. Recent keys are served from a bounded in-memory
+ * map without a database round trip; every key is also recorded in the idempotency key table in the transaction
+ * of its posting, so keys survive restarts, are shared between nodes and are claimed by exactly one of several
+ * concurrent postings. Keys are honoured for at least the configured time to live and then purged.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    /**
+     * The request header carrying the idempotency key.
+     */
+    public static final String HEADER = "Idempotency-Key";
+
+    /**
+     * The name the cache metrics are tagged with.
+     */
+    public static final String CACHE_NAME = "idempotency-keys";
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final IdempotencyProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ShardRouter shardRouter;
+
+    private final Cache<String, IdempotentPosting> cache;
+
+    /**
+     * Creates the store and registers the hit, miss and eviction metrics of its in-memory map.
+     *
+     * @param idempotencyKeyRepository The repository of the idempotency key table.
+     * @param properties               The idempotency configuration.
+     * @param transactionTemplate      The template running every purge batch in its own database transaction.
+     * @param shardRouter              The router running the purge on every shard.
+     * @param meterRegistry            The registry the cache metrics are registered on.
+     */
+    public IdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository, IdempotencyProperties properties,
+                            TransactionTemplate transactionTemplate, ShardRouter shardRouter, MeterRegistry meterRegistry) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Finds the original response of a posting made before with the same key, in memory first and then in the table.
+     *
+     * @param idempotencyKey The idempotency key sent with the posting.
+     * @param accountNumber  The account number the posting is made to.
+     * @param transaction    The transaction being posted.
+     * @return The response of the original posting, or empty if the key is not taken.
+     * @throws IdempotencyKeyReusedException if the key was taken by a different posting.
+     */
+    public Optional<IdempotentPosting> find(String idempotencyKey, String accountNumber, Transaction transaction) {
+        IdempotentPosting posting = cache.getIfPresent(idempotencyKey);
+        if (posting == null) {
+            posting = idempotencyKeyRepository.findByKey(idempotencyKey).orElse(null);
+            if (posting == null) {
+                return Optional.empty();
+            }
+            cache.put(idempotencyKey, posting);
+        }
+        return Optional.of(checkMatches(posting, idempotencyKey, accountNumber, transaction));
+    }
+
+    /**
+     * Finds the original response of a posting made before with the same key in memory only, without touching
+     * the database, so the caller acquires no connection. A key missing from memory is resolved when it is claimed.
+     *
+     * @param idempotencyKey The idempotency key sent with the posting.
+     * @param accountNumber  The account number the posting is made to.
+     * @param transaction    The transaction being posted.
+     * @return The response of the original posting, or empty if the key is not in memory.
+     * @throws IdempotencyKeyReusedException if the key was taken by a different posting.
+     */
+    public Optional<IdempotentPosting> findRemembered(String idempotencyKey, String accountNumber, Transaction transaction) {
+        return Optional.ofNullable(cache.getIfPresent(idempotencyKey))
+                .map(posting -> checkMatches(posting, idempotencyKey, accountNumber, transaction));
+    }
+
+    /**
+     * Claims a key for a posting in the current transaction. If another posting with the same key is still
+     * in flight, this waits until its transaction completes.
+     *
+     * @param idempotencyKey The idempotency key sent with the posting.
+     * @param accountNumber  The account number the posting is made to.
+     * @param transaction    The transaction being posted.
+     * @param approvalCode   The approval code the posting returns.
+     * @return The claimed posting, or empty if another posting holds the key.
+     */
+    public Optional<IdempotentPosting> claim(String idempotencyKey, String accountNumber, Transaction transaction,
+                                             String approvalCode) {
+        IdempotentPosting posting = IdempotentPosting.builder()
+                .idempotencyKey(idempotencyKey)
+                .transactionType(transaction.getTransactionType())
+                .accountNumber(accountNumber)
+                .amount(transaction.getAmount())
+                .approvalCode(approvalCode)
+                .createdDateTime(LocalDateTime.now())
+                .build();
+        return idempotencyKeyRepository.claim(posting) ? Optional.of(posting) : Optional.empty();
+    }
+
+    /**
+     * Keeps a claimed posting in memory once the current transaction has committed, or immediately when no
+     * transaction is active. Must only be called once the posting can no longer fail, since a posting rolled
+     * back to its savepoint in a group committed transaction would otherwise be remembered.
+     *
+     * @param posting The claimed posting.
+     */
+    public void rememberAfterCommit(IdempotentPosting posting) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(posting.getIdempotencyKey(), posting);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(posting.getIdempotencyKey(), posting);
+            }
+        });
+    }
+
+    private static IdempotentPosting checkMatches(IdempotentPosting posting, String idempotencyKey, String accountNumber,
+                                                  Transaction transaction) {
+        if (!posting.matches(transaction.getTransactionType(), accountNumber, transaction.getAmount())) {
+            throw new IdempotencyKeyReusedException("Idempotency Key Already Used For Another Posting : " + idempotencyKey);
+        }
+        return posting;
+    }
+
+    /**
+     * Purges the keys older than the time to live from the table on the configured schedule.
+     *
+     * @return The number of purged keys.
+     */
+    @Scheduled(cron = "${banking.idempotency.purge-cron:0 15 * * * *}")
+    public int purgeExpired() {
+        return purge(LocalDateTime.now().minus(properties.getTimeToLive()));
+    }
+
+    /**
+     * Purges the keys claimed before a point in time from the table of every shard, in batches of one database transaction each.
+     *
+     * @param cut The exclusive upper bound of the claim time of the purged keys.
+     * @return The number of purged keys.
+     */
+    public int purge(LocalDateTime cut) {
+        int purged = shardRouter.sumOverShards(() -> {
+            int purgedOnShard = 0;
+            Integer deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteCreatedBefore(cut, properties.getPurgeBatchSize()));
+                purgedOnShard += deleted == null ? 0 : deleted;
+            } while (deleted != null && deleted == properties.getPurgeBatchSize());
+            return purgedOnShard;
+        });
+        log.info("Purged {} idempotency keys claimed before {}", purged, cut);
+        return purged;
+    }
+
+}
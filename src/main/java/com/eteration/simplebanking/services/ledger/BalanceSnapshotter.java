@@ -0,0 +1,115 @@
+package com.eteration.simplebanking.services.ledger;
+
+import com.eteration.simplebanking.config.LedgerProperties;
+import com.eteration.simplebanking.dto.BalanceSnapshot;
+import com.eteration.simplebanking.repository.LedgerRepository;
+import com.eteration.simplebanking.services.archive.TransactionArchive;
+import com.eteration.simplebanking.services.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves the balance snapshot of every account forward by folding in the transactions created since.
+ * Snapshots are cut at a creation time rather than at a transaction id: ids come from a pooled sequence,
+ * so a smaller id may be committed after a larger one, while a transaction created before the cut minus
+ * the configured lag is known to be committed. Accounts are processed in batches, one database transaction each,
+ * shard after shard when sharding is enabled.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BalanceSnapshotter {
+
+    private final LedgerRepository ledgerRepository;
+
+    private final TransactionArchive transactionArchive;
+
+    private final LedgerProperties ledgerProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ShardRouter shardRouter;
+
+    /**
+     * Takes snapshots as of the current time minus the configured lag, on the configured schedule.
+     *
+     * @return The number of snapshots taken.
+     */
+    @Scheduled(cron = "${banking.ledger.snapshot-cron:0 0 3 * * *}")
+    public int takeSnapshots() {
+        return takeSnapshots(LocalDateTime.now().minus(ledgerProperties.getSnapshotLag()));
+    }
+
+    /**
+     * Takes snapshots of every account as of a point in the ledger. Snapshots already at or past that point
+     * are left alone, so snapshots never move backwards.
+     *
+     * @param cut The exclusive upper bound of the creation time of the transactions folded into the snapshots.
+     * @return The number of snapshots taken.
+     */
+    public int takeSnapshots(LocalDateTime cut) {
+        // timestamps are stored with microsecond precision; a finer cut would be stored rounded down
+        // and the transactions between the two would be counted again on top of the snapshot
+        LocalDateTime asOf = cut.truncatedTo(ChronoUnit.MICROS);
+        long started = System.nanoTime();
+        AtomicInteger taken = new AtomicInteger();
+        shardRouter.sumOverShards(() -> {
+            long afterAccountId = Long.MIN_VALUE;
+            List<Long> batch;
+            do {
+                long after = afterAccountId;
+                batch = transactionTemplate.execute(status -> snapshotBatch(after, asOf, taken));
+                if (batch != null && !batch.isEmpty()) {
+                    afterAccountId = batch.get(batch.size() - 1);
+                }
+            } while (batch != null && batch.size() == ledgerProperties.getBatchSize());
+            return 0;
+        });
+        log.info("Took {} balance snapshots as of {} in {} ms", taken.get(), asOf, (System.nanoTime() - started) / 1_000_000);
+        return taken.get();
+    }
+
+    private List<Long> snapshotBatch(long afterAccountId, LocalDateTime asOf, AtomicInteger taken) {
+        List<Long> accountIds = ledgerRepository.findAccountIdsAfter(afterAccountId, ledgerProperties.getBatchSize());
+        if (accountIds.isEmpty()) {
+            return accountIds;
+        }
+        long fromAccountId = accountIds.get(0);
+        long toAccountId = accountIds.get(accountIds.size() - 1);
+        Map<Long, BalanceSnapshot> snapshots = ledgerRepository.lockSnapshots(fromAccountId, toAccountId);
+        Map<Long, Long> changes = ledgerRepository.sumBalanceChangesSinceSnapshot(fromAccountId, toAccountId, asOf);
+        List<BalanceSnapshot> updated = new ArrayList<>();
+        List<BalanceSnapshot> created = new ArrayList<>();
+        for (Long accountId : accountIds) {
+            BalanceSnapshot current = snapshots.get(accountId);
+            if (current != null && !current.getAsOf().isBefore(asOf)) {
+                continue;
+            }
+            LocalDateTime previousAsOf = current == null ? null : current.getAsOf();
+            long balance = (current == null ? 0 : current.getBalance())
+                    + changes.getOrDefault(accountId, 0L)
+                    + transactionArchive.balanceChange(accountId, previousAsOf, asOf);
+            BalanceSnapshot next = new BalanceSnapshot(accountId, balance, asOf);
+            if (current == null) {
+                created.add(next);
+            } else {
+                updated.add(next);
+            }
+        }
+        ledgerRepository.updateSnapshots(updated);
+        ledgerRepository.insertSnapshots(created);
+        taken.addAndGet(updated.size() + created.size());
+        return accountIds;
+    }
+
+}
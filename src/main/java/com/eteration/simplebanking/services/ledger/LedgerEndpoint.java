@@ -0,0 +1,55 @@
+package com.eteration.simplebanking.services.ledger;
+
+import com.eteration.simplebanking.dto.LedgerBalance;
+import com.eteration.simplebanking.dto.LedgerVerificationReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint verifying account balances against the ledger at {@code /actuator/ledger}.
+ */
+@Component
+@Endpoint(id = "ledger")
+@RequiredArgsConstructor
+public class LedgerEndpoint {
+
+    private final LedgerReconciler ledgerReconciler;
+
+    private final BalanceSnapshotter balanceSnapshotter;
+
+    /**
+     * Verifies every account and reports the ones whose stored balance drifted from the ledger.
+     *
+     * @return The verification report.
+     */
+    @ReadOperation
+    public LedgerVerificationReport verify() {
+        return ledgerReconciler.verifyAll();
+    }
+
+    /**
+     * Reconstructs the balance of one account from the ledger.
+     *
+     * @param accountNumber The account number.
+     * @return The stored and the reconstructed balance, or null, answered with 404, if the account does not exist.
+     */
+    @ReadOperation
+    public LedgerBalance account(@Selector String accountNumber) {
+        return ledgerReconciler.reconstruct(accountNumber).orElse(null);
+    }
+
+    /**
+     * Takes balance snapshots of every account right away instead of waiting for the schedule.
+     *
+     * @return The number of snapshots taken.
+     */
+    @WriteOperation
+    public int snapshot() {
+        return balanceSnapshotter.takeSnapshots();
+    }
+
+}
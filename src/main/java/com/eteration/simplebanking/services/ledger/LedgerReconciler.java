@@ -0,0 +1,194 @@
+package com.eteration.simplebanking.services.ledger;
+
+import com.eteration.simplebanking.config.LedgerProperties;
+import com.eteration.simplebanking.dto.LedgerBalance;
+import com.eteration.simplebanking.dto.LedgerVerificationReport;
+import com.eteration.simplebanking.repository.LedgerRepository;
+import com.eteration.simplebanking.services.archive.TransactionArchive;
+import com.eteration.simplebanking.services.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Reconstructs account balances from the ledger, the latest balance snapshot plus the balance changes of the
+ * transactions created since, and compares them with the balances stored on the accounts.
+ * Verifying every account splits the account ids into ranges checked in parallel, one statement per range,
+ * so the cost grows with the number of accounts and the transactions since the last snapshot,
+ * not with the length of the history. With sharding enabled the ranges of every shard are checked on that shard.
+ */
+@Slf4j
+@Component
+public class LedgerReconciler {
+
+    private final LedgerRepository ledgerRepository;
+
+    private final TransactionArchive transactionArchive;
+
+    private final LedgerProperties ledgerProperties;
+
+    private final ShardRouter shardRouter;
+
+    private final ExecutorService executor;
+
+    /**
+     * Creates the reconciler with a bounded pool of verification threads.
+     *
+     * @param ledgerRepository   The repository reading the ledger balances.
+     * @param transactionArchive The archive of the transactions moved out of the database.
+     * @param ledgerProperties   The ledger configuration.
+     * @param shardRouter        The router selecting the shards the ledgers are read from.
+     */
+    public LedgerReconciler(LedgerRepository ledgerRepository, TransactionArchive transactionArchive, LedgerProperties ledgerProperties,
+                            ShardRouter shardRouter) {
+        this.ledgerRepository = ledgerRepository;
+        this.transactionArchive = transactionArchive;
+        this.ledgerProperties = ledgerProperties;
+        this.shardRouter = shardRouter;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ledger-verification-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(ledgerProperties.getVerificationThreads(), threadFactory);
+    }
+
+    /**
+     * Reconstructs the balance of one account from its ledger.
+     *
+     * @param accountNumber The account number.
+     * @return The stored and the reconstructed balance, or empty if the account does not exist.
+     */
+    public Optional<LedgerBalance> reconstruct(String accountNumber) {
+        return shardRouter.onAccountShard(accountNumber, () -> ledgerRepository.findLedgerBalance(accountNumber))
+                .map(this::withArchivedChanges);
+    }
+
+    /**
+     * Verifies the stored balance of every account against its ledger.
+     *
+     * @return The report listing the accounts whose balance drifted.
+     */
+    public LedgerVerificationReport verifyAll() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.nanoTime();
+        AtomicLong verified = new AtomicLong();
+        AtomicLong drifted = new AtomicLong();
+        AtomicInteger reported = new AtomicInteger();
+        ConcurrentLinkedQueue<LedgerBalance> drifts = new ConcurrentLinkedQueue<>();
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int shardIndex = 0; shardIndex < shardRouter.getShardCount(); shardIndex++) {
+            int shard = shardIndex;
+            for (long[] range : shardRouter.onShard(shard, this::findBatchRanges)) {
+                batches.add(CompletableFuture.runAsync(() -> {
+                    List<LedgerBalance> balances = shardRouter.onShard(shard, () -> ledgerRepository.findLedgerBalances(range[0], range[1]));
+                    for (LedgerBalance balance : balances) {
+                        LedgerBalance reconstructed = withArchivedChanges(balance);
+                        verified.incrementAndGet();
+                        if (reconstructed.isDrifted()) {
+                            drifted.incrementAndGet();
+                            if (reported.incrementAndGet() <= ledgerProperties.getMaxReportedDrifts()) {
+                                drifts.add(reconstructed);
+                            }
+                        }
+                    }
+                }, executor));
+            }
+        }
+        if (!batches.isEmpty()) {
+            try {
+                CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+            } catch (CompletionException exception) {
+                if (exception.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) exception.getCause();
+                }
+                throw exception;
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        if (drifted.get() > 0) {
+            log.warn("Ledger verification found {} of {} accounts drifted in {} ms", drifted.get(), verified.get(), elapsedMillis);
+        } else {
+            log.info("Ledger verification found all {} accounts consistent in {} ms", verified.get(), elapsedMillis);
+        }
+        return LedgerVerificationReport.builder()
+                .startedAt(startedAt)
+                .elapsedMillis(elapsedMillis)
+                .verifiedAccounts(verified.get())
+                .driftedAccounts(drifted.get())
+                .drifts(drifts.stream()
+                        .sorted(Comparator.comparing(LedgerBalance::getAccountId))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    /**
+     * Stops the verification threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Splits the account ids into the ranges verified in parallel. Without sharding the ids are dense and the range
+     * from the smallest to the largest id is split arithmetically. The ids on a shard come from the sequences of
+     * several shards and are far apart, so there the ranges are cut after every batch of accounts instead.
+     *
+     * @return The inclusive id ranges, first and last id.
+     */
+    private List<long[]> findBatchRanges() {
+        int batchSize = ledgerProperties.getBatchSize();
+        List<long[]> ranges = new ArrayList<>();
+        if (!shardRouter.isEnabled()) {
+            Optional<long[]> range = ledgerRepository.findAccountIdRange();
+            if (range.isPresent()) {
+                long first = range.get()[0];
+                long last = range.get()[1];
+                for (long from = first; from <= last; from += batchSize) {
+                    long to = Math.min(last, from + batchSize - 1);
+                    ranges.add(new long[]{from, to});
+                    if (to == last) {
+                        break;
+                    }
+                }
+            }
+            return ranges;
+        }
+        long afterAccountId = Long.MIN_VALUE;
+        List<Long> accountIds;
+        do {
+            accountIds = ledgerRepository.findAccountIdsAfter(afterAccountId, batchSize);
+            if (!accountIds.isEmpty()) {
+                afterAccountId = accountIds.get(accountIds.size() - 1);
+                ranges.add(new long[]{accountIds.get(0), afterAccountId});
+            }
+        } while (accountIds.size() == batchSize);
+        return ranges;
+    }
+
+    private LedgerBalance withArchivedChanges(LedgerBalance balance) {
+        long archived = transactionArchive.balanceChange(balance.getAccountId(), balance.getSnapshotAsOf(), null);
+        if (archived == 0) {
+            return balance;
+        }
+        return balance.toBuilder()
+                .reconstructedBalance(balance.getReconstructedBalance() + archived)
+                .build();
+    }
+
+}
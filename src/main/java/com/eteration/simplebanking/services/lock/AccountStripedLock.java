@@ -0,0 +1,157 @@
+package com.eteration.simplebanking.services.lock;
+
+import com.eteration.simplebanking.config.PostingLockProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped lock serializing postings to the same account inside the JVM in the Simple Banking App.
+ * Account numbers are hashed onto a fixed number of stripes, so postings to one account run one at a time
+ * while postings to accounts on other stripes never wait for each other.
+ */
+@Component
+public class AccountStripedLock {
+
+    /**
+     * The name of the timer recording how long postings wait for their stripe.
+     */
+    public static final String LOCK_WAIT_METRIC = "banking.posting.lock.wait";
+
+    private final ReentrantLock[] locks;
+
+    private final Timer[] waitTimers;
+
+    private final int mask;
+
+    /**
+     * Creates the lock stripes and registers a wait timer per stripe.
+     *
+     * @param properties    The posting lock configuration.
+     * @param meterRegistry The registry the wait timers are registered on.
+     */
+    public AccountStripedLock(PostingLockProperties properties, MeterRegistry meterRegistry) {
+        int stripes = Integer.highestOneBit(Math.max(1, properties.getStripes() * 2 - 1));
+        this.locks = new ReentrantLock[stripes];
+        this.waitTimers = new Timer[stripes];
+        this.mask = stripes - 1;
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+            waitTimers[i] = Timer.builder(LOCK_WAIT_METRIC)
+                    .description("Time postings wait for the lock stripe of their account")
+                    .tag("stripe", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs the action while holding the stripe of the given account number.
+     * Inside a transaction the stripe is held until the transaction completes, so the next posting
+     * to the same account only starts once the previous one is committed or rolled back.
+     *
+     * @param accountNumber The account number the action posts to.
+     * @param action        The action to run.
+     * @param <T>           The result type of the action.
+     * @return The result of the action.
+     */
+    public <T> T executeLocked(String accountNumber, Supplier<T> action) {
+        return executeLocked(new int[]{stripeOf(accountNumber)}, action);
+    }
+
+    /**
+     * Runs the action while holding the stripes of both given account numbers, as a transfer between them needs.
+     * The stripes are taken in ascending stripe order, whatever the direction of the transfer, so two transfers
+     * in opposite directions never wait for each other in a cycle. Inside a transaction both stripes are held
+     * until the transaction completes.
+     *
+     * @param accountNumber      One account number the action posts to.
+     * @param otherAccountNumber The other account number the action posts to.
+     * @param action             The action to run.
+     * @param <T>                The result type of the action.
+     * @return The result of the action.
+     */
+    public <T> T executeLocked(String accountNumber, String otherAccountNumber, Supplier<T> action) {
+        int stripe = stripeOf(accountNumber);
+        int otherStripe = stripeOf(otherAccountNumber);
+        if (stripe == otherStripe) {
+            return executeLocked(new int[]{stripe}, action);
+        }
+        return executeLocked(new int[]{Math.min(stripe, otherStripe), Math.max(stripe, otherStripe)}, action);
+    }
+
+    /**
+     * Runs the action while holding the given stripes, taken in the given order and released together.
+     *
+     * @param stripes The indexes of the stripes in the order they are taken.
+     * @param action  The action to run.
+     * @param <T>     The result type of the action.
+     * @return The result of the action.
+     */
+    private <T> T executeLocked(int[] stripes, Supplier<T> action) {
+
+        for (int stripe : stripes) {
+            long start = System.nanoTime();
+            locks[stripe].lock();
+            waitTimers[stripe].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                return action.get();
+            } finally {
+                unlock(stripes);
+            }
+        }
+
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    unlock(stripes);
+                }
+            });
+        } catch (RuntimeException exception) {
+            unlock(stripes);
+            throw exception;
+        }
+        return action.get();
+    }
+
+    /**
+     * Releases the given stripes in the reverse order they were taken.
+     *
+     * @param stripes The indexes of the held stripes.
+     */
+    private void unlock(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lock stripes.
+     *
+     * @return The stripe count.
+     */
+    public int getStripes() {
+        return locks.length;
+    }
+
+    /**
+     * Maps an account number onto its stripe.
+     *
+     * @param accountNumber The account number.
+     * @return The index of the stripe guarding the account.
+     */
+    int stripeOf(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+}
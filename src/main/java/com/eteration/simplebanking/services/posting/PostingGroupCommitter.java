@@ -0,0 +1,312 @@
+package com.eteration.simplebanking.services.posting;
+
+import com.eteration.simplebanking.config.GroupCommitProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Applies concurrent postings together in shared database transactions in the Simple Banking App, so a burst of
+ * postings pays one commit instead of one each and their inserts are flushed in JDBC batches.
+ * A single committer thread takes the first queued posting, waits up to the configured window for more, and applies
+ * the batch in queue order. Every posting of a batch runs under its own savepoint, so a posting that fails is
+ * rolled back alone and only its caller sees the failure; the others complete with their own results once the
+ * batch is committed. If the commit itself fails, nothing of the batch was applied and every caller sees the failure.
+ * Postings to one account are applied one after the other by the committer thread, so they need no lock stripe.
+ */
+@Slf4j
+@Component
+public class PostingGroupCommitter {
+
+    /**
+     * The name of the distribution summary recording the number of postings per committed batch.
+     */
+    public static final String BATCH_SIZE_METRIC = "banking.posting.group-commit.batch-size";
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final DataSource dataSource;
+
+    private final BlockingQueue<PendingPosting<?>> queue;
+
+    private final DistributionSummary batchSizes;
+
+    private final boolean enabled;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final Thread committer;
+
+    private volatile boolean running;
+
+    /**
+     * Creates the committer and starts its thread when group commit is enabled.
+     *
+     * @param properties          The group commit configuration.
+     * @param transactionTemplate The template running every batch in one database transaction.
+     * @param dataSource          The data source whose transactional connection takes the savepoints of the postings.
+     * @param meterRegistry       The registry the batch size summary is registered on.
+     */
+    public PostingGroupCommitter(GroupCommitProperties properties, TransactionTemplate transactionTemplate,
+                                 DataSource dataSource, MeterRegistry meterRegistry) {
+        this.transactionTemplate = transactionTemplate;
+        this.dataSource = dataSource;
+        this.enabled = properties.isEnabled();
+        this.windowNanos = properties.getWindow().toNanos();
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.batchSizes = DistributionSummary.builder(BATCH_SIZE_METRIC)
+                .description("Postings applied per group committed database transaction")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.committer = new Thread(this::run, "posting-group-commit");
+        this.committer.setDaemon(true);
+        if (enabled) {
+            running = true;
+            committer.start();
+        }
+    }
+
+    /**
+     * Returns whether postings are group committed.
+     *
+     * @return true if postings should be submitted to this committer.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a posting for the next batch. A failing posting is rolled back to its savepoint, which only covers
+     * the database, so the posting must not touch the persistence context before its last possible failure.
+     *
+     * @param posting The posting, run on the committer thread inside the transaction of its batch.
+     * @param <T>     The result type of the posting.
+     * @return The future completed with the result of the posting once its batch is committed,
+     * or with the failure of the posting or of the commit.
+     * @throws IllegalStateException if group commit is not running.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> posting) {
+        if (!running) {
+            throw new IllegalStateException("Group commit is not running.");
+        }
+        PendingPosting<T> pending = new PendingPosting<>(posting);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a posting.", exception);
+        }
+        return pending.result;
+    }
+
+    /**
+     * Queues a posting for the next batch and waits until its batch is committed.
+     *
+     * @param posting The posting, run on the committer thread inside the transaction of its batch.
+     * @param <T>     The result type of the posting.
+     * @return The result of the posting.
+     * @throws RuntimeException the failure of the posting or of the commit of its batch.
+     */
+    public <T> T execute(Supplier<T> posting) {
+        try {
+            return submit(posting).join();
+        } catch (CompletionException exception) {
+            throw exception.getCause() instanceof RuntimeException
+                    ? (RuntimeException) exception.getCause()
+                    : exception;
+        }
+    }
+
+    /**
+     * Stops taking new postings and waits until the queued ones are committed.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (committer.isAlive()) {
+            committer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    private void run() {
+        List<PendingPosting<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPosting<?> first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                commit(batch);
+            } catch (InterruptedException exception) {
+                // an interrupt stops the committer like a shutdown, the postings already queued are still committed
+                running = false;
+                commit(batch);
+            } catch (RuntimeException exception) {
+                log.error("Group commit of {} postings failed", batch.size(), exception);
+                batch.forEach(posting -> posting.abort(exception));
+            }
+            batch.clear();
+        }
+    }
+
+    private void fill(List<PendingPosting<?>> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingPosting<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingPosting<?>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizes.record(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (batch.size() == 1) {
+                    // a lone posting needs no savepoint, its failure rolls back the whole transaction
+                    if (!batch.get(0).apply()) {
+                        status.setRollbackOnly();
+                    }
+                    return;
+                }
+                // the JPA transaction manager offers no savepoints since they cannot roll back the persistence context;
+                // postings only touch it once they can no longer fail, so savepoints on the connection are enough
+                Connection connection = DataSourceUtils.getConnection(dataSource);
+                for (PendingPosting<?> posting : batch) {
+                    Savepoint savepoint = setSavepoint(connection);
+                    if (posting.apply()) {
+                        releaseSavepoint(connection, savepoint);
+                    } else {
+                        rollbackToSavepoint(connection, savepoint);
+                    }
+                }
+            });
+        } catch (RuntimeException exception) {
+            log.warn("Commit of a batch of {} postings failed", batch.size(), exception);
+            batch.forEach(posting -> posting.abort(exception));
+            return;
+        }
+        batch.forEach(PendingPosting::complete);
+    }
+
+    private static Savepoint setSavepoint(Connection connection) {
+        try {
+            return connection.setSavepoint();
+        } catch (SQLException exception) {
+            throw new TransactionSystemException("Could not create a savepoint for a posting", exception);
+        }
+    }
+
+    private static void releaseSavepoint(Connection connection, Savepoint savepoint) {
+        try {
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLException exception) {
+            throw new TransactionSystemException("Could not release the savepoint of a posting", exception);
+        }
+    }
+
+    private static void rollbackToSavepoint(Connection connection, Savepoint savepoint) {
+        try {
+            connection.rollback(savepoint);
+        } catch (SQLException exception) {
+            throw new TransactionSystemException("Could not roll back a failed posting to its savepoint", exception);
+        }
+    }
+
+    /**
+     * A queued posting together with its outcome.
+     *
+     * @param <T> The result type of the posting.
+     */
+    private static final class PendingPosting<T> {
+
+        private final Supplier<T> posting;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private T value;
+
+        private RuntimeException failure;
+
+        private PendingPosting(Supplier<T> posting) {
+            this.posting = posting;
+        }
+
+        /**
+         * Runs the posting and keeps its outcome until the batch completes.
+         *
+         * @return true if the posting succeeded.
+         */
+        private boolean apply() {
+            try {
+                value = posting.get();
+                return true;
+            } catch (RuntimeException exception) {
+                failure = exception;
+                return false;
+            }
+        }
+
+        /**
+         * Completes the caller's future with the outcome of the posting once the batch is committed.
+         */
+        private void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }
+
+        /**
+         * Fails the caller's future because the batch was not committed; a posting that failed on its own
+         * keeps its own failure.
+         *
+         * @param exception The failure of the batch.
+         */
+        private void abort(RuntimeException exception) {
+            result.completeExceptionally(failure != null ? failure : exception);
+        }
+
+    }
+
+}
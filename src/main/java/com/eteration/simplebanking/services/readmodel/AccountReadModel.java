@@ -0,0 +1,311 @@
+package com.eteration.simplebanking.services.readmodel;
+
+import com.eteration.simplebanking.config.HistoryProperties;
+import com.eteration.simplebanking.config.ReadModelProperties;
+import com.eteration.simplebanking.dto.AccountOpenedEvent;
+import com.eteration.simplebanking.dto.AccountPostedEvent;
+import com.eteration.simplebanking.dto.AccountView;
+import com.eteration.simplebanking.dto.ReadModelStatusDTO;
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.mapper.TransactionMapper;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import com.eteration.simplebanking.payload.response.AccountDetailInfo;
+import com.eteration.simplebanking.repository.ReadModelRepository;
+import com.eteration.simplebanking.services.archive.TransactionArchive;
+import com.eteration.simplebanking.services.sharding.ShardRouter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory read model of the Simple Banking App holding a denormalized view of every account, so the account details
+ * are served without a database round trip, an entity load or a mapping. The views are rebuilt from the database
+ * before the application takes requests and then kept up to date by the events the account service publishes for
+ * every committed account creation and posting. Events are applied right after the commit, before the posting
+ * returns, so a client reading its account after posting to it sees its posting. The read model only sees
+ * the postings of this node: with several nodes posting to the same accounts it must stay disabled.
+ */
+@Slf4j
+@Component
+public class AccountReadModel implements SmartInitializingSingleton {
+
+    /**
+     * The name of the timer of the time from a write to its projection into the read model.
+     */
+    public static final String LAG_METRIC = "banking.read-model.lag";
+
+    /**
+     * The name of the gauge of the number of account views held.
+     */
+    public static final String ACCOUNTS_METRIC = "banking.read-model.accounts";
+
+    /**
+     * The transaction types adding to the balance, as {@code Transaction.balanceChange()} is positive for.
+     */
+    private static final Set<TransactionType> CREDITS =
+            EnumSet.of(TransactionType.DepositTransaction, TransactionType.TransferInTransaction);
+
+    private final boolean enabled;
+
+    private final int rebuildBatchSize;
+
+    private final int recentTransactions;
+
+    private final ReadModelRepository readModelRepository;
+
+    private final TransactionArchive transactionArchive;
+
+    private final TransactionMapper transactionMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ShardRouter shardRouter;
+
+    private final ConcurrentMap<String, AccountView> views = new ConcurrentHashMap<>();
+
+    private final Timer lag;
+
+    private volatile boolean ready;
+
+    private volatile LocalDateTime rebuiltAt;
+
+    private volatile Long rebuildMillis;
+
+    /**
+     * Creates the read model and registers its lag and size metrics.
+     *
+     * @param properties          The read model configuration.
+     * @param historyProperties   The history configuration, giving the number of recent transactions a view holds.
+     * @param readModelRepository The repository the views are rebuilt from.
+     * @param transactionArchive  The archive the recent transactions of accounts with few left in the database are read from.
+     * @param transactionMapper   The mapper of archived transactions to transaction DTOs.
+     * @param transactionTemplate The template running every rebuild batch in a transaction of its own.
+     * @param shardRouter         The router running the rebuild on every shard.
+     * @param meterRegistry       The registry the metrics are registered on.
+     */
+    public AccountReadModel(ReadModelProperties properties, HistoryProperties historyProperties,
+                            ReadModelRepository readModelRepository, TransactionArchive transactionArchive,
+                            TransactionMapper transactionMapper, TransactionTemplate transactionTemplate,
+                            ShardRouter shardRouter, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.rebuildBatchSize = properties.getRebuildBatchSize();
+        this.recentTransactions = historyProperties.getRecentTransactions();
+        this.readModelRepository = readModelRepository;
+        this.transactionArchive = transactionArchive;
+        this.transactionMapper = transactionMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.lag = Timer.builder(LAG_METRIC)
+                .description("Time from a committed write to its projection into the read model")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder(ACCOUNTS_METRIC, views, Map::size)
+                .description("Account views held by the read model")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuilds the read model once every bean is created, before the web server starts taking requests,
+     * so no posting is published while the views are read from the database.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Returns whether the account details are served from the read model.
+     *
+     * @return true if the read model is enabled and has been rebuilt.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the account details of an account from its view.
+     *
+     * @param accountNumber The account number.
+     * @return The account details, or empty if the read model is not ready or holds no view of the account,
+     * in which case they must be read from the database.
+     */
+    public Optional<AccountDetailInfo> findAccountDetails(String accountNumber) {
+        return findView(accountNumber).map(AccountView::toAccountDetailInfo);
+    }
+
+    /**
+     * Returns the view of an account.
+     *
+     * @param accountNumber The account number.
+     * @return The view, or empty if the read model is not ready or holds no view of the account.
+     */
+    public Optional<AccountView> findView(String accountNumber) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(views.get(accountNumber));
+    }
+
+    /**
+     * Reports the state of the read model.
+     *
+     * @return The read model status.
+     */
+    public ReadModelStatusDTO status() {
+        return ReadModelStatusDTO.builder()
+                .ready(ready)
+                .accounts(views.size())
+                .rebuiltAt(rebuiltAt)
+                .rebuildMillis(rebuildMillis)
+                .build();
+    }
+
+    /**
+     * Adds the view of a created account once its transaction has committed.
+     *
+     * @param event The account opened event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountOpened(AccountOpenedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        views.putIfAbsent(event.getAccountNumber(), AccountView.builder()
+                .accountNumber(event.getAccountNumber())
+                .owner(event.getOwner())
+                .createdDateTime(event.getCreatedDateTime())
+                .recentTransactions(Collections.emptyList())
+                .build());
+        record(event.getWrittenAt());
+    }
+
+    /**
+     * Projects a committed posting into the view of its account. The posting has already committed, so a failure
+     * here must not reach the caller: the view is dropped instead, and the account details of the account are read
+     * from the database from then on.
+     *
+     * @param event The account posted event.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountPosted(AccountPostedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            views.computeIfPresent(event.getAccountNumber(), (accountNumber, view) -> project(view, event));
+        } catch (RuntimeException exception) {
+            log.warn("Could not project a posting to account {}, dropping its view", event.getAccountNumber(), exception);
+            views.remove(event.getAccountNumber());
+        }
+        record(event.getWrittenAt());
+    }
+
+    /**
+     * Rebuilds every view from the database, shard after shard when sharding is enabled. Accounts are read in batches,
+     * one database transaction each. Postings committed while the rebuild runs may be counted twice, so it only runs
+     * before the application takes requests.
+     *
+     * @return The number of views rebuilt.
+     */
+    int rebuild() {
+        long started = System.nanoTime();
+        ready = false;
+        views.clear();
+        int rebuilt = shardRouter.sumOverShards(() -> {
+            int count = 0;
+            long afterAccountId = Long.MIN_VALUE;
+            while (true) {
+                long after = afterAccountId;
+                Map<Long, AccountView> batch = transactionTemplate.execute(status -> rebuildBatch(after));
+                if (batch == null || batch.isEmpty()) {
+                    return count;
+                }
+                for (Map.Entry<Long, AccountView> entry : batch.entrySet()) {
+                    views.put(entry.getValue().getAccountNumber(), entry.getValue());
+                    afterAccountId = entry.getKey();
+                }
+                count += batch.size();
+                if (batch.size() < rebuildBatchSize) {
+                    return count;
+                }
+            }
+        });
+        rebuildMillis = (System.nanoTime() - started) / 1_000_000;
+        rebuiltAt = LocalDateTime.now();
+        ready = true;
+        log.info("Rebuilt the read model of {} accounts in {} ms", rebuilt, rebuildMillis);
+        return rebuilt;
+    }
+
+    private Map<Long, AccountView> rebuildBatch(long afterAccountId) {
+        Map<Long, AccountView> batch = readModelRepository.findViewsAfter(afterAccountId, rebuildBatchSize, recentTransactions);
+        batch.replaceAll((accountId, view) -> {
+            List<TransactionDTO> recent = view.getRecentTransactions();
+            if (recent.size() < recentTransactions) {
+                // like the account details read from the database, the recent transactions continue into the archive
+                recent = new ArrayList<>(recent);
+                recent.addAll(transactionMapper.toTransactionDTOList(transactionArchive.findHistoryPage(
+                        accountId, TransactionHistoryCriteria.builder().build(), recentTransactions - recent.size())));
+            }
+            return view.toBuilder().recentTransactions(Collections.unmodifiableList(recent)).build();
+        });
+        return batch;
+    }
+
+    private AccountView project(AccountView view, AccountPostedEvent event) {
+        TransactionDTO transaction = event.getTransaction();
+        List<TransactionDTO> recent = new ArrayList<>(view.getRecentTransactions().size() + 1);
+        recent.addAll(view.getRecentTransactions());
+        // postings to the same account may commit out of order, so each one is placed by its creation time
+        int position = 0;
+        while (position < recent.size() && isAfter(recent.get(position).getCreatedDateTime(), transaction.getCreatedDateTime())) {
+            position++;
+        }
+        recent.add(position, transaction);
+        if (recent.size() > recentTransactions) {
+            recent.subList(recentTransactions, recent.size()).clear();
+        }
+        boolean credit = CREDITS.contains(transaction.getTransactionType());
+        LocalDateTime lastPostedAt = view.getLastPostedAt();
+        if (lastPostedAt == null || isAfter(transaction.getCreatedDateTime(), lastPostedAt)) {
+            lastPostedAt = transaction.getCreatedDateTime();
+        }
+        return view.toBuilder()
+                .balance(view.getBalance() + event.getBalanceChange())
+                .recentTransactions(Collections.unmodifiableList(recent))
+                .creditCount(view.getCreditCount() + (credit ? 1 : 0))
+                .debitCount(view.getDebitCount() + (credit ? 0 : 1))
+                .lastPostedAt(lastPostedAt)
+                .build();
+    }
+
+    private void record(Instant writtenAt) {
+        lag.record(Duration.between(writtenAt, Instant.now()));
+    }
+
+    private static boolean isAfter(LocalDateTime time, LocalDateTime other) {
+        return time != null && other != null && time.isAfter(other);
+    }
+
+}
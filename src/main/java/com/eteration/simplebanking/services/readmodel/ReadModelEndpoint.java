@@ -0,0 +1,45 @@
+package com.eteration.simplebanking.services.readmodel;
+
+import com.eteration.simplebanking.dto.AccountView;
+import com.eteration.simplebanking.dto.ReadModelStatusDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint reporting the account read model at {@code /actuator/readmodel},
+ * and the view of an account with its counters at {@code /actuator/readmodel/{accountNumber}}.
+ */
+@Component
+@Endpoint(id = "readmodel")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "banking.read-model", name = "enabled", havingValue = "true")
+public class ReadModelEndpoint {
+
+    private final AccountReadModel accountReadModel;
+
+    /**
+     * Reports whether the read model is ready and how many accounts it holds.
+     *
+     * @return The read model status.
+     */
+    @ReadOperation
+    public ReadModelStatusDTO readModel() {
+        return accountReadModel.status();
+    }
+
+    /**
+     * Returns the view of an account.
+     *
+     * @param accountNumber The account number.
+     * @return The view, or null for a 404 response if the read model holds none.
+     */
+    @ReadOperation
+    public AccountView account(@Selector String accountNumber) {
+        return accountReadModel.findView(accountNumber).orElse(null);
+    }
+
+}
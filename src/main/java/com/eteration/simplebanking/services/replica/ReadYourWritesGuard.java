@@ -0,0 +1,116 @@
+package com.eteration.simplebanking.services.replica;
+
+import com.eteration.simplebanking.config.ReplicaProperties;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the reads of a client that has just written on the primary in the Simple Banking App. Every response to a write
+ * carries a last write cookie holding the time of the write, and the reads of a client sending a cookie younger than
+ * the read-your-writes window run on the primary although they are read-only, so a client reading right after its
+ * own write always sees it, however far the replica lags behind and whichever application node serves the read.
+ * Clients that did not write recently keep reading from the replica. With the replica disabled no cookie is set.
+ */
+@Component
+public class ReadYourWritesGuard {
+
+    /**
+     * The name of the cookie carrying the time of the last write of a client, in milliseconds since the epoch.
+     */
+    public static final String COOKIE_NAME = "banking-last-write";
+
+    private final boolean enabled;
+
+    private final Duration window;
+
+    /**
+     * Creates the guard keeping the reads of recent writers on the primary.
+     *
+     * @param properties The replica configuration.
+     */
+    public ReadYourWritesGuard(ReplicaProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.window = properties.getReadYourWritesWindow();
+    }
+
+    /**
+     * Returns the last write cookie to answer a committed write with, expiring with the read-your-writes window.
+     *
+     * @return The cookie, or empty if the replica is disabled.
+     */
+    public Optional<ResponseCookie> lastWriteCookie() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.of(ResponseCookie.from(COOKIE_NAME, String.valueOf(System.currentTimeMillis()))
+                .maxAge(window)
+                .path("/")
+                .httpOnly(true)
+                .build());
+    }
+
+    /**
+     * Returns whether a client wrote within the read-your-writes window.
+     *
+     * @param lastWrite The value of the last write cookie sent by the client, or null if it sent none.
+     * @return True if the reads of the client must run on the primary.
+     */
+    public boolean isRecentWrite(String lastWrite) {
+        if (!enabled || lastWrite == null) {
+            return false;
+        }
+        try {
+            return System.currentTimeMillis() - Long.parseLong(lastWrite) < window.toMillis();
+        } catch (NumberFormatException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the reads of a client, on the primary if the client wrote within the read-your-writes window.
+     *
+     * @param lastWrite The value of the last write cookie sent by the client, or null if it sent none.
+     * @param action    The action reading on behalf of the client.
+     * @param <T>       The result type of the action.
+     * @return The result of the action.
+     */
+    public <T> T read(String lastWrite, Supplier<T> action) {
+        return read(isRecentWrite(lastWrite), action);
+    }
+
+    /**
+     * Runs an action reading outside of the request that decided where it reads, such as streaming a statement
+     * through read-only transactions of its own, on the primary if required.
+     *
+     * @param primaryRequired Whether the action must read from the primary.
+     * @param action          The action to run.
+     * @param <T>             The result type of the action.
+     * @return The result of the action.
+     */
+    public <T> T read(boolean primaryRequired, Supplier<T> action) {
+        if (!primaryRequired || ReplicaContext.isPrimaryRequired()) {
+            return action.get();
+        }
+        ReplicaContext.setPrimaryRequired(true);
+        try {
+            return action.get();
+        } finally {
+            ReplicaContext.setPrimaryRequired(false);
+        }
+    }
+
+    /**
+     * Returns whether the current transaction reads from the replica, whose rows may lag behind the primary.
+     *
+     * @return True if the replica is enabled and the current transaction is read-only and not kept on the primary.
+     */
+    public boolean readsFromReplica() {
+        return enabled && TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReplicaContext.isPrimaryRequired();
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.eteration.simplebanking.services.replica;
+
+/**
+ * Holds whether the current thread must read from the primary although its transaction is read-only,
+ * read by {@link ReplicaRoutingDataSource} whenever a connection is taken.
+ */
+public final class ReplicaContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReplicaContext() {
+    }
+
+    /**
+     * Returns whether the current thread must read from the primary.
+     *
+     * @return True if read-only transactions of the thread run on the primary.
+     */
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * Selects whether the current thread must read from the primary.
+     *
+     * @param primaryRequired True to run read-only transactions of the thread on the primary.
+     */
+    public static void setPrimaryRequired(boolean primaryRequired) {
+        if (primaryRequired) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.eteration.simplebanking.services.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+
+/**
+ * The connection pools of the primary and the replica database. They are deliberately not datasource beans
+ * of their own: the application only ever sees the {@link ReplicaRoutingDataSource} routing over them.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ReplicaDataSources implements Closeable {
+
+    private final HikariDataSource primaryPool;
+
+    private final HikariDataSource replicaPool;
+
+    private final DataSource primary;
+
+    private final DataSource replica;
+
+    /**
+     * Closes the connection pools.
+     */
+    @Override
+    public void close() {
+        primaryPool.close();
+        replicaPool.close();
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.eteration.simplebanking.services.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Datasource handing out connections of the replica to read-only transactions and connections of the primary to
+ * everything else, including read-only transactions of a thread required to read from the primary by the
+ * {@link ReplicaContext}. A transaction is only known to be read-only once it has started, so this datasource
+ * must sit behind a lazy connection proxy that takes the connection at the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The lookup key and metric tag of the primary datasource.
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * The lookup key and metric tag of the replica datasource.
+     */
+    public static final String REPLICA = "replica";
+
+    /**
+     * Creates a datasource routing between the primary and the replica.
+     *
+     * @param primary The primary datasource.
+     * @param replica The replica datasource.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReplicaContext.isPrimaryRequired()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.eteration.simplebanking.services.sharding;
+
+/**
+ * Holds the shard the current thread works on, read by {@link ShardRoutingDataSource} whenever a connection is taken.
+ * A transaction is bound to the shard selected when it takes its connection, at its first statement.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Returns the shard the current thread works on.
+     *
+     * @return The index of the shard, or null for the home shard.
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Selects the shard the current thread works on.
+     *
+     * @param shard The index of the shard, or null for the home shard.
+     */
+    public static void set(Integer shard) {
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+    }
+
+}
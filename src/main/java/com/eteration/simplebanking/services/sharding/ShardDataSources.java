@@ -0,0 +1,47 @@
+package com.eteration.simplebanking.services.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * The connection pools of the shard databases, by shard index. They are deliberately not datasource beans
+ * of their own: the application only ever sees the {@link ShardRoutingDataSource} routing over them.
+ */
+public class ShardDataSources implements Closeable {
+
+    private final List<DataSource> dataSources;
+
+    /**
+     * Creates the holder of the given pools.
+     *
+     * @param dataSources The datasources of the shards, by shard index.
+     */
+    public ShardDataSources(List<DataSource> dataSources) {
+        this.dataSources = List.copyOf(dataSources);
+    }
+
+    /**
+     * Returns the datasources of the shards.
+     *
+     * @return The datasources, by shard index.
+     */
+    public List<DataSource> getDataSources() {
+        return dataSources;
+    }
+
+    /**
+     * Closes the connection pools.
+     */
+    @Override
+    public void close() {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof HikariDataSource) {
+                ((HikariDataSource) dataSource).close();
+            }
+        }
+    }
+
+}
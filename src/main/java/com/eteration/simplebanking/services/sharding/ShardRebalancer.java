@@ -0,0 +1,240 @@
+package com.eteration.simplebanking.services.sharding;
+
+import com.eteration.simplebanking.config.ShardingProperties;
+import com.eteration.simplebanking.dto.AccountRows;
+import com.eteration.simplebanking.dto.ShardRingState;
+import com.eteration.simplebanking.dto.ShardingStatusDTO;
+import com.eteration.simplebanking.repository.ShardMoveRepository;
+import com.eteration.simplebanking.repository.ShardRingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Moves accounts between shards when shards are added to or removed from the ring. Every account whose shard
+ * on the new ring differs from the shard it is on is moved with all its rows, one account at a time: the rows are
+ * copied to the new shard in a transaction of their own while the source transaction holds the account row,
+ * and then deleted from the old shard. A rebalance interrupted half way leaves every account readable on exactly
+ * one shard and is resumed by running it again; rows left on the new shard by a failed move are replaced.
+ * <p>
+ * The ring is recorded on the home shard when a rebalance starts and when it completes, and restored from there
+ * on startup, so a restart keeps routing every account to the shard it was moved to. As the fences holding back
+ * the postings to an account being moved only exist in this application node, a rebalance is only run on a node
+ * declared to be the only one working on the shards.
+ */
+@Slf4j
+@Component
+public class ShardRebalancer implements SmartInitializingSingleton {
+
+    private final ShardRouter shardRouter;
+
+    private final ShardMoveRepository shardMoveRepository;
+
+    private final ShardRingRepository shardRingRepository;
+
+    private final ShardingProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate newTransactionTemplate;
+
+    /**
+     * Creates the rebalancer.
+     *
+     * @param shardRouter         The router whose ring is rebalanced.
+     * @param shardMoveRepository The repository copying and deleting the rows of an account.
+     * @param shardRingRepository The repository recording the ring on the home shard.
+     * @param properties          The sharding configuration.
+     * @param transactionManager  The transaction manager of the routed datasource.
+     */
+    public ShardRebalancer(ShardRouter shardRouter, ShardMoveRepository shardMoveRepository, ShardRingRepository shardRingRepository,
+                           ShardingProperties properties, PlatformTransactionManager transactionManager) {
+        this.shardRouter = shardRouter;
+        this.shardMoveRepository = shardMoveRepository;
+        this.shardRingRepository = shardRingRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Restores the ring recorded on the home shard once every bean is created, before the web server starts taking
+     * requests, or records the configured one on the first start.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (shardRouter.isEnabled()) {
+            restore();
+        }
+    }
+
+    /**
+     * Reports how many accounts every configured shard holds.
+     *
+     * @return The sharding status.
+     */
+    public ShardingStatusDTO status() {
+        return status(null);
+    }
+
+    /**
+     * Spreads the accounts over the given number of shards, from the first configured one. Postings keep running
+     * meanwhile; only the postings to the account being moved wait for its move.
+     *
+     * @param activeShards The number of shards accounts are placed on after the rebalance.
+     * @return The sharding status after the rebalance.
+     * @throws IllegalStateException if sharding is disabled, this node is not the only one working on the shards,
+     *                               or a rebalance onto another number of shards is in progress.
+     * @throws IllegalArgumentException if the number of shards is not between 1 and the configured shard count.
+     */
+    public synchronized ShardingStatusDTO rebalance(int activeShards) {
+        if (!shardRouter.isEnabled()) {
+            throw new IllegalStateException("Sharding is disabled");
+        }
+        if (!properties.isSingleNode()) {
+            throw new IllegalStateException("A rebalance only holds back the postings of this node and needs banking.sharding.single-node=true, " +
+                    "with every other node stopped");
+        }
+        if (activeShards < 1 || activeShards > shardRouter.getShardCount()) {
+            throw new IllegalArgumentException("The active shard count must be between 1 and " + shardRouter.getShardCount() + " : " + activeShards);
+        }
+        ShardRing target = new ShardRing(activeShards, shardRouter.getVirtualNodes());
+        long started = System.nanoTime();
+        shardRouter.beginRebalance(target);
+        int active = shardRouter.getActiveShardCount();
+        saveRing(active, activeShards);
+        long moved = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            moved += rebalanceShard(shard, target);
+        }
+        saveRing(activeShards, null);
+        shardRouter.completeRebalance();
+        log.info("Rebalanced the accounts onto {} shards, moving {} accounts in {} ms",
+                activeShards, moved, (System.nanoTime() - started) / 1_000_000);
+        return status(moved);
+    }
+
+    private void restore() {
+        Optional<ShardRingState> recorded = shardRouter.onHomeShard(shardRingRepository::find);
+        if (recorded.isEmpty()) {
+            saveRing(shardRouter.getActiveShardCount(), null);
+            return;
+        }
+        ShardRingState state = recorded.get();
+        int configured = shardRouter.getActiveShardCount();
+        ShardRing active = ringOf(state.getActiveShards());
+        ShardRing target = state.getTargetShards() == null ? null : ringOf(state.getTargetShards());
+        Set<String> movedAccounts = target == null ? Set.of() : findMovedAccounts(active, target);
+        shardRouter.restore(active, target, movedAccounts);
+        if (state.getActiveShards() != configured) {
+            log.warn("Routing by the {} shards recorded on the home shard instead of the {} configured", state.getActiveShards(), configured);
+        }
+        if (target != null) {
+            log.warn("A rebalance onto {} shards was interrupted after moving {} accounts; it resumes when started again",
+                    target.getShardCount(), movedAccounts.size());
+        }
+    }
+
+    private ShardRing ringOf(int activeShards) {
+        if (activeShards < 1 || activeShards > shardRouter.getShardCount()) {
+            throw new IllegalStateException("The ring recorded on the home shard places accounts on " + activeShards +
+                    " shards but " + shardRouter.getShardCount() + " are configured");
+        }
+        return new ShardRing(activeShards, shardRouter.getVirtualNodes());
+    }
+
+    /**
+     * Finds the accounts an interrupted rebalance already moved: those found on their shard of the target ring
+     * while the active ring maps them elsewhere.
+     */
+    private Set<String> findMovedAccounts(ShardRing active, ShardRing target) {
+        Set<String> movedAccounts = new HashSet<>();
+        for (int shard = 0; shard < target.getShardCount(); shard++) {
+            int current = shard;
+            long afterAccountId = Long.MIN_VALUE;
+            Map<Long, String> batch;
+            do {
+                long after = afterAccountId;
+                batch = shardRouter.onShard(current, () -> transactionTemplate.execute(status ->
+                        shardMoveRepository.findAccountsAfter(after, properties.getRebalanceBatchSize())));
+                if (batch == null || batch.isEmpty()) {
+                    break;
+                }
+                for (Map.Entry<Long, String> account : batch.entrySet()) {
+                    if (target.shardOf(account.getValue()) == current && active.shardOf(account.getValue()) != current) {
+                        movedAccounts.add(account.getValue());
+                    }
+                    afterAccountId = account.getKey();
+                }
+            } while (batch.size() == properties.getRebalanceBatchSize());
+        }
+        return movedAccounts;
+    }
+
+    private void saveRing(int activeShards, Integer targetShards) {
+        shardRouter.onHomeShard(() -> {
+            shardRingRepository.save(ShardRingState.builder().activeShards(activeShards).targetShards(targetShards).build());
+            return null;
+        });
+    }
+
+    private long rebalanceShard(int source, ShardRing target) {
+        long moved = 0;
+        long afterAccountId = Long.MIN_VALUE;
+        Map<Long, String> batch;
+        do {
+            long after = afterAccountId;
+            batch = shardRouter.onShard(source, () -> transactionTemplate.execute(status ->
+                    shardMoveRepository.findAccountsAfter(after, properties.getRebalanceBatchSize())));
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            for (Map.Entry<Long, String> account : batch.entrySet()) {
+                int destination = target.shardOf(account.getValue());
+                if (destination != source) {
+                    move(account.getKey(), account.getValue(), source, destination);
+                    moved++;
+                }
+                afterAccountId = account.getKey();
+            }
+        } while (batch.size() == properties.getRebalanceBatchSize());
+        return moved;
+    }
+
+    private void move(long accountId, String accountNumber, int source, int destination) {
+        shardRouter.moveFenced(accountNumber, () -> shardRouter.onShard(source, () -> transactionTemplate.execute(status -> {
+            AccountRows rows = shardMoveRepository.lockAccountRows(accountId, accountNumber);
+            shardRouter.onShard(destination, () -> newTransactionTemplate.execute(copy -> {
+                shardMoveRepository.deleteAccountRows(accountId, accountNumber);
+                shardMoveRepository.insertAccountRows(rows);
+                return null;
+            }));
+            return shardMoveRepository.deleteAccountRows(accountId, accountNumber);
+        })));
+    }
+
+    private ShardingStatusDTO status(Long moved) {
+        List<Long> accountsPerShard = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            accountsPerShard.add(shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> shardMoveRepository.countAccounts())));
+        }
+        return ShardingStatusDTO.builder()
+                .configuredShards(shardRouter.getShardCount())
+                .activeShards(shardRouter.getActiveShardCount())
+                .accountsPerShard(accountsPerShard)
+                .movedAccounts(moved)
+                .build();
+    }
+
+}
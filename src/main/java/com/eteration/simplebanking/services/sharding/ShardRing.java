@@ -0,0 +1,78 @@
+package com.eteration.simplebanking.services.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring mapping account numbers onto shards. Every shard takes a number of virtual nodes,
+ * points on a ring of 64-bit hashes, and an account belongs to the shard of the first point at or after
+ * the hash of its account number. Adding a shard only moves the accounts falling just before its new points,
+ * about one in every shard count of them, and moves them all onto the new shard.
+ */
+public final class ShardRing {
+
+    private final TreeMap<Long, Integer> points = new TreeMap<>();
+
+    private final int shardCount;
+
+    /**
+     * Creates the ring of the given number of shards.
+     *
+     * @param shardCount   The number of shards, indexed from 0.
+     * @param virtualNodes The number of points every shard takes on the ring.
+     */
+    public ShardRing(int shardCount, int virtualNodes) {
+        if (shardCount < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("A shard ring needs at least one shard and one virtual node");
+        }
+        this.shardCount = shardCount;
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                points.putIfAbsent(hash("shard-" + shard + "#" + node), shard);
+            }
+        }
+    }
+
+    /**
+     * Returns the shard an account number belongs to.
+     *
+     * @param accountNumber The account number.
+     * @return The index of the shard.
+     */
+    public int shardOf(String accountNumber) {
+        Map.Entry<Long, Integer> point = points.ceilingEntry(hash(accountNumber));
+        return (point == null ? points.firstEntry() : point).getValue();
+    }
+
+    /**
+     * Returns the number of shards on the ring.
+     *
+     * @return The shard count.
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Hashes a key with 64-bit FNV-1a followed by the MurmurHash3 finalizer, which spreads the
+     * nearly identical account numbers and node names evenly over the ring.
+     *
+     * @param key The key.
+     * @return The hash of the key.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
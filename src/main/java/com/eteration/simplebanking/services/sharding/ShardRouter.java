@@ -0,0 +1,412 @@
+package com.eteration.simplebanking.services.sharding;
+
+import com.eteration.simplebanking.config.ShardingProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Routes the work on an account to the shard holding it in the Simple Banking App. An account number is mapped
+ * onto its shard by the consistent hash ring of the active shards, and the account and its transactions always
+ * live together on that shard, so every posting to a single account runs in one local database transaction.
+ * <p>
+ * Routing an account holds a read lock of its fence stripe until the transaction completes, and moving an account
+ * to another shard holds the write lock: a rebalance waits for the transactions already working on the account and
+ * the next ones are only routed once the move is done, to the new shard. The fences are held in this application
+ * node only, so a rebalance runs with no other node working on the shards. With sharding disabled every method
+ * simply runs against the single datasource.
+ */
+@Component
+public class ShardRouter {
+
+    private static final int FENCE_STRIPES = 64;
+
+    private final boolean enabled;
+
+    private final int shardCount;
+
+    private final int virtualNodes;
+
+    private final ReentrantReadWriteLock[] fences = new ReentrantReadWriteLock[FENCE_STRIPES];
+
+    private final Set<String> moved = ConcurrentHashMap.newKeySet();
+
+    private final TransactionTemplate newTransactionTemplate;
+
+    private volatile ShardRing ring;
+
+    private volatile ShardRing targetRing;
+
+    /**
+     * Creates the router over the active shards.
+     *
+     * @param properties         The sharding configuration.
+     * @param transactionManager The transaction manager starting the transactions on the home shard.
+     */
+    public ShardRouter(ShardingProperties properties, PlatformTransactionManager transactionManager) {
+        this.enabled = properties.isEnabled();
+        this.shardCount = enabled ? properties.getShards().size() : 1;
+        this.virtualNodes = properties.getVirtualNodes();
+        int activeShards = enabled ? properties.activeShardCount() : 1;
+        if (activeShards < 1 || activeShards > shardCount) {
+            throw new IllegalStateException("The active shard count must be between 1 and " + shardCount + " : " + activeShards);
+        }
+        this.ring = new ShardRing(activeShards, virtualNodes);
+        for (int i = 0; i < FENCE_STRIPES; i++) {
+            fences[i] = new ReentrantReadWriteLock();
+        }
+        if (enabled) {
+            this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+            this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        } else {
+            this.newTransactionTemplate = null;
+        }
+    }
+
+    /**
+     * Returns whether the accounts are sharded.
+     *
+     * @return True if sharding is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the number of configured shards, active or not.
+     *
+     * @return The configured shard count.
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Returns the number of shards accounts are placed on.
+     *
+     * @return The active shard count.
+     */
+    public int getActiveShardCount() {
+        return ring.getShardCount();
+    }
+
+    /**
+     * Returns the shard holding an account. During a rebalance an account already moved is on its new shard.
+     *
+     * @param accountNumber The account number.
+     * @return The index of the shard.
+     */
+    public int shardOf(String accountNumber) {
+        ShardRing target = targetRing;
+        if (target != null && moved.contains(accountNumber)) {
+            return target.shardOf(accountNumber);
+        }
+        return ring.shardOf(accountNumber);
+    }
+
+    /**
+     * Routes the current transaction to the shard of an account until the transaction completes.
+     * It must be called before the transaction runs its first statement, as the transaction keeps the connection it took.
+     *
+     * @param accountNumber The account number the transaction works on.
+     * @throws IllegalStateException if no transaction is active.
+     */
+    public void route(String accountNumber) {
+        if (enabled) {
+            routeFenced(new Lock[]{fenceOf(accountNumber).readLock()}, () -> shardOf(accountNumber));
+        }
+    }
+
+    /**
+     * Routes the current transaction creating an account to the shard the account is placed on until the transaction
+     * completes. During a rebalance new accounts are placed by the ring the rebalance moves the accounts onto.
+     *
+     * @param accountNumber The account number of the new account.
+     * @throws IllegalStateException if no transaction is active.
+     */
+    public void routeNewAccount(String accountNumber) {
+        if (enabled) {
+            routeFenced(new Lock[]{fenceOf(accountNumber).readLock()}, () -> {
+                ShardRing target = targetRing;
+                if (target == null) {
+                    return ring.shardOf(accountNumber);
+                }
+                moved.add(accountNumber);
+                return target.shardOf(accountNumber);
+            });
+        }
+    }
+
+    /**
+     * Routes the current transaction to the shard holding both accounts until the transaction completes,
+     * unless the accounts are on different shards. The fence stripes are taken in ascending order, so two
+     * transactions routing the same accounts in opposite order never wait for each other in a cycle.
+     *
+     * @param accountNumber      One account number the transaction works on.
+     * @param otherAccountNumber The other account number the transaction works on.
+     * @return True if the accounts are on the same shard and the transaction was routed to it.
+     * @throws IllegalStateException if no transaction is active.
+     */
+    public boolean route(String accountNumber, String otherAccountNumber) {
+        if (!enabled) {
+            return true;
+        }
+        int stripe = stripeOf(accountNumber);
+        int otherStripe = stripeOf(otherAccountNumber);
+        Lock[] fenceLocks = stripe == otherStripe
+                ? new Lock[]{fences[stripe].readLock()}
+                : new Lock[]{fences[Math.min(stripe, otherStripe)].readLock(), fences[Math.max(stripe, otherStripe)].readLock()};
+        return routeFenced(fenceLocks, () -> {
+            int shard = shardOf(accountNumber);
+            return shard == shardOf(otherAccountNumber) ? shard : null;
+        });
+    }
+
+    /**
+     * Runs an action outside of any transaction on the shard of an account, such as streaming a statement
+     * through transactions of its own. The account cannot be moved while the action runs.
+     *
+     * @param accountNumber The account number the action works on.
+     * @param action        The action to run.
+     * @param <T>           The result type of the action.
+     * @return The result of the action.
+     */
+    public <T> T onAccountShard(String accountNumber, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        Lock fence = fenceOf(accountNumber).readLock();
+        fence.lock();
+        try {
+            return onShard(shardOf(accountNumber), action);
+        } finally {
+            fence.unlock();
+        }
+    }
+
+    /**
+     * Runs an action on a shard. Transactions started by the action take their connections from that shard,
+     * so it must not run inside a transaction already bound to another shard.
+     *
+     * @param shard  The index of the shard.
+     * @param action The action to run.
+     * @param <T>    The result type of the action.
+     * @return The result of the action.
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        Integer previous = ShardContext.current();
+        ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /**
+     * Runs an action in a new transaction on the home shard, the first one, which holds the state shared by all
+     * accounts such as the account number sequence. The current transaction is suspended meanwhile.
+     *
+     * @param action The action to run.
+     * @param <T>    The result type of the action.
+     * @return The result of the action.
+     */
+    public <T> T onHomeShard(Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        return onShard(0, () -> newTransactionTemplate.execute(status -> action.get()));
+    }
+
+    /**
+     * Runs an action in a new transaction on the shard a new account with the given number would be placed on,
+     * such as checking that the number is not taken there yet. The current transaction is suspended meanwhile.
+     *
+     * @param accountNumber The account number of the new account.
+     * @param action        The action to run.
+     * @param <T>           The result type of the action.
+     * @return The result of the action.
+     */
+    public <T> T onNewAccountShard(String accountNumber, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        ShardRing target = targetRing;
+        int shard = target == null ? ring.shardOf(accountNumber) : target.shardOf(accountNumber);
+        return onShard(shard, () -> newTransactionTemplate.execute(status -> action.get()));
+    }
+
+    /**
+     * Runs an action once on every configured shard and adds up the counts it returns, as the maintenance jobs
+     * working on every account do.
+     *
+     * @param action The action to run, outside of any transaction.
+     * @return The sum of the counts.
+     */
+    public int sumOverShards(IntSupplier action) {
+        int sum = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            sum += onShard(shard, action::getAsInt);
+        }
+        return sum;
+    }
+
+    /**
+     * Starts moving the accounts onto the given ring. Accounts are then marked moved one at a time.
+     * Once the new ring is set, the transactions routed before are waited for, so no account is still being created
+     * by the old ring when the rebalance looks for the accounts to move.
+     * A rebalance interrupted by a failure is resumed by starting it again with a ring of the same size.
+     *
+     * @param target The ring of the shards after the rebalance.
+     * @throws IllegalStateException if a rebalance onto another number of shards is in progress.
+     */
+    void beginRebalance(ShardRing target) {
+        synchronized (this) {
+            if (targetRing != null && targetRing.getShardCount() != target.getShardCount()) {
+                throw new IllegalStateException("A rebalance onto " + targetRing.getShardCount() + " shards is in progress");
+            }
+            if (targetRing == null) {
+                targetRing = target;
+            }
+        }
+        for (ReentrantReadWriteLock fence : fences) {
+            fence.writeLock().lock();
+            fence.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the ring the router was created with by the one recorded on the home shard, before any account is routed.
+     * If a rebalance was interrupted, it is in progress again, with the accounts already on their new shard marked moved.
+     *
+     * @param active        The ring the accounts are placed on.
+     * @param target        The ring the interrupted rebalance moves the accounts onto, or null if none was interrupted.
+     * @param movedAccounts The accounts already on their shard of the target ring.
+     */
+    synchronized void restore(ShardRing active, ShardRing target, Collection<String> movedAccounts) {
+        ring = active;
+        targetRing = target;
+        moved.clear();
+        if (target != null) {
+            moved.addAll(movedAccounts);
+        }
+    }
+
+    /**
+     * Moves an account while no transaction works on it: waits for the transactions routed to the account to complete,
+     * holds back the next ones, runs the move and marks the account moved, so the held back transactions go to its new shard.
+     *
+     * @param accountNumber The account number.
+     * @param move          The action copying the account to its new shard and deleting it from the old one.
+     */
+    void moveFenced(String accountNumber, Runnable move) {
+        Lock fence = fenceOf(accountNumber).writeLock();
+        fence.lock();
+        try {
+            move.run();
+            moved.add(accountNumber);
+        } finally {
+            fence.unlock();
+        }
+    }
+
+    /**
+     * Completes the rebalance: the target ring becomes the ring every account is routed by.
+     */
+    synchronized void completeRebalance() {
+        if (targetRing != null) {
+            ring = targetRing;
+            targetRing = null;
+            moved.clear();
+        }
+    }
+
+    /**
+     * Returns the number of points every shard takes on the ring.
+     *
+     * @return The virtual node count.
+     */
+    int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * Takes the fence locks, selects the shard and registers their release on completion of the current transaction.
+     * The first routing of a transaction selects its shard and restores the previous one on completion; routing it
+     * again, as nested calls on the same account do, only takes the fence locks and must select the same shard.
+     *
+     * @param fenceLocks The fence locks, in the order they are taken.
+     * @param shardOf    Supplier of the shard to route to, called once the locks are held, or of null not to route.
+     * @return True if the transaction was routed.
+     * @throws IllegalStateException if no transaction is active, or it is already routed to another shard.
+     */
+    private boolean routeFenced(Lock[] fenceLocks, Supplier<Integer> shardOf) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Routing to a shard needs an active transaction");
+        }
+        for (Lock fenceLock : fenceLocks) {
+            fenceLock.lock();
+        }
+        Integer routed = (Integer) TransactionSynchronizationManager.getResource(this);
+        Integer previous = ShardContext.current();
+        try {
+            Integer shard = shardOf.get();
+            if (routed != null && shard != null && !routed.equals(shard)) {
+                throw new IllegalStateException("The transaction is routed to shard " + routed + " and cannot work on shard " + shard);
+            }
+            boolean first = routed == null && shard != null;
+            if (first) {
+                ShardContext.set(shard);
+                TransactionSynchronizationManager.bindResource(this, shard);
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (first) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(ShardRouter.this);
+                        ShardContext.set(previous);
+                    }
+                    unlock(fenceLocks);
+                }
+            });
+            return shard != null;
+        } catch (RuntimeException exception) {
+            if (routed == null && TransactionSynchronizationManager.hasResource(this)) {
+                TransactionSynchronizationManager.unbindResource(this);
+            }
+            ShardContext.set(previous);
+            unlock(fenceLocks);
+            throw exception;
+        }
+    }
+
+    private static void unlock(Lock[] fenceLocks) {
+        for (int i = fenceLocks.length - 1; i >= 0; i--) {
+            fenceLocks[i].unlock();
+        }
+    }
+
+    private ReentrantReadWriteLock fenceOf(String accountNumber) {
+        return fences[stripeOf(accountNumber)];
+    }
+
+    private static int stripeOf(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return (hash ^ (hash >>> 16)) & (FENCE_STRIPES - 1);
+    }
+
+}
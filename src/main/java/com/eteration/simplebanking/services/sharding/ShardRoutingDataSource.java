@@ -0,0 +1,38 @@
+package com.eteration.simplebanking.services.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Datasource handing out connections to the shard selected in the {@link ShardContext} of the current thread,
+ * or to the home shard, the first one, when no shard is selected. The repositories, the entity manager and the
+ * transaction manager all work on this datasource, unaware of the shards beneath it.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Creates a datasource routing over the given shards.
+     *
+     * @param shards The datasources of the shards, by shard index.
+     */
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer shard = ShardContext.current();
+        return shard == null ? 0 : shard;
+    }
+
+}
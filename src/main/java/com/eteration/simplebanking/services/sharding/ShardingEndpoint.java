@@ -0,0 +1,43 @@
+package com.eteration.simplebanking.services.sharding;
+
+import com.eteration.simplebanking.dto.ShardingStatusDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint reporting and rebalancing how the accounts are spread over the shards at {@code /actuator/shards}.
+ */
+@Component
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "banking.sharding", name = "enabled", havingValue = "true")
+public class ShardingEndpoint {
+
+    private final ShardRebalancer shardRebalancer;
+
+    /**
+     * Reports how many accounts every shard holds.
+     *
+     * @return The sharding status.
+     */
+    @ReadOperation
+    public ShardingStatusDTO shards() {
+        return shardRebalancer.status();
+    }
+
+    /**
+     * Spreads the accounts over a number of shards, such as after a shard was added to the configuration.
+     *
+     * @param activeShards The number of shards accounts are placed on after the rebalance.
+     * @return The sharding status after the rebalance.
+     */
+    @WriteOperation
+    public ShardingStatusDTO rebalance(int activeShards) {
+        return shardRebalancer.rebalance(activeShards);
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.eteration.simplebanking.services.striping;
+
+import com.eteration.simplebanking.config.BalanceStripingProperties;
+import com.eteration.simplebanking.dto.AccountSnapshot;
+import com.eteration.simplebanking.dto.StripedBalanceDTO;
+import com.eteration.simplebanking.exception.AccountNotFoundException;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.repository.AccountRepository;
+import com.eteration.simplebanking.repository.BalanceSlotRepository;
+import com.eteration.simplebanking.services.cache.AccountSnapshotCache;
+import com.eteration.simplebanking.services.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Striped sub-balances of hot accounts in the Simple Banking App. The balance of a striped account is spread over
+ * a number of slot rows besides its own account row, and each posting changes the slot its thread hashes onto,
+ * so postings to one hot account run in parallel up to the slot count instead of queueing on a single row.
+ * A debit the slot cannot cover borrows from the other slots and the account row under locks taken in a fixed order.
+ * Reads add the slots to the balance of the account row. Striping is opt-in per account.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StripedBalances {
+
+    private final BalanceSlotRepository balanceSlotRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final AccountSnapshotCache accountSnapshotCache;
+
+    private final BalanceStripingProperties properties;
+
+    private final ShardRouter shardRouter;
+
+    /**
+     * Completes a snapshot read from the account row with the slots of the account if it is striped.
+     *
+     * @param snapshot The snapshot read from the account row.
+     * @return The snapshot with the total balance of the account.
+     */
+    public AccountSnapshot withSlotBalances(AccountSnapshot snapshot) {
+        if (!snapshot.isStriped()) {
+            return snapshot;
+        }
+        return snapshot.toBuilder()
+                .balance(snapshot.getBalance() + balanceSlotRepository.sumByAccountId(snapshot.getId()))
+                .build();
+    }
+
+    /**
+     * Applies a signed balance change to a striped account in the current transaction. The change goes to the slot
+     * of the current thread; a debit that slot cannot cover, or a change to a slot removed by restriping meanwhile,
+     * falls back to borrowing across the account row and all slots.
+     *
+     * @param account The snapshot of the striped account.
+     * @param change  The signed amount to add to the balance, in minor units.
+     * @throws InsufficientBalanceException if a debit exceeds the total balance of the account.
+     */
+    public void applyChange(AccountSnapshot account, long change) {
+        if (balanceSlotRepository.applyChange(account.getId(), slotOf(account.getBalanceSlots()), change)) {
+            return;
+        }
+        borrow(account.getId(), change);
+    }
+
+    /**
+     * Stripes the balance of an account over the given number of slots, or stops striping it with 0 slots.
+     * The total balance is spread evenly over the new slots, so debits find their slot covered as often as possible.
+     *
+     * @param accountNumber The account number.
+     * @param slots         The number of slots, 0 to move the whole balance back onto the account row.
+     * @return The new striped balance of the account.
+     * @throws AccountNotFoundException if the account is not found.
+     * @throws IllegalArgumentException if the slot count is negative or above the configured maximum.
+     */
+    @Transactional
+    public StripedBalanceDTO stripe(String accountNumber, int slots) {
+
+        shardRouter.route(accountNumber);
+        if (slots < 0 || slots > properties.getMaxSlots()) {
+            throw new IllegalArgumentException("The slot count must be between 0 and " + properties.getMaxSlots() + ".");
+        }
+
+        long accountId = findAccountId(accountNumber);
+
+        long total = balanceSlotRepository.lockAccountBalance(accountId) + sum(balanceSlotRepository.lockSlots(accountId));
+
+        long[] slotBalances = new long[slots];
+        long accountBalance = total;
+        if (slots > 0) {
+            for (int slot = 0; slot < slots; slot++) {
+                slotBalances[slot] = total / slots + (slot < total % slots ? 1 : 0);
+            }
+            accountBalance = 0;
+        }
+        balanceSlotRepository.replaceSlots(accountId, accountBalance, slotBalances);
+        accountSnapshotCache.invalidateAfterCompletion(accountNumber);
+
+        log.info("Striped account {} over {} slots", accountNumber, slots);
+
+        return toDTO(accountNumber, accountBalance, slotBalances);
+    }
+
+    /**
+     * Reads how the balance of an account is striped, under the same locks a borrowing debit takes,
+     * so the account row and the slots add up to a consistent total.
+     *
+     * @param accountNumber The account number.
+     * @return The striped balance of the account.
+     * @throws AccountNotFoundException if the account is not found.
+     */
+    @Transactional
+    public StripedBalanceDTO find(String accountNumber) {
+        shardRouter.route(accountNumber);
+        long accountId = findAccountId(accountNumber);
+        return toDTO(accountNumber, balanceSlotRepository.lockAccountBalance(accountId), balanceSlotRepository.lockSlots(accountId));
+    }
+
+    /**
+     * Applies a change the slot of the current thread could not take. Credits go to the account row; debits lock
+     * the account row and all slots and take from the account row first and then from the slots in slot order.
+     *
+     * @param accountId The id of the account.
+     * @param change    The signed amount to add to the balance, in minor units.
+     * @throws InsufficientBalanceException if a debit exceeds the total balance of the account.
+     */
+    private void borrow(long accountId, long change) {
+
+        if (change >= 0) {
+            accountRepository.applyBalanceChange(accountId, change);
+            return;
+        }
+
+        long accountBalance = balanceSlotRepository.lockAccountBalance(accountId);
+        long[] slotBalances = balanceSlotRepository.lockSlots(accountId);
+
+        if (accountBalance + sum(slotBalances) + change < 0) {
+            throw new InsufficientBalanceException("Insufficient funds.");
+        }
+
+        long remaining = -change;
+        long fromAccount = Math.min(remaining, accountBalance);
+        if (fromAccount > 0) {
+            accountRepository.applyBalanceChange(accountId, -fromAccount);
+            remaining -= fromAccount;
+        }
+        for (int slot = 0; slot < slotBalances.length && remaining > 0; slot++) {
+            long fromSlot = Math.min(remaining, slotBalances[slot]);
+            if (fromSlot > 0) {
+                balanceSlotRepository.applyChange(accountId, slot, -fromSlot);
+                remaining -= fromSlot;
+            }
+        }
+    }
+
+    /**
+     * Maps the current thread onto a slot, so a posting thread keeps changing the same slot and
+     * concurrent posting threads spread over all slots.
+     *
+     * @param slots The number of slots of the account.
+     * @return The slot of the current thread.
+     */
+    int slotOf(int slots) {
+        return (int) Math.floorMod(Thread.currentThread().getId(), (long) slots);
+    }
+
+    private long findAccountId(String accountNumber) {
+        return accountRepository.findSnapshotByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account Not Found : " + accountNumber))
+                .getId();
+    }
+
+    private static StripedBalanceDTO toDTO(String accountNumber, long accountBalance, long[] slotBalances) {
+        List<Long> slots = new ArrayList<>(slotBalances.length);
+        for (long slotBalance : slotBalances) {
+            slots.add(slotBalance);
+        }
+        return StripedBalanceDTO.builder()
+                .accountNumber(accountNumber)
+                .balance(accountBalance + sum(slotBalances))
+                .accountBalance(accountBalance)
+                .slotBalances(slots)
+                .build();
+    }
+
+    private static long sum(long[] balances) {
+        long sum = 0;
+        for (long balance : balances) {
+            sum += balance;
+        }
+        return sum;
+    }
+
+}
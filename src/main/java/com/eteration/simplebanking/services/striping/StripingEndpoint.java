@@ -0,0 +1,44 @@
+package com.eteration.simplebanking.services.striping;
+
+import com.eteration.simplebanking.dto.StripedBalanceDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint striping the balance of hot accounts over sub-balance slots at {@code /actuator/striping}.
+ */
+@Component
+@Endpoint(id = "striping")
+@RequiredArgsConstructor
+public class StripingEndpoint {
+
+    private final StripedBalances stripedBalances;
+
+    /**
+     * Reads how the balance of an account is striped.
+     *
+     * @param accountNumber The account number.
+     * @return The balance of the account row and of every slot.
+     */
+    @ReadOperation
+    public StripedBalanceDTO account(@Selector String accountNumber) {
+        return stripedBalances.find(accountNumber);
+    }
+
+    /**
+     * Stripes the balance of an account over a number of slots, or stops striping it with 0 slots.
+     *
+     * @param accountNumber The account number.
+     * @param slots         The number of slots.
+     * @return The balance of the account row and of every slot after restriping.
+     */
+    @WriteOperation
+    public StripedBalanceDTO stripe(@Selector String accountNumber, int slots) {
+        return stripedBalances.stripe(accountNumber, slots);
+    }
+
+}
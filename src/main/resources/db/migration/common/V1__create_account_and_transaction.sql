@@ -0,0 +1,41 @@
+-- Accounts and their transactions.
+
+CREATE SEQUENCE account_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE transaction_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE account_number_seq START WITH 0 MINVALUE 0 INCREMENT BY 1;
+
+CREATE TABLE account
+(
+    id                BIGINT       NOT NULL,
+    account_number    VARCHAR(255) NOT NULL,
+    owner             VARCHAR(255),
+    balance           BIGINT       NOT NULL,
+    version           BIGINT       NOT NULL DEFAULT 0,
+    created_date_time TIMESTAMP,
+    CONSTRAINT pk_account PRIMARY KEY (id)
+);
+
+-- Account lookups by number: snapshot reads, postings and the account detail endpoint.
+CREATE UNIQUE INDEX ux_account_account_number ON account (account_number);
+
+CREATE TABLE transaction
+(
+    id                BIGINT      NOT NULL,
+    transaction_type  VARCHAR(31) NOT NULL,
+    approval_code     VARCHAR(255),
+    amount            BIGINT      NOT NULL,
+    account_id        BIGINT,
+    created_date_time TIMESTAMP,
+    CONSTRAINT pk_transaction PRIMARY KEY (id),
+    CONSTRAINT fk_transaction_account FOREIGN KEY (account_id) REFERENCES account (id)
+);
+
+-- Keyset-paginated history and statement exports: equality on the account, range and order on the
+-- creation time, and the id as the tie breaker of the cursor. It also serves the
+-- foreign key, which PostgreSQL does not index on its own.
+CREATE INDEX ix_transaction_account_created ON transaction (account_id, created_date_time, id);
+
+-- Transaction lookups by approval code.
+CREATE INDEX ix_transaction_approval_code ON transaction (approval_code);
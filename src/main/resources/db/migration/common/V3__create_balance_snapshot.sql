@@ -0,0 +1,13 @@
+-- The balance of every account as of a point in the ledger: the sum of its transactions created before
+-- as_of. The balance is rebuilt from the snapshot and the transactions created since, which the
+-- (account_id, created_date_time, id) index serves without reading the older history.
+
+CREATE TABLE balance_snapshot
+(
+    account_id        BIGINT    NOT NULL,
+    balance           BIGINT    NOT NULL,
+    as_of             TIMESTAMP NOT NULL,
+    created_date_time TIMESTAMP NOT NULL,
+    CONSTRAINT pk_balance_snapshot PRIMARY KEY (account_id),
+    CONSTRAINT fk_balance_snapshot_account FOREIGN KEY (account_id) REFERENCES account (id)
+);
@@ -0,0 +1,16 @@
+-- The outcome of every posting made with an Idempotency-Key header. The primary key is the unique index that lets
+-- exactly one of several concurrent postings with the same key claim it; the others find the original outcome.
+
+CREATE TABLE idempotency_key
+(
+    idempotency_key   VARCHAR(255) NOT NULL,
+    transaction_type  VARCHAR(31)  NOT NULL,
+    account_number    VARCHAR(255) NOT NULL,
+    amount            BIGINT       NOT NULL,
+    approval_code     VARCHAR(255) NOT NULL,
+    created_date_time TIMESTAMP    NOT NULL,
+    CONSTRAINT pk_idempotency_key PRIMARY KEY (idempotency_key)
+);
+
+-- Purging of the expired keys, oldest first.
+CREATE INDEX ix_idempotency_key_created ON idempotency_key (created_date_time);
@@ -0,0 +1,14 @@
+-- Sub-balances of striped hot accounts. The balance of an account is its own balance plus the sum of
+-- its slots; balance_slots is the number of slots postings spread over, 0 for an account that is not
+-- striped and has no slots. The primary key serves every slot lookup by account.
+
+ALTER TABLE account ADD COLUMN balance_slots INT NOT NULL DEFAULT 0;
+
+CREATE TABLE account_balance_slot
+(
+    account_id BIGINT NOT NULL,
+    slot       INT    NOT NULL,
+    balance    BIGINT NOT NULL,
+    CONSTRAINT pk_account_balance_slot PRIMARY KEY (account_id, slot),
+    CONSTRAINT fk_account_balance_slot_account FOREIGN KEY (account_id) REFERENCES account (id)
+);
@@ -0,0 +1,12 @@
+-- The ring accounts are routed by when sharding is enabled, kept in a single row on the home shard so every
+-- application node and every restart routes by the ring the last rebalance left behind. target_shards is the size
+-- of the ring a rebalance in progress moves the accounts onto, null when none is. Created on every shard, used on
+-- the home shard only.
+
+CREATE TABLE shard_ring
+(
+    id            INT NOT NULL,
+    active_shards INT NOT NULL,
+    target_shards INT,
+    CONSTRAINT pk_shard_ring PRIMARY KEY (id)
+);
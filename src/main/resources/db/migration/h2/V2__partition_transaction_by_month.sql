@@ -0,0 +1,6 @@
+-- H2, which runs the tests and the benchmarks, has no declarative partitioning. The transaction table stays
+-- a single table and only gets the NOT NULL constraints the partitioned PostgreSQL table has.
+
+ALTER TABLE transaction ALTER COLUMN account_id SET NOT NULL;
+
+ALTER TABLE transaction ALTER COLUMN created_date_time SET NOT NULL;
@@ -0,0 +1,85 @@
+-- Brings a schema created by Hibernate (ddl-auto=update) before the migrations existed to the state of V1.
+-- Such a schema is baselined at version 1 (spring.flyway.baseline-on-migrate), so V1 is skipped and this migration
+-- runs first; on a schema created by V1 every step below finds nothing to do.
+
+-- Ids: identity columns and hibernate_sequence give way to the pooled account_seq and transaction_seq.
+-- A pooled sequence hands out the upper end of a block of 50 ids, so it is moved 50 past the largest id in use.
+CREATE SEQUENCE IF NOT EXISTS account_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS transaction_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE IF NOT EXISTS account_number_seq START WITH 0 MINVALUE 0 INCREMENT BY 1;
+
+DO
+$$
+    DECLARE
+        relation    TEXT;
+        id_sequence TEXT;
+        serial_name TEXT;
+        max_id      BIGINT;
+    BEGIN
+        FOR relation, id_sequence IN SELECT * FROM (VALUES ('account', 'account_seq'), ('transaction', 'transaction_seq')) AS s
+            LOOP
+                serial_name := pg_get_serial_sequence(relation, 'id');
+                EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', relation);
+                EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', relation);
+                IF serial_name IS NOT NULL THEN
+                    EXECUTE format('DROP SEQUENCE IF EXISTS %s', serial_name);
+                END IF;
+                EXECUTE format('SELECT max(id) FROM %I', relation) INTO max_id;
+                IF max_id IS NOT NULL THEN
+                    PERFORM setval(id_sequence, greatest(max_id + 50, nextval(id_sequence)), false);
+                END IF;
+            END LOOP;
+    END
+$$;
+
+DROP SEQUENCE IF EXISTS hibernate_sequence;
+
+-- Money: balances and amounts were stored as doubles in major units and are now whole minor units.
+DO
+$$
+    BEGIN
+        IF (SELECT data_type FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = 'account' AND column_name = 'balance') = 'double precision' THEN
+            ALTER TABLE account ALTER COLUMN balance TYPE BIGINT USING round(balance * 100)::BIGINT;
+        END IF;
+        IF (SELECT data_type FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = 'transaction' AND column_name = 'amount') = 'double precision' THEN
+            ALTER TABLE transaction ALTER COLUMN amount TYPE BIGINT USING round(amount * 100)::BIGINT;
+        END IF;
+    END
+$$;
+
+UPDATE account SET balance = 0 WHERE balance IS NULL;
+ALTER TABLE account ALTER COLUMN balance SET NOT NULL;
+ALTER TABLE account ALTER COLUMN account_number SET NOT NULL;
+ALTER TABLE account ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE transaction ALTER COLUMN amount SET NOT NULL;
+
+-- Constraint names: Hibernate named them after the table or at random, later migrations use the V1 names.
+DO
+$$
+    DECLARE
+        foreign_key TEXT;
+    BEGIN
+        IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'account_pkey') THEN
+            ALTER TABLE account RENAME CONSTRAINT account_pkey TO pk_account;
+        END IF;
+        IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'transaction_pkey') THEN
+            ALTER TABLE transaction RENAME CONSTRAINT transaction_pkey TO pk_transaction;
+        END IF;
+        SELECT conname INTO foreign_key FROM pg_constraint
+        WHERE conrelid = 'transaction'::regclass AND contype = 'f' AND conname <> 'fk_transaction_account';
+        IF foreign_key IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE transaction RENAME CONSTRAINT %I TO fk_transaction_account', foreign_key);
+        END IF;
+    END
+$$;
+
+-- Fails on duplicate account numbers, which must be resolved by hand before upgrading.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_account_account_number ON account (account_number);
+
+CREATE INDEX IF NOT EXISTS ix_transaction_account_created ON transaction (account_id, created_date_time, id);
+
+CREATE INDEX IF NOT EXISTS ix_transaction_approval_code ON transaction (approval_code);
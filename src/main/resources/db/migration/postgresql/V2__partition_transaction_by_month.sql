@@ -0,0 +1,54 @@
+-- Transactions partitioned by month of creation, so old months can be archived by detaching and dropping
+-- their partition instead of deleting rows, and vacuum and index maintenance only touch the recent months.
+-- PostgreSQL requires the partition key in the primary key; the id alone stays unique through its sequence.
+
+ALTER TABLE transaction RENAME TO transaction_unpartitioned;
+
+CREATE TABLE transaction
+(
+    id                BIGINT      NOT NULL,
+    transaction_type  VARCHAR(31) NOT NULL,
+    approval_code     VARCHAR(255),
+    amount            BIGINT      NOT NULL,
+    account_id        BIGINT      NOT NULL,
+    created_date_time TIMESTAMP   NOT NULL
+) PARTITION BY RANGE (created_date_time);
+
+-- Catches rows of months without a partition. The archival job creates partitions ahead of time, so it stays
+-- empty; a month partition cannot be created while rows of that month sit in the default partition.
+CREATE TABLE transaction_default PARTITION OF transaction DEFAULT;
+
+-- One partition for every month holding transactions, plus the current and the next month.
+DO
+$$
+    DECLARE
+        first_day DATE;
+    BEGIN
+        FOR first_day IN
+            SELECT DISTINCT date_trunc('month', created_date_time)::DATE
+            FROM transaction_unpartitioned
+            UNION
+            SELECT date_trunc('month', now())::DATE
+            UNION
+            SELECT (date_trunc('month', now()) + INTERVAL '1 month')::DATE
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF transaction FOR VALUES FROM (%L) TO (%L)',
+                               'transaction_' || to_char(first_day, 'YYYY_MM'), first_day, first_day + INTERVAL '1 month');
+            END LOOP;
+    END
+$$;
+
+INSERT INTO transaction (id, transaction_type, approval_code, amount, account_id, created_date_time)
+SELECT id, transaction_type, approval_code, amount, account_id, created_date_time
+FROM transaction_unpartitioned;
+
+DROP TABLE transaction_unpartitioned;
+
+ALTER TABLE transaction ADD CONSTRAINT pk_transaction PRIMARY KEY (id, created_date_time);
+
+ALTER TABLE transaction ADD CONSTRAINT fk_transaction_account FOREIGN KEY (account_id) REFERENCES account (id);
+
+-- Created on the partitioned table, so every partition, present and future, gets its own copy.
+CREATE INDEX ix_transaction_account_created ON transaction (account_id, created_date_time, id);
+
+CREATE INDEX ix_transaction_approval_code ON transaction (approval_code);
@@ -0,0 +1,15 @@
+-- Transactions are an append-only ledger: rows are inserted and never changed or deleted one by one.
+-- Archiving a month drops its whole partition, which does not fire row triggers.
+
+CREATE FUNCTION reject_ledger_change() RETURNS TRIGGER AS
+$$
+BEGIN
+    RAISE EXCEPTION 'The transaction ledger is append-only, % is not allowed', TG_OP;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tr_transaction_append_only
+    BEFORE UPDATE OR DELETE
+    ON transaction
+    FOR EACH ROW
+EXECUTE FUNCTION reject_ledger_change();
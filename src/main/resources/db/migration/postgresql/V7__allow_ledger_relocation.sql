@@ -0,0 +1,12 @@
+-- Moving an account to another shard deletes its transactions from the shard it leaves. The rebalance switches
+-- the deletion on for its own database transaction only; every other change to the ledger is still rejected.
+
+CREATE OR REPLACE FUNCTION reject_ledger_change() RETURNS TRIGGER AS
+$$
+BEGIN
+    IF TG_OP = 'DELETE' AND current_setting('banking.ledger_relocation', true) = 'on' THEN
+        RETURN OLD;
+    END IF;
+    RAISE EXCEPTION 'The transaction ledger is append-only, % is not allowed', TG_OP;
+END
+$$ LANGUAGE plpgsql;
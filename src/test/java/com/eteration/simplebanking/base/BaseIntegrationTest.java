@@ -0,0 +1,10 @@
+package com.eteration.simplebanking.base;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles(value = "test")
+public abstract class BaseIntegrationTest {
+
+}
@@ -0,0 +1,33 @@
+package com.eteration.simplebanking.base;
+
+import com.eteration.simplebanking.metrics.sql.SqlStatistics;
+import com.eteration.simplebanking.metrics.sql.SqlStatisticsHolder;
+
+/**
+ * Test utility counting the SQL statements an action executes on the current thread,
+ * so tests can assert exact statement counts per operation.
+ */
+public final class SqlStatementCounter {
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * Runs an action and counts the SQL statements it executes.
+     *
+     * @param action The action to run.
+     * @return The SQL statistics of the action.
+     */
+    public static SqlStatistics count(Runnable action) {
+        SqlStatistics previous = SqlStatisticsHolder.current();
+        SqlStatistics statistics = new SqlStatistics();
+        SqlStatisticsHolder.set(statistics);
+        try {
+            action.run();
+        } finally {
+            SqlStatisticsHolder.set(previous);
+        }
+        return statistics;
+    }
+
+}
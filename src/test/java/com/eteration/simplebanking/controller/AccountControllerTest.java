@@ -2,24 +2,38 @@ package com.eteration.simplebanking.controller;
 
 import com.eteration.simplebanking.base.BaseControllerTest;
 import com.eteration.simplebanking.dto.AccountDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryDTO;
+import com.eteration.simplebanking.exception.IdempotencyKeyReusedException;
+import com.eteration.simplebanking.exception.ServiceOverloadedException;
 import com.eteration.simplebanking.mapper.AccountMapper;
+import com.eteration.simplebanking.model.enums.TransactionType;
 import com.eteration.simplebanking.payload.request.CreateCreditRequest;
 import com.eteration.simplebanking.payload.request.CreatePhoneBillPaymentRequest;
+import com.eteration.simplebanking.payload.request.CreateTransferRequest;
 import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
 import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.request.StatementExportRequest;
+import com.eteration.simplebanking.payload.request.TransactionHistoryRequest;
 import com.eteration.simplebanking.payload.response.AccountDetailInfo;
 import com.eteration.simplebanking.payload.response.CreatedAccountResponse;
+import com.eteration.simplebanking.payload.response.TransactionHistoryResponse;
 import com.eteration.simplebanking.payload.response.TransactionResponse;
 import com.eteration.simplebanking.services.AccountService;
+import com.eteration.simplebanking.services.export.StatementFormat;
+import com.eteration.simplebanking.services.idempotency.IdempotencyStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 
@@ -54,7 +68,7 @@ class AccountControllerTest extends BaseControllerTest {
                 .owner(request.getOwner())
                 .accountNumber("123456")
                 .createdDateTime(LocalDateTime.now())
-                .balance(0.0)
+                .balance(0)
                 .transactionDTOs(new ArrayList<>())
                 .build();
 
@@ -71,9 +85,13 @@ class AccountControllerTest extends BaseControllerTest {
         when(accountMapper.toAccountResponse(accountDTO)).thenReturn(createdAccountResponse);
 
         // then
-        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/create")
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/create")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.owner").value("John Doe"))
@@ -93,7 +111,7 @@ class AccountControllerTest extends BaseControllerTest {
                 .owner("John Doe")
                 .accountNumber(accountNumber)
                 .createdDateTime(LocalDateTime.now())
-                .balance(0.0)
+                .balance(12345)
                 .transactionDTOs(new ArrayList<>())
                 .build();
 
@@ -110,22 +128,108 @@ class AccountControllerTest extends BaseControllerTest {
         when(accountMapper.toAccountDetailInfo(accountDTO)).thenReturn(accountDetailInfo);
 
         // then
-        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/account/account-number/{accountNumber}", accountNumber))
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/account/account-number/{accountNumber}", accountNumber))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.owner").value("John Doe"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.accountNumber").isString())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").isNumber())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.balance").value(123.45))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.transactionDTOs").isArray());
     }
 
+    @Test
+    public void givenAccountNumber_WhenTransactionHistoryRequested_ThenTransactionHistoryResponse() throws Exception {
+
+        // Given
+        String accountNumber = "123456789";
+
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder()
+                .accountNumber(accountNumber)
+                .cursor("cursor")
+                .size(5)
+                .transactionType(TransactionType.DepositTransaction)
+                .build();
+
+        TransactionHistoryDTO transactionHistoryDTO = TransactionHistoryDTO.builder()
+                .accountNumber(accountNumber)
+                .transactionDTOs(new ArrayList<>())
+                .nextCursor("nextCursor")
+                .build();
+
+        TransactionHistoryResponse transactionHistoryResponse = TransactionHistoryResponse.builder()
+                .accountNumber(transactionHistoryDTO.getAccountNumber())
+                .transactionDTOs(transactionHistoryDTO.getTransactionDTOs())
+                .nextCursor(transactionHistoryDTO.getNextCursor())
+                .build();
+
+        // when
+        when(accountService.getTransactionHistory(request)).thenReturn(transactionHistoryDTO);
+        when(accountMapper.toTransactionHistoryResponse(transactionHistoryDTO)).thenReturn(transactionHistoryResponse);
+
+        // then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/account/account-number/{accountNumber}/transactions", accountNumber)
+                        .param("cursor", "cursor")
+                        .param("size", "5")
+                        .param("transactionType", "DepositTransaction"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.accountNumber").value(accountNumber))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.transactionDTOs").isArray())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value("nextCursor"));
+    }
+
+    @Test
+    public void givenAccountNumber_WhenStatementExportRequested_ThenStatementIsStreamed() throws Exception {
+
+        // Given
+        String accountNumber = "123-456";
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+        StatementExportRequest request = StatementExportRequest.builder()
+                .accountNumber(accountNumber)
+                .from(from)
+                .to(to)
+                .format(StatementFormat.NDJSON)
+                .build();
+
+        String body = "{\"amount\":100.0}\n";
+
+        // when
+        when(accountService.exportStatement(request))
+                .thenReturn(outputStream -> outputStream.write(body.getBytes(StandardCharsets.UTF_8)));
+
+        // then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/account/account-number/{accountNumber}/statement", accountNumber)
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00")
+                        .param("format", "NDJSON"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"))
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"statement-123-456.ndjson\""))
+                .andExpect(MockMvcResultMatchers.content().string(body));
+    }
+
     @Test
     public void givenCreateCreditRequest_whenCredit_ReturnTransactionResponse() throws Exception {
 
         // Given
         CreateCreditRequest createCreditRequest = CreateCreditRequest.builder()
                 .accountNumber("123456789")
-                .amount(100.0)
+                .amount(10000)
                 .build();
 
         TransactionResponse transactionResponse = TransactionResponse.builder()
@@ -134,25 +238,40 @@ class AccountControllerTest extends BaseControllerTest {
                 .build();
 
         // When
-        when(accountService.credit(createCreditRequest)).thenReturn(transactionResponse);
+        when(accountService.credit(createCreditRequest, null)).thenReturn(transactionResponse);
 
         // Then
-        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/credit")
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/credit")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(createCreditRequest)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("OK"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.approvalCode").value("approvalCode"));
     }
 
+    @Test
+    public void givenAmountWithTooManyDecimalPlaces_whenCredit_ReturnBadRequest() throws Exception {
+
+        // Then
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/credit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountNumber\":\"123456789\",\"amount\":10.005}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Malformed JSON request"));
+    }
+
     @Test
     public void givenCreateWithdrawalRequest_whenDebit_ReturnTransactionResponse() throws Exception {
 
         // Given
         CreateWithdrawalRequest createWithdrawalRequest = CreateWithdrawalRequest.builder()
                 .accountNumber("123456789")
-                .amount(50.0)
+                .amount(5000)
                 .build();
 
         TransactionResponse transactionResponse = TransactionResponse.builder()
@@ -160,12 +279,16 @@ class AccountControllerTest extends BaseControllerTest {
                 .approvalCode("approvalCode")
                 .build();
         // When
-        when(accountService.debit(createWithdrawalRequest)).thenReturn(transactionResponse);
+        when(accountService.debit(createWithdrawalRequest, null)).thenReturn(transactionResponse);
 
         // Then
-        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/debit")
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/debit")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(createWithdrawalRequest)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("OK"))
@@ -178,7 +301,7 @@ class AccountControllerTest extends BaseControllerTest {
         // Given
         CreatePhoneBillPaymentRequest createPhoneBillPaymentRequest = CreatePhoneBillPaymentRequest.builder()
                 .accountNumber("123456789")
-                .amount(50.0)
+                .amount(5000)
                 .build();
 
         TransactionResponse transactionResponse = TransactionResponse.builder()
@@ -187,12 +310,16 @@ class AccountControllerTest extends BaseControllerTest {
                 .build();
 
         // When
-        when(accountService.payment(createPhoneBillPaymentRequest)).thenReturn(transactionResponse);
+        when(accountService.payment(createPhoneBillPaymentRequest, null)).thenReturn(transactionResponse);
 
         // Then
-        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/payment")
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/payment")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(createPhoneBillPaymentRequest)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("OK"))
@@ -200,4 +327,117 @@ class AccountControllerTest extends BaseControllerTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void givenSaturatedService_whenCredit_ReturnServiceUnavailableWithRetryAfter() throws Exception {
+
+        // Given
+        CreateCreditRequest createCreditRequest = CreateCreditRequest.builder()
+                .accountNumber("123456789")
+                .amount(10000)
+                .build();
+
+        // When
+        when(accountService.credit(createCreditRequest, null))
+                .thenThrow(new ServiceOverloadedException("The posting executor is saturated, please retry later.", Duration.ofMillis(1500)));
+
+        // Then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/credit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createCreditRequest)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.statusCode").value(503));
+    }
+
+    @Test
+    public void givenIdempotencyKeyHeader_whenCredit_PassKeyToService() throws Exception {
+
+        // Given
+        CreateCreditRequest createCreditRequest = CreateCreditRequest.builder()
+                .accountNumber("123456789")
+                .amount(10000)
+                .build();
+
+        TransactionResponse transactionResponse = TransactionResponse.builder()
+                .status("OK")
+                .approvalCode("approvalCode")
+                .build();
+
+        // When
+        when(accountService.credit(createCreditRequest, "key-1")).thenReturn(transactionResponse);
+
+        // Then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/credit")
+                        .header(IdempotencyStore.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createCreditRequest)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.approvalCode").value("approvalCode"));
+    }
+
+    @Test
+    public void givenReusedIdempotencyKey_whenCredit_ReturnUnprocessableEntity() throws Exception {
+
+        // Given
+        CreateCreditRequest createCreditRequest = CreateCreditRequest.builder()
+                .accountNumber("123456789")
+                .amount(10000)
+                .build();
+
+        // When
+        when(accountService.credit(createCreditRequest, "key-1"))
+                .thenThrow(new IdempotencyKeyReusedException("Idempotency Key Already Used For Another Posting : key-1"));
+
+        // Then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/credit")
+                        .header(IdempotencyStore.HEADER, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createCreditRequest)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.statusCode").value(422));
+    }
+
+    @Test
+    public void givenCreateTransferRequest_whenTransfer_ReturnTransactionResponse() throws Exception {
+
+        // Given
+        CreateTransferRequest createTransferRequest = CreateTransferRequest.builder()
+                .fromAccountNumber("123456789")
+                .toAccountNumber("987654321")
+                .amount(10000)
+                .build();
+
+        TransactionResponse transactionResponse = TransactionResponse.builder()
+                .status("OK")
+                .approvalCode("approvalCode")
+                .build();
+
+        // When
+        when(accountService.transfer(createTransferRequest)).thenReturn(transactionResponse);
+
+        // Then
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/account/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createTransferRequest)))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("OK"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.approvalCode").value("approvalCode"));
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.eteration.simplebanking.metrics;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.exception.AccountNotFoundException;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.services.AccountService;
+import com.eteration.simplebanking.services.striping.StripedBalances;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationMetricsAspectTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StripedBalances stripedBalances;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void givenOperations_whenExecuted_ThenTimersAreTaggedByOperationAndOutcome() {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+
+        long credits = operationCount("credit", "ok");
+        long rejectedDebits = operationCount("debit", "insufficient_balance");
+        long missingAccounts = operationCount("get", "not_found");
+
+        // When
+        accountService.credit(CreateCreditRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(1000)
+                .build());
+        assertThrows(InsufficientBalanceException.class, () -> accountService.debit(CreateWithdrawalRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(5000)
+                .build()));
+        assertThrows(AccountNotFoundException.class, () -> accountService.getAccountByAccountNumber("000-000"));
+
+        // Then
+        assertEquals(credits + 1, operationCount("credit", "ok"));
+        assertEquals(rejectedDebits + 1, operationCount("debit", "insufficient_balance"));
+        assertEquals(missingAccounts + 1, operationCount("get", "not_found"));
+    }
+
+    @Test
+    public void givenPosting_whenExecuted_ThenDatabaseAndJvmTimeAddUpToOperationTime() {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+
+        Timer operation = meterRegistry.get(OperationMetricsAspect.OPERATION_METRIC)
+                .tags("operation", "create", "outcome", "ok").timer();
+        Timer db = meterRegistry.get(OperationMetricsAspect.OPERATION_DB_METRIC).tag("operation", "create").timer();
+        Timer jvm = meterRegistry.get(OperationMetricsAspect.OPERATION_JVM_METRIC).tag("operation", "create").timer();
+
+        // When
+        double operationNanos = operation.totalTime(TimeUnit.NANOSECONDS);
+        double dbNanos = db.totalTime(TimeUnit.NANOSECONDS);
+        double jvmNanos = jvm.totalTime(TimeUnit.NANOSECONDS);
+
+        // Then
+        assertTrue(dbNanos > 0);
+        assertEquals(operationNanos, dbNanos + jvmNanos, operationNanos * 0.01);
+        assertTrue(meterRegistry.get(OperationMetricsAspect.REPOSITORY_METRIC)
+                .tags("repository", "AccountRepository", "method", "save").timer().count() > 0);
+        assertTrue(meterRegistry.get(OperationMetricsAspect.COMPLETION_METRIC)
+                .tag("status", "committed").timer().count() > 0);
+        assertNotNull(accountNumber);
+    }
+
+    @Test
+    public void givenKeyedPosting_whenExecuted_ThenIdempotencyKeyClaimCountsAsDatabaseTime() {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+        long keyClaims = repositoryCount("IdempotencyKeyRepository", "claim");
+        double dbNanos = operationDbNanos("credit");
+
+        // When
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(100).build(), "metrics-credit-key");
+
+        // Then
+        assertEquals(keyClaims + 1, repositoryCount("IdempotencyKeyRepository", "claim"));
+        assertTrue(operationDbNanos("credit") > dbNanos);
+    }
+
+    @Test
+    public void givenStripedAccount_whenDebitBorrowsFromTheSlots_ThenSlotCallsCountAsDatabaseTime() {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(1000).build());
+        stripedBalances.stripe(accountNumber, 4);
+        long slotChanges = repositoryCount("BalanceSlotRepository", "applyChange");
+        long slotLocks = repositoryCount("BalanceSlotRepository", "lockSlots");
+        double dbNanos = operationDbNanos("debit");
+
+        // When
+        accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(900).build());
+
+        // Then
+        assertTrue(repositoryCount("BalanceSlotRepository", "applyChange") > slotChanges);
+        assertTrue(repositoryCount("BalanceSlotRepository", "lockSlots") > slotLocks);
+        assertTrue(operationDbNanos("debit") > dbNanos);
+        assertEquals(100L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+    }
+
+    private long repositoryCount(String repository, String method) {
+        Timer timer = meterRegistry.find(OperationMetricsAspect.REPOSITORY_METRIC)
+                .tags("repository", repository, "method", method).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double operationDbNanos(String operation) {
+        Timer timer = meterRegistry.find(OperationMetricsAspect.OPERATION_DB_METRIC).tag("operation", operation).timer();
+        return timer == null ? 0 : timer.totalTime(TimeUnit.NANOSECONDS);
+    }
+
+    private long operationCount(String operation, String outcome) {
+        Timer timer = meterRegistry.find(OperationMetricsAspect.OPERATION_METRIC)
+                .tags("operation", operation, "outcome", outcome).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.eteration.simplebanking.metrics.sql;
+
+import com.eteration.simplebanking.base.BaseControllerTest;
+import com.eteration.simplebanking.base.SqlStatementCounter;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.services.AccountService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatisticsFilterTest extends BaseControllerTest {
+
+    private static final String ACCOUNT_URI = "/api/v1/account/account-number/{accountNumber}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void givenRequest_whenHandled_ThenStatementsAndRowsAreRecordedForItsEndpoint() throws Exception {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+
+        long requests = statements().map(DistributionSummary::count).orElse(0L);
+        double recordedStatements = statements().map(DistributionSummary::totalAmount).orElse(0.0);
+
+        // When
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(ACCOUNT_URI, accountNumber))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        // Then, the snapshot lookup and the recent transactions, counted on the lookup executor
+        assertEquals(requests + 1, statements().orElseThrow().count());
+        assertEquals(recordedStatements + 2, statements().orElseThrow().totalAmount());
+        assertTrue(meterRegistry.get(SqlStatisticsFilter.ROWS_METRIC).tags("method", "GET", "uri", ACCOUNT_URI)
+                .summary().totalAmount() >= 1);
+    }
+
+    @Test
+    public void givenCachedAccount_whenRead_ThenOnlyRecentTransactionsAreQueried() {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+
+        // When
+        SqlStatistics first = SqlStatementCounter.count(() -> accountService.getAccountByAccountNumber(accountNumber));
+        SqlStatistics second = SqlStatementCounter.count(() -> accountService.getAccountByAccountNumber(accountNumber));
+
+        // Then
+        assertEquals(2, first.getSelects());
+        assertEquals(1, first.getRows());
+        assertEquals(1, second.getSelects());
+        assertEquals(0, second.getRows());
+    }
+
+    private Optional<DistributionSummary> statements() {
+        return Optional.ofNullable(meterRegistry.find(SqlStatisticsFilter.STATEMENTS_METRIC)
+                .tags("method", "GET", "uri", ACCOUNT_URI)
+                .summary());
+    }
+
+}
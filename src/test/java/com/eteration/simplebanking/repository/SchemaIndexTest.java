@@ -0,0 +1,131 @@
+package com.eteration.simplebanking.repository;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.base.SqlStatementCounter;
+import com.eteration.simplebanking.dto.HistoryCursor;
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.metrics.sql.SqlStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Explains the statements the repositories execute against H2 in PostgreSQL mode
+ * and checks that they are served by the indexes of the migrations.
+ */
+class SchemaIndexTest extends BaseIntegrationTest {
+
+    private static final long ACCOUNT_ID = -5;
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into account (id, account_number, balance, version) " +
+                    "select -\"X\", 'explain-' || \"X\", 0, 0 from system_range(1, 100)");
+            jdbcTemplate.update("insert into transaction (id, transaction_type, amount, account_id, created_date_time, approval_code) " +
+                    "select -\"X\", 'DepositTransaction', 100, -1 - mod(\"X\", 100), " +
+                    "cast(? as timestamp) + \"X\" * interval '1' minute, 'explain-' || \"X\" from system_range(1, 5000)", START);
+        });
+        // gives the optimizer the selectivity of the indexes, as a production database would have it
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from transaction where id < 0");
+            jdbcTemplate.update("delete from account where id < 0");
+        });
+    }
+
+    @Test
+    public void givenAccountNumber_whenSnapshotLoaded_ThenAccountNumberIndexIsUsed() {
+
+        // When
+        SqlStatistics sqlStatistics = SqlStatementCounter.count(() -> accountRepository.findSnapshotByAccountNumber("explain-5"));
+
+        // Then
+        assertUsesIndex("ux_account_account_number", sqlStatistics, "explain-5");
+
+    }
+
+    @Test
+    public void givenCursor_whenHistoryPageLoaded_ThenAccountCreationIndexIsUsed() {
+
+        // Given
+        LocalDateTime cursorTime = START.plusDays(2);
+        TransactionHistoryCriteria criteria = TransactionHistoryCriteria.builder()
+                .cursor(new HistoryCursor(cursorTime, -2800L))
+                .build();
+
+        // When
+        SqlStatistics sqlStatistics = SqlStatementCounter.count(() -> transactionRepository.findHistoryPage(ACCOUNT_ID, criteria, 21));
+
+        // Then
+        assertUsesIndex("ix_transaction_account_created", sqlStatistics, ACCOUNT_ID, cursorTime, cursorTime, -2800L, 21);
+
+    }
+
+    @Test
+    public void givenRange_whenStatementStreamed_ThenAccountCreationIndexIsUsed() {
+
+        // Given
+        LocalDateTime from = START.plusDays(1);
+        LocalDateTime to = START.plusDays(2);
+
+        // When
+        SqlStatistics sqlStatistics = SqlStatementCounter.count(() -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TransactionDTO> statement = transactionRepository.streamStatement(ACCOUNT_ID, from, to)) {
+                statement.forEach(transaction -> { });
+            }
+        }));
+
+        // Then
+        assertUsesIndex("ix_transaction_account_created", sqlStatistics, ACCOUNT_ID, from, to);
+
+    }
+
+    @Test
+    public void givenApprovalCode_whenTransactionLookedUp_ThenApprovalCodeIndexIsUsed() {
+
+        // When
+        String plan = jdbcTemplate.queryForObject("explain select id from transaction where approval_code = ?",
+                String.class, "explain-42");
+
+        // Then
+        assertTrue(plan.contains("/* public.ix_transaction_approval_code:"), plan);
+
+    }
+
+    private void assertUsesIndex(String index, SqlStatistics sqlStatistics, Object... parameters) {
+        assertEquals(1, sqlStatistics.getSelects());
+        String sql = sqlStatistics.executedStatements().iterator().next();
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class, parameters);
+        assertTrue(plan.contains("/* public." + index + ":"), plan);
+    }
+
+}
@@ -0,0 +1,397 @@
+package com.eteration.simplebanking.services;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.base.SqlStatementCounter;
+import com.eteration.simplebanking.dto.AccountDTO;
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryDTO;
+import com.eteration.simplebanking.exception.AccountNotFoundException;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.metrics.sql.SqlStatistics;
+import com.eteration.simplebanking.model.Account;
+import com.eteration.simplebanking.model.DepositTransaction;
+import com.eteration.simplebanking.model.Transaction;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreatePhoneBillPaymentRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.request.StatementExportRequest;
+import com.eteration.simplebanking.payload.request.TransactionHistoryRequest;
+import com.eteration.simplebanking.repository.AccountRepository;
+import com.eteration.simplebanking.repository.TransactionRepository;
+import com.eteration.simplebanking.services.export.StatementFormat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountServiceIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    public void givenGrowingHistory_whenPosting_ThenStatementCountStaysConstant() {
+
+        // Given
+        AccountDTO accountDTO = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build());
+        String accountNumber = accountDTO.getAccountNumber();
+
+        assertPostingStatements(SqlStatementCounter.count(() -> accountService.credit(CreateCreditRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(10000)
+                .build())));
+
+        // When
+        addHistory(accountNumber, 500);
+
+        SqlStatistics creditStatements = SqlStatementCounter.count(() -> accountService.credit(CreateCreditRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(10000)
+                .build()));
+
+        SqlStatistics debitStatements = SqlStatementCounter.count(() -> accountService.debit(CreateWithdrawalRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(1000)
+                .build()));
+
+        SqlStatistics paymentStatements = SqlStatementCounter.count(() -> accountService.payment(CreatePhoneBillPaymentRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(1000)
+                .build()));
+
+        // Then
+        assertPostingStatements(creditStatements);
+        assertPostingStatements(debitStatements);
+        assertPostingStatements(paymentStatements);
+        assertEquals(18000, accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance());
+
+    }
+
+    @Test
+    public void givenLongHistory_whenPagingWithCursor_ThenEveryTransactionIsReturnedOnceMostRecentFirst() {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+
+        for (int i = 0; i < 25; i++) {
+            accountService.credit(CreateCreditRequest.builder()
+                    .accountNumber(accountNumber)
+                    .amount(200)
+                    .build());
+            accountService.debit(CreateWithdrawalRequest.builder()
+                    .accountNumber(accountNumber)
+                    .amount(100)
+                    .build());
+        }
+
+        // When
+        List<TransactionDTO> all = new ArrayList<>();
+        List<TransactionDTO> deposits = new ArrayList<>();
+        readHistory(accountNumber, null, all);
+        readHistory(accountNumber, TransactionType.DepositTransaction, deposits);
+
+        // Then
+        assertEquals(50, all.size());
+        assertEquals(50, all.stream().map(TransactionDTO::getApprovalCode).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            assertFalse(all.get(i).getCreatedDateTime().isAfter(all.get(i - 1).getCreatedDateTime()));
+        }
+
+        assertEquals(25, deposits.size());
+        assertTrue(deposits.stream().allMatch(dto -> dto.getTransactionType() == TransactionType.DepositTransaction));
+
+        AccountDTO accountDTO = accountService.getAccountByAccountNumber(accountNumber);
+        assertEquals(10, accountDTO.getTransactionDTOs().size());
+        assertEquals(all.get(0).getApprovalCode(), accountDTO.getTransactionDTOs().get(0).getApprovalCode());
+
+    }
+
+    @Test
+    public void givenConcurrentPostings_whenHammeringOneAccount_ThenFinalBalanceIsExact() throws Exception {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+
+        accountService.credit(CreateCreditRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(100000)
+                .build());
+
+        int threads = 16;
+        int postingsPerThread = 50;
+
+        // When
+        runConcurrently(threads, () -> {
+            for (int i = 0; i < postingsPerThread; i++) {
+                accountService.credit(CreateCreditRequest.builder()
+                        .accountNumber(accountNumber)
+                        .amount(1000)
+                        .build());
+                accountService.debit(CreateWithdrawalRequest.builder()
+                        .accountNumber(accountNumber)
+                        .amount(400)
+                        .build());
+                accountService.payment(CreatePhoneBillPaymentRequest.builder()
+                        .accountNumber(accountNumber)
+                        .amount(100)
+                        .build());
+            }
+            return null;
+        });
+
+        // Then
+        assertEquals(100000 + threads * postingsPerThread * (1000 - 400 - 100),
+                accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance());
+
+    }
+
+    @Test
+    public void givenConcurrentDebits_whenExceedingBalance_ThenOnlyCoveredDebitsSucceed() throws Exception {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+
+        accountService.credit(CreateCreditRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(10000)
+                .build());
+
+        AtomicInteger rejected = new AtomicInteger();
+
+        // When
+        runConcurrently(40, () -> {
+            try {
+                accountService.debit(CreateWithdrawalRequest.builder()
+                        .accountNumber(accountNumber)
+                        .amount(1000)
+                        .build());
+            } catch (InsufficientBalanceException exception) {
+                rejected.incrementAndGet();
+            }
+            return null;
+        });
+
+        // Then
+        assertEquals(30, rejected.get());
+        assertEquals(0, accountRepository.findByAccountNumber(accountNumber).orElseThrow().getBalance());
+
+    }
+
+    @Test
+    public void givenConcurrentReaders_whenPosting_ThenReadAfterPostingNeverSeesStaleBalance() throws Exception {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+
+        AtomicBoolean posting = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            readers.submit(() -> {
+                while (posting.get()) {
+                    accountService.getAccountByAccountNumber(accountNumber);
+                }
+            });
+        }
+
+        // When
+        try {
+            for (int i = 1; i <= 100; i++) {
+                accountService.credit(CreateCreditRequest.builder()
+                        .accountNumber(accountNumber)
+                        .amount(100)
+                        .build());
+
+                // Then
+                assertEquals(i * 100L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+            }
+        } finally {
+            posting.set(false);
+            readers.shutdown();
+            assertTrue(readers.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+    }
+
+    private void readHistory(String accountNumber, TransactionType transactionType, List<TransactionDTO> target) {
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionHistoryDTO page = accountService.getTransactionHistory(TransactionHistoryRequest.builder()
+                    .accountNumber(accountNumber)
+                    .cursor(cursor)
+                    .size(7)
+                    .transactionType(transactionType)
+                    .build());
+            assertTrue(page.getTransactionDTOs().size() <= 7);
+            target.addAll(page.getTransactionDTOs());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null && pages < 100);
+    }
+
+    private void runConcurrently(int threads, Callable<Void> task) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executorService.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void givenManyTransactions_whenSavedTogether_ThenInsertsAreBatched() {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+
+        // When
+        SqlStatistics sqlStatistics = SqlStatementCounter.count(() -> addHistory(accountNumber, 200));
+
+        // Then
+        assertEquals(200 / 50, sqlStatistics.getInserts());
+
+    }
+
+    @Test
+    public void givenTransactions_whenExportingStatement_ThenRangeIsStreamedOldestFirstInOneQuery() throws Exception {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+
+        for (int i = 1; i <= 3; i++) {
+            accountService.credit(CreateCreditRequest.builder()
+                    .accountNumber(accountNumber)
+                    .amount(i * 10025L)
+                    .build());
+        }
+        LocalDateTime to = LocalDateTime.now().plusMinutes(1);
+
+        // When
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        SqlStatistics sqlStatistics = SqlStatementCounter.count(() -> export(accountNumber, from, to, StatementFormat.CSV, csv));
+        export(accountNumber, from, to, StatementFormat.NDJSON, ndjson);
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        export(accountNumber, to, to.plusDays(1), StatementFormat.CSV, empty);
+
+        // Then
+        String[] csvLines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, csvLines.length);
+        assertEquals("createdDateTime,transactionType,amount,approvalCode", csvLines[0]);
+        assertTrue(csvLines[1].contains(",DepositTransaction,100.25,"));
+        assertTrue(csvLines[3].contains(",DepositTransaction,300.75,"));
+        // the account snapshot lookup and the statement cursor
+        assertEquals(2, sqlStatistics.getSelects());
+        assertEquals(1 + 3, sqlStatistics.getRows());
+
+        String[] ndjsonLines = ndjson.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, ndjsonLines.length);
+        for (String line : ndjsonLines) {
+            assertTrue(line.startsWith("{") && line.endsWith("}"));
+        }
+        assertTrue(ndjsonLines[1].contains("200.5"));
+
+        assertEquals("createdDateTime,transactionType,amount,approvalCode\n", empty.toString(StandardCharsets.UTF_8));
+
+    }
+
+    @Test
+    public void givenUnknownAccount_whenExportingStatement_ThenFailsBeforeStreaming() {
+
+        // Given
+        StatementExportRequest request = StatementExportRequest.builder()
+                .accountNumber("000-000")
+                .from(LocalDateTime.now().minusDays(1))
+                .to(LocalDateTime.now())
+                .format(StatementFormat.CSV)
+                .build();
+
+        // Then
+        assertThrows(AccountNotFoundException.class, () -> accountService.exportStatement(request));
+
+    }
+
+    private void export(String accountNumber, LocalDateTime from, LocalDateTime to, StatementFormat format,
+                        ByteArrayOutputStream target) {
+        try {
+            accountService.exportStatement(StatementExportRequest.builder()
+                    .accountNumber(accountNumber)
+                    .from(from)
+                    .to(to)
+                    .format(format)
+                    .build()).writeTo(target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Asserts the statements of a posting: the account snapshot lookup, the conditional balance update and the
+     * transaction insert, plus at most one call fetching the next block of ids from the pooled sequence.
+     */
+    private void assertPostingStatements(SqlStatistics sqlStatistics) {
+        assertEquals(1, sqlStatistics.getSelects());
+        assertEquals(1, sqlStatistics.getUpdates());
+        assertEquals(1, sqlStatistics.getInserts());
+        assertEquals(0, sqlStatistics.getDeletes());
+        assertTrue(sqlStatistics.getStatements() <= 4);
+    }
+
+    private void addHistory(String accountNumber, int size) {
+        Account account = accountRepository.findByAccountNumber(accountNumber).orElseThrow();
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Transaction transaction = new DepositTransaction(0);
+            transaction.setApprovalCode("history-" + i);
+            transaction.setAccount(account);
+            history.add(transaction);
+        }
+        transactionRepository.saveAll(history);
+    }
+
+}
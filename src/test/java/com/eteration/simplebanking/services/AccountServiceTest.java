@@ -1,28 +1,65 @@
 package com.eteration.simplebanking.services;
 
 import com.eteration.simplebanking.base.BaseServiceTest;
+import com.eteration.simplebanking.config.AccountCacheProperties;
+import com.eteration.simplebanking.config.HistoryProperties;
+import com.eteration.simplebanking.config.PostingLockProperties;
+import com.eteration.simplebanking.config.ReplicaProperties;
+import com.eteration.simplebanking.config.ShardingProperties;
 import com.eteration.simplebanking.dto.AccountDTO;
+import com.eteration.simplebanking.dto.AccountPostedEvent;
+import com.eteration.simplebanking.dto.AccountSnapshot;
+import com.eteration.simplebanking.dto.HistoryCursor;
+import com.eteration.simplebanking.dto.IdempotentPosting;
 import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.dto.TransactionHistoryDTO;
 import com.eteration.simplebanking.exception.AccountNotFoundException;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.exception.InvalidTransferException;
 import com.eteration.simplebanking.mapper.TransactionMapper;
 import com.eteration.simplebanking.model.Account;
+import com.eteration.simplebanking.model.DepositTransaction;
+import com.eteration.simplebanking.model.Transaction;
+import com.eteration.simplebanking.model.WithdrawalTransaction;
+import com.eteration.simplebanking.model.enums.TransactionType;
 import com.eteration.simplebanking.payload.request.CreateCreditRequest;
 import com.eteration.simplebanking.payload.request.CreatePhoneBillPaymentRequest;
+import com.eteration.simplebanking.payload.request.CreateTransferRequest;
 import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
 import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.request.TransactionHistoryRequest;
 import com.eteration.simplebanking.payload.response.TransactionResponse;
 import com.eteration.simplebanking.repository.AccountRepository;
 import com.eteration.simplebanking.repository.TransactionRepository;
+import com.eteration.simplebanking.services.allocation.AccountNumberAllocator;
+import com.eteration.simplebanking.services.approval.ApprovalCodeGenerator;
+import com.eteration.simplebanking.services.approval.UuidApprovalCodeGenerator;
+import com.eteration.simplebanking.services.archive.TransactionArchive;
+import com.eteration.simplebanking.services.cache.AccountSnapshotCache;
+import com.eteration.simplebanking.services.export.StatementExporter;
+import com.eteration.simplebanking.services.idempotency.IdempotencyStore;
+import com.eteration.simplebanking.services.lock.AccountStripedLock;
+import com.eteration.simplebanking.services.posting.PostingGroupCommitter;
+import com.eteration.simplebanking.services.replica.ReadYourWritesGuard;
+import com.eteration.simplebanking.services.sharding.ShardRouter;
+import com.eteration.simplebanking.services.striping.StripedBalances;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class AccountServiceTest extends BaseServiceTest {
@@ -39,6 +76,45 @@ class AccountServiceTest extends BaseServiceTest {
     @Mock
     private TransactionMapper transactionMapper;
 
+    @Spy
+    private HistoryProperties historyProperties = new HistoryProperties();
+
+    @Spy
+    private AccountStripedLock accountStripedLock = new AccountStripedLock(new PostingLockProperties(), new SimpleMeterRegistry());
+
+    @Mock
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Spy
+    private ApprovalCodeGenerator approvalCodeGenerator = new UuidApprovalCodeGenerator();
+
+    @Spy
+    private AccountSnapshotCache accountSnapshotCache = new AccountSnapshotCache(new AccountCacheProperties(), new SimpleMeterRegistry());
+
+    @Mock
+    private StatementExporter statementExporter;
+
+    @Mock
+    private TransactionArchive transactionArchive;
+
+    @Mock
+    private PostingGroupCommitter postingGroupCommitter;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private StripedBalances stripedBalances;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(new ShardingProperties(), null);
+
+    @Spy
+    private ReadYourWritesGuard readYourWritesGuard = new ReadYourWritesGuard(new ReplicaProperties());
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @Test
     public void givenCreatedAccountRequest_whenCreateAccount_ReturnSavedAccount() {
 
@@ -59,6 +135,7 @@ class AccountServiceTest extends BaseServiceTest {
 
 
         // When
+        when(accountNumberAllocator.allocate()).thenReturn("123-456");
         when(accountRepository.save(any(Account.class))).thenReturn(account);
         when(transactionMapper.toTransactionDTOList(any(ArrayList.class))).thenReturn(transactions);
 
@@ -70,11 +147,36 @@ class AccountServiceTest extends BaseServiceTest {
         assertEquals(account.getBalance(), accountDTO.getBalance());
         assertEquals(transactions, accountDTO.getTransactionDTOs());
 
+        verify(accountNumberAllocator, times(1)).allocate();
         verify(accountRepository,times(1)).save(any(Account.class));
         verify(transactionMapper, times(2)).toTransactionDTOList(any(ArrayList.class));
 
     }
 
+    @Test
+    public void givenAllocatedNumberTakenByExistingAccount_whenCreateAccount_ThenNextNumberIsUsed() {
+
+        // Given
+        CreatedAccountRequest request = CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build();
+
+        // When
+        when(accountNumberAllocator.allocate()).thenReturn("123-456", "654-321");
+        when(accountRepository.existsByAccountNumber("123-456")).thenReturn(true);
+        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Then
+        AccountDTO accountDTO = accountService.create(request);
+
+        assertEquals("654-321", accountDTO.getAccountNumber());
+
+        verify(accountNumberAllocator, times(2)).allocate();
+        verify(accountRepository).existsByAccountNumber("654-321");
+        verify(accountRepository, times(1)).save(argThat((Account account) -> "654-321".equals(account.getAccountNumber())));
+
+    }
+
     @Test
     public void givenAccountByAccountNumber_WhenAccountExist_ThenAccountDetailInfo() {
         String accountNumber = "123456789";
@@ -89,7 +191,7 @@ class AccountServiceTest extends BaseServiceTest {
                 .map(transactionMapper::toTransactionDTO)
                 .collect(Collectors.toList());
 
-        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber)).thenReturn(Optional.of(snapshotOf(account)));
 
         AccountDTO accountDTO = accountService.getAccountByAccountNumber(accountNumber);
 
@@ -98,7 +200,8 @@ class AccountServiceTest extends BaseServiceTest {
         assertEquals(account.getBalance(), accountDTO.getBalance());
         assertEquals(transactions, accountDTO.getTransactionDTOs());
 
-        verify(accountRepository,times(1)).findByAccountNumber(accountNumber);
+        verify(accountRepository,times(1)).findSnapshotByAccountNumber(accountNumber);
+        verify(transactionRepository,times(1)).findHistoryPage(eq(account.getId()), any(TransactionHistoryCriteria.class), eq(10));
 
     }
 
@@ -109,7 +212,7 @@ class AccountServiceTest extends BaseServiceTest {
         String accountNumber = "123456789";
 
         // Mock the behavior of the repository to return an empty optional, simulating an account not found
-        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.empty());
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber)).thenReturn(Optional.empty());
 
         // When and Then
         AccountNotFoundException exception = assertThrows(AccountNotFoundException.class, () -> {
@@ -126,13 +229,14 @@ class AccountServiceTest extends BaseServiceTest {
         String accountNumber = "12345";
         CreateCreditRequest  request = CreateCreditRequest.builder()
                 .accountNumber(accountNumber)
-                .amount(150.0)
+                .amount(15000)
                 .build();
 
         Account account = Account.builder()
+                .id(1L)
                 .accountNumber("123-456")
                 .owner("John Doe")
-                .balance(200.0)
+                .balance(20000)
                 .transactions(new HashSet<>())
                 .build();
 
@@ -148,7 +252,9 @@ class AccountServiceTest extends BaseServiceTest {
 
 
         // when
-        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber)).thenReturn(Optional.of(snapshotOf(account)));
+        when(accountRepository.applyBalanceChange(account.getId(), 15000)).thenReturn(1);
+        when(accountRepository.getById(account.getId())).thenReturn(account);
         uuidMockedStatic.when(UUID::randomUUID).thenReturn(mockUUID);
 
 
@@ -161,7 +267,11 @@ class AccountServiceTest extends BaseServiceTest {
         uuidMockedStatic.close();
 
         // verify
-        verify(accountRepository,times(1)).findByAccountNumber(accountNumber);
+        verify(accountRepository,times(1)).findSnapshotByAccountNumber(accountNumber);
+        verify(accountRepository,times(1)).applyBalanceChange(eq(account.getId()), anyLong());
+        verify(transactionRepository,times(1)).save(any(Transaction.class));
+        verify(applicationEventPublisher,times(1)).publishEvent(argThat((Object event) -> event instanceof AccountPostedEvent
+                && ((AccountPostedEvent) event).getBalanceChange() == 15000));
 
     }
 
@@ -172,13 +282,14 @@ class AccountServiceTest extends BaseServiceTest {
         String accountNumber = "12345";
         CreateWithdrawalRequest request = CreateWithdrawalRequest.builder()
                 .accountNumber(accountNumber)
-                .amount(20.0)
+                .amount(2000)
                 .build();
 
         Account account = Account.builder()
+                .id(1L)
                 .accountNumber("123-456")
                 .owner("John Doe")
-                .balance(100.0)
+                .balance(10000)
                 .transactions(new HashSet<>())
                 .build();
 
@@ -194,7 +305,9 @@ class AccountServiceTest extends BaseServiceTest {
 
 
         // when
-        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber)).thenReturn(Optional.of(snapshotOf(account)));
+        when(accountRepository.applyBalanceChange(account.getId(), -2000)).thenReturn(1);
+        when(accountRepository.getById(account.getId())).thenReturn(account);
         uuidMockedStatic.when(UUID::randomUUID).thenReturn(mockUUID);
 
 
@@ -207,7 +320,9 @@ class AccountServiceTest extends BaseServiceTest {
         uuidMockedStatic.close();
 
         // verify
-        verify(accountRepository,times(1)).findByAccountNumber(accountNumber);
+        verify(accountRepository,times(1)).findSnapshotByAccountNumber(accountNumber);
+        verify(accountRepository,times(1)).applyBalanceChange(eq(account.getId()), anyLong());
+        verify(transactionRepository,times(1)).save(any(Transaction.class));
 
     }
 
@@ -218,13 +333,14 @@ class AccountServiceTest extends BaseServiceTest {
         String accountNumber = "12345";
         CreatePhoneBillPaymentRequest request = CreatePhoneBillPaymentRequest.builder()
                 .accountNumber(accountNumber)
-                .amount(20.0)
+                .amount(2000)
                 .build();
 
         Account account = Account.builder()
+                .id(1L)
                 .accountNumber("123-456")
                 .owner("John Doe")
-                .balance(100.0)
+                .balance(10000)
                 .transactions(new HashSet<>())
                 .build();
 
@@ -240,7 +356,9 @@ class AccountServiceTest extends BaseServiceTest {
 
 
         // when
-        when(accountRepository.findByAccountNumber(accountNumber)).thenReturn(Optional.of(account));
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber)).thenReturn(Optional.of(snapshotOf(account)));
+        when(accountRepository.applyBalanceChange(account.getId(), -2000)).thenReturn(1);
+        when(accountRepository.getById(account.getId())).thenReturn(account);
         uuidMockedStatic.when(UUID::randomUUID).thenReturn(mockUUID);
 
 
@@ -253,8 +371,321 @@ class AccountServiceTest extends BaseServiceTest {
         uuidMockedStatic.close();
 
         // verify
-        verify(accountRepository,times(1)).findByAccountNumber(accountNumber);
+        verify(accountRepository,times(1)).findSnapshotByAccountNumber(accountNumber);
+        verify(accountRepository,times(1)).applyBalanceChange(eq(account.getId()), anyLong());
+        verify(transactionRepository,times(1)).save(any(Transaction.class));
+
+    }
+
+    @Test
+    public void givenCreateWithdrawalRequest_WhenBalanceIsInsufficient_ThenThrowInsufficientBalanceException() {
+
+        // Given
+        String accountNumber = "12345";
+        CreateWithdrawalRequest request = CreateWithdrawalRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(50000)
+                .build();
 
+        // when
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber)).thenReturn(Optional.of(AccountSnapshot.builder().id(1L).accountNumber(accountNumber).build()));
+        when(accountRepository.applyBalanceChange(1L, -50000)).thenReturn(0);
+
+        // then
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class, () -> {
+            accountService.debit(request);
+        });
+
+        assertEquals("Insufficient funds.", exception.getMessage());
+
+        // verify
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(applicationEventPublisher, never()).publishEvent(any(Object.class));
+
+    }
+
+    @Test
+    public void givenCreateCreditRequest_WhenAccountDoesNotExist_ThenThrowAccountNotFoundException() {
+
+        // Given
+        String accountNumber = "12345";
+        CreateCreditRequest request = CreateCreditRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(15000)
+                .build();
+
+        // when
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber)).thenReturn(Optional.empty());
+
+        // then
+        AccountNotFoundException exception = assertThrows(AccountNotFoundException.class, () -> {
+            accountService.credit(request);
+        });
+
+        assertEquals("Account Not Found : " + accountNumber, exception.getMessage());
+
+        // verify
+        verify(accountRepository, never()).applyBalanceChange(any(), anyLong());
+
+    }
+
+    @Test
+    public void givenTransactionHistoryRequest_WhenMoreTransactionsExist_ThenReturnPageWithNextCursor() {
+
+        // Given
+        String accountNumber = "12345";
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder()
+                .accountNumber(accountNumber)
+                .size(2)
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> transactions = new ArrayList<>();
+        for (long id = 3; id >= 1; id--) {
+            Transaction transaction = new DepositTransaction(1000);
+            transaction.setId(id);
+            transaction.setCreatedDateTime(now.minusMinutes(3 - id));
+            transactions.add(transaction);
+        }
+
+        List<TransactionDTO> transactionDTOs = List.of(new TransactionDTO(), new TransactionDTO());
+
+        // when
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber)).thenReturn(Optional.of(AccountSnapshot.builder().id(1L).accountNumber(accountNumber).build()));
+        when(transactionRepository.findHistoryPage(eq(1L), any(TransactionHistoryCriteria.class), eq(3)))
+                .thenReturn(transactions);
+        when(transactionMapper.toTransactionDTOList(transactions.subList(0, 2))).thenReturn(transactionDTOs);
+
+        // then
+        TransactionHistoryDTO history = accountService.getTransactionHistory(request);
+
+        assertEquals(accountNumber, history.getAccountNumber());
+        assertEquals(transactionDTOs, history.getTransactionDTOs());
+
+        HistoryCursor cursor = HistoryCursor.decode(history.getNextCursor());
+        assertEquals(transactions.get(1).getId(), cursor.getId());
+        assertEquals(transactions.get(1).getCreatedDateTime(), cursor.getCreatedDateTime());
+
+    }
+
+    @Test
+    public void givenTransactionHistoryRequest_WhenLastPage_ThenReturnNoNextCursor() {
+
+        // Given
+        String accountNumber = "12345";
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder()
+                .accountNumber(accountNumber)
+                .size(1000)
+                .build();
+
+        // when
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber)).thenReturn(Optional.of(AccountSnapshot.builder().id(1L).accountNumber(accountNumber).build()));
+        when(transactionRepository.findHistoryPage(eq(1L), any(TransactionHistoryCriteria.class), eq(101)))
+                .thenReturn(new ArrayList<>());
+
+        // then
+        TransactionHistoryDTO history = accountService.getTransactionHistory(request);
+
+        assertNull(history.getNextCursor());
+
+    }
+
+    @Test
+    public void givenTransactionHistoryRequest_WhenDatabaseRunsOut_ThenPageContinuesIntoArchive() {
+
+        // Given
+        String accountNumber = "12345";
+        TransactionHistoryRequest request = TransactionHistoryRequest.builder()
+                .accountNumber(accountNumber)
+                .size(2)
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        Transaction recent = new DepositTransaction(1000);
+        recent.setId(9L);
+        recent.setCreatedDateTime(now);
+        List<Transaction> archived = new ArrayList<>();
+        for (long id = 2; id >= 1; id--) {
+            Transaction transaction = new WithdrawalTransaction(500);
+            transaction.setId(id);
+            transaction.setCreatedDateTime(now.minusYears(2).minusMinutes(3 - id));
+            archived.add(transaction);
+        }
+
+        List<TransactionDTO> transactionDTOs = List.of(new TransactionDTO(), new TransactionDTO());
+
+        // when
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber)).thenReturn(Optional.of(AccountSnapshot.builder().id(1L).accountNumber(accountNumber).build()));
+        when(transactionRepository.findHistoryPage(eq(1L), any(TransactionHistoryCriteria.class), eq(3)))
+                .thenReturn(List.of(recent));
+        when(transactionArchive.findHistoryPage(eq(1L), any(TransactionHistoryCriteria.class), eq(2)))
+                .thenReturn(archived);
+        when(transactionMapper.toTransactionDTOList(List.of(recent, archived.get(0)))).thenReturn(transactionDTOs);
+
+        // then
+        TransactionHistoryDTO history = accountService.getTransactionHistory(request);
+
+        assertEquals(transactionDTOs, history.getTransactionDTOs());
+
+        HistoryCursor cursor = HistoryCursor.decode(history.getNextCursor());
+        assertEquals(archived.get(0).getId(), cursor.getId());
+        assertEquals(archived.get(0).getCreatedDateTime(), cursor.getCreatedDateTime());
+
+    }
+
+    @Test
+    public void givenCachedAccount_WhenPosting_ThenNextReadReloadsSnapshot() {
+
+        // Given
+        String accountNumber = "12345";
+        Account account = Account.builder()
+                .id(1L)
+                .accountNumber(accountNumber)
+                .owner("John Doe")
+                .balance(1000)
+                .transactions(new HashSet<>())
+                .build();
+
+        when(accountRepository.findSnapshotByAccountNumber(accountNumber))
+                .thenReturn(Optional.of(snapshotOf(account)))
+                .thenReturn(Optional.of(snapshotOf(account.toBuilder().balance(1500).build())));
+        when(accountRepository.applyBalanceChange(1L, 500)).thenReturn(1);
+
+        // When
+        AccountDTO before = accountService.getAccountByAccountNumber(accountNumber);
+        accountService.getAccountByAccountNumber(accountNumber);
+        accountService.credit(CreateCreditRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(500)
+                .build());
+        AccountDTO after = accountService.getAccountByAccountNumber(accountNumber);
+
+        // Then
+        assertEquals(1000, before.getBalance());
+        assertEquals(1500, after.getBalance());
+        verify(accountRepository, times(2)).findSnapshotByAccountNumber(accountNumber);
+
+    }
+
+    @Test
+    public void givenKnownIdempotencyKey_WhenCredit_ThenReturnOriginalResponseWithoutPosting() {
+
+        // Given
+        String accountNumber = "12345";
+        CreateCreditRequest request = CreateCreditRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(500)
+                .build();
+
+        IdempotentPosting original = IdempotentPosting.builder()
+                .idempotencyKey("key-1")
+                .transactionType(TransactionType.DepositTransaction)
+                .accountNumber(accountNumber)
+                .amount(500)
+                .approvalCode("original-approval-code")
+                .createdDateTime(LocalDateTime.now())
+                .build();
+
+        when(idempotencyStore.find(eq("key-1"), eq(accountNumber), any(Transaction.class))).thenReturn(Optional.of(original));
+
+        // When
+        TransactionResponse response = accountService.credit(request, "key-1");
+
+        // Then
+        assertEquals("OK", response.getStatus());
+        assertEquals("original-approval-code", response.getApprovalCode());
+        verify(accountRepository, never()).applyBalanceChange(anyLong(), anyLong());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+
+    }
+
+    @Test
+    public void givenGroupCommitAndRememberedIdempotencyKey_WhenCredit_ThenReturnOriginalResponseWithoutDatabaseLookup() {
+
+        // Given
+        String accountNumber = "12345";
+        CreateCreditRequest request = CreateCreditRequest.builder()
+                .accountNumber(accountNumber)
+                .amount(500)
+                .build();
+
+        IdempotentPosting original = IdempotentPosting.builder()
+                .idempotencyKey("key-1")
+                .transactionType(TransactionType.DepositTransaction)
+                .accountNumber(accountNumber)
+                .amount(500)
+                .approvalCode("original-approval-code")
+                .createdDateTime(LocalDateTime.now())
+                .build();
+
+        when(postingGroupCommitter.isEnabled()).thenReturn(true);
+        when(idempotencyStore.findRemembered(eq("key-1"), eq(accountNumber), any(Transaction.class))).thenReturn(Optional.of(original));
+
+        // When
+        TransactionResponse response = accountService.credit(request, "key-1");
+
+        // Then
+        assertEquals("original-approval-code", response.getApprovalCode());
+        verify(idempotencyStore, never()).find(anyString(), anyString(), any(Transaction.class));
+        verify(postingGroupCommitter, never()).execute(any());
+
+    }
+
+    @Test
+    public void givenTransferToAccountWithLowerId_WhenTransfer_ThenBalancesChangeInAscendingIdOrder() {
+
+        // Given
+        Account from = Account.builder().id(2L).accountNumber("222-222").owner("John Doe").balance(1000).transactions(new HashSet<>()).build();
+        Account to = Account.builder().id(1L).accountNumber("111-111").owner("Jane Doe").balance(0).transactions(new HashSet<>()).build();
+
+        when(accountRepository.findSnapshotByAccountNumber("222-222")).thenReturn(Optional.of(snapshotOf(from)));
+        when(accountRepository.findSnapshotByAccountNumber("111-111")).thenReturn(Optional.of(snapshotOf(to)));
+        when(accountRepository.applyBalanceChange(1L, 400)).thenReturn(1);
+        when(accountRepository.applyBalanceChange(2L, -400)).thenReturn(1);
+        when(accountRepository.getById(1L)).thenReturn(to);
+        when(accountRepository.getById(2L)).thenReturn(from);
+
+        // When
+        TransactionResponse response = accountService.transfer(CreateTransferRequest.builder()
+                .fromAccountNumber("222-222")
+                .toAccountNumber("111-111")
+                .amount(400)
+                .build());
+
+        // Then
+        assertEquals("OK", response.getStatus());
+        InOrder inOrder = inOrder(accountRepository);
+        inOrder.verify(accountRepository).applyBalanceChange(1L, 400);
+        inOrder.verify(accountRepository).applyBalanceChange(2L, -400);
+        verify(transactionRepository, times(1)).saveAll(anyList());
+
+    }
+
+    @Test
+    public void givenSameAccount_WhenTransfer_ThenThrowInvalidTransferException() {
+
+        // Given
+        CreateTransferRequest request = CreateTransferRequest.builder()
+                .fromAccountNumber("111-111")
+                .toAccountNumber("111-111")
+                .amount(400)
+                .build();
+
+        // Then
+        assertThrows(InvalidTransferException.class, () -> accountService.transfer(request));
+        verify(accountRepository, never()).applyBalanceChange(anyLong(), anyLong());
+
+    }
+
+    private AccountSnapshot snapshotOf(Account account) {
+        return AccountSnapshot.builder()
+                .id(account.getId())
+                .accountNumber(account.getAccountNumber())
+                .owner(account.getOwner())
+                .balance(account.getBalance())
+                .version(account.getVersion())
+                .createdDateTime(account.getCreatedDateTime())
+                .build();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,257 @@
+package com.eteration.simplebanking.services;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.exception.InvalidTransferException;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreateTransferRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.response.TransactionResponse;
+import com.eteration.simplebanking.services.striping.StripedBalances;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountTransferIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StripedBalances stripedBalances;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void givenTwoAccounts_whenTransfer_ThenBothLegsShareTheApprovalCode() {
+
+        // Given
+        String fromAccountNumber = createAccount(10000);
+        String toAccountNumber = createAccount(0);
+
+        // When
+        TransactionResponse response = accountService.transfer(CreateTransferRequest.builder()
+                .fromAccountNumber(fromAccountNumber)
+                .toAccountNumber(toAccountNumber)
+                .amount(2500)
+                .build());
+
+        // Then
+        assertEquals("OK", response.getStatus());
+        assertEquals(7500L, accountService.getAccountByAccountNumber(fromAccountNumber).getBalance());
+        assertEquals(2500L, accountService.getAccountByAccountNumber(toAccountNumber).getBalance());
+
+        TransactionDTO transferOut = latestTransaction(fromAccountNumber);
+        TransactionDTO transferIn = latestTransaction(toAccountNumber);
+        assertEquals(TransactionType.TransferOutTransaction, transferOut.getTransactionType());
+        assertEquals(TransactionType.TransferInTransaction, transferIn.getTransactionType());
+        assertEquals(response.getApprovalCode(), transferOut.getApprovalCode());
+        assertEquals(response.getApprovalCode(), transferIn.getApprovalCode());
+
+    }
+
+    @Test
+    public void givenInsufficientBalance_whenTransfer_ThenNeitherAccountChanges() {
+
+        // Given
+        String fromAccountNumber = createAccount(1000);
+        String toAccountNumber = createAccount(500);
+        CreateTransferRequest request = CreateTransferRequest.builder()
+                .fromAccountNumber(fromAccountNumber)
+                .toAccountNumber(toAccountNumber)
+                .amount(1001)
+                .build();
+
+        // When
+        assertThrows(InsufficientBalanceException.class, () -> accountService.transfer(request));
+
+        // Then
+        assertEquals(1000L, accountService.getAccountByAccountNumber(fromAccountNumber).getBalance());
+        assertEquals(500L, accountService.getAccountByAccountNumber(toAccountNumber).getBalance());
+
+    }
+
+    @Test
+    public void givenSameAccount_whenTransfer_ThenThrowInvalidTransferException() {
+
+        // Given
+        String accountNumber = createAccount(1000);
+        CreateTransferRequest request = CreateTransferRequest.builder()
+                .fromAccountNumber(accountNumber)
+                .toAccountNumber(accountNumber)
+                .amount(100)
+                .build();
+
+        // Then
+        assertThrows(InvalidTransferException.class, () -> accountService.transfer(request));
+
+    }
+
+    @Test
+    public void givenRandomConcurrentTransfers_whenApplied_ThenTotalMoneyNeverChanges() throws Exception {
+
+        // Given
+        int accounts = 8;
+        int threads = 16;
+        int transfersPerThread = 100;
+        long initialBalance = 10000;
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            accountNumbers.add(createAccount(initialBalance));
+        }
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // When
+        transferRandomly(accountNumbers, threads, transfersPerThread, applied, rejected);
+
+        // Then
+        long total = 0;
+        for (String accountNumber : accountNumbers) {
+            long balance = accountService.getAccountByAccountNumber(accountNumber).getBalance();
+            assertTrue(balance >= 0);
+            total += balance;
+        }
+        assertEquals(accounts * initialBalance, total);
+        assertEquals(threads * transfersPerThread, applied.get() + rejected.get());
+        assertTrue(applied.get() > 0);
+
+    }
+
+    @Test
+    public void givenStripedAccounts_whenTransferringConcurrently_ThenRowLocksNeverDeadlockAndTotalIsAlwaysConstant() throws Exception {
+
+        // Given
+        int accounts = 8;
+        int threads = 16;
+        int transfersPerThread = 100;
+        long initialBalance = 10000;
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            String accountNumber = createAccount(initialBalance);
+            // a striped account takes no in-JVM lock stripe, so only the row locks order overlapping transfers
+            stripedBalances.stripe(accountNumber, 1);
+            accountNumbers.add(accountNumber);
+        }
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Long> totals = new CopyOnWriteArrayList<>();
+
+        // When
+        ExecutorService auditor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> audit = auditor.submit(() -> {
+                while (running.get()) {
+                    totals.add(sumBalances(accountNumbers));
+                }
+                return null;
+            });
+            try {
+                transferRandomly(accountNumbers, threads, transfersPerThread, applied, rejected);
+            } finally {
+                running.set(false);
+            }
+            audit.get(60, TimeUnit.SECONDS);
+        } finally {
+            auditor.shutdownNow();
+        }
+
+        // Then
+        assertFalse(totals.isEmpty());
+        for (long total : totals) {
+            assertEquals(accounts * initialBalance, total);
+        }
+        assertEquals(accounts * initialBalance, sumBalances(accountNumbers));
+        assertEquals(threads * transfersPerThread, applied.get() + rejected.get());
+        assertTrue(applied.get() > 0);
+
+    }
+
+    private void transferRandomly(List<String> accountNumbers, int threads, int transfersPerThread,
+                                  AtomicInteger applied, AtomicInteger rejected) throws Exception {
+        int accounts = accountNumbers.size();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < transfersPerThread; i++) {
+                        int from = random.nextInt(accounts);
+                        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+                        try {
+                            accountService.transfer(CreateTransferRequest.builder()
+                                    .fromAccountNumber(accountNumbers.get(from))
+                                    .toAccountNumber(accountNumbers.get(to))
+                                    .amount(1 + random.nextInt(5000))
+                                    .build());
+                            applied.incrementAndGet();
+                        } catch (InsufficientBalanceException exception) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long sumBalances(List<String> accountNumbers) {
+        // one statement in one repeatable read transaction, so the total never mixes balances from before and after a transfer
+        TransactionTemplate snapshotRead = new TransactionTemplate(transactionManager);
+        snapshotRead.setReadOnly(true);
+        snapshotRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        String accounts = String.join(",", Collections.nCopies(accountNumbers.size(), "?"));
+        Object[] parameters = new Object[accountNumbers.size() * 2];
+        for (int i = 0; i < accountNumbers.size(); i++) {
+            parameters[i] = accountNumbers.get(i);
+            parameters[accountNumbers.size() + i] = accountNumbers.get(i);
+        }
+        Long total = snapshotRead.execute(status -> jdbcTemplate.queryForObject(
+                "select (select coalesce(sum(a.balance), 0) from account a where a.account_number in (" + accounts + ")) + " +
+                        "(select coalesce(sum(s.balance), 0) from account_balance_slot s join account a on a.id = s.account_id " +
+                        "where a.account_number in (" + accounts + "))",
+                Long.class, parameters));
+        return total == null ? 0 : total;
+    }
+
+    private String createAccount(long balance) {
+        String accountNumber = accountService.create(CreatedAccountRequest.builder().owner("John Doe").build()).getAccountNumber();
+        if (balance > 0) {
+            accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(balance).build());
+        }
+        return accountNumber;
+    }
+
+    private TransactionDTO latestTransaction(String accountNumber) {
+        return accountService.getAccountByAccountNumber(accountNumber).getTransactionDTOs().get(0);
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.eteration.simplebanking.services.allocation;
+
+import com.eteration.simplebanking.exception.AccountNumberSpaceExhaustedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountNumberAllocatorTest {
+
+    @Test
+    public void givenWholeNumberSpace_whenAllocating_ThenEveryNumberIsHandedOutOnceThenExhausted() {
+
+        // Given
+        AtomicLong sequence = new AtomicLong();
+        AccountNumberAllocator allocator = new AccountNumberAllocator(sequence::getAndIncrement);
+        Set<String> accountNumbers = new HashSet<>();
+
+        // When
+        for (int i = 0; i < AccountNumberSpace.CAPACITY; i++) {
+            accountNumbers.add(allocator.allocate());
+        }
+
+        // Then
+        assertEquals(AccountNumberSpace.CAPACITY, accountNumbers.size());
+        assertTrue(accountNumbers.stream().allMatch(number -> number.matches("[1-9]\\d{2}-\\d{3}")));
+        assertEquals(AccountNumberSpace.CAPACITY / AccountNumberSpace.BLOCK_SIZE, sequence.get());
+        assertThrows(AccountNumberSpaceExhaustedException.class, allocator::allocate);
+    }
+
+    @Test
+    public void givenAllocatorsSharingSequence_whenAllocatingInterleaved_ThenNumbersNeverCollide() {
+
+        // Given
+        AtomicLong sequence = new AtomicLong();
+        AccountNumberAllocator first = new AccountNumberAllocator(sequence::getAndIncrement);
+        AccountNumberAllocator second = new AccountNumberAllocator(sequence::getAndIncrement);
+        Set<String> accountNumbers = new HashSet<>();
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            accountNumbers.add(first.allocate());
+            accountNumbers.add(second.allocate());
+        }
+
+        // Then
+        assertEquals(2_000, accountNumbers.size());
+    }
+
+    @Test
+    public void givenConsecutiveOrdinals_whenFormatting_ThenNumbersAreNotConsecutive() {
+        assertNotEquals(
+                Integer.parseInt(AccountNumberSpace.format(0).replace("-", "")) + 1,
+                Integer.parseInt(AccountNumberSpace.format(1).replace("-", ""))
+        );
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.eteration.simplebanking.services.approval;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedApprovalCodeGeneratorTest {
+
+    private static final long NOW = 1_717_171_717_171L;
+
+    @Test
+    public void givenFrozenClock_whenGenerating_ThenCodesAreCompactAndStrictlyIncreasing() {
+
+        // Given
+        TimeOrderedApprovalCodeGenerator generator = new TimeOrderedApprovalCodeGenerator(7, () -> NOW);
+
+        // When
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            codes.add(generator.generate());
+        }
+
+        // Then
+        for (int i = 1; i < codes.size(); i++) {
+            assertTrue(codes.get(i - 1).compareTo(codes.get(i)) < 0);
+        }
+        assertTrue(codes.stream().allMatch(code -> code.matches("[0-9A-HJKMNP-TV-Z]{" + TimeOrderedApprovalCodeGenerator.CODE_LENGTH + "}")));
+    }
+
+    @Test
+    public void givenClockMovingBackwards_whenGenerating_ThenCodesKeepIncreasing() {
+
+        // Given
+        Deque<Long> ticks = new ArrayDeque<>(List.of(NOW, NOW - 5_000));
+        TimeOrderedApprovalCodeGenerator generator = new TimeOrderedApprovalCodeGenerator(1, ticks::pop);
+
+        // When
+        String first = generator.generate();
+        String second = generator.generate();
+
+        // Then
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    public void givenTwoNodesAtSameInstant_whenGenerating_ThenCodesDiffer() {
+
+        // Given
+        TimeOrderedApprovalCodeGenerator first = new TimeOrderedApprovalCodeGenerator(1, () -> NOW);
+        TimeOrderedApprovalCodeGenerator second = new TimeOrderedApprovalCodeGenerator(2, () -> NOW);
+
+        // When
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            codes.add(first.generate());
+            codes.add(second.generate());
+        }
+
+        // Then
+        assertEquals(2_000, codes.size());
+    }
+
+    @Test
+    public void givenConcurrentCallers_whenGenerating_ThenEveryCodeIsUnique() throws Exception {
+
+        // Given
+        TimeOrderedApprovalCodeGenerator generator = new TimeOrderedApprovalCodeGenerator(3, System::currentTimeMillis);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        // When
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < 20_000; j++) {
+                        codes.add(generator.generate());
+                    }
+                }, executorService);
+            }
+            CompletableFuture.allOf(futures).get(30, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        // Then
+        assertEquals(160_000, codes.size());
+    }
+
+    @Test
+    public void givenNodeIdOutOfRange_whenCreating_ThenThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedApprovalCodeGenerator(1024, () -> NOW));
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedApprovalCodeGenerator(-1, () -> NOW));
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.eteration.simplebanking.services.archive;
+
+import com.eteration.simplebanking.base.BaseServiceTest;
+import com.eteration.simplebanking.config.ArchiveProperties;
+import com.eteration.simplebanking.dto.ArchivedTransaction;
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import com.eteration.simplebanking.repository.TransactionPartitionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionArchiveJobTest extends BaseServiceTest {
+
+    private static final YearMonth CURRENT_MONTH = YearMonth.of(2024, 6);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private TransactionPartitionRepository transactionPartitionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ArchiveProperties archiveProperties;
+
+    private TransactionArchive transactionArchive;
+
+    private TransactionArchiveJob transactionArchiveJob;
+
+    @BeforeEach
+    void setUp() {
+        archiveProperties = new ArchiveProperties();
+        archiveProperties.setDirectory(directory);
+        archiveProperties.setRetentionMonths(3);
+        archiveProperties.setPremadeMonths(2);
+        transactionArchive = new TransactionArchive(archiveProperties);
+        transactionArchiveJob = new TransactionArchiveJob(transactionPartitionRepository, transactionArchive,
+                archiveProperties, new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenPartitionsBeyondRetention_whenRun_ThenTheyAreArchivedAndDroppedAndComingMonthsPremade() {
+
+        // Given
+        YearMonth expired = CURRENT_MONTH.minusMonths(4);
+        when(transactionPartitionRepository.findPartitionMonths())
+                .thenReturn(List.of(expired, CURRENT_MONTH.minusMonths(3), CURRENT_MONTH));
+        doAnswer(invocation -> {
+            BiConsumer<Long, ArchivedTransaction> consumer = invocation.getArgument(1);
+            consumer.accept(7L, ArchivedTransaction.builder()
+                    .id(42L)
+                    .transactionType(TransactionType.DepositTransaction)
+                    .amount(1000)
+                    .createdDateTime(expired.atDay(5).atStartOfDay())
+                    .build());
+            return null;
+        }).when(transactionPartitionRepository).forEachTransaction(eq(expired), any(BiConsumer.class));
+
+        // When
+        transactionArchiveJob.run(CURRENT_MONTH);
+
+        // Then
+        verify(transactionPartitionRepository).createPartition(CURRENT_MONTH);
+        verify(transactionPartitionRepository).createPartition(CURRENT_MONTH.plusMonths(1));
+        verify(transactionPartitionRepository).createPartition(CURRENT_MONTH.plusMonths(2));
+        verify(transactionPartitionRepository).dropPartition(expired);
+        verify(transactionPartitionRepository, never()).dropPartition(CURRENT_MONTH.minusMonths(3));
+        verify(transactionManager).commit(any());
+
+        assertTrue(transactionArchive.isArchived(expired));
+        assertEquals(42L, transactionArchive.findHistoryPage(7L, TransactionHistoryCriteria.builder().build(), 10).get(0).getId());
+        assertTrue(Files.exists(directory.resolve(TransactionSegment.fileName(expired))));
+
+    }
+
+    @Test
+    public void givenDropFails_whenRun_ThenSegmentIsNotPublished() {
+
+        // Given
+        YearMonth expired = CURRENT_MONTH.minusMonths(4);
+        when(transactionPartitionRepository.findPartitionMonths()).thenReturn(List.of(expired));
+        doThrow(new IllegalStateException("lock timeout")).when(transactionPartitionRepository).dropPartition(expired);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> transactionArchiveJob.run(CURRENT_MONTH));
+
+        // Then
+        verify(transactionManager).rollback(any());
+        assertFalse(transactionArchive.isArchived(expired));
+        assertFalse(Files.exists(directory.resolve(TransactionSegment.fileName(expired))));
+
+    }
+
+    @Test
+    public void givenPendingSegments_whenRun_ThenDroppedPartitionsArePublishedAndOthersDiscarded() throws IOException {
+
+        // Given
+        YearMonth dropped = CURRENT_MONTH.minusMonths(6);
+        YearMonth notDropped = CURRENT_MONTH.minusMonths(5);
+        for (YearMonth month : List.of(dropped, notDropped)) {
+            try (TransactionSegmentWriter writer = new TransactionSegmentWriter(transactionArchive.pendingFile(month), month)) {
+                writer.finish();
+            }
+        }
+        when(transactionPartitionRepository.findPartitionMonths()).thenReturn(List.of(notDropped));
+
+        // When
+        transactionArchiveJob.run(CURRENT_MONTH);
+
+        // Then
+        assertTrue(transactionArchive.isArchived(dropped));
+        assertTrue(transactionArchive.isArchived(notDropped));
+        assertTrue(transactionArchive.pendingMonths().isEmpty());
+        InOrder inOrder = inOrder(transactionPartitionRepository);
+        inOrder.verify(transactionPartitionRepository).forEachTransaction(eq(notDropped), any());
+        inOrder.verify(transactionPartitionRepository).dropPartition(notDropped);
+
+    }
+
+}
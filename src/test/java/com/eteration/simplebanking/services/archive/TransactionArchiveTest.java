@@ -0,0 +1,194 @@
+package com.eteration.simplebanking.services.archive;
+
+import com.eteration.simplebanking.config.ArchiveProperties;
+import com.eteration.simplebanking.dto.ArchivedTransaction;
+import com.eteration.simplebanking.dto.HistoryCursor;
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.dto.TransactionHistoryCriteria;
+import com.eteration.simplebanking.model.Transaction;
+import com.eteration.simplebanking.model.WithdrawalTransaction;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionArchiveTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2023, 1);
+
+    private static final YearMonth FEBRUARY = YearMonth.of(2023, 2);
+
+    @TempDir
+    Path directory;
+
+    private ArchiveProperties archiveProperties;
+
+    private TransactionArchive transactionArchive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        archiveProperties = new ArchiveProperties();
+        archiveProperties.setDirectory(directory.resolve("archive"));
+        transactionArchive = new TransactionArchive(archiveProperties);
+
+        // account 1 has four transactions a month, account 2 one; ids grow with the creation time
+        for (YearMonth month : List.of(JANUARY, FEBRUARY)) {
+            try (TransactionSegmentWriter writer = new TransactionSegmentWriter(transactionArchive.pendingFile(month), month)) {
+                long firstId = month.getMonthValue() * 100L;
+                for (int i = 0; i < 4; i++) {
+                    writer.append(1L, transaction(firstId + i, month.atDay(1 + i).atTime(12, 0), i % 2 == 0 ? TransactionType.DepositTransaction : TransactionType.WithdrawalTransaction));
+                }
+                writer.append(2L, transaction(firstId + 50, month.atDay(10).atStartOfDay(), TransactionType.PhoneBillPaymentTransaction));
+                assertEquals(5, writer.finish());
+            }
+            transactionArchive.publish(month);
+        }
+    }
+
+    @Test
+    public void givenArchivedMonths_whenReadingHistoryPages_ThenNewestFirstAcrossSegments() {
+
+        // When
+        List<Transaction> firstPage = transactionArchive.findHistoryPage(1L, TransactionHistoryCriteria.builder().build(), 5);
+        Transaction last = firstPage.get(firstPage.size() - 1);
+        List<Transaction> secondPage = transactionArchive.findHistoryPage(1L, TransactionHistoryCriteria.builder()
+                .cursor(HistoryCursor.after(last))
+                .build(), 5);
+
+        // Then
+        assertEquals(List.of(203L, 202L, 201L, 200L, 103L), ids(firstPage));
+        assertEquals(List.of(102L, 101L, 100L), ids(secondPage));
+        assertTrue(firstPage.get(0) instanceof WithdrawalTransaction);
+        assertEquals(LocalDateTime.of(2023, 2, 4, 12, 0), firstPage.get(0).getCreatedDateTime());
+        assertEquals("code-203", firstPage.get(0).getApprovalCode());
+        assertEquals(203 * 100L, firstPage.get(0).getAmount());
+
+    }
+
+    @Test
+    public void givenFilters_whenReadingHistory_ThenOnlyMatchingTransactionsAreReturned() {
+
+        // Given
+        TransactionHistoryCriteria criteria = TransactionHistoryCriteria.builder()
+                .transactionType(TransactionType.DepositTransaction)
+                .from(LocalDateTime.of(2023, 1, 2, 0, 0))
+                .to(LocalDateTime.of(2023, 2, 2, 0, 0))
+                .build();
+
+        // When
+        List<Transaction> page = transactionArchive.findHistoryPage(1L, criteria, 10);
+
+        // Then
+        assertEquals(List.of(200L, 102L), ids(page));
+
+    }
+
+    @Test
+    public void givenRange_whenStreamingStatement_ThenOldestFirstWithinRange() {
+
+        // When
+        List<TransactionDTO> statement;
+        try (Stream<TransactionDTO> transactions = transactionArchive.streamStatement(2L,
+                LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 3, 1, 0, 0))) {
+            statement = transactions.collect(Collectors.toList());
+        }
+
+        // Then
+        assertEquals(2, statement.size());
+        assertEquals(LocalDateTime.of(2023, 1, 10, 0, 0), statement.get(0).getCreatedDateTime());
+        assertEquals(LocalDateTime.of(2023, 2, 10, 0, 0), statement.get(1).getCreatedDateTime());
+        assertEquals(TransactionType.PhoneBillPaymentTransaction, statement.get(0).getTransactionType());
+
+    }
+
+    @Test
+    public void givenPublishedSegments_whenArchiveReopened_ThenSegmentsAreServed() {
+
+        // When
+        TransactionArchive reopened = new TransactionArchive(archiveProperties);
+
+        // Then
+        assertTrue(reopened.isArchived(JANUARY));
+        assertTrue(reopened.isArchived(FEBRUARY));
+        assertEquals(8, reopened.findHistoryPage(1L, TransactionHistoryCriteria.builder().build(), 100).size());
+        assertTrue(reopened.findHistoryPage(3L, TransactionHistoryCriteria.builder().build(), 100).isEmpty());
+
+    }
+
+    @Test
+    public void givenCorruptBlock_whenReading_ThenChecksumMismatchIsReported() throws IOException {
+
+        // Given
+        Path copy = directory.resolve(TransactionSegment.fileName(JANUARY));
+        Files.copy(archiveProperties.getDirectory().resolve(TransactionSegment.fileName(JANUARY)), copy);
+        copy.toFile().setWritable(true);
+        try (RandomAccessFile file = new RandomAccessFile(copy.toFile(), "rw")) {
+            file.seek(TransactionSegment.HEADER_LENGTH + 2);
+            file.write(file.read() ^ 0xFF);
+        }
+        TransactionSegment segment = TransactionSegment.open(copy);
+
+        // When / Then
+        IOException exception = assertThrows(IOException.class, () -> segment.read(1L));
+        assertTrue(exception.getMessage().startsWith("Checksum mismatch"));
+        assertEquals(1, segment.read(2L).size());
+
+    }
+
+    @Test
+    public void givenOutOfOrderTransaction_whenAppending_ThenRejected() throws IOException {
+
+        // Given
+        try (TransactionSegmentWriter writer = new TransactionSegmentWriter(directory.resolve("out-of-order.seg"), JANUARY)) {
+            writer.append(2L, transaction(1, JANUARY.atDay(2).atStartOfDay(), TransactionType.DepositTransaction));
+
+            // When / Then
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(2L, transaction(2, JANUARY.atDay(1).atStartOfDay(), TransactionType.DepositTransaction)));
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(1L, transaction(3, JANUARY.atDay(3).atStartOfDay(), TransactionType.DepositTransaction)));
+        }
+
+    }
+
+    @Test
+    public void givenUnfinishedSegment_whenOpening_ThenRejected() throws IOException {
+
+        // Given
+        Path file = directory.resolve("unfinished.seg");
+        try (TransactionSegmentWriter writer = new TransactionSegmentWriter(file, JANUARY)) {
+            writer.append(1L, transaction(1, JANUARY.atDay(1).atStartOfDay(), TransactionType.DepositTransaction));
+        }
+
+        // When / Then
+        assertThrows(IOException.class, () -> TransactionSegment.open(file));
+
+    }
+
+    private static ArchivedTransaction transaction(long id, LocalDateTime createdDateTime, TransactionType transactionType) {
+        return ArchivedTransaction.builder()
+                .id(id)
+                .transactionType(transactionType)
+                .approvalCode("code-" + id)
+                .amount(id * 100)
+                .createdDateTime(createdDateTime)
+                .build();
+    }
+
+    private static List<Long> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.eteration.simplebanking.services.cache;
+
+import com.eteration.simplebanking.config.AccountCacheProperties;
+import com.eteration.simplebanking.dto.AccountSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountSnapshotCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccountSnapshotCache accountSnapshotCache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accountSnapshotCache = new AccountSnapshotCache(new AccountCacheProperties(), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void givenRepeatedReads_whenCached_ThenLoadedOnceAndHitsAreCounted() {
+
+        // When
+        accountSnapshotCache.get("123-456", this::load);
+        accountSnapshotCache.get("123-456", this::load);
+        accountSnapshotCache.get("123-456", this::load);
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", AccountSnapshotCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", AccountSnapshotCache.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void givenUnknownAccount_whenRead_ThenEmptyAndNotCached() {
+
+        // When
+        Optional<AccountSnapshot> first = accountSnapshotCache.get("999-999", accountNumber -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        accountSnapshotCache.get("999-999", this::load);
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void givenActiveTransaction_whenInvalidating_ThenSnapshotIsKeptUntilCompletion() {
+
+        // Given
+        accountSnapshotCache.get("123-456", this::load);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // When
+            accountSnapshotCache.invalidateAfterCompletion("123-456");
+            accountSnapshotCache.get("123-456", this::load);
+            int loadsBeforeCompletion = loads.get();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            accountSnapshotCache.get("123-456", this::load);
+
+            // Then
+            assertEquals(1, loadsBeforeCompletion);
+            assertEquals(2, loads.get());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void givenLoadInFlight_whenInvalidating_ThenInvalidationDoesNotWaitAndStaleLoadIsDropped() throws Exception {
+
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<Optional<AccountSnapshot>> staleRead = executor.submit(() -> accountSnapshotCache.get("123-456", accountNumber -> {
+                loading.countDown();
+                await(release);
+                return load(accountNumber);
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // When
+            accountSnapshotCache.invalidateAfterCompletion("123-456");
+            release.countDown();
+            long staleBalance = staleRead.get(5, TimeUnit.SECONDS).orElseThrow().getBalance();
+            long freshBalance = accountSnapshotCache.get("123-456", this::load).orElseThrow().getBalance();
+
+            // Then
+            assertEquals(1, staleBalance);
+            assertEquals(2, freshBalance);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Optional<AccountSnapshot> load(String accountNumber) {
+        return Optional.of(AccountSnapshot.builder()
+                .id(1L)
+                .accountNumber(accountNumber)
+                .balance(loads.incrementAndGet())
+                .build());
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.eteration.simplebanking.services.executor;
+
+import com.eteration.simplebanking.exception.RequestOutcomeUnknownException;
+import com.eteration.simplebanking.exception.ServiceOverloadedException;
+import com.eteration.simplebanking.metrics.sql.SqlStatistics;
+import com.eteration.simplebanking.metrics.sql.SqlStatisticsHolder;
+import com.eteration.simplebanking.metrics.sql.SqlStatisticsTaskDecorator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BoundedExecutor boundedExecutor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        boundedExecutor = new BoundedExecutor("posting", 1, 1, Duration.ofSeconds(2), Duration.ofSeconds(2), new SqlStatisticsTaskDecorator(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        boundedExecutor.shutdown();
+    }
+
+    @Test
+    public void givenBusyThreadAndFullQueue_whenSupplying_ThenRejectedRightAwayWithRetryAfter() throws Exception {
+
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = boundedExecutor.supply(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = boundedExecutor.supply(() -> "queued");
+
+        // When
+        ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                () -> boundedExecutor.supply(() -> "rejected"));
+
+        // Then
+        assertEquals(Duration.ofSeconds(2), exception.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get(BoundedExecutor.REJECTED_METRIC).tag("name", "posting").counter().count());
+        assertEquals(1.0, meterRegistry.get("executor.queued").tag("name", "posting").gauge().value());
+        assertEquals(1.0, meterRegistry.get("executor.active").tag("name", "posting").gauge().value());
+
+        release.countDown();
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void givenStartedWorkSlowerThanTimeout_whenSupplying_ThenFailsWithUnknownOutcomeAndNoRetryAfter() throws Exception {
+
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        // When
+        CompletableFuture<String> slow = boundedExecutor.supply(() -> {
+            started.countDown();
+            await(release);
+            return "slow";
+        });
+
+        // Then
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> slow.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof RequestOutcomeUnknownException);
+        assertEquals(1.0, meterRegistry.get(BoundedExecutor.TIMED_OUT_METRIC).tag("name", "posting").counter().count());
+
+        release.countDown();
+    }
+
+    @Test
+    public void givenQueuedWorkNotStartedWithinTimeout_whenSupplying_ThenFailsWithRetryAfterAndNeverRuns() throws Exception {
+
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = boundedExecutor.supply(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // When
+        CompletableFuture<String> queued = boundedExecutor.supply(() -> {
+            ran.set(true);
+            return "queued";
+        });
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof ServiceOverloadedException);
+        assertEquals(Duration.ofSeconds(2), ((ServiceOverloadedException) exception.getCause()).getRetryAfter());
+        assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        boundedExecutor.shutdown();
+        assertFalse(ran.get());
+        assertEquals(2.0, meterRegistry.get(BoundedExecutor.TIMED_OUT_METRIC).tag("name", "posting").counter().count());
+    }
+
+    @Test
+    public void givenSqlStatisticsOfCaller_whenSupplying_ThenTaskCountsIntoThem() throws Exception {
+
+        // Given
+        SqlStatistics statistics = new SqlStatistics();
+        SqlStatisticsHolder.set(statistics);
+
+        // When
+        SqlStatistics seen;
+        try {
+            seen = boundedExecutor.supply(SqlStatisticsHolder::current).get(5, TimeUnit.SECONDS);
+        } finally {
+            SqlStatisticsHolder.set(null);
+        }
+
+        // Then
+        assertSame(statistics, seen);
+        assertNull(boundedExecutor.supply(SqlStatisticsHolder::current).get(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.eteration.simplebanking.services.idempotency;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.exception.IdempotencyKeyReusedException;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.response.TransactionResponse;
+import com.eteration.simplebanking.repository.IdempotencyKeyRepository;
+import com.eteration.simplebanking.services.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Test
+    public void givenRetriedCredit_whenSameIdempotencyKey_ThenOriginalResponseIsReturnedAndAppliedOnce() {
+
+        // Given
+        String accountNumber = createAccount();
+        String idempotencyKey = UUID.randomUUID().toString();
+        CreateCreditRequest request = CreateCreditRequest.builder().accountNumber(accountNumber).amount(1000).build();
+
+        // When
+        TransactionResponse first = accountService.credit(request, idempotencyKey);
+        TransactionResponse retry = accountService.credit(request, idempotencyKey);
+
+        // Then
+        assertEquals(first.getApprovalCode(), retry.getApprovalCode());
+        assertEquals(1000L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+        assertTrue(idempotencyKeyRepository.findByKey(idempotencyKey).isPresent());
+
+    }
+
+    @Test
+    public void givenUsedIdempotencyKey_whenDifferentPosting_ThenThrowIdempotencyKeyReusedException() {
+
+        // Given
+        String accountNumber = createAccount();
+        String idempotencyKey = UUID.randomUUID().toString();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(1000).build(), idempotencyKey);
+
+        // When
+        CreateCreditRequest otherAmount = CreateCreditRequest.builder().accountNumber(accountNumber).amount(2000).build();
+
+        // Then
+        assertThrows(IdempotencyKeyReusedException.class, () -> accountService.credit(otherAmount, idempotencyKey));
+        assertEquals(1000L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+
+    }
+
+    @Test
+    public void givenFailedPosting_whenRetriedWithSameKey_ThenKeyWasReleased() {
+
+        // Given
+        String accountNumber = createAccount();
+        String idempotencyKey = UUID.randomUUID().toString();
+        CreateWithdrawalRequest request = CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(500).build();
+
+        // When
+        assertThrows(InsufficientBalanceException.class, () -> accountService.debit(request, idempotencyKey));
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(1000).build());
+        TransactionResponse response = accountService.debit(request, idempotencyKey);
+
+        // Then
+        assertNotNull(response.getApprovalCode());
+        assertEquals(500L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+
+    }
+
+    @Test
+    public void givenConcurrentCredits_whenSameIdempotencyKey_ThenOnlyOneIsApplied() throws Exception {
+
+        // Given
+        String accountNumber = createAccount();
+        String idempotencyKey = UUID.randomUUID().toString();
+        CreateCreditRequest request = CreateCreditRequest.builder().accountNumber(accountNumber).amount(1000).build();
+        int postings = 8;
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(postings);
+        Set<String> approvalCodes = new HashSet<>();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<TransactionResponse>> results = new ArrayList<>();
+            for (int i = 0; i < postings; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return accountService.credit(request, idempotencyKey);
+                }));
+            }
+            start.countDown();
+            for (Future<TransactionResponse> result : results) {
+                approvalCodes.add(result.get(10, TimeUnit.SECONDS).getApprovalCode());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(1, approvalCodes.size());
+        assertEquals(1000L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+
+    }
+
+    @Test
+    public void givenExpiredKeys_whenPurge_ThenKeysAreDeleted() {
+
+        // Given
+        String accountNumber = createAccount();
+        String idempotencyKey = UUID.randomUUID().toString();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(1000).build(), idempotencyKey);
+
+        // When
+        int purged = idempotencyStore.purge(LocalDateTime.now().plusMinutes(1));
+
+        // Then
+        assertTrue(purged >= 1);
+        assertFalse(idempotencyKeyRepository.findByKey(idempotencyKey).isPresent());
+
+    }
+
+    private String createAccount() {
+        return accountService.create(CreatedAccountRequest.builder().owner("John Doe").build()).getAccountNumber();
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.eteration.simplebanking.services.ledger;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.dto.LedgerBalance;
+import com.eteration.simplebanking.dto.LedgerVerificationReport;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreatePhoneBillPaymentRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.services.AccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerReconcilerIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceSnapshotter balanceSnapshotter;
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private String accountNumber;
+
+    @BeforeEach
+    public void setUp() {
+        accountNumber = accountService.create(CreatedAccountRequest.builder()
+                .owner("John Doe")
+                .build()).getAccountNumber();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(100000).build());
+        accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(25000).build());
+    }
+
+    @Test
+    public void givenSnapshot_whenPostingAfterIt_ThenBalanceIsReconstructedFromSnapshotAndDelta() {
+
+        // Given
+        LocalDateTime asOf = LocalDateTime.now().plusNanos(1000).truncatedTo(ChronoUnit.MICROS);
+        balanceSnapshotter.takeSnapshots(asOf);
+        waitUntilAfter(asOf);
+
+        // When
+        accountService.payment(CreatePhoneBillPaymentRequest.builder().accountNumber(accountNumber).amount(5000).build());
+        LedgerBalance balance = ledgerReconciler.reconstruct(accountNumber).orElseThrow();
+
+        // Then
+        assertEquals(asOf, balance.getSnapshotAsOf());
+        assertEquals(75000L, snapshotBalance());
+        assertEquals(70000L, balance.getBalance());
+        assertEquals(70000L, balance.getReconstructedBalance());
+        assertFalse(balance.isDrifted());
+
+    }
+
+    @Test
+    public void givenOlderCut_whenTakingSnapshots_ThenSnapshotsNeverMoveBackwards() {
+
+        // Given
+        LocalDateTime asOf = LocalDateTime.now().plusNanos(1000).truncatedTo(ChronoUnit.MICROS);
+        balanceSnapshotter.takeSnapshots(asOf);
+
+        // When
+        balanceSnapshotter.takeSnapshots(asOf.minusHours(1));
+
+        // Then
+        assertEquals(asOf, ledgerReconciler.reconstruct(accountNumber).orElseThrow().getSnapshotAsOf());
+        assertEquals(75000L, snapshotBalance());
+
+    }
+
+    @Test
+    public void givenTamperedBalance_whenVerifyingAllAccounts_ThenDriftIsReported() {
+
+        // Given
+        balanceSnapshotter.takeSnapshots(LocalDateTime.now().plusNanos(1000).truncatedTo(ChronoUnit.MICROS));
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update("update account set balance = balance + 123 where account_number = ?", accountNumber));
+
+        try {
+            // When
+            LedgerVerificationReport report = ledgerReconciler.verifyAll();
+
+            // Then
+            assertTrue(report.getVerifiedAccounts() >= 1);
+            LedgerBalance drift = report.getDrifts().stream()
+                    .filter(balance -> balance.getAccountNumber().equals(accountNumber))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(75123L, drift.getBalance());
+            assertEquals(75000L, drift.getReconstructedBalance());
+            assertEquals(123L, drift.getDrift());
+        } finally {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.update("update account set balance = balance - 123 where account_number = ?", accountNumber));
+        }
+
+    }
+
+    @Test
+    public void givenUnknownAccount_whenReconstructing_ThenEmpty() {
+
+        // When / Then
+        assertTrue(ledgerReconciler.reconstruct("000-000").isEmpty());
+
+    }
+
+    private long snapshotBalance() {
+        return jdbcTemplate.queryForObject("select s.balance from balance_snapshot s join account a on a.id = s.account_id " +
+                "where a.account_number = ?", Long.class, accountNumber);
+    }
+
+    private static void waitUntilAfter(LocalDateTime time) {
+        while (!LocalDateTime.now().isAfter(time)) {
+            Thread.onSpinWait();
+        }
+    }
+
+}
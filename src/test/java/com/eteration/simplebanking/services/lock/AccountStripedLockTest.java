@@ -0,0 +1,149 @@
+package com.eteration.simplebanking.services.lock;
+
+import com.eteration.simplebanking.config.PostingLockProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountStripedLockTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccountStripedLock accountStripedLock;
+
+    @BeforeEach
+    void setUp() {
+        PostingLockProperties properties = new PostingLockProperties();
+        properties.setStripes(10);
+        meterRegistry = new SimpleMeterRegistry();
+        accountStripedLock = new AccountStripedLock(properties, meterRegistry);
+    }
+
+    @Test
+    public void givenStripeCount_whenCreated_ThenRoundedUpToPowerOfTwoWithTimerPerStripe() {
+        assertEquals(16, accountStripedLock.getStripes());
+        assertEquals(16, meterRegistry.find(AccountStripedLock.LOCK_WAIT_METRIC).timers().size());
+    }
+
+    @Test
+    public void givenSameAccount_whenExecutingConcurrently_ThenActionsNeverOverlap() throws Exception {
+
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        // When
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = CompletableFuture.runAsync(() -> accountStripedLock.executeLocked("123-456", () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    sleep(20);
+                    running.decrementAndGet();
+                    return null;
+                }), executorService);
+            }
+            CompletableFuture.allOf(futures).get(10, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        // Then
+        assertEquals(1, maxRunning.get());
+        assertEquals(8, meterRegistry.find(AccountStripedLock.LOCK_WAIT_METRIC)
+                .tag("stripe", String.valueOf(accountStripedLock.stripeOf("123-456")))
+                .timer().count());
+    }
+
+    @Test
+    public void givenAccountsOnDifferentStripes_whenOneIsHeld_ThenTheOtherDoesNotWait() throws Exception {
+
+        // Given
+        String held = "123-456";
+        String other = otherStripeThan(held);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+        // When
+        try {
+            Future<?> holder = executorService.submit(() -> accountStripedLock.executeLocked(held, () -> {
+                locked.countDown();
+                await(release);
+                return null;
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            // Then
+            assertEquals("done", accountStripedLock.executeLocked(other, () -> "done"));
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void givenTransfersInOppositeDirections_whenExecutingConcurrently_ThenTheyNeverDeadlock() throws Exception {
+
+        // Given
+        String first = "123-456";
+        String second = otherStripeThan(first);
+        AtomicInteger completed = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        // When
+        try {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                boolean forward = i % 2 == 0;
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        accountStripedLock.executeLocked(forward ? first : second, forward ? second : first,
+                                completed::incrementAndGet);
+                    }
+                }, executorService);
+            }
+            CompletableFuture.allOf(futures).get(10, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        // Then
+        assertEquals(8000, completed.get());
+    }
+
+    private String otherStripeThan(String accountNumber) {
+        int stripe = accountStripedLock.stripeOf(accountNumber);
+        for (int i = 100000; ; i++) {
+            String candidate = String.valueOf(i);
+            if (accountStripedLock.stripeOf(candidate) != stripe) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
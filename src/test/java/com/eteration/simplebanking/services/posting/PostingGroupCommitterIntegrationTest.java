@@ -0,0 +1,139 @@
+package com.eteration.simplebanking.services.posting;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.exception.AccountNotFoundException;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.response.TransactionResponse;
+import com.eteration.simplebanking.services.AccountService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {
+        "banking.group-commit.enabled=true",
+        "banking.group-commit.window=200ms",
+        "banking.group-commit.max-batch-size=16",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=2000"
+})
+class PostingGroupCommitterIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void givenConcurrentPostings_whenOneLegIsInsufficient_ThenOnlyThatCallerFails() throws Exception {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder().owner("John Doe").build()).getAccountNumber();
+        String otherAccountNumber = accountService.create(CreatedAccountRequest.builder().owner("Jane Doe").build()).getAccountNumber();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(10000).build());
+
+        List<Supplier<TransactionResponse>> postings = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            postings.add(() -> accountService.credit(CreateCreditRequest.builder().accountNumber(otherAccountNumber).amount(100).build()));
+        }
+        postings.add(() -> accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(20000).build()));
+        postings.add(() -> accountService.debit(CreateWithdrawalRequest.builder().accountNumber("000-000").amount(100).build()));
+        postings.add(() -> accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(4000).build()));
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(postings.size());
+        List<Future<TransactionResponse>> results = new ArrayList<>();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            for (Supplier<TransactionResponse> posting : postings) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return posting.get();
+                }));
+            }
+            start.countDown();
+
+            // Then
+            Set<String> approvalCodes = new HashSet<>();
+            for (int i = 0; i < 10; i++) {
+                approvalCodes.add(results.get(i).get(10, TimeUnit.SECONDS).getApprovalCode());
+            }
+            assertEquals(10, approvalCodes.size());
+            assertCause(InsufficientBalanceException.class, results.get(10));
+            assertCause(AccountNotFoundException.class, results.get(11));
+            assertNotNull(results.get(12).get(10, TimeUnit.SECONDS).getApprovalCode());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(6000L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+        assertEquals(1000L, accountService.getAccountByAccountNumber(otherAccountNumber).getBalance());
+        DistributionSummary batchSizes = meterRegistry.get(PostingGroupCommitter.BATCH_SIZE_METRIC).summary();
+        assertTrue(batchSizes.max() > 1);
+
+    }
+
+    @Test
+    public void givenMoreKeyedPostingsThanConnections_whenGroupCommitted_ThenCallersDoNotStarveTheCommitter() throws Exception {
+
+        // Given
+        String accountNumber = accountService.create(CreatedAccountRequest.builder().owner("John Doe").build()).getAccountNumber();
+        CreateCreditRequest request = CreateCreditRequest.builder().accountNumber(accountNumber).amount(100).build();
+        String retriedKey = UUID.randomUUID().toString();
+        TransactionResponse original = accountService.credit(request, retriedKey);
+
+        List<String> idempotencyKeys = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            idempotencyKeys.add(UUID.randomUUID().toString());
+        }
+        idempotencyKeys.add(retriedKey);
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(idempotencyKeys.size());
+        List<Future<TransactionResponse>> results = new ArrayList<>();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            for (String idempotencyKey : idempotencyKeys) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return accountService.credit(request, idempotencyKey);
+                }));
+            }
+            start.countDown();
+
+            // Then
+            Set<String> approvalCodes = new HashSet<>();
+            for (int i = 0; i < 16; i++) {
+                approvalCodes.add(results.get(i).get(10, TimeUnit.SECONDS).getApprovalCode());
+            }
+            assertEquals(16, approvalCodes.size());
+            assertEquals(original.getApprovalCode(), results.get(16).get(10, TimeUnit.SECONDS).getApprovalCode());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1700L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+
+    }
+
+    private static void assertCause(Class<? extends Exception> expected, Future<?> result) {
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertTrue(expected.isInstance(exception.getCause()), String.valueOf(exception.getCause()));
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.eteration.simplebanking.services.readmodel;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.base.SqlStatementCounter;
+import com.eteration.simplebanking.dto.AccountDTO;
+import com.eteration.simplebanking.dto.AccountPostedEvent;
+import com.eteration.simplebanking.dto.AccountView;
+import com.eteration.simplebanking.dto.TransactionDTO;
+import com.eteration.simplebanking.metrics.sql.SqlStatistics;
+import com.eteration.simplebanking.model.enums.TransactionType;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreatePhoneBillPaymentRequest;
+import com.eteration.simplebanking.payload.request.CreateTransferRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.response.AccountDetailInfo;
+import com.eteration.simplebanking.services.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {
+        "banking.read-model.enabled=true",
+        "banking.history.recent-transactions=3"
+})
+class AccountReadModelIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountReadModel accountReadModel;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void givenPostings_whenAccountDetailsRead_ThenTheyMatchTheDatabaseWithoutAStatement() {
+
+        // Given
+        long projected = meterRegistry.get(AccountReadModel.LAG_METRIC).timer().count();
+        String accountNumber = createAccount();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(100000).build());
+        accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(30000).build());
+        accountService.payment(CreatePhoneBillPaymentRequest.builder().accountNumber(accountNumber).amount(20000).build());
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(5000).build());
+
+        // When
+        AtomicReference<AccountDetailInfo> details = new AtomicReference<>();
+        SqlStatistics sqlStatistics = SqlStatementCounter.count(
+                () -> details.set(accountReadModel.findAccountDetails(accountNumber).orElseThrow()));
+
+        // Then
+        assertEquals(0, sqlStatistics.getStatements());
+        AccountDTO stored = accountService.getAccountByAccountNumber(accountNumber);
+        assertEquals(55000L, details.get().getBalance());
+        assertEquals(stored.getBalance(), details.get().getBalance());
+        assertEquals(approvalCodes(stored.getTransactionDTOs()), approvalCodes(details.get().getTransactionDTOs()));
+        assertEquals(TransactionType.DepositTransaction, details.get().getTransactionDTOs().get(0).getTransactionType());
+
+        AccountView view = accountReadModel.findView(accountNumber).orElseThrow();
+        assertEquals(2, view.getCreditCount());
+        assertEquals(2, view.getDebitCount());
+        assertEquals(projected + 5, meterRegistry.get(AccountReadModel.LAG_METRIC).timer().count());
+
+    }
+
+    @Test
+    public void givenProjectedViews_whenRebuilt_ThenTheViewsAreTheSame() {
+
+        // Given
+        String fromAccountNumber = createAccount();
+        String toAccountNumber = createAccount();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(fromAccountNumber).amount(100000).build());
+        accountService.transfer(CreateTransferRequest.builder()
+                .fromAccountNumber(fromAccountNumber).toAccountNumber(toAccountNumber).amount(40000).build());
+        AccountView projectedFrom = accountReadModel.findView(fromAccountNumber).orElseThrow();
+        AccountView projectedTo = accountReadModel.findView(toAccountNumber).orElseThrow();
+
+        // When
+        accountReadModel.rebuild();
+
+        // Then
+        assertTrue(accountReadModel.isReady());
+        assertSameView(projectedFrom, accountReadModel.findView(fromAccountNumber).orElseThrow());
+        assertSameView(projectedTo, accountReadModel.findView(toAccountNumber).orElseThrow());
+        assertEquals(60000L, projectedFrom.getBalance());
+        assertEquals(40000L, projectedTo.getBalance());
+
+    }
+
+    @Test
+    public void givenPostingsCommittedOutOfOrder_whenProjected_ThenRecentTransactionsStayInCreationOrder() {
+
+        // Given
+        String accountNumber = createAccount();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(1000).build());
+        TransactionDTO latest = accountReadModel.findView(accountNumber).orElseThrow().getRecentTransactions().get(0);
+        TransactionDTO earlier = TransactionDTO.builder()
+                .amount(500)
+                .transactionType(TransactionType.WithdrawalTransaction)
+                .approvalCode("earlier")
+                .createdDateTime(latest.getCreatedDateTime().minusSeconds(1))
+                .build();
+
+        // When
+        accountReadModel.onAccountPosted(new AccountPostedEvent(accountNumber, earlier, -500, Instant.now()));
+
+        // Then
+        AccountView view = accountReadModel.findView(accountNumber).orElseThrow();
+        assertEquals(500L, view.getBalance());
+        assertEquals(List.of(latest.getApprovalCode(), "earlier"), approvalCodes(view.getRecentTransactions()));
+        assertEquals(latest.getCreatedDateTime(), view.getLastPostedAt());
+
+    }
+
+    private String createAccount() {
+        return accountService.create(CreatedAccountRequest.builder().owner("John Doe").build()).getAccountNumber();
+    }
+
+    private static List<String> approvalCodes(List<TransactionDTO> transactions) {
+        return transactions.stream().map(TransactionDTO::getApprovalCode).collect(Collectors.toList());
+    }
+
+    private static void assertSameView(AccountView expected, AccountView actual) {
+        assertEquals(expected.getAccountNumber(), actual.getAccountNumber());
+        assertEquals(expected.getOwner(), actual.getOwner());
+        assertEquals(expected.getBalance(), actual.getBalance());
+        assertEquals(expected.getCreditCount(), actual.getCreditCount());
+        assertEquals(expected.getDebitCount(), actual.getDebitCount());
+        assertEquals(approvalCodes(expected.getRecentTransactions()), approvalCodes(actual.getRecentTransactions()));
+    }
+
+}
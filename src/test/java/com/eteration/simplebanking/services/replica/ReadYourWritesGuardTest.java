@@ -0,0 +1,72 @@
+package com.eteration.simplebanking.services.replica;
+
+import com.eteration.simplebanking.config.ReplicaProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseCookie;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesGuardTest {
+
+    @Test
+    public void givenLastWriteCookie_whenWithinWindow_ThenItIsRecentUntilTheWindowElapses() {
+
+        // Given
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(properties(true, Duration.ofSeconds(5)));
+
+        // When
+        ResponseCookie cookie = guard.lastWriteCookie().orElseThrow();
+
+        // Then
+        assertEquals(ReadYourWritesGuard.COOKIE_NAME, cookie.getName());
+        assertEquals(Duration.ofSeconds(5), cookie.getMaxAge());
+        assertTrue(guard.isRecentWrite(cookie.getValue()));
+        assertFalse(guard.isRecentWrite(String.valueOf(System.currentTimeMillis() - 10_000)));
+        assertFalse(guard.isRecentWrite(null));
+        assertFalse(guard.isRecentWrite("not-a-time"));
+
+    }
+
+    @Test
+    public void givenReplicaDisabled_whenWritten_ThenNoCookieIsSetAndNothingIsRecent() {
+
+        // Given
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(properties(false, Duration.ofSeconds(5)));
+
+        // When
+        boolean recent = guard.isRecentWrite(String.valueOf(System.currentTimeMillis()));
+
+        // Then
+        assertTrue(guard.lastWriteCookie().isEmpty());
+        assertFalse(recent);
+
+    }
+
+    @Test
+    public void givenRecentWriter_whenRead_ThenTheReadRequiresThePrimaryOnlyWhileItRuns() {
+
+        // Given
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(properties(true, Duration.ofSeconds(5)));
+        String lastWrite = guard.lastWriteCookie().orElseThrow().getValue();
+
+        // When
+        boolean writerRead = guard.read(lastWrite, ReplicaContext::isPrimaryRequired);
+        boolean otherRead = guard.read((String) null, ReplicaContext::isPrimaryRequired);
+
+        // Then
+        assertTrue(writerRead);
+        assertFalse(otherRead);
+        assertFalse(ReplicaContext.isPrimaryRequired());
+
+    }
+
+    private static ReplicaProperties properties(boolean enabled, Duration window) {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setEnabled(enabled);
+        properties.setReadYourWritesWindow(window);
+        return properties;
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.eteration.simplebanking.services.replica;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.config.ReplicaConfig;
+import com.eteration.simplebanking.exception.AccountNotFoundException;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.payload.request.TransactionHistoryRequest;
+import com.eteration.simplebanking.services.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {
+        "banking.replica.enabled=true",
+        "banking.replica.url=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+        "banking.replica.username=username",
+        "banking.replica.password=jpa123"
+})
+class ReplicaRoutingIntegrationTest extends BaseIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ReadYourWritesGuard readYourWritesGuard;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // the replica is a second, independent H2 database: it gets the schema, but rows only reach it when a test copies them
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "username", "jpa123")
+                .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+                .load()
+                .migrate();
+        replicaJdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "username", "jpa123"));
+    }
+
+    @Test
+    public void givenClientPostedWithinTheWindow_whenRead_ThenItIsReadFromThePrimary() {
+
+        // Given
+        String accountNumber = createAccount();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(1000).build());
+        String lastWrite = readYourWritesGuard.lastWriteCookie().orElseThrow().getValue();
+        double replicaQueries = queries("replica");
+        double primaryQueries = queries("primary");
+
+        // When
+        long balance = readYourWritesGuard.read(lastWrite, () -> accountService.getAccountByAccountNumber(accountNumber)).getBalance();
+
+        // Then
+        assertEquals(1000L, balance);
+        assertEquals(replicaQueries, queries("replica"));
+        assertTrue(queries("primary") > primaryQueries);
+
+    }
+
+    @Test
+    public void givenClientWithoutRecentWrite_whenRead_ThenItIsReadFromTheReplicaAndNotCached() {
+
+        // Given
+        String accountNumber = createAccount();
+        replicate(accountNumber);
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(1000).build());
+        String unreplicatedAccountNumber = createAccount();
+        String expiredLastWrite = String.valueOf(System.currentTimeMillis() - 60_000);
+        double replicaQueries = queries("replica");
+
+        // When
+        long staleBalance = readYourWritesGuard.read(expiredLastWrite, () -> accountService.getAccountByAccountNumber(accountNumber)).getBalance();
+
+        // Then
+        assertEquals(0L, staleBalance);
+        assertTrue(accountService.getTransactionHistory(TransactionHistoryRequest.builder().accountNumber(accountNumber).build())
+                .getTransactionDTOs().isEmpty());
+        assertTrue(queries("replica") > replicaQueries);
+        assertThrows(AccountNotFoundException.class, () -> accountService.getAccountByAccountNumber(unreplicatedAccountNumber));
+
+        String lastWrite = readYourWritesGuard.lastWriteCookie().orElseThrow().getValue();
+        assertEquals(1000L, readYourWritesGuard.read(lastWrite, () -> accountService.getAccountByAccountNumber(accountNumber)).getBalance());
+
+    }
+
+    private String createAccount() {
+        return accountService.create(CreatedAccountRequest.builder().owner("John Doe").build()).getAccountNumber();
+    }
+
+    private void replicate(String accountNumber) {
+        Map<String, Object> account = jdbcTemplate.queryForMap("select * from account where account_number = ?", accountNumber);
+        replicaJdbcTemplate.update("insert into account (id, account_number, owner, balance, version, created_date_time, balance_slots) " +
+                        "values (?, ?, ?, ?, ?, ?, ?)",
+                account.get("id"), account.get("account_number"), account.get("owner"), account.get("balance"),
+                account.get("version"), account.get("created_date_time"), account.get("balance_slots"));
+    }
+
+    private double queries(String target) {
+        return meterRegistry.get(ReplicaConfig.QUERIES_METRIC).tag("target", target).counter().count();
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.eteration.simplebanking.services.sharding;
+
+import com.eteration.simplebanking.base.BaseServiceTest;
+import com.eteration.simplebanking.config.ShardingProperties;
+import com.eteration.simplebanking.repository.ShardMoveRepository;
+import com.eteration.simplebanking.repository.ShardRingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ShardRebalancerTest extends BaseServiceTest {
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private ShardMoveRepository shardMoveRepository;
+
+    @Mock
+    private ShardRingRepository shardRingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ShardingProperties properties;
+
+    private ShardRebalancer shardRebalancer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ShardingProperties();
+        shardRebalancer = new ShardRebalancer(shardRouter, shardMoveRepository, shardRingRepository, properties, transactionManager);
+    }
+
+    @Test
+    public void givenOtherNodesMayWorkOnTheShards_whenRebalance_ThenItIsRejectedBeforeAnyAccountMoves() {
+
+        // Given
+        when(shardRouter.isEnabled()).thenReturn(true);
+        properties.setSingleNode(false);
+
+        // When
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> shardRebalancer.rebalance(3));
+
+        // Then
+        assertTrue(exception.getMessage().contains("banking.sharding.single-node"));
+        verify(shardRouter, never()).beginRebalance(any());
+        verifyNoInteractions(shardMoveRepository, shardRingRepository);
+
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.eteration.simplebanking.services.sharding;
+
+import com.eteration.simplebanking.services.allocation.AccountNumberSpace;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRingTest {
+
+    private static final int ACCOUNTS = 20000;
+
+    @Test
+    public void givenRing_whenMappingAccountNumbers_ThenEveryShardTakesAboutAnEvenShare() {
+
+        // Given
+        ShardRing ring = new ShardRing(4, 128);
+
+        // When
+        int[] accountsPerShard = new int[4];
+        for (int ordinal = 0; ordinal < ACCOUNTS; ordinal++) {
+            accountsPerShard[ring.shardOf(AccountNumberSpace.accountNumberOf(ordinal))]++;
+        }
+
+        // Then
+        for (int accounts : accountsPerShard) {
+            assertTrue(accounts > ACCOUNTS / 4 * 3 / 4 && accounts < ACCOUNTS / 4 * 5 / 4, "Uneven share : " + accounts);
+        }
+
+    }
+
+    @Test
+    public void givenRing_whenShardIsAdded_ThenOnlyItsShareMovesAndOnlyOntoTheNewShard() {
+
+        // Given
+        ShardRing ring = new ShardRing(3, 128);
+        ShardRing grownRing = new ShardRing(4, 128);
+
+        // When
+        int moved = 0;
+        for (int ordinal = 0; ordinal < ACCOUNTS; ordinal++) {
+            String accountNumber = AccountNumberSpace.accountNumberOf(ordinal);
+            int shard = grownRing.shardOf(accountNumber);
+            if (shard != ring.shardOf(accountNumber)) {
+                assertEquals(3, shard);
+                moved++;
+            }
+        }
+
+        // Then
+        assertTrue(moved > ACCOUNTS * 15 / 100 && moved < ACCOUNTS * 35 / 100, "Unexpected share moved : " + moved);
+
+    }
+
+    @Test
+    public void givenSameShardCount_whenRingsAreCreatedSeparately_ThenTheyMapAccountsAlike() {
+
+        // Given
+        ShardRing ring = new ShardRing(5, 64);
+        ShardRing otherRing = new ShardRing(5, 64);
+
+        // When and Then
+        for (int ordinal = 0; ordinal < 1000; ordinal++) {
+            String accountNumber = AccountNumberSpace.accountNumberOf(ordinal);
+            assertEquals(ring.shardOf(accountNumber), otherRing.shardOf(accountNumber));
+        }
+
+    }
+
+}
@@ -0,0 +1,239 @@
+package com.eteration.simplebanking.services.sharding;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.dto.AccountDTO;
+import com.eteration.simplebanking.dto.LedgerVerificationReport;
+import com.eteration.simplebanking.dto.ShardRingState;
+import com.eteration.simplebanking.dto.ShardingStatusDTO;
+import com.eteration.simplebanking.exception.InvalidTransferException;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreateTransferRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.repository.ShardRingRepository;
+import com.eteration.simplebanking.services.AccountService;
+import com.eteration.simplebanking.services.ledger.LedgerReconciler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {
+        "banking.sharding.enabled=true",
+        "banking.sharding.active-shards=2",
+        "banking.sharding.single-node=true",
+        "banking.sharding.shards[0].url=jdbc:h2:mem:shard0;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "banking.sharding.shards[0].username=username",
+        "banking.sharding.shards[0].password=jpa123",
+        "banking.sharding.shards[1].url=jdbc:h2:mem:shard1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "banking.sharding.shards[1].username=username",
+        "banking.sharding.shards[1].password=jpa123",
+        "banking.sharding.shards[2].url=jdbc:h2:mem:shard2;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "banking.sharding.shards[2].username=username",
+        "banking.sharding.shards[2].password=jpa123"
+})
+@DirtiesContext
+class ShardingIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private ShardRingRepository shardRingRepository;
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void givenShardedAccounts_whenPosting_ThenEachAccountLivesWithItsTransactionsOnItsShardOnly() {
+
+        // Given
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            accountNumbers.add(createAccount(1000));
+        }
+
+        // When
+        for (String accountNumber : accountNumbers) {
+            accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(300).build());
+        }
+
+        // Then
+        int[] accountsPerShard = new int[shardRouter.getShardCount()];
+        for (String accountNumber : accountNumbers) {
+            int shard = shardRouter.shardOf(accountNumber);
+            accountsPerShard[shard]++;
+            assertEquals(700L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+            for (int other = 0; other < shardRouter.getShardCount(); other++) {
+                assertEquals(other == shard ? 1L : 0L, countAccounts(other, accountNumber));
+                assertEquals(other == shard ? 2L : 0L, countTransactions(other, accountNumber));
+            }
+        }
+        assertTrue(accountsPerShard[0] > 0);
+        assertTrue(accountsPerShard[1] > 0);
+
+    }
+
+    @Test
+    public void givenAccountsOnOneShard_whenTransfer_ThenItPostsAndAcrossShardsItIsRejected() {
+
+        // Given
+        Map<Integer, List<String>> accountsByShard = new HashMap<>();
+        while (accountsByShard.getOrDefault(0, List.of()).size() < 2 || accountsByShard.getOrDefault(1, List.of()).isEmpty()) {
+            String accountNumber = createAccount(1000);
+            accountsByShard.computeIfAbsent(shardRouter.shardOf(accountNumber), shard -> new ArrayList<>()).add(accountNumber);
+        }
+        String fromAccountNumber = accountsByShard.get(0).get(0);
+        String toAccountNumber = accountsByShard.get(0).get(1);
+        String otherShardAccountNumber = accountsByShard.get(1).get(0);
+
+        // When
+        accountService.transfer(CreateTransferRequest.builder()
+                .fromAccountNumber(fromAccountNumber).toAccountNumber(toAccountNumber).amount(400).build());
+
+        // Then
+        assertEquals(600L, accountService.getAccountByAccountNumber(fromAccountNumber).getBalance());
+        assertEquals(1400L, accountService.getAccountByAccountNumber(toAccountNumber).getBalance());
+        assertThrows(InvalidTransferException.class, () -> accountService.transfer(CreateTransferRequest.builder()
+                .fromAccountNumber(fromAccountNumber).toAccountNumber(otherShardAccountNumber).amount(100).build()));
+        assertEquals(600L, accountService.getAccountByAccountNumber(fromAccountNumber).getBalance());
+        assertEquals(1000L, accountService.getAccountByAccountNumber(otherShardAccountNumber).getBalance());
+
+    }
+
+    @Test
+    public void givenAccountsWithHistory_whenRebalancedOntoAnAddedShard_ThenAccountsMoveWithTheirHistory() {
+
+        // Given
+        Map<String, AccountDTO> before = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            String accountNumber = createAccount(1000 + i);
+            accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(i).build());
+            before.put(accountNumber, accountService.getAccountByAccountNumber(accountNumber));
+        }
+
+        // When
+        ShardingStatusDTO status = shardRebalancer.rebalance(3);
+
+        // Then
+        assertEquals(3, status.getActiveShards());
+        assertTrue(status.getMovedAccounts() > 0);
+        assertTrue(status.getAccountsPerShard().get(2) > 0);
+        for (Map.Entry<String, AccountDTO> account : before.entrySet()) {
+            String accountNumber = account.getKey();
+            int shard = shardRouter.shardOf(accountNumber);
+            AccountDTO after = accountService.getAccountByAccountNumber(accountNumber);
+            assertEquals(account.getValue().getBalance(), after.getBalance());
+            assertEquals(account.getValue().getTransactionDTOs().size(), after.getTransactionDTOs().size());
+            for (int other = 0; other < shardRouter.getShardCount(); other++) {
+                assertEquals(other == shard ? 1L : 0L, countAccounts(other, accountNumber));
+            }
+        }
+        LedgerVerificationReport report = ledgerReconciler.verifyAll();
+        assertEquals(0, report.getDriftedAccounts());
+        assertTrue(report.getVerifiedAccounts() >= before.size());
+
+        String movedAccountNumber = before.keySet().stream()
+                .filter(accountNumber -> shardRouter.shardOf(accountNumber) == 2)
+                .findFirst()
+                .orElseThrow();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(movedAccountNumber).amount(500).build());
+        assertEquals(before.get(movedAccountNumber).getBalance() + 500,
+                accountService.getAccountByAccountNumber(movedAccountNumber).getBalance());
+
+    }
+
+    @Test
+    public void givenRebalancedAccounts_whenRestartedWithTheConfiguredRing_ThenTheRecordedRingRoutesThem() {
+
+        // Given
+        Map<String, Long> balances = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            String accountNumber = createAccount(1000 + i);
+            balances.put(accountNumber, 1000L + i);
+        }
+        shardRebalancer.rebalance(3);
+
+        // When
+        shardRouter.restore(new ShardRing(2, shardRouter.getVirtualNodes()), null, Set.of());
+        shardRebalancer.afterSingletonsInstantiated();
+
+        // Then
+        ShardRingState recorded = shardRouter.onHomeShard(shardRingRepository::find).orElseThrow();
+        assertEquals(3, recorded.getActiveShards());
+        assertNull(recorded.getTargetShards());
+        assertEquals(3, shardRouter.getActiveShardCount());
+        for (Map.Entry<String, Long> account : balances.entrySet()) {
+            assertEquals(account.getValue(), accountService.getAccountByAccountNumber(account.getKey()).getBalance());
+            assertEquals(1L, countAccounts(shardRouter.shardOf(account.getKey()), account.getKey()));
+        }
+
+    }
+
+    @Test
+    public void givenInterruptedRebalance_whenRestarted_ThenMovedAccountsAreRoutedToTheirNewShardUntilItResumes() {
+
+        // Given
+        shardRebalancer.rebalance(2);
+        Map<String, Long> balances = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            String accountNumber = createAccount(1000 + i);
+            balances.put(accountNumber, 1000L + i);
+        }
+        shardRebalancer.rebalance(3);
+        shardRouter.onHomeShard(() -> {
+            shardRingRepository.save(ShardRingState.builder().activeShards(2).targetShards(3).build());
+            return null;
+        });
+
+        // When
+        shardRebalancer.afterSingletonsInstantiated();
+
+        // Then
+        assertEquals(2, shardRouter.getActiveShardCount());
+        for (Map.Entry<String, Long> account : balances.entrySet()) {
+            assertEquals(account.getValue(), accountService.getAccountByAccountNumber(account.getKey()).getBalance());
+        }
+        ShardingStatusDTO status = shardRebalancer.rebalance(3);
+        assertEquals(0L, status.getMovedAccounts());
+        assertEquals(3, status.getActiveShards());
+        assertNull(shardRouter.onHomeShard(shardRingRepository::find).orElseThrow().getTargetShards());
+
+    }
+
+    private String createAccount(long balance) {
+        String accountNumber = accountService.create(CreatedAccountRequest.builder().owner("John Doe").build()).getAccountNumber();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(balance).build());
+        return accountNumber;
+    }
+
+    private long countAccounts(int shard, String accountNumber) {
+        return shardRouter.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "select count(*) from account where account_number = ?", Long.class, accountNumber));
+    }
+
+    private long countTransactions(int shard, String accountNumber) {
+        return shardRouter.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "select count(*) from transaction t join account a on a.id = t.account_id where a.account_number = ?",
+                Long.class, accountNumber));
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.eteration.simplebanking.services.striping;
+
+import com.eteration.simplebanking.base.BaseIntegrationTest;
+import com.eteration.simplebanking.dto.StripedBalanceDTO;
+import com.eteration.simplebanking.exception.InsufficientBalanceException;
+import com.eteration.simplebanking.payload.request.CreateCreditRequest;
+import com.eteration.simplebanking.payload.request.CreateTransferRequest;
+import com.eteration.simplebanking.payload.request.CreateWithdrawalRequest;
+import com.eteration.simplebanking.payload.request.CreatedAccountRequest;
+import com.eteration.simplebanking.services.AccountService;
+import com.eteration.simplebanking.services.ledger.LedgerReconciler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedBalancesIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StripedBalances stripedBalances;
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    @Test
+    public void givenAccount_whenStriped_ThenBalanceIsSpreadEvenlyOverTheSlots() {
+
+        // Given
+        String accountNumber = createAccount(1003);
+
+        // When
+        StripedBalanceDTO striped = stripedBalances.stripe(accountNumber, 4);
+
+        // Then
+        assertEquals(1003L, striped.getBalance());
+        assertEquals(0L, striped.getAccountBalance());
+        assertEquals(List.of(251L, 251L, 251L, 250L), striped.getSlotBalances());
+        assertEquals(1003L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+
+    }
+
+    @Test
+    public void givenStripedAccount_whenDebitExceedsOneSlot_ThenItBorrowsFromTheOtherSlots() {
+
+        // Given
+        String accountNumber = createAccount(1000);
+        stripedBalances.stripe(accountNumber, 4);
+
+        // When
+        accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(900).build());
+
+        // Then
+        assertEquals(100L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+        assertEquals(100L, stripedBalances.find(accountNumber).getSlotBalances().stream().mapToLong(Long::longValue).sum());
+        assertThrows(InsufficientBalanceException.class, () -> accountService.debit(CreateWithdrawalRequest.builder()
+                .accountNumber(accountNumber).amount(101).build()));
+        assertFalse(ledgerReconciler.reconstruct(accountNumber).orElseThrow().isDrifted());
+
+    }
+
+    @Test
+    public void givenStripedAccount_whenConcurrentCreditsAndDebits_ThenTotalBalanceIsExact() throws Exception {
+
+        // Given
+        String accountNumber = createAccount(100000);
+        String otherAccountNumber = createAccount(100000);
+        stripedBalances.stripe(accountNumber, 8);
+        int threads = 16;
+        int postingsPerThread = 50;
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < postingsPerThread; i++) {
+                        if (thread % 4 == 0) {
+                            accountService.transfer(CreateTransferRequest.builder()
+                                    .fromAccountNumber(accountNumber).toAccountNumber(otherAccountNumber).amount(100).build());
+                        } else if (thread % 2 == 0) {
+                            accountService.debit(CreateWithdrawalRequest.builder().accountNumber(accountNumber).amount(300).build());
+                        } else {
+                            accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(200).build());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        long expected = 100000 + 8 * postingsPerThread * 200 - 4 * postingsPerThread * 300 - 4 * postingsPerThread * 100;
+        assertEquals(expected, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+        assertEquals(expected, stripedBalances.find(accountNumber).getBalance());
+        assertFalse(ledgerReconciler.reconstruct(accountNumber).orElseThrow().isDrifted());
+
+    }
+
+    @Test
+    public void givenStripedAccount_whenUnstriped_ThenWholeBalanceMovesBackToTheAccountRow() {
+
+        // Given
+        String accountNumber = createAccount(1000);
+        stripedBalances.stripe(accountNumber, 4);
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(500).build());
+
+        // When
+        StripedBalanceDTO unstriped = stripedBalances.stripe(accountNumber, 0);
+
+        // Then
+        assertEquals(1500L, unstriped.getAccountBalance());
+        assertTrue(unstriped.getSlotBalances().isEmpty());
+        assertEquals(1500L, accountService.getAccountByAccountNumber(accountNumber).getBalance());
+
+    }
+
+    private String createAccount(long balance) {
+        String accountNumber = accountService.create(CreatedAccountRequest.builder().owner("John Doe").build()).getAccountNumber();
+        accountService.credit(CreateCreditRequest.builder().accountNumber(accountNumber).amount(balance).build());
+        return accountNumber;
+    }
+
+}